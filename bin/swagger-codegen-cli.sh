@@ -0,0 +1,36 @@
+#!/bin/sh
+# Runs the CLI with the arguments of this script, e.g. bin/swagger-codegen-cli.sh generate -l java -i spec.yaml.
+# The class data sharing archive next to the jar is used if there is one (mvn package -Pcds, or the cds command);
+# the JVM ignores it if it was created by another Java or for another jar.
+
+SCRIPT="$0"
+
+while [ -h "$SCRIPT" ] ; do
+  ls=`ls -ld "$SCRIPT"`
+  link=`expr "$ls" : '.*-> \(.*\)$'`
+  if expr "$link" : '/.*' > /dev/null; then
+    SCRIPT="$link"
+  else
+    SCRIPT=`dirname "$SCRIPT"`/"$link"
+  fi
+done
+
+if [ ! -d "${APP_DIR}" ]; then
+  APP_DIR=`dirname "$SCRIPT"`/..
+  APP_DIR=`cd "${APP_DIR}"; pwd`
+fi
+
+executable="${SWAGGER_CODEGEN_CLI_JAR:-${APP_DIR}/modules/swagger-codegen-cli/target/swagger-codegen-cli.jar}"
+
+if [ ! -f "$executable" ]
+then
+  (cd "${APP_DIR}" && mvn -am -pl modules/swagger-codegen-cli package -DskipTests)
+fi
+
+archive="${executable%.jar}.jsa"
+if [ -f "$archive" ]; then
+  # Java 8 doesn't know the option, and runs without the archive
+  JAVA_OPTS="${JAVA_OPTS} -XX:+IgnoreUnrecognizedVMOptions -XX:SharedArchiveFile=${archive} -Xshare:auto"
+fi
+
+exec java $JAVA_OPTS -jar "$executable" "$@"
@@ -18,6 +18,10 @@ if expr "x$1" : 'x[a-z][a-z-]*$' > /dev/null && fgrep -qe "$pattern" "$cmdsrc"/*
     fi
     command=$1
     shift
+    # class data sharing archive of the jar, see the cds command
+    if [[ -f "${codegen%.jar}.jsa" ]]; then
+        JAVA_OPTS="${JAVA_OPTS} -XX:+IgnoreUnrecognizedVMOptions -XX:SharedArchiveFile=${codegen%.jar}.jsa -Xshare:auto"
+    fi
     exec java ${JAVA_OPTS} -jar "${codegen}" "${command}" "$@"
 else
     exec "$@"
@@ -2,12 +2,20 @@ package io.swagger.codegen;
 
 import io.airlift.airline.Cli;
 import io.airlift.airline.Help;
+import io.swagger.codegen.cmd.Batch;
+import io.swagger.codegen.cmd.Bench;
+import io.swagger.codegen.cmd.Cds;
 import io.swagger.codegen.cmd.ConfigHelp;
+import io.swagger.codegen.cmd.Daemon;
 import io.swagger.codegen.cmd.Generate;
 import io.swagger.codegen.cmd.Langs;
 import io.swagger.codegen.cmd.Meta;
 import io.swagger.codegen.cmd.Validate;
 import io.swagger.codegen.cmd.Version;
+import io.swagger.codegen.daemon.DaemonClient;
+import io.swagger.codegen.daemon.OutputRouter;
+
+import java.util.Arrays;
 
 /**
  * User: lanwen Date: 24.03.15 Time: 17:56
@@ -19,7 +27,24 @@ import io.swagger.codegen.cmd.Version;
 public class SwaggerCodegen {
 
 
+    /** first argument running the command with the daemon of the current directory */
+    public static final String DAEMON_FLAG = "--daemon";
+
     public static void main(String[] args) {
+        if (args.length > 0 && DAEMON_FLAG.equals(args[0])) {
+            System.exit(DaemonClient.main(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && "daemon".equals(args[0])) {
+            // before any logger is created, so that the output of each command goes to its client
+            OutputRouter.install();
+        }
+        cli().parse(args).run();
+    }
+
+    /**
+     * @return the command line parser
+     */
+    public static Cli<Runnable> cli() {
         String version = Version.readVersionFromResources();
         @SuppressWarnings("unchecked")
         Cli.CliBuilder<Runnable> builder =
@@ -30,8 +55,9 @@ public class SwaggerCodegen {
                                         version))
                         .withDefaultCommand(Langs.class)
                         .withCommands(Generate.class, Meta.class, Langs.class, Help.class,
-                                ConfigHelp.class, Validate.class, Version.class);
+                                ConfigHelp.class, Validate.class, Version.class, Batch.class, Daemon.class,
+                                Bench.class, Cds.class);
 
-        builder.build().parse(args).run();
+        return builder.build();
     }
 }
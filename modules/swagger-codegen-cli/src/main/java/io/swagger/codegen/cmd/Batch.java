@@ -0,0 +1,316 @@
+package io.swagger.codegen.cmd;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.airlift.airline.Arguments;
+import io.airlift.airline.Command;
+import io.airlift.airline.Option;
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.DefaultGenerator;
+import io.swagger.codegen.FlattenedSpec;
+import io.swagger.codegen.TemplateCache;
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.util.Json;
+import io.swagger.util.Yaml;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs many generations in one JVM, so that its startup, the loading of the generators, the compilation of the
+ * templates and the JIT warm-up are paid once for all of them.
+ *
+ * The jobs are read from a JSON or YAML manifest, a list of objects with a <code>spec</code>, <code>lang</code>,
+ * <code>output</code> and <code>config</code> file (and <code>auth</code> for remote specs), relative paths being
+ * resolved against the folder of the manifest. The relative paths of a config file, e.g. its
+ * <code>templateDir</code> or <code>ignoreFileOverride</code>, are resolved against the folder of the config file.
+ * A job's spec, lang and output override those of its config file.
+ * Each spec is parsed and flattened once, each job generates its own copy of it with its own configuration.
+ */
+@Command(name = "batch", description = "Generate the jobs of a manifest in one run")
+public class Batch implements Runnable {
+
+    public static final Logger LOG = LoggerFactory.getLogger(Batch.class);
+
+    @Arguments(title = "manifest", required = true,
+            description = "JSON or YAML list of jobs: [{\"spec\": ..., \"lang\": ..., \"output\": ..., \"config\": ...}]. "
+                    + "Relative paths are resolved against the folder of the manifest, "
+                    + "and those in a config file against the folder of the config file")
+    private String manifest;
+
+    @Option(name = {"--threads"}, title = "threads",
+            description = "number of jobs generated concurrently (number of processors by default)")
+    private Integer threads;
+
+    @Option(name = {"--report"}, title = "report file",
+            description = "where to write the JSON report of the jobs, with their status and timings")
+    private String report;
+
+    @Override
+    public void run() {
+        File manifestFile = new File(manifest).getAbsoluteFile();
+        final List<Job> jobs = readManifest(manifestFile);
+        for (Job job : jobs) {
+            job.resolve(manifestFile.getParentFile());
+        }
+
+        long start = System.nanoTime();
+        long hits = TemplateCache.getHits();
+        long misses = TemplateCache.getMisses();
+
+        final ConcurrentMap<String, FutureTask<FlattenedSpec>> specs = new ConcurrentHashMap<>();
+        int poolSize = threads != null ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(poolSize, jobs.size())));
+        List<Future<Result>> futures = new ArrayList<>();
+        for (final Job job : jobs) {
+            futures.add(executor.submit(new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return generate(job, specs);
+                }
+            }));
+        }
+        executor.shutdown();
+
+        Report summary = new Report();
+        try {
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                summary.jobs.add(result);
+                if (result.error != null) {
+                    summary.failed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        summary.millis = (System.nanoTime() - start) / 1000000;
+        summary.specs = specs.size();
+        summary.templateCacheHits = TemplateCache.getHits() - hits;
+        summary.templateCacheMisses = TemplateCache.getMisses() - misses;
+
+        print(summary);
+        if (StringUtils.isNotEmpty(report)) {
+            try {
+                Json.pretty().writeValue(new File(report), summary);
+            } catch (IOException e) {
+                LOG.error("Unable to write the report " + report, e);
+            }
+        }
+        if (summary.failed > 0) {
+            throw new RuntimeException(summary.failed + " of " + jobs.size() + " jobs failed");
+        }
+    }
+
+    private static List<Job> readManifest(File manifestFile) {
+        String name = manifestFile.getName().toLowerCase();
+        ObjectMapper mapper = name.endsWith(".yaml") || name.endsWith(".yml") ? Yaml.mapper() : Json.mapper();
+        try {
+            List<Job> jobs = mapper.readValue(manifestFile, new TypeReference<List<Job>>() {
+            });
+            if (jobs == null || jobs.isEmpty()) {
+                throw new IllegalArgumentException("No jobs in " + manifestFile);
+            }
+            return jobs;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read the manifest " + manifestFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Generate one job, and record its outcome rather than failing the batch.
+     */
+    private static Result generate(Job job, ConcurrentMap<String, FutureTask<FlattenedSpec>> specs) {
+        Result result = new Result(job);
+        long start = System.nanoTime();
+        try {
+            CodegenConfigurator configurator = job.configurator();
+            FlattenedSpec spec = spec(specs, configurator.getInputSpec(), configurator.getAuth());
+            ClientOptInput input = spec.toClientOptInput(configurator);
+            new DefaultGenerator().opts(input).generate();
+            for (Map.Entry<String, Long> timing : input.getGenerationContext().getTimings().entrySet()) {
+                result.phases.put(timing.getKey(), timing.getValue() / 1000000);
+            }
+        } catch (Exception e) {
+            LOG.error("Can't generate " + job, e);
+            result.error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        result.millis = (System.nanoTime() - start) / 1000000;
+        return result;
+    }
+
+    /**
+     * The flattened spec, parsed by the first job which needs it while the other jobs of the spec wait for it.
+     */
+    private static FlattenedSpec spec(ConcurrentMap<String, FutureTask<FlattenedSpec>> specs, final String inputSpec,
+            final String auth) throws Exception {
+        if (StringUtils.isEmpty(inputSpec)) {
+            throw new IllegalArgumentException("input spec must be specified");
+        }
+        FutureTask<FlattenedSpec> task = new FutureTask<>(new Callable<FlattenedSpec>() {
+            @Override
+            public FlattenedSpec call() {
+                return FlattenedSpec.read(inputSpec, auth);
+            }
+        });
+        FutureTask<FlattenedSpec> existing = specs.putIfAbsent(inputSpec + '\n' + auth, task);
+        if (existing != null) {
+            task = existing;
+        } else {
+            task.run();
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private static void print(Report summary) {
+        System.out.println(String.format("Generated %d of %d jobs from %d specs in %d ms (template cache: %d hits, %d compiled)",
+                summary.jobs.size() - summary.failed, summary.jobs.size(), summary.specs, summary.millis,
+                summary.templateCacheHits, summary.templateCacheMisses));
+        for (Result result : summary.jobs) {
+            System.out.println(String.format("  %-6s %7d ms  %s%s", result.error == null ? "OK" : "FAILED",
+                    result.millis, result.job, result.error == null ? "" : ": " + result.error));
+        }
+    }
+
+    /**
+     * A job of the manifest.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Job {
+        /** settings of a config file holding paths */
+        private static final String[] CONFIG_PATHS = {"inputSpec", "outputDir", "templateDir", "ignoreFileOverride"};
+
+        public String spec;
+        public String lang;
+        public String output;
+        public String config;
+        public String auth;
+
+        private void resolve(File folder) {
+            // remote specs are left alone
+            if (spec != null && !spec.contains("://")) {
+                spec = resolve(folder, spec);
+            }
+            output = resolve(folder, output);
+            config = resolve(folder, config);
+        }
+
+        private static String resolve(File folder, String path) {
+            if (StringUtils.isEmpty(path) || new File(path).isAbsolute()) {
+                return path;
+            }
+            return new File(folder, path).getPath();
+        }
+
+        /**
+         * Read a config file, its paths resolved against its folder like the paths of the manifest, before the
+         * configurator resolves them against the working directory.
+         */
+        private static CodegenConfigurator readConfig(File configFile) {
+            File folder = configFile.getAbsoluteFile().getParentFile();
+            try {
+                JsonNode tree = Json.mapper().readTree(configFile);
+                if (!(tree instanceof ObjectNode)) {
+                    throw new IllegalArgumentException("Unable to read config file " + configFile);
+                }
+                ObjectNode settings = (ObjectNode) tree;
+                for (String path : CONFIG_PATHS) {
+                    JsonNode value = settings.get(path);
+                    // remote specs are left alone
+                    if (value != null && value.isTextual() && !value.asText().contains("://")) {
+                        settings.put(path, resolve(folder, value.asText()));
+                    }
+                }
+                return Json.mapper().treeToValue(settings, CodegenConfigurator.class);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to read config file " + configFile + ": " + e.getMessage(), e);
+            }
+        }
+
+        private CodegenConfigurator configurator() {
+            CodegenConfigurator configurator = null;
+            if (StringUtils.isNotEmpty(config)) {
+                if (!new File(config).isFile()) {
+                    throw new IllegalArgumentException("Config file " + config + " doesn't exist");
+                }
+                configurator = readConfig(new File(config));
+            }
+            if (configurator == null) {
+                configurator = new CodegenConfigurator();
+            }
+            if (StringUtils.isNotEmpty(spec)) {
+                configurator.setInputSpec(spec);
+            }
+            if (StringUtils.isNotEmpty(lang)) {
+                configurator.setLang(lang);
+            }
+            if (StringUtils.isNotEmpty(output)) {
+                configurator.setOutputDir(output);
+            }
+            if (StringUtils.isNotEmpty(auth)) {
+                configurator.setAuth(auth);
+            }
+            return configurator;
+        }
+
+        @Override
+        public String toString() {
+            return StringUtils.defaultString(lang, "?") + " " + StringUtils.defaultString(spec, "?") + " -> "
+                    + StringUtils.defaultString(output, ".");
+        }
+    }
+
+    /**
+     * The outcome of a job.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        public final Job job;
+        public long millis;
+        public String error;
+        /** time spent by the generator in each phase, in ms */
+        public final Map<String, Long> phases = new LinkedHashMap<>();
+
+        private Result(Job job) {
+            this.job = job;
+        }
+    }
+
+    /**
+     * The aggregate report of a batch.
+     */
+    public static class Report {
+        public final List<Result> jobs = new ArrayList<>();
+        public int failed;
+        public long millis;
+        public int specs;
+        public long templateCacheHits;
+        public long templateCacheMisses;
+    }
+}
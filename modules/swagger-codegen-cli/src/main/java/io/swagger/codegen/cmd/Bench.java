@@ -0,0 +1,320 @@
+package io.swagger.codegen.cmd;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.airlift.airline.Command;
+import io.airlift.airline.Option;
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.DefaultGenerator;
+import io.swagger.codegen.InMemoryOutput;
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the same generation repeatedly to measure it, e.g. to compare generator versions or template sets on a
+ * real spec. Each iteration parses the spec and generates it, like a <code>generate</code> run in a warm JVM.
+ * The generation runs in the current thread, whose allocations are measured.
+ */
+@Command(name = "bench", description = "Benchmark a generation")
+public class Bench implements Runnable {
+
+    private static final String MEMORY = "memory";
+    private static final String DISK = "disk";
+
+    @Option(name = {"-l", "--lang"}, title = "language",
+            description = "client language to generate (maybe class name in classpath, required unless set in the config file)")
+    private String lang;
+
+    @Option(name = {"-i", "--input-spec"}, title = "spec file",
+            description = "location of the swagger spec, as URL or file (required unless set in the config file)")
+    private String spec;
+
+    @Option(name = {"-t", "--template-dir"}, title = "template directory",
+            description = "folder containing the template files")
+    private String templateDir;
+
+    @Option(name = {"-c", "--config"}, title = "configuration file",
+            description = "Path to json configuration file, as for the generate command")
+    private String configFile;
+
+    @Option(name = {"-a", "--auth"}, title = "authorization",
+            description = "adds authorization headers when fetching the swagger definitions remotely, as for the generate command")
+    private String auth;
+
+    @Option(name = {"-o", "--output"}, title = "output directory",
+            description = "where to write the generated files with --sink disk (a temporary folder by default)")
+    private String output;
+
+    @Option(name = {"--sink"}, title = "sink", allowedValues = {MEMORY, DISK},
+            description = "where the generated files go: memory (default) or disk")
+    private String sink = MEMORY;
+
+    @Option(name = {"--warmup"}, title = "iterations",
+            description = "number of iterations run before measuring (3 by default)")
+    private Integer warmup = 3;
+
+    @Option(name = {"--iterations"}, title = "iterations",
+            description = "number of measured iterations (10 by default)")
+    private Integer iterations = 10;
+
+    @Option(name = {"--report"}, title = "report file",
+            description = "where to write the JSON report, with the measures of each iteration")
+    private String report;
+
+    @Override
+    public void run() {
+        if (iterations < 1 || warmup < 0) {
+            throw new IllegalArgumentException("iterations must be positive and warmup not negative");
+        }
+        File tempDir = null;
+        try {
+            if (StringUtils.isEmpty(output)) {
+                tempDir = Files.createTempDirectory("swagger-codegen-bench").toFile();
+            }
+            CodegenConfigurator configurator = configure(tempDir != null ? tempDir.getPath() : output);
+
+            for (int i = 0; i < warmup; i++) {
+                iteration(configurator);
+            }
+            Report summary = new Report();
+            summary.lang = configurator.getLang();
+            summary.spec = configurator.getInputSpec();
+            summary.templateDir = configurator.getTemplateDir();
+            summary.sink = sink;
+            summary.warmup = warmup;
+            summary.version = Version.readVersionFromResources();
+            resetPeakHeap();
+            for (int i = 0; i < iterations; i++) {
+                summary.runs.add(iteration(configurator));
+            }
+            summary.peakHeapBytes = peakHeap();
+            summary.summarize();
+
+            print(summary);
+            if (StringUtils.isNotEmpty(report)) {
+                Json.pretty().writeValue(new File(report), summary);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Benchmark failed", e);
+        } finally {
+            FileUtils.deleteQuietly(tempDir);
+        }
+    }
+
+    private CodegenConfigurator configure(String outputDir) {
+        CodegenConfigurator configurator = null;
+        if (StringUtils.isNotEmpty(configFile)) {
+            configurator = CodegenConfigurator.fromFile(configFile);
+            if (configurator == null) {
+                throw new IllegalArgumentException("Unable to read config file " + configFile);
+            }
+        }
+        if (configurator == null) {
+            configurator = new CodegenConfigurator();
+        }
+        if (StringUtils.isNotEmpty(spec)) {
+            configurator.setInputSpec(spec);
+        }
+        if (StringUtils.isNotEmpty(lang)) {
+            configurator.setLang(lang);
+        }
+        if (StringUtils.isNotEmpty(templateDir)) {
+            configurator.setTemplateDir(templateDir);
+        }
+        if (StringUtils.isNotEmpty(auth)) {
+            configurator.setAuth(auth);
+        }
+        configurator.setOutputDir(outputDir);
+        if (StringUtils.isEmpty(configurator.getInputSpec())) {
+            throw new IllegalArgumentException("input spec must be specified");
+        }
+        return configurator;
+    }
+
+    /**
+     * Parse and generate once.
+     */
+    private Run iteration(CodegenConfigurator configurator) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocated = allocatedBytes(threads);
+        long start = System.nanoTime();
+
+        // like the generate command, the generator flattens the spec and times it
+        ClientOptInput input = configurator.toClientOptInput();
+        long parsed = System.nanoTime();
+        InMemoryOutput memory = null;
+        if (MEMORY.equals(sink)) {
+            memory = new InMemoryOutput(configurator.getOutputDir());
+            input.inMemoryOutput(memory);
+        }
+        new DefaultGenerator().opts(input).generate();
+
+        Run run = new Run();
+        run.millis = millis(System.nanoTime() - start);
+        if (allocated >= 0) {
+            run.allocatedBytes = allocatedBytes(threads) - allocated;
+        }
+        run.phases.put("parse", millis(parsed - start));
+        for (Map.Entry<String, Long> timing : input.getGenerationContext().getTimings().entrySet()) {
+            run.phases.put(timing.getKey(), millis(timing.getValue()));
+        }
+        if (memory != null) {
+            run.files = memory.getFiles().size();
+            run.bytes = memory.getSize();
+        }
+        return run;
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, -1 if the JVM can't tell
+     */
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return sum of the peak usages of the heap pools, which may not all peak at the same time
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10000.0) / 100.0;
+    }
+
+    /**
+     * Nearest-rank percentile.
+     *
+     * @param sorted values in ascending order, not empty
+     * @param percent percentile, between 0 and 100
+     */
+    static double percentile(List<Double> sorted, double percent) {
+        int rank = (int) Math.ceil(percent / 100 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size(), rank) - 1));
+    }
+
+    private static void print(Report summary) {
+        System.out.println(String.format("%s: %d iterations after %d warm-up ones, %s sink",
+                summary.lang, summary.runs.size(), summary.warmup, summary.sink));
+        System.out.println(String.format("  wall time   p50 %.2f ms, p95 %.2f ms, max %.2f ms",
+                summary.p50Millis, summary.p95Millis, summary.maxMillis));
+        List<String> phases = new ArrayList<>();
+        for (Map.Entry<String, Double> phase : summary.phases.entrySet()) {
+            phases.add(String.format("%s %.2f ms", phase.getKey(), phase.getValue()));
+        }
+        System.out.println("  phases p50  " + StringUtils.join(phases, ", "));
+        if (summary.allocatedBytes != null) {
+            System.out.println(String.format("  allocation  %.1f MB per iteration, %.1f MB/s",
+                    summary.allocatedBytes / 1048576.0, summary.allocationRate / 1048576.0));
+        }
+        System.out.println(String.format("  peak heap   %.1f MB", summary.peakHeapBytes / 1048576.0));
+    }
+
+    /**
+     * The measures of an iteration.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Run {
+        public double millis;
+        public Long allocatedBytes;
+        /** generated files and bytes, only known with the memory sink */
+        public Integer files;
+        public Long bytes;
+        /** time spent in each phase, in ms */
+        public final Map<String, Double> phases = new LinkedHashMap<>();
+    }
+
+    /**
+     * The report of a benchmark, times are in ms.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Report {
+        public String version;
+        public String lang;
+        public String spec;
+        public String templateDir;
+        public String sink;
+        public int warmup;
+        public double p50Millis;
+        public double p95Millis;
+        public double maxMillis;
+        /** median time of each phase */
+        public final Map<String, Double> phases = new LinkedHashMap<>();
+        /** median bytes allocated per iteration by the generating thread */
+        public Long allocatedBytes;
+        /** bytes allocated per second of generation */
+        public Long allocationRate;
+        public long peakHeapBytes;
+        public final List<Run> runs = new ArrayList<>();
+
+        void summarize() {
+            List<Double> millis = new ArrayList<>();
+            List<Double> allocated = new ArrayList<>();
+            Map<String, List<Double>> phaseMillis = new LinkedHashMap<>();
+            double totalMillis = 0;
+            double totalAllocated = 0;
+            for (Run run : runs) {
+                millis.add(run.millis);
+                totalMillis += run.millis;
+                if (run.allocatedBytes != null) {
+                    allocated.add((double) run.allocatedBytes);
+                    totalAllocated += run.allocatedBytes;
+                }
+                for (Map.Entry<String, Double> phase : run.phases.entrySet()) {
+                    if (!phaseMillis.containsKey(phase.getKey())) {
+                        phaseMillis.put(phase.getKey(), new ArrayList<Double>());
+                    }
+                    phaseMillis.get(phase.getKey()).add(phase.getValue());
+                }
+            }
+            Collections.sort(millis);
+            p50Millis = percentile(millis, 50);
+            p95Millis = percentile(millis, 95);
+            maxMillis = millis.get(millis.size() - 1);
+            for (Map.Entry<String, List<Double>> phase : phaseMillis.entrySet()) {
+                Collections.sort(phase.getValue());
+                phases.put(phase.getKey(), percentile(phase.getValue(), 50));
+            }
+            if (allocated.size() == runs.size() && totalMillis > 0) {
+                Collections.sort(allocated);
+                allocatedBytes = (long) percentile(allocated, 50);
+                allocationRate = (long) (totalAllocated / totalMillis * 1000);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package io.swagger.codegen.cmd;
+
+import io.airlift.airline.Command;
+import io.airlift.airline.Option;
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenConfigIndex;
+import io.swagger.codegen.DefaultGenerator;
+import io.swagger.codegen.FlattenedSpec;
+import io.swagger.codegen.InMemoryOutput;
+import io.swagger.codegen.SwaggerCodegen;
+import io.swagger.codegen.TemplateCache;
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.Json;
+import io.swagger.util.Yaml;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates an application class data sharing archive of the CLI, with the classes loaded by a training run:
+ * all generators are instantiated and their templates compiled, and a tiny embedded spec is validated and
+ * generated with a few representative generators. A JVM started with
+ * <code>-XX:SharedArchiveFile=swagger-codegen-cli.jsa</code> maps those classes instead of loading them, which
+ * is most of the startup time of a small generation.
+ *
+ * The archive is dumped by a child JVM running the training with <code>-XX:ArchiveClassesAtExit</code>, which
+ * needs Java 13 or later. The archive is only valid for the same Java runtime and the same jar: the JVM ignores
+ * it otherwise, so the launcher can use it whenever it's present.
+ */
+@Command(name = "cds", description = "Create a class data sharing archive speeding up the startup of the CLI "
+        + "(Java 13 or later)")
+public class Cds implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Cds.class);
+
+    private static final String SPEC = "cds-training.json";
+
+    /** generators run through the embedded spec, the others are only instantiated */
+    private static final List<String> DEFAULT_LANGS = Arrays.asList("java", "swagger", "swagger-yaml");
+
+    @Option(name = {"-o", "--output"}, title = "archive",
+            description = "where to write the archive (swagger-codegen-cli.jsa next to the jar by default)")
+    private String output;
+
+    @Option(name = {"-l", "--lang"}, title = "language",
+            description = "generator run by the training, java, swagger and swagger-yaml by default."
+                    + " You can also have multiple occurrences of this option.")
+    private List<String> langs = new ArrayList<>();
+
+    @Option(name = {"--train"}, hidden = true, description = "run the training in this JVM")
+    private boolean train;
+
+    @Override
+    public void run() {
+        List<String> trainingLangs = langs.isEmpty() ? DEFAULT_LANGS : langs;
+        if (train) {
+            train(trainingLangs);
+            return;
+        }
+
+        if (javaVersion() < 13) {
+            throw new IllegalStateException("Creating the archive needs Java 13 or later, this is Java "
+                    + System.getProperty("java.specification.version"));
+        }
+        File archive = output != null ? new File(output) : defaultArchive();
+        archive = archive.getAbsoluteFile();
+        archive.delete();
+
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+        command.add("-XX:ArchiveClassesAtExit=" + archive.getPath());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SwaggerCodegen.class.getName());
+        command.add("cds");
+        command.add("--train");
+        for (String lang : trainingLangs) {
+            command.add("-l");
+            command.add(lang);
+        }
+        try {
+            int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exitCode != 0 || !archive.isFile()) {
+                throw new RuntimeException("The training run failed with exit code " + exitCode);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Can't start the training run", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("The training run was interrupted", e);
+        }
+        System.out.println("Wrote " + archive + ", use it with java -XX:SharedArchiveFile=" + archive
+                + " -jar " + System.getProperty("java.class.path"));
+    }
+
+    /**
+     * Load the classes of a typical run.
+     */
+    static void train(List<String> trainingLangs) {
+        long start = System.nanoTime();
+        String spec = readSpec();
+
+        // the validate command, and the YAML parser
+        SwaggerParser parser = new SwaggerParser();
+        parser.readWithInfo(Json.pretty(parser.parse(spec)));
+        try {
+            parser.readWithInfo(Yaml.pretty().writeValueAsString(parser.parse(spec)));
+        } catch (IOException e) {
+            throw new RuntimeException("Can't write the training spec as YAML", e);
+        }
+
+        int generators = 0;
+        for (CodegenConfigIndex.Entry entry : CodegenConfigIndex.get().getEntries()) {
+            try {
+                CodegenConfig config = CodegenConfigIndex.get().newConfig(entry.getName());
+                // most generators only declare their supporting files once the options are processed
+                config.processOpts();
+                TemplateCache.preload(config);
+                generators++;
+            } catch (RuntimeException e) {
+                LOG.debug("Can't load " + entry.getName() + ": " + e.getMessage());
+            }
+        }
+
+        FlattenedSpec flattened = new FlattenedSpec(parser.parse(spec));
+        for (String lang : trainingLangs) {
+            CodegenConfigurator configurator = new CodegenConfigurator();
+            configurator.setLang(lang);
+            configurator.setInputSpec(SPEC);
+            configurator.setOutputDir(new File("cds-training", lang).getAbsolutePath());
+            try {
+                ClientOptInput input = flattened.toClientOptInput(configurator);
+                input.inMemoryOutput(new InMemoryOutput(configurator.getOutputDir()));
+                new DefaultGenerator().opts(input).generate();
+            } catch (RuntimeException e) {
+                // the classes it loaded are archived anyway
+                LOG.warn("Training generation of " + lang + " failed: " + e.getMessage());
+            }
+        }
+        LOG.info("Trained with " + generators + " generators in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    private static String readSpec() {
+        InputStream in = Cds.class.getClassLoader().getResourceAsStream(SPEC);
+        try {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read " + SPEC, e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * The archive next to the jar of the CLI, e.g. target/swagger-codegen-cli.jsa.
+     */
+    private static File defaultArchive() {
+        try {
+            File location = new File(SwaggerCodegen.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (location.isFile() && location.getName().endsWith(".jar")) {
+                String name = location.getName();
+                return new File(location.getParentFile(), name.substring(0, name.length() - 4) + ".jsa");
+            }
+        } catch (URISyntaxException | SecurityException e) {
+            LOG.debug("Can't locate the jar of the CLI", e);
+        }
+        throw new IllegalArgumentException("The CLI doesn't run from its jar, set the archive with -o");
+    }
+
+    /**
+     * @return major version of the running Java, e.g. 8 for 1.8
+     */
+    static int javaVersion() {
+        String version = System.getProperty("java.specification.version");
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        int dot = version.indexOf('.');
+        return Integer.parseInt(dot < 0 ? version : version.substring(0, dot));
+    }
+}
@@ -0,0 +1,38 @@
+package io.swagger.codegen.cmd;
+
+import io.airlift.airline.Command;
+import io.airlift.airline.Option;
+import io.swagger.codegen.daemon.DaemonServer;
+import io.swagger.codegen.daemon.DaemonState;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Command(name = "daemon", description = "Run the generate and validate commands of the clients in the current "
+        + "directory in this JVM (started by the --daemon client)")
+public class Daemon implements Runnable {
+
+    @Option(name = {"--idle-timeout"}, title = "minutes",
+            description = "stop after this many minutes without commands (180 by default)")
+    private Integer idleTimeout = 180;
+
+    @Option(name = {"--port"}, title = "port",
+            description = "port to listen on, on the loopback interface (any free port by default)")
+    private Integer port = 0;
+
+    @Override
+    public void run() {
+        DaemonServer server = new DaemonServer(DaemonState.defaultDir(), new File(""),
+                Version.readVersionFromResources(), TimeUnit.MINUTES.toMillis(idleTimeout));
+        try {
+            server.start(port);
+            server.await();
+        } catch (IOException e) {
+            throw new RuntimeException("Can't start the daemon", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.stop();
+        }
+    }
+}
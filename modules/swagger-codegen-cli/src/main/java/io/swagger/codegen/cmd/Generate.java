@@ -5,15 +5,35 @@ import io.airlift.airline.Option;
 import io.swagger.codegen.ClientOptInput;
 import io.swagger.codegen.CodegenConstants;
 import io.swagger.codegen.DefaultGenerator;
+import io.swagger.codegen.FlattenedSpec;
 import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.codegen.utils.OptionUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static io.swagger.codegen.config.CodegenConfiguratorUtils.*;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * User: lanwen Date: 24.03.15 Time: 20:22
@@ -24,11 +44,13 @@ public class Generate implements Runnable {
 
     public static final Logger LOG = LoggerFactory.getLogger(Generate.class);
 
+    private static final long QUIET_MILLIS = 200;
+
     @Option(name = {"-v", "--verbose"}, description = "verbose mode")
     private Boolean verbose;
 
-    @Option(name = {"-l", "--lang"}, title = "language", required = true,
-            description = "client language to generate (maybe class name in classpath, required)")
+    @Option(name = {"-l", "--lang"}, title = "language",
+            description = "client language to generate (maybe class name in classpath, required unless --target is set)")
     private String lang;
 
     @Option(name = {"-o", "--output"}, title = "output directory",
@@ -172,8 +194,359 @@ public class Generate implements Runnable {
             description = CodegenConstants.REMOVE_OPERATION_ID_PREFIX_DESC)
     private Boolean removeOperationIdPrefix;
 
+    @Option(
+            name = {"--target"},
+            title = "target",
+            description = "generates one more language from the same spec in the format of lang=language,output=directory,config=file. "
+                    + "The output defaults to a folder named after the language in the output directory, the config to the --config file. "
+                    + "The spec is parsed once for all targets, which are generated concurrently."
+                    + " You can also have multiple occurrences of this option.")
+    private List<String> targets = new ArrayList<>();
+
+    @Option(name = {"--threads"}, title = "threads",
+            description = "number of targets generated concurrently (number of processors by default)")
+    private Integer threads;
+
+    @Option(name = {"--watch"}, description = "keeps running, and regenerates when the spec, the config file, the templates "
+            + "or the .swagger-codegen-ignore file change. Template changes only regenerate the targets using them, "
+            + "with the spec parsed at the previous run")
+    private boolean watch;
+
+    /** config files read by the last configuration, watched by --watch */
+    private final Set<Path> configPaths = new HashSet<>();
+
     @Override
     public void run() {
+        if (watch) {
+            watch();
+            return;
+        }
+        if (!targets.isEmpty()) {
+            generateTargets();
+            return;
+        }
+
+        final ClientOptInput clientOptInput = configure(configFile, lang, output).toClientOptInput();
+
+        new DefaultGenerator().opts(clientOptInput).generate();
+    }
+
+    /**
+     * Generate the --target languages, and the -l language if it's set, from one spec. Each spec is parsed and
+     * flattened once, each target generates its own copy of it.
+     */
+    private void generateTargets() {
+        List<CodegenConfigurator> configurators = configureTargets();
+        Map<String, FlattenedSpec> specs = readSpecs(configurators, Collections.<String, FlattenedSpec>emptyMap());
+        List<String> failed = new ArrayList<>();
+        generate(configurators, specs, null, failed);
+        if (!failed.isEmpty()) {
+            throw new RuntimeException("Generation failed for " + StringUtils.join(failed, ", "));
+        }
+    }
+
+    /**
+     * Generate, then regenerate whenever the inputs change, until the thread is interrupted. The parsed specs
+     * are kept between runs, and so are the compiled templates, see {@link io.swagger.codegen.TemplateCache}.
+     */
+    private void watch() {
+        List<CodegenConfigurator> configurators = configureTargets();
+        Map<String, FlattenedSpec> specs = readSpecs(configurators, Collections.<String, FlattenedSpec>emptyMap());
+        List<ClientOptInput> inputs = generate(configurators, specs, null, new ArrayList<String>());
+
+        Watcher watcher = null;
+        try {
+            watcher = watcher(configurators);
+            LOG.info("Watching for changes");
+            while (true) {
+                Set<Path> changed = watcher.take(QUIET_MILLIS);
+                long start = System.currentTimeMillis();
+
+                boolean reconfigure = false;
+                boolean ignoreChanged = false;
+                Set<String> changedSpecs = new HashSet<>();
+                Set<Path> changedTemplates = new HashSet<>();
+                for (Path path : changed) {
+                    path = path.normalize();
+                    if (configPaths.contains(path)) {
+                        reconfigure = true;
+                    }
+                    for (CodegenConfigurator configurator : configurators) {
+                        if (path.equals(specPath(configurator))) {
+                            changedSpecs.add(specKey(configurator));
+                        } else if (ignorePaths(configurator).contains(path)) {
+                            ignoreChanged = true;
+                        } else if (templatePath(configurator) != null && path.startsWith(templatePath(configurator))) {
+                            changedTemplates.add(path);
+                        }
+                    }
+                }
+                if (!reconfigure && !ignoreChanged && changedSpecs.isEmpty() && changedTemplates.isEmpty()) {
+                    // e.g. the generated files
+                    continue;
+                }
+
+                try {
+                    if (reconfigure) {
+                        configurators = configureTargets();
+                        watcher.close();
+                        watcher = watcher(configurators);
+                    }
+                    Map<String, FlattenedSpec> reused = new HashMap<>(specs);
+                    reused.keySet().removeAll(changedSpecs);
+                    specs = readSpecs(configurators, reused);
+                } catch (RuntimeException e) {
+                    LOG.error("Can't regenerate", e);
+                    continue;
+                }
+
+                List<Boolean> plan = new ArrayList<>();
+                int planned = 0;
+                for (int i = 0; i < configurators.size(); i++) {
+                    CodegenConfigurator configurator = configurators.get(i);
+                    boolean regenerate = reconfigure || ignoreChanged || changedSpecs.contains(specKey(configurator))
+                            || usesTemplates(inputs.get(i), templatePath(configurator), changedTemplates);
+                    plan.add(regenerate);
+                    if (regenerate) {
+                        planned++;
+                    }
+                }
+                if (planned == 0) {
+                    continue;
+                }
+
+                List<String> failed = new ArrayList<>();
+                List<ClientOptInput> regenerated = generate(configurators, specs, plan, failed);
+                if (reconfigure) {
+                    inputs = regenerated;
+                } else {
+                    for (int i = 0; i < regenerated.size(); i++) {
+                        if (plan.get(i)) {
+                            inputs.set(i, regenerated.get(i));
+                        }
+                    }
+                }
+                LOG.info("Regenerated " + planned + " of " + configurators.size() + " targets in "
+                        + (System.currentTimeMillis() - start) + " ms" + (failed.isEmpty() ? "" : ", failed: "
+                        + StringUtils.join(failed, ", ")));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new RuntimeException("Can't watch the inputs", e);
+        } finally {
+            IOUtils.closeQuietly(watcher);
+        }
+    }
+
+    private Watcher watcher(List<CodegenConfigurator> configurators) throws IOException {
+        Watcher watcher = new Watcher();
+        for (Path configPath : configPaths) {
+            watcher.watchFile(configPath);
+        }
+        for (CodegenConfigurator configurator : configurators) {
+            Path specPath = specPath(configurator);
+            if (specPath != null) {
+                watcher.watchFile(specPath);
+            }
+            for (Path ignorePath : ignorePaths(configurator)) {
+                watcher.watchFile(ignorePath);
+            }
+            Path templatePath = templatePath(configurator);
+            if (templatePath != null) {
+                watcher.watchTree(templatePath);
+            }
+        }
+        return watcher;
+    }
+
+    /**
+     * Whether a target uses changed templates. It's then regenerated as a whole: even a supporting file renders
+     * the apis and models, which are only processed with their own files.
+     *
+     * @param input input of the previous generation of the target, null if it failed
+     * @param templatePath template folder of the target
+     * @param templates changed templates
+     * @return true if the target uses one of the templates
+     */
+    private static boolean usesTemplates(ClientOptInput input, Path templatePath, Set<Path> templates) {
+        if (templatePath == null) {
+            return false;
+        }
+        for (Path template : templates) {
+            if (!template.startsWith(templatePath)) {
+                continue;
+            }
+            if (input == null) {
+                return true;
+            }
+            String name = templatePath.relativize(template).toString().replace(File.separatorChar, '/');
+            String prefix = "libraries/" + input.getConfig().getLibrary() + "/";
+            // not a template of another library
+            if (!name.startsWith("libraries/")
+                    || (StringUtils.isNotEmpty(input.getConfig().getLibrary()) && name.startsWith(prefix))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The configurators of the -l language and the --target languages, which must write to different folders.
+     */
+    private List<CodegenConfigurator> configureTargets() {
+        configPaths.clear();
+        List<CodegenConfigurator> configurators = new ArrayList<>();
+        if (isNotEmpty(lang) || targets.isEmpty()) {
+            configurators.add(configure(configFile, lang, output));
+        }
+        for (String target : targets) {
+            configurators.add(configureTarget(target));
+        }
+
+        Set<String> outputDirs = new HashSet<>();
+        for (CodegenConfigurator configurator : configurators) {
+            if (!outputDirs.add(StringUtils.defaultString(configurator.getOutputDir()))) {
+                throw new IllegalArgumentException("Several targets generate to " + configurator.getOutputDir());
+            }
+        }
+        return configurators;
+    }
+
+    /**
+     * Parse and flatten the specs of the targets, which may read different specs from their config files.
+     *
+     * @param reused specs parsed before which haven't changed
+     */
+    private static Map<String, FlattenedSpec> readSpecs(List<CodegenConfigurator> configurators,
+                                                        Map<String, FlattenedSpec> reused) {
+        Map<String, FlattenedSpec> specs = new HashMap<>();
+        for (CodegenConfigurator configurator : configurators) {
+            Validate.notEmpty(configurator.getInputSpec(), "input spec must be specified");
+            String key = specKey(configurator);
+            if (!specs.containsKey(key)) {
+                FlattenedSpec spec = reused.get(key);
+                specs.put(key, spec != null ? spec : FlattenedSpec.read(configurator.getInputSpec(), configurator.getAuth()));
+            }
+        }
+        return specs;
+    }
+
+    /**
+     * Generate the targets concurrently. All targets are generated even if some fail.
+     *
+     * @param plan for each target whether to generate it; null to generate all targets
+     * @param failed where to add the languages which failed
+     * @return the input of each target, null for the targets which were skipped or failed
+     */
+    private List<ClientOptInput> generate(final List<CodegenConfigurator> configurators,
+                                          final Map<String, FlattenedSpec> specs, List<Boolean> plan,
+                                          List<String> failed) {
+        int poolSize = threads != null ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(poolSize, configurators.size())));
+        List<Future<ClientOptInput>> futures = new ArrayList<>();
+        for (int i = 0; i < configurators.size(); i++) {
+            final CodegenConfigurator configurator = configurators.get(i);
+            if (plan != null && !plan.get(i)) {
+                futures.add(null);
+                continue;
+            }
+            futures.add(executor.submit(new Callable<ClientOptInput>() {
+                @Override
+                public ClientOptInput call() {
+                    ClientOptInput input = specs.get(specKey(configurator)).toClientOptInput(configurator);
+                    new DefaultGenerator().opts(input).generate();
+                    return input;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        List<ClientOptInput> inputs = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            CodegenConfigurator configurator = configurators.get(i);
+            ClientOptInput input = null;
+            try {
+                if (futures.get(i) != null) {
+                    input = futures.get(i).get();
+                    LOG.info("Generated " + configurator.getLang() + " in " + configurator.getOutputDir());
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Generation was interrupted", e);
+            } catch (ExecutionException e) {
+                LOG.error("Can't generate " + configurator.getLang() + " in " + configurator.getOutputDir(), e.getCause());
+                failed.add(configurator.getLang());
+            }
+            inputs.add(input);
+        }
+        return inputs;
+    }
+
+    private static String specKey(CodegenConfigurator configurator) {
+        return configurator.getInputSpec() + '\n' + configurator.getAuth();
+    }
+
+    /**
+     * The spec file of a target, null for remote specs.
+     */
+    private static Path specPath(CodegenConfigurator configurator) {
+        String inputSpec = configurator.getInputSpec();
+        if (inputSpec == null || inputSpec.contains("://")) {
+            return null;
+        }
+        return absolute(inputSpec);
+    }
+
+    private static Path templatePath(CodegenConfigurator configurator) {
+        return isNotEmpty(configurator.getTemplateDir()) ? absolute(configurator.getTemplateDir()) : null;
+    }
+
+    private static List<Path> ignorePaths(CodegenConfigurator configurator) {
+        List<Path> paths = new ArrayList<>();
+        paths.add(absolute(StringUtils.defaultString(configurator.getOutputDir())).resolve(".swagger-codegen-ignore"));
+        if (isNotEmpty(configurator.getIgnoreFileOverride())) {
+            paths.add(absolute(configurator.getIgnoreFileOverride()));
+        }
+        return paths;
+    }
+
+    private static Path absolute(String path) {
+        return Paths.get(path).toAbsolutePath().normalize();
+    }
+
+    private CodegenConfigurator configureTarget(String target) {
+        String targetLang = null;
+        String targetOutput = null;
+        String targetConfig = configFile;
+        for (Pair<String, String> pair : OptionUtils.parseCommaSeparatedTuples(target)) {
+            if ("lang".equals(pair.getLeft())) {
+                targetLang = pair.getRight();
+            } else if ("output".equals(pair.getLeft())) {
+                targetOutput = pair.getRight();
+            } else if ("config".equals(pair.getLeft())) {
+                targetConfig = pair.getRight();
+            } else {
+                throw new IllegalArgumentException("Unknown target setting " + pair.getLeft() + " in " + target);
+            }
+        }
+        if (StringUtils.isEmpty(targetLang)) {
+            throw new IllegalArgumentException("No language in target " + target);
+        }
+        if (StringUtils.isEmpty(targetOutput)) {
+            targetOutput = isNotEmpty(output) ? new File(output, targetLang).getPath() : targetLang;
+        }
+        return configure(targetConfig, targetLang, targetOutput);
+    }
+
+    /**
+     * The configurator of one language: the config file, overridden with the specified parameters.
+     */
+    private CodegenConfigurator configure(String configFile, String lang, String output) {
+        if (isNotEmpty(configFile)) {
+            configPaths.add(absolute(configFile));
+        }
 
         // attempt to read from config file
         CodegenConfigurator configurator = CodegenConfigurator.fromFile(configFile);
@@ -280,8 +653,6 @@ public class Generate implements Runnable {
         applyAdditionalPropertiesKvpList(additionalProperties, configurator);
         applyLanguageSpecificPrimitivesCsvList(languageSpecificPrimitives, configurator);
         applyReservedWordsMappingsKvpList(reservedWordsMappings, configurator);
-        final ClientOptInput clientOptInput = configurator.toClientOptInput();
-
-        new DefaultGenerator().opts(clientOptInput).generate();
+        return configurator;
     }
 }
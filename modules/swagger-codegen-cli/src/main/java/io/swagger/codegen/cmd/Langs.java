@@ -1,12 +1,10 @@
 package io.swagger.codegen.cmd;
 
-import ch.lambdaj.collection.LambdaIterable;
 import io.airlift.airline.Command;
-import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenConfigIndex;
 
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.collection.LambdaCollections.with;
-import static java.util.ServiceLoader.load;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * User: lanwen Date: 24.03.15 Time: 20:25
@@ -15,8 +13,10 @@ import static java.util.ServiceLoader.load;
 public class Langs implements Runnable {
     @Override
     public void run() {
-        LambdaIterable<String> langs =
-                with(load(CodegenConfig.class)).extract(on(CodegenConfig.class).getName());
+        List<String> langs = new ArrayList<String>();
+        for (CodegenConfigIndex.Entry entry : CodegenConfigIndex.get().getEntries()) {
+            langs.add(entry.getName());
+        }
         System.out.printf("Available languages: %s%n", langs);
     }
 }
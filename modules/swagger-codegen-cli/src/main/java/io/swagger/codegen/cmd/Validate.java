@@ -1,37 +1,367 @@
 package io.swagger.codegen.cmd;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.airlift.airline.Arguments;
 import io.airlift.airline.Command;
 import io.airlift.airline.Option;
 
 import io.swagger.parser.SwaggerParser;
 import io.swagger.parser.util.SwaggerDeserializationResult;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
 
-import java.util.HashSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Command(name = "validate", description = "Validate specification")
 public class Validate implements Runnable {
 
-    @Option(name = {"-i", "--input-spec"}, title = "spec file", required = true,
-            description = "location of the swagger spec, as URL or file (required)")
-    private String spec;
+    private static final String TEXT = "text";
+    private static final String JSON = "json";
+    private static final String JUNIT = "junit";
+
+    @Option(name = {"-i", "--input-spec"}, title = "spec file",
+            description = "location of the swagger spec, as URL or file (required unless specs are passed as arguments)."
+                    + " You can also have multiple occurrences of this option.")
+    private List<String> specOptions = new ArrayList<>();
+
+    @Arguments(title = "specs", description = "more specs: URLs, files, folders (searched for .json, .yaml and .yml files) "
+            + "or glob patterns like specs/**/*.yaml, where **/ also matches no folder")
+    private List<String> specArguments = new ArrayList<>();
+
+    @Option(name = {"--threads"}, title = "threads",
+            description = "number of specs validated concurrently (number of processors by default)")
+    private Integer threads;
+
+    @Option(name = {"--format"}, title = "format", allowedValues = {TEXT, JSON, JUNIT},
+            description = "format of the results: text (default), json, or junit XML")
+    private String format = TEXT;
+
+    @Option(name = {"--report"}, title = "report file",
+            description = "where to write the results (standard output by default)")
+    private String report;
+
+    @Option(name = {"--fail-fast"}, description = "stop at the first invalid spec, the specs not validated yet are skipped")
+    private boolean failFast;
 
     @Override
     public void run() {
-        System.out.println("Validating spec file (" + spec + ")");
+        List<String> specs = new ArrayList<>();
+        for (String spec : specOptions) {
+            specs.addAll(expand(spec));
+        }
+        for (String spec : specArguments) {
+            specs.addAll(expand(spec));
+        }
+        if (specs.isEmpty()) {
+            throw new IllegalArgumentException("No spec to validate");
+        }
 
-        SwaggerParser parser = new SwaggerParser();
-        SwaggerDeserializationResult result = parser.readWithInfo(spec, null, true);
-        List<String> messageList = result.getMessages();
-        Set<String> messages = new HashSet<String>(messageList);
+        long start = System.nanoTime();
+        List<Result> results = validate(new ArrayList<>(new LinkedHashSet<>(specs)));
+        long millis = (System.nanoTime() - start) / 1000000;
 
-        for (String message : messages) {
-            System.out.println(message);
+        int invalid = 0;
+        for (Result result : results) {
+            if (result.valid != null && !result.valid) {
+                invalid++;
+            }
         }
-
-        if (messages.size() > 0) {
+        try {
+            write(results, millis);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write the report " + report, e);
+        }
+        if (invalid > 0) {
             throw new ValidateException();
         }
     }
+
+    /**
+     * Validate the specs concurrently, or until one is invalid with --fail-fast.
+     *
+     * @return the results, in the order of the specs
+     */
+    private List<Result> validate(List<String> specs) {
+        List<Result> results = new ArrayList<>();
+        for (String spec : specs) {
+            results.add(new Result(spec));
+        }
+        int poolSize = threads != null ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(poolSize, specs.size())));
+        CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+        // set by the first invalid spec with --fail-fast, the specs which didn't start yet are skipped
+        final AtomicBoolean stop = new AtomicBoolean();
+        List<Future<Result>> futures = new ArrayList<>();
+        for (final Result result : results) {
+            futures.add(completion.submit(new Callable<Result>() {
+                @Override
+                public Result call() {
+                    if (stop.get()) {
+                        return result;
+                    }
+                    validate(result);
+                    if (failFast && !result.valid) {
+                        stop.set(true);
+                    }
+                    return result;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                completion.take().get();
+                if (stop.get()) {
+                    executor.shutdownNow();
+                    break;
+                }
+            }
+            // the parser can't be interrupted, let the running validations finish
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Validation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return results;
+    }
+
+    private static Result validate(Result result) {
+        long start = System.nanoTime();
+        Set<String> messages = new LinkedHashSet<>();
+        try {
+            SwaggerDeserializationResult parsed = new SwaggerParser().readWithInfo(result.spec, null, true);
+            if (parsed == null || parsed.getSwagger() == null) {
+                // e.g. a missing file, for which the parser has no message
+                messages.add("Cannot read spec " + result.spec);
+            }
+            if (parsed != null && parsed.getMessages() != null) {
+                messages.addAll(parsed.getMessages());
+            }
+        } catch (Exception e) {
+            messages.add(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        result.messages.addAll(messages);
+        result.millis = (System.nanoTime() - start) / 1000000;
+        // set last, a result without validity was skipped
+        result.valid = messages.isEmpty();
+        return result;
+    }
+
+    /**
+     * The specs designated by a spec argument: the URL or file itself, the spec files of a folder, or the files
+     * matching a glob pattern.
+     */
+    static List<String> expand(String spec) {
+        if (spec.contains("://")) {
+            return Collections.singletonList(spec);
+        }
+        Path path;
+        final PathMatcher matcher;
+        if (StringUtils.containsAny(spec, "*?[{")) {
+            // walk from the folder before the first wildcard
+            String prefix = spec.substring(0, StringUtils.indexOfAny(spec, "*?[{"));
+            int separator = Math.max(prefix.lastIndexOf('/'), prefix.lastIndexOf(File.separatorChar));
+            path = Paths.get(separator < 0 ? "." : prefix.substring(0, separator + 1)).toAbsolutePath().normalize();
+            String pattern = separator < 0 ? spec : spec.substring(separator + 1);
+            final List<PathMatcher> matchers = new ArrayList<>();
+            for (String glob : globstar(pattern)) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+            }
+            matcher = new PathMatcher() {
+                @Override
+                public boolean matches(Path file) {
+                    for (PathMatcher glob : matchers) {
+                        if (glob.matches(file)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+        } else {
+            path = Paths.get(spec);
+            if (!Files.isDirectory(path)) {
+                return Collections.singletonList(spec);
+            }
+            matcher = null;
+        }
+
+        final Path root = path;
+        final List<String> specs = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    boolean match = matcher != null ? matcher.matches(root.relativize(file)) : isSpecFile(file);
+                    if (match) {
+                        specs.add(file.toString());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to list the specs of " + spec, e);
+        }
+        if (specs.isEmpty()) {
+            throw new IllegalArgumentException("No spec found for " + spec);
+        }
+        Collections.sort(specs);
+        return specs;
+    }
+
+    /**
+     * The globs matching like a pattern in a shell with globstar: **&#47; matches no folder too, while a glob only
+     * matches it with at least one folder, e.g. specs/**&#47;*.yaml also matches specs/a.yaml.
+     */
+    static List<String> globstar(String pattern) {
+        int index = pattern.indexOf("**/");
+        if (index < 0) {
+            return Collections.singletonList(pattern);
+        }
+        List<String> globs = new ArrayList<>();
+        for (String rest : globstar(pattern.substring(index + 3))) {
+            globs.add(pattern.substring(0, index + 3) + rest);
+            globs.add(pattern.substring(0, index) + rest);
+        }
+        return globs;
+    }
+
+    private static boolean isSpecFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") || name.endsWith(".yaml") || name.endsWith(".yml");
+    }
+
+    private void write(List<Result> results, long millis) throws IOException {
+        String content;
+        if (JSON.equals(format)) {
+            Report summary = new Report();
+            summary.specs = results;
+            summary.millis = millis;
+            for (Result result : results) {
+                if (result.valid == null) {
+                    summary.skipped++;
+                } else if (!result.valid) {
+                    summary.invalid++;
+                }
+            }
+            content = Json.pretty().writeValueAsString(summary) + System.lineSeparator();
+        } else if (JUNIT.equals(format)) {
+            content = junit(results, millis);
+        } else {
+            content = text(results);
+        }
+
+        if (StringUtils.isNotEmpty(report)) {
+            FileUtils.writeStringToFile(new File(report), content, StandardCharsets.UTF_8);
+        } else {
+            System.out.print(content);
+            System.out.flush();
+        }
+    }
+
+    private static String text(List<Result> results) {
+        StringBuilder text = new StringBuilder();
+        for (Result result : results) {
+            if (result.valid == null) {
+                continue;
+            }
+            text.append("Validating spec file (").append(result.spec).append(')').append(System.lineSeparator());
+            for (String message : result.messages) {
+                text.append(message).append(System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+
+    private static String junit(List<Result> results, long millis) {
+        int invalid = 0;
+        int skipped = 0;
+        StringBuilder cases = new StringBuilder();
+        for (Result result : results) {
+            cases.append("  <testcase classname=\"validate\" name=\"").append(xml(result.spec))
+                    .append("\" time=\"").append(seconds(result.millis)).append('"');
+            if (result.valid == null) {
+                skipped++;
+                cases.append(">\n    <skipped/>\n  </testcase>\n");
+            } else if (!result.valid) {
+                invalid++;
+                cases.append(">\n    <failure message=\"").append(xml(result.messages.size() + " validation messages"))
+                        .append("\">").append(xml(StringUtils.join(result.messages, "\n"))).append("</failure>\n")
+                        .append("  </testcase>\n");
+            } else {
+                cases.append("/>\n");
+            }
+        }
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<testsuite name=\"validate\" tests=\"" + results.size() + "\" failures=\"" + invalid
+                + "\" errors=\"0\" skipped=\"" + skipped + "\" time=\"" + seconds(millis) + "\">\n"
+                + cases
+                + "</testsuite>\n";
+    }
+
+    private static String xml(String text) {
+        return StringEscapeUtils.escapeXml10(text);
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+
+    /**
+     * The validation of a spec.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        public final String spec;
+        /** null if the spec was skipped */
+        public volatile Boolean valid;
+        public long millis;
+        /** distinct validation messages */
+        public final List<String> messages = new ArrayList<>();
+
+        private Result(String spec) {
+            this.spec = spec;
+        }
+    }
+
+    /**
+     * The JSON report of a validation.
+     */
+    public static class Report {
+        public List<Result> specs;
+        public int invalid;
+        public int skipped;
+        public long millis;
+    }
 }
@@ -0,0 +1,124 @@
+package io.swagger.codegen.cmd;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches files, and folders with their sub folders, for {@link Generate} --watch.
+ */
+class Watcher implements Closeable {
+    private final WatchService service;
+    private final Map<WatchKey, Path> folders = new HashMap<>();
+    private final Set<Path> trees = new HashSet<>();
+
+    Watcher() throws IOException {
+        service = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Watch a file, which may not exist yet, through its folder.
+     */
+    void watchFile(Path file) throws IOException {
+        Path folder = file.toAbsolutePath().getParent();
+        if (folder != null && Files.isDirectory(folder)) {
+            register(folder);
+        }
+    }
+
+    /**
+     * Watch a folder and its sub folders, including those created later.
+     */
+    void watchTree(Path folder) throws IOException {
+        final Path root = folder.toAbsolutePath();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        trees.add(root);
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Wait for changes, and collect the changes which follow until nothing changes for a while, e.g. all the
+     * files an editor or a checkout writes.
+     *
+     * @param quietMillis how long nothing must change
+     * @return the changed files, or folders whose changes were lost
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    Set<Path> take(long quietMillis) throws InterruptedException {
+        Set<Path> changed = new LinkedHashSet<>();
+        WatchKey key = service.take();
+        while (key != null) {
+            collect(key, changed);
+            key = service.poll(quietMillis, TimeUnit.MILLISECONDS);
+        }
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    private void register(Path folder) throws IOException {
+        WatchKey key = folder.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        folders.put(key, folder);
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path folder = folders.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (folder == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.add(folder);
+                continue;
+            }
+            Path path = folder.resolve((Path) event.context());
+            changed.add(path);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path) && inTree(path)) {
+                try {
+                    watchTree(path);
+                } catch (IOException e) {
+                    Generate.LOG.warn("Can't watch " + path, e);
+                }
+            }
+        }
+        if (!key.reset()) {
+            folders.remove(key);
+        }
+    }
+
+    private boolean inTree(Path path) {
+        for (Path tree : trees) {
+            if (path.startsWith(tree)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,251 @@
+package io.swagger.codegen.daemon;
+
+import io.swagger.codegen.SwaggerCodegen;
+import io.swagger.codegen.cmd.Version;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thin front end forwarding a command to the daemon of the working directory, see {@link DaemonServer}, and
+ * streaming its output back. The daemon is started in the background if it isn't running yet, or runs another
+ * version. The commands the daemon doesn't run, or all commands if the daemon can't be used, run in the client.
+ */
+public class DaemonClient {
+    /** JVM options of the daemons started by the client, e.g. -Xmx2g */
+    public static final String OPTS_ENV = "SWAGGER_CODEGEN_DAEMON_OPTS";
+
+    private static final int CONNECT_TIMEOUT = 2000;
+    private static final long START_TIMEOUT = 60000;
+    private static final long RETIRE_TIMEOUT = 10000;
+
+    private final File dir;
+    private final File workingDir;
+    private final String version;
+
+    /**
+     * @param dir folder of the state files, see {@link DaemonState#defaultDir()}
+     * @param workingDir working directory of the client
+     * @param version version of the client
+     */
+    public DaemonClient(File dir, File workingDir, String version) {
+        this.dir = dir;
+        this.workingDir = workingDir.getAbsoluteFile();
+        this.version = version;
+    }
+
+    /**
+     * Run a command line with the daemon of the current directory, used by
+     * <code>swagger-codegen-cli --daemon &lt;command&gt; ...</code>;
+     * <code>swagger-codegen-cli --daemon stop</code> stops the daemon.
+     *
+     * @param args command line, without --daemon
+     * @return exit code
+     */
+    public static int main(String[] args) {
+        boolean daemonCommand = args.length > 0 && (DaemonServer.COMMANDS.contains(args[0]) || Protocol.STOP.equals(args[0]));
+        if (daemonCommand) {
+            DaemonClient client = new DaemonClient(DaemonState.defaultDir(), new File(""), Version.readVersionFromResources());
+            Integer exitCode = client.run(args, System.out, System.err);
+            if (exitCode != null) {
+                return exitCode;
+            }
+            System.err.println("Can't use the daemon, see " + DaemonState.logFile(client.dir, client.workingDir)
+                    + ", running without it");
+            if (Protocol.STOP.equals(args[0])) {
+                return 1;
+            }
+        }
+        SwaggerCodegen.cli().parse(args).run();
+        return 0;
+    }
+
+    /**
+     * Run a command with the daemon, starting it if needed.
+     *
+     * @param args command line
+     * @param stdout where to write the standard output of the command
+     * @param stderr where to write the standard error of the command
+     * @return exit code of the command, or null if the daemon couldn't run it
+     */
+    public Integer run(String[] args, OutputStream stdout, OutputStream stderr) {
+        File stateFile = DaemonState.stateFile(dir, workingDir);
+        DaemonState state = DaemonState.read(stateFile);
+        if (state != null) {
+            Response response = send(state, args, stdout, stderr);
+            if (response.exitCode != null) {
+                return response.exitCode;
+            }
+            if (response.mismatch) {
+                // the daemon of another version stops once it's idle
+                if (!waitForRetirement(stateFile, state)) {
+                    return null;
+                }
+            } else if (response.unreachable && isCurrent(stateFile, state)) {
+                // the daemon died without removing its state
+                stateFile.delete();
+            }
+        }
+        if (Protocol.STOP.equals(args[0])) {
+            return 0;
+        }
+
+        if (!startDaemon()) {
+            return null;
+        }
+        state = waitForStart(stateFile);
+        if (state == null) {
+            return null;
+        }
+        return send(state, args, stdout, stderr).exitCode;
+    }
+
+    private Response send(DaemonState state, String[] args, OutputStream stdout, OutputStream stderr) {
+        Response response = new Response();
+        try (Socket socket = new Socket()) {
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getByName(null), state.getPort()), CONNECT_TIMEOUT);
+            } catch (IOException e) {
+                response.unreachable = true;
+                return response;
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(Protocol.MAGIC);
+            out.writeUTF(state.getToken());
+            out.writeUTF(version);
+            out.writeUTF(workingDir.getPath());
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte[] buffer = new byte[8192];
+            while (true) {
+                byte kind = in.readByte();
+                if (kind == Protocol.STDOUT || kind == Protocol.STDERR) {
+                    OutputStream target = kind == Protocol.STDOUT ? stdout : stderr;
+                    int length = in.readInt();
+                    while (length > 0) {
+                        int read = in.read(buffer, 0, Math.min(buffer.length, length));
+                        if (read < 0) {
+                            throw new IOException("Unexpected end of the daemon's output");
+                        }
+                        target.write(buffer, 0, read);
+                        length -= read;
+                    }
+                    target.flush();
+                } else if (kind == Protocol.EXIT) {
+                    response.exitCode = in.readInt();
+                    return response;
+                } else if (kind == Protocol.MISMATCH) {
+                    in.readUTF();
+                    response.mismatch = true;
+                    return response;
+                } else {
+                    throw new IOException("Unexpected frame " + kind + " from the daemon");
+                }
+            }
+        } catch (IOException e) {
+            if (response.exitCode == null && !response.mismatch) {
+                // the daemon went away while running the command, which may have done part of its work
+                new PrintStream(stderr, true).println("Lost the connection to the daemon: " + e.getMessage());
+                response.exitCode = 1;
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Start the daemon of the working directory in the background, with the classpath of the client.
+     *
+     * @return false if the daemon can't be started
+     */
+    protected boolean startDaemon() {
+        List<String> command = new ArrayList<String>();
+        command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+        String opts = System.getenv(OPTS_ENV);
+        if (opts != null && !opts.trim().isEmpty()) {
+            for (String opt : opts.trim().split("\\s+")) {
+                command.add(opt);
+            }
+        }
+        command.add("-D" + DaemonState.DIR_PROPERTY + "=" + dir.getAbsolutePath());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SwaggerCodegen.class.getName());
+        command.add("daemon");
+
+        dir.mkdirs();
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workingDir)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(DaemonState.logFile(dir, workingDir)));
+        try {
+            builder.start().getOutputStream().close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static DaemonState waitForStart(File stateFile) {
+        long deadline = System.currentTimeMillis() + START_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            DaemonState state = DaemonState.read(stateFile);
+            if (state != null) {
+                return state;
+            }
+            if (!sleep()) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean waitForRetirement(File stateFile, DaemonState state) {
+        long deadline = System.currentTimeMillis() + RETIRE_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            if (!isCurrent(stateFile, state)) {
+                return true;
+            }
+            if (!sleep()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCurrent(File stateFile, DaemonState state) {
+        DaemonState current = DaemonState.read(stateFile);
+        return current != null && current.getToken().equals(state.getToken());
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(100);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class Response {
+        private Integer exitCode;
+        private boolean mismatch;
+        private boolean unreachable;
+    }
+}
@@ -0,0 +1,365 @@
+package io.swagger.codegen.daemon;
+
+import io.airlift.airline.ParseException;
+import io.swagger.codegen.SwaggerCodegen;
+import io.swagger.codegen.cmd.ValidateException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A long running JVM running the commands of clients in its working directory, see {@link DaemonClient}, so that
+ * they don't pay for the JVM startup, the loading of the generators, the compilation of the templates and the JIT
+ * warm-up.
+ *
+ * The daemon listens on the loopback interface only and runs the commands of clients which know the token of its
+ * state file. It stops after being idle for a while, or when a client of another version needs the working
+ * directory. A command whose client disconnects, e.g. on Ctrl-C, is interrupted.
+ */
+public class DaemonServer {
+    private static final Logger LOG = LoggerFactory.getLogger(DaemonServer.class);
+
+    /** commands the daemon runs, the others run in the client */
+    public static final Set<String> COMMANDS =
+            Collections.unmodifiableSet(new HashSet<String>(Arrays.asList("generate", "validate")));
+
+    private static final int HANDSHAKE_TIMEOUT = 10000;
+    private static final int MAX_ARGUMENTS = 10000;
+
+    private final File stateFile;
+    private final File workingDir;
+    private final String version;
+    private final long idleTimeoutMillis;
+    private final String token;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile long lastActivity;
+    private volatile boolean retired;
+    private ServerSocket serverSocket;
+    private ExecutorService requests;
+    private ScheduledExecutorService watchdog;
+
+    /**
+     * @param dir folder of the state files, see {@link DaemonState#defaultDir()}
+     * @param workingDir working directory of the JVM, the commands' relative paths are resolved against it
+     * @param version version of the daemon, only clients of the same version are served
+     * @param idleTimeoutMillis time without requests after which the daemon stops
+     */
+    public DaemonServer(File dir, File workingDir, String version, long idleTimeoutMillis) {
+        this.workingDir = workingDir.getAbsoluteFile();
+        this.stateFile = DaemonState.stateFile(dir, this.workingDir);
+        this.version = version;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        byte[] random = new byte[24];
+        new SecureRandom().nextBytes(random);
+        StringBuilder token = new StringBuilder();
+        for (byte b : random) {
+            token.append(String.format("%02x", b));
+        }
+        this.token = token.toString();
+    }
+
+    /**
+     * Listen for clients and publish the state file.
+     *
+     * @param port port on the loopback interface, 0 for any free port
+     * @throws IOException if the daemon can't listen or write its state
+     */
+    public synchronized void start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getByName(null));
+        requests = Executors.newCachedThreadPool(daemonThreads("codegen-daemon-request"));
+        watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreads("codegen-daemon-watchdog"));
+        lastActivity = System.currentTimeMillis();
+
+        String pid = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+        new DaemonState(serverSocket.getLocalPort(), token, version, pid).write(stateFile);
+
+        Thread acceptor = daemonThreads("codegen-daemon").newThread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        });
+        acceptor.start();
+        watchdog.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                if (active.get() == 0 && (retired || System.currentTimeMillis() - lastActivity > idleTimeoutMillis)) {
+                    LOG.info(retired ? "Stopping for a client of another version" : "Stopping after being idle");
+                    stop();
+                }
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+        LOG.info("Daemon " + version + " of " + workingDir + " listening on port " + serverSocket.getLocalPort());
+    }
+
+    /**
+     * Wait until the daemon stops.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stop listening and remove the state file, the running commands complete.
+     */
+    public synchronized void stop() {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOG.warn("Can't close the daemon socket", e);
+        }
+        // unless another daemon took over the working directory already
+        DaemonState state = DaemonState.read(stateFile);
+        if (state != null && token.equals(state.getToken())) {
+            stateFile.delete();
+        }
+        watchdog.shutdown();
+        requests.shutdown();
+        stopped.countDown();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Number of clients being served.
+     */
+    int getActive() {
+        return active.get();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                requests.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        serve(socket);
+                    }
+                });
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOG.warn("Can't accept a client", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        active.incrementAndGet();
+        try (Socket client = socket) {
+            client.setSoTimeout(HANDSHAKE_TIMEOUT);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+            if (!Protocol.MAGIC.equals(in.readUTF()) || !MessageDigest.isEqual(
+                    token.getBytes(StandardCharsets.UTF_8), in.readUTF().getBytes(StandardCharsets.UTF_8))) {
+                LOG.warn("Rejected a client without the daemon's token");
+                return;
+            }
+            String clientVersion = in.readUTF();
+            File clientDir = new File(in.readUTF()).getAbsoluteFile();
+            int count = in.readInt();
+            if (count < 0 || count > MAX_ARGUMENTS) {
+                return;
+            }
+            String[] args = new String[count];
+            for (int i = 0; i < count; i++) {
+                args[i] = in.readUTF();
+            }
+            client.setSoTimeout(0);
+
+            if (!version.equals(clientVersion) || !workingDir.equals(clientDir)) {
+                out.writeByte(Protocol.MISMATCH);
+                out.writeUTF(version + " in " + workingDir);
+                out.flush();
+                // make room for a daemon of the client's version
+                retired = retired || !version.equals(clientVersion);
+                return;
+            }
+
+            boolean stop = args.length == 1 && Protocol.STOP.equals(args[0]);
+            int exitCode;
+            if (stop) {
+                exitCode = 0;
+            } else {
+                Disconnection disconnection = new Disconnection(in, args[0]);
+                requests.execute(disconnection);
+                try {
+                    exitCode = execute(args, out, disconnection);
+                } finally {
+                    disconnection.done();
+                }
+            }
+            synchronized (out) {
+                out.writeByte(Protocol.EXIT);
+                out.writeInt(exitCode);
+                out.flush();
+            }
+            if (stop) {
+                LOG.info("Stopping on request");
+                stop();
+            }
+        } catch (IOException e) {
+            LOG.debug("Client disconnected", e);
+        } finally {
+            lastActivity = System.currentTimeMillis();
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Run a command with its output sent to the client.
+     *
+     * @return exit code of the command, as the command line interface would exit
+     */
+    private int execute(String[] args, DataOutputStream out, Disconnection disconnection) {
+        PrintStream stdout;
+        PrintStream stderr;
+        try {
+            stdout = new PrintStream(disconnection.frames(out, Protocol.STDOUT), true, "UTF-8");
+            stderr = new PrintStream(disconnection.frames(out, Protocol.STDERR), true, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        if (args.length == 0 || !COMMANDS.contains(args[0])) {
+            stderr.println("The daemon only runs the " + COMMANDS + " commands");
+            return 2;
+        }
+
+        OutputRouter.route(stdout, stderr);
+        try {
+            SwaggerCodegen.cli().parse(args).run();
+            return 0;
+        } catch (ValidateException e) {
+            return 1;
+        } catch (ParseException e) {
+            stderr.println(e.getMessage());
+            return 1;
+        } catch (RuntimeException e) {
+            // like an uncaught exception of the command line interface
+            stderr.print("Exception in thread \"main\" ");
+            e.printStackTrace(stderr);
+            return 1;
+        } finally {
+            OutputRouter.unroute();
+            stdout.flush();
+            stderr.flush();
+        }
+    }
+
+    /**
+     * Interrupts the thread running a command when its client disconnects: the client sends nothing after the
+     * command line, so the end of its stream, or a failed write of the output, means it went away.
+     */
+    private static class Disconnection implements Runnable {
+        private final DataInputStream in;
+        private final String command;
+        private final Thread thread;
+        private boolean done;
+
+        Disconnection(DataInputStream in, String command) {
+            this.in = in;
+            this.command = command;
+            this.thread = Thread.currentThread();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (in.read() >= 0) {
+                    // nothing expected
+                }
+            } catch (IOException e) {
+                // closed by either side
+            }
+            cancel();
+        }
+
+        synchronized void cancel() {
+            if (!done) {
+                done = true;
+                LOG.info("Client disconnected, cancelling " + command);
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * The command completed, its thread goes back to the pool without a pending interrupt.
+         */
+        synchronized void done() {
+            done = true;
+            Thread.interrupted();
+        }
+
+        OutputStream frames(DataOutputStream out, byte kind) {
+            return new Protocol.FrameOutputStream(out, kind) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    try {
+                        super.write(b, off, len);
+                    } catch (IOException e) {
+                        cancel();
+                        throw e;
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    try {
+                        super.flush();
+                    } catch (IOException e) {
+                        cancel();
+                        throw e;
+                    }
+                }
+            };
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
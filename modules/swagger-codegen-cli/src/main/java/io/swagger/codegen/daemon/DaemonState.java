@@ -0,0 +1,142 @@
+package io.swagger.codegen.daemon;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.Properties;
+
+/**
+ * Where a running daemon can be reached: its port, the token clients authenticate with and its version. There is
+ * one daemon per working directory, its state is written to a file only the user can read.
+ */
+public class DaemonState {
+    public static final String DIR_PROPERTY = "swagger.codegen.daemon.dir";
+
+    private final int port;
+    private final String token;
+    private final String version;
+    private final String pid;
+
+    public DaemonState(int port, String token, String version, String pid) {
+        this.port = port;
+        this.token = token;
+        this.version = version;
+        this.pid = pid;
+    }
+
+    /**
+     * @return folder of the state and log files, <code>~/.swagger-codegen/daemon</code> unless the
+     *         {@value #DIR_PROPERTY} system property is set
+     */
+    public static File defaultDir() {
+        String dir = System.getProperty(DIR_PROPERTY);
+        if (dir != null) {
+            return new File(dir);
+        }
+        return new File(System.getProperty("user.home"), ".swagger-codegen" + File.separator + "daemon");
+    }
+
+    /**
+     * @param dir folder of the state files
+     * @param workingDir working directory of the daemon
+     * @return state file of the daemon of the working directory
+     */
+    public static File stateFile(File dir, File workingDir) {
+        return new File(dir, "daemon-" + key(workingDir) + ".properties");
+    }
+
+    /**
+     * @param dir folder of the state files
+     * @param workingDir working directory of the daemon
+     * @return log file of the daemon of the working directory
+     */
+    public static File logFile(File dir, File workingDir) {
+        return new File(dir, "daemon-" + key(workingDir) + ".log");
+    }
+
+    /**
+     * @param file state file
+     * @return the state, or null if there is no daemon or its state can't be read
+     */
+    public static DaemonState read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+            return new DaemonState(Integer.parseInt(properties.getProperty("port")), properties.getProperty("token"),
+                    properties.getProperty("version"), properties.getProperty("pid"));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the state, readable by the user only where the file system supports it.
+     *
+     * @param file state file
+     * @throws IOException if the state can't be written
+     */
+    public void write(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        tmp.delete();
+        tmp.createNewFile();
+        try {
+            Files.setPosixFilePermissions(tmp.toPath(),
+                    EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+        } catch (UnsupportedOperationException e) {
+            // e.g. Windows, where the home folder is private anyway
+        }
+        Properties properties = new Properties();
+        properties.setProperty("port", String.valueOf(port));
+        properties.setProperty("token", token);
+        properties.setProperty("version", version);
+        properties.setProperty("pid", pid);
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            properties.store(out, "swagger-codegen daemon");
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getPid() {
+        return pid;
+    }
+
+    private static String key(File workingDir) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(workingDir.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                key.append(String.format("%02x", digest[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.swagger.codegen.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * System.out and System.err of the daemon, which write to the client of the request the current thread works for,
+ * or to the daemon's own streams. Threads started while running a request, e.g. to generate several targets
+ * concurrently, inherit its streams.
+ *
+ * The streams must be installed before the loggers are created, the simple logger keeps the System.err it finds.
+ */
+public class OutputRouter {
+    private static final InheritableThreadLocal<PrintStream> out = new InheritableThreadLocal<PrintStream>();
+    private static final InheritableThreadLocal<PrintStream> err = new InheritableThreadLocal<PrintStream>();
+    private static boolean installed;
+
+    private OutputRouter() {
+    }
+
+    /**
+     * Replace System.out and System.err with the routing streams, once.
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        System.setOut(new PrintStream(new Routed(out, System.out), true));
+        System.setErr(new PrintStream(new Routed(err, System.err), true));
+        installed = true;
+    }
+
+    /**
+     * Route the output of the current thread, and of the threads it starts, to a client.
+     *
+     * @param stdout standard output of the client
+     * @param stderr standard error of the client
+     */
+    public static void route(PrintStream stdout, PrintStream stderr) {
+        out.set(stdout);
+        err.set(stderr);
+    }
+
+    /**
+     * Route the output of the current thread to the daemon's streams again.
+     */
+    public static void unroute() {
+        out.remove();
+        err.remove();
+    }
+
+    private static class Routed extends OutputStream {
+        private final ThreadLocal<PrintStream> target;
+        private final PrintStream fallback;
+
+        private Routed(ThreadLocal<PrintStream> target, PrintStream fallback) {
+            this.target = target;
+            this.fallback = fallback;
+        }
+
+        private PrintStream stream() {
+            PrintStream stream = target.get();
+            return stream != null ? stream : fallback;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            stream().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            stream().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            stream().flush();
+        }
+    }
+}
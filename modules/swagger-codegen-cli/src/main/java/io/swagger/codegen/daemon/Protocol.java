@@ -0,0 +1,66 @@
+package io.swagger.codegen.daemon;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The protocol between the client and the daemon.
+ *
+ * The client sends {@link #MAGIC}, the token of the daemon, its version, its working directory and the command line
+ * arguments (a count followed by the arguments), all as UTF strings. The daemon answers with frames, each a kind
+ * byte and its payload: {@link #STDOUT} and {@link #STDERR} chunks (a length followed by the bytes) while the
+ * command runs, then {@link #EXIT} and the exit code; or {@link #MISMATCH} and its version or working directory when
+ * it can't run the client's command. The client sends nothing else, closing the connection cancels the command.
+ */
+final class Protocol {
+    static final String MAGIC = "swagger-codegen-daemon/1";
+
+    static final byte STDOUT = 'O';
+    static final byte STDERR = 'E';
+    static final byte EXIT = 'X';
+    static final byte MISMATCH = 'V';
+
+    /** command stopping the daemon */
+    static final String STOP = "stop";
+
+    private Protocol() {
+    }
+
+    /**
+     * Output of a command sent to the client as frames. Several threads of a command may write at the same time.
+     */
+    static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte kind;
+
+        FrameOutputStream(DataOutputStream out, byte kind) {
+            this.out = out;
+            this.kind = kind;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(kind);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
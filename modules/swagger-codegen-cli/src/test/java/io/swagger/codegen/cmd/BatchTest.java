@@ -0,0 +1,115 @@
+package io.swagger.codegen.cmd;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.codegen.SwaggerCodegen;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class BatchTest {
+
+    private static final String SPEC = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"%s\",\"version\":\"1.0.0\"},"
+            + "\"tags\":[{\"name\":\"pet\"}],\"paths\":{\"/pets\":{\"get\":{\"tags\":[\"pet\"],\"operationId\":\"listPets\","
+            + "\"responses\":{\"200\":{\"description\":\"pets\"}}}}}}";
+
+    private File folder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("batch").toFile();
+        FileUtils.writeStringToFile(new File(folder, "specs/pets.json"), String.format(SPEC, "Pets"), StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(folder, "specs/stores.json"), String.format(SPEC, "Stores"), StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(folder, "yaml.json"), "{\"lang\": \"swagger-yaml\"}", StandardCharsets.UTF_8);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        File manifest = new File(folder, "manifest.yaml");
+        FileUtils.writeStringToFile(manifest, "- spec: specs/pets.json\n  lang: swagger\n  output: out/pets-json\n"
+                + "- spec: specs/pets.json\n  config: yaml.json\n  output: out/pets-yaml\n"
+                + "- spec: specs/stores.json\n  lang: swagger\n  output: out/stores-json\n", StandardCharsets.UTF_8);
+        File report = new File(folder, "report.json");
+
+        SwaggerCodegen.main(new String[] {"batch", "--threads", "2", "--report", report.getAbsolutePath(),
+                manifest.getAbsolutePath()});
+
+        assertTrue(FileUtils.readFileToString(new File(folder, "out/pets-json/swagger.json"), StandardCharsets.UTF_8)
+                .contains("Pets"));
+        assertTrue(new File(folder, "out/pets-yaml/swagger.yaml").isFile());
+        assertTrue(FileUtils.readFileToString(new File(folder, "out/stores-json/swagger.json"), StandardCharsets.UTF_8)
+                .contains("Stores"));
+
+        JsonNode summary = Json.mapper().readTree(report);
+        assertEquals(summary.get("failed").asInt(), 0);
+        // the jobs of a spec share it
+        assertEquals(summary.get("specs").asInt(), 2);
+        assertEquals(summary.get("jobs").size(), 3);
+        assertNull(summary.get("jobs").get(0).get("error"));
+        assertTrue(summary.get("jobs").get(0).get("phases").has("flatten"));
+    }
+
+    @Test
+    public void testFailedJob() throws Exception {
+        File manifest = new File(folder, "manifest.json");
+        FileUtils.writeStringToFile(manifest, "[{\"spec\": \"specs/pets.json\", \"lang\": \"no-such-lang\", \"output\": \"out/none\"},"
+                + "{\"spec\": \"specs/missing.json\", \"lang\": \"swagger\", \"output\": \"out/missing\"},"
+                + "{\"spec\": \"specs/pets.json\", \"lang\": \"swagger\", \"output\": \"out/pets\"}]", StandardCharsets.UTF_8);
+        File report = new File(folder, "report.json");
+
+        try {
+            SwaggerCodegen.main(new String[] {"batch", "--report", report.getAbsolutePath(), manifest.getAbsolutePath()});
+            fail("the batch should fail");
+        } catch (RuntimeException e) {
+            assertEquals(e.getMessage(), "2 of 3 jobs failed");
+        }
+
+        // the other jobs are generated anyway
+        assertTrue(new File(folder, "out/pets/swagger.json").isFile());
+        JsonNode summary = Json.mapper().readTree(report);
+        assertEquals(summary.get("failed").asInt(), 2);
+        assertNotNull(summary.get("jobs").get(0).get("error"));
+        assertNotNull(summary.get("jobs").get(1).get("error"));
+        assertNull(summary.get("jobs").get(2).get("error"));
+    }
+
+    @Test
+    public void testConfigPaths() throws Exception {
+        // the paths of a config file are relative to its folder, not to the working directory
+        FileUtils.writeStringToFile(new File(folder, "configs/swagger.json"),
+                "{\"lang\": \"swagger\", \"outputDir\": \"out\", \"templateDir\": \"templates\"}",
+                StandardCharsets.UTF_8);
+        assertTrue(new File(folder, "configs/templates").mkdirs());
+        File manifest = new File(folder, "manifest.yaml");
+        FileUtils.writeStringToFile(manifest, "- spec: specs/pets.json\n  config: configs/swagger.json\n",
+                StandardCharsets.UTF_8);
+
+        SwaggerCodegen.main(new String[] {"batch", manifest.getAbsolutePath()});
+
+        assertTrue(new File(folder, "configs/out/swagger.json").isFile());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidManifest() throws Exception {
+        File manifest = new File(folder, "manifest.json");
+        FileUtils.writeStringToFile(manifest, "{\"spec\": ", StandardCharsets.UTF_8);
+        SwaggerCodegen.main(new String[] {"batch", manifest.getAbsolutePath()});
+    }
+}
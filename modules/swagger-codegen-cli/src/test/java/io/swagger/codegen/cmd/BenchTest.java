@@ -0,0 +1,80 @@
+package io.swagger.codegen.cmd;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.codegen.SwaggerCodegen;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class BenchTest {
+
+    private static final String SPEC = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Bench\",\"version\":\"1.0.0\"},"
+            + "\"tags\":[{\"name\":\"pet\"}],\"paths\":{\"/pets\":{\"get\":{\"tags\":[\"pet\"],\"operationId\":\"listPets\","
+            + "\"responses\":{\"200\":{\"description\":\"pets\"}}}}}}";
+
+    private File folder;
+    private String spec;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("bench").toFile();
+        File specFile = new File(folder, "spec.json");
+        FileUtils.writeStringToFile(specFile, SPEC, StandardCharsets.UTF_8);
+        spec = specFile.getAbsolutePath();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testMemorySink() throws Exception {
+        File report = new File(folder, "report.json");
+        File output = new File(folder, "out");
+        SwaggerCodegen.main(new String[] {"bench", "-i", spec, "-l", "java", "-o", output.getAbsolutePath(),
+                "--warmup", "1", "--iterations", "3", "--report", report.getAbsolutePath()});
+
+        JsonNode json = Json.mapper().readTree(report);
+        assertEquals(json.get("lang").asText(), "java");
+        assertEquals(json.get("runs").size(), 3);
+        assertTrue(json.get("p95Millis").asDouble() >= json.get("p50Millis").asDouble());
+        assertTrue(json.get("maxMillis").asDouble() >= json.get("p95Millis").asDouble());
+        assertTrue(json.get("phases").has("parse"));
+        assertTrue(json.get("phases").has("flatten"));
+        assertTrue(json.get("phases").has("supportingFiles"));
+        assertTrue(json.get("peakHeapBytes").asLong() > 0);
+        assertTrue(json.get("runs").get(0).get("files").asInt() > 0);
+
+        // nothing is written to disk
+        assertFalse(output.exists());
+    }
+
+    @Test
+    public void testDiskSink() throws Exception {
+        File output = new File(folder, "out");
+        SwaggerCodegen.main(new String[] {"bench", "-i", spec, "-l", "swagger", "-o", output.getAbsolutePath(),
+                "--sink", "disk", "--warmup", "0", "--iterations", "1"});
+
+        assertTrue(new File(output, "swagger.json").isFile());
+    }
+
+    @Test
+    public void testPercentile() {
+        assertEquals(Bench.percentile(Arrays.asList(1.0), 95), 1.0);
+        assertEquals(Bench.percentile(Arrays.asList(1.0, 2.0, 3.0, 4.0), 50), 2.0);
+        assertEquals(Bench.percentile(Arrays.asList(1.0, 2.0, 3.0, 4.0), 95), 4.0);
+    }
+}
@@ -0,0 +1,24 @@
+package io.swagger.codegen.cmd;
+
+import static org.testng.Assert.assertTrue;
+
+import io.swagger.codegen.TemplateCache;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class CdsTest {
+
+    @Test
+    public void testTrain() {
+        Cds.train(Arrays.asList("swagger", "no-such-generator"));
+
+        // all generators were loaded, with their templates
+        assertTrue(TemplateCache.size() > 100, String.valueOf(TemplateCache.size()));
+    }
+
+    @Test
+    public void testJavaVersion() {
+        assertTrue(Cds.javaVersion() >= 7);
+    }
+}
@@ -0,0 +1,69 @@
+package io.swagger.codegen.cmd;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import io.swagger.codegen.SwaggerCodegen;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class GenerateTargetsTest {
+
+    private static final String SPEC = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Targets\",\"version\":\"1.0.0\"},"
+            + "\"tags\":[{\"name\":\"pet\"}],\"paths\":{\"/pets\":{\"get\":{\"tags\":[\"pet\"],\"operationId\":\"listPets\","
+            + "\"responses\":{\"200\":{\"description\":\"pets\",\"schema\":{\"type\":\"object\","
+            + "\"properties\":{\"name\":{\"type\":\"string\"}}}}}}}}}";
+
+    private File folder;
+    private String spec;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("targets").toFile();
+        File specFile = new File(folder, "spec.json");
+        FileUtils.writeStringToFile(specFile, SPEC, StandardCharsets.UTF_8);
+        spec = specFile.getAbsolutePath();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testTargets() throws Exception {
+        File output = new File(folder, "out");
+        File yaml = new File(folder, "yaml");
+        SwaggerCodegen.main(new String[] {"generate", "-i", spec, "-o", output.getAbsolutePath(),
+                "-l", "java", "--target", "lang=swagger", "--target", "lang=swagger-yaml,output=" + yaml.getAbsolutePath(),
+                "--threads", "2"});
+
+        // -l generates to -o, the targets to their own folders
+        assertTrue(new File(output, "core").isDirectory());
+        assertTrue(new File(output, "swagger/swagger.json").isFile());
+        assertTrue(new File(yaml, "swagger.yaml").isFile());
+        assertFalse(new File(output, "swagger-yaml").exists());
+
+        // each target generates the flattened spec
+        String json = FileUtils.readFileToString(new File(output, "swagger/swagger.json"), StandardCharsets.UTF_8);
+        assertTrue(json.contains("#/definitions/inline_response_200"), json);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTargetWithoutLanguage() throws Exception {
+        SwaggerCodegen.main(new String[] {"generate", "-i", spec, "--target", "output=" + folder.getAbsolutePath()});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTargetsWithSameOutput() throws Exception {
+        SwaggerCodegen.main(new String[] {"generate", "-i", spec, "-o", folder.getAbsolutePath(),
+                "--target", "lang=java,output=client", "--target", "lang=go,output=client"});
+    }
+}
@@ -0,0 +1,109 @@
+package io.swagger.codegen.cmd;
+
+import static org.testng.Assert.assertTrue;
+
+import io.swagger.codegen.SwaggerCodegen;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class GenerateWatchTest {
+
+    private static final String SPEC = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"%s\",\"version\":\"1.0.0\"},"
+            + "\"tags\":[{\"name\":\"pet\"}],\"paths\":{\"/pets\":{\"get\":{\"tags\":[\"pet\"],\"operationId\":\"listPets\","
+            + "\"responses\":{\"200\":{\"description\":\"pets\",\"schema\":{\"$ref\":\"#/definitions/Pet\"}}}}}},"
+            + "\"definitions\":{\"Pet\":{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}}}";
+
+    private File folder;
+    private File spec;
+    private File template;
+    private Thread watch;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("watch").toFile();
+        spec = new File(folder, "spec.json");
+        FileUtils.writeStringToFile(spec, String.format(SPEC, "First"), StandardCharsets.UTF_8);
+        template = new File(folder, "templates/extensionservicetype.mustache");
+        FileUtils.writeStringToFile(template, "first template", StandardCharsets.UTF_8);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (watch != null) {
+            watch.interrupt();
+            watch.join(10000);
+        }
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test(timeOut = 60000)
+    public void testWatch() throws Exception {
+        final File output = new File(folder, "out");
+        watch = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SwaggerCodegen.main(new String[] {"generate", "--watch", "-i", spec.getAbsolutePath(), "-l", "java",
+                        "-o", output.getAbsolutePath(), "-t", template.getParent(), "--target", "lang=swagger"});
+            }
+        });
+        watch.start();
+
+        File serviceType = new File(output, "core/src/main/java/com/huawei/openstack4j/api/types/ServiceType.java");
+        File json = new File(output, "swagger/swagger.json");
+        awaitContent(serviceType, "first template", null, null);
+        awaitContent(json, "First", null, null);
+
+        // the targets using the changed template are regenerated
+        awaitContent(serviceType, "second template", template, "second template");
+
+        // the targets of the changed spec are regenerated
+        awaitContent(json, "Second", spec, String.format(SPEC, "Second"));
+        assertTrue(watch.isAlive());
+    }
+
+    @Test(timeOut = 60000)
+    public void testWatchSupportingFile() throws Exception {
+        final File output = new File(folder, "out");
+        final File travis = new File(folder, "templates/travis.mustache");
+        FileUtils.writeStringToFile(travis, "first travis", StandardCharsets.UTF_8);
+        watch = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SwaggerCodegen.main(new String[] {"generate", "--watch", "-i", spec.getAbsolutePath(), "-l", "java",
+                        "-o", output.getAbsolutePath(), "-t", template.getParent(), "-D", "supportingFiles"});
+            }
+        });
+        watch.start();
+
+        File generated = new File(output, ".travis.yml");
+        awaitContent(generated, "first travis", null, null);
+
+        // a supporting file regenerated on its own still sees the apis and models
+        awaitContent(generated, "operations: listPets, models: Pet", travis,
+                "operations: {{#apiInfo}}{{#apis}}{{#operations}}{{#operation}}{{operationId}}{{/operation}}"
+                        + "{{/operations}}{{/apis}}{{/apiInfo}}, models: {{#models}}{{#model}}{{classname}}{{/model}}{{/models}}");
+        assertTrue(watch.isAlive());
+    }
+
+    /**
+     * Wait until a generated file contains a text, rewriting an input until then since the watch may not have
+     * started yet.
+     */
+    private static void awaitContent(File file, String text, File input, String content) throws Exception {
+        long lastWrite = 0;
+        while (!file.isFile() || !FileUtils.readFileToString(file, StandardCharsets.UTF_8).contains(text)) {
+            if (input != null && System.currentTimeMillis() - lastWrite > 2000) {
+                FileUtils.writeStringToFile(input, content, StandardCharsets.UTF_8);
+                lastWrite = System.currentTimeMillis();
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.swagger.codegen.cmd;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.codegen.SwaggerCodegen;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class ValidateTest {
+
+    private static final String VALID = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Valid\",\"version\":\"1.0.0\"},"
+            + "\"paths\":{\"/pets\":{\"get\":{\"responses\":{\"200\":{\"description\":\"pets\"}}}}}}";
+    private static final String INVALID = "{\"swagger\":\"2.0\",\"paths\":{\"/pets\":{\"get\":{}}}}";
+
+    private File folder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("validate").toFile();
+        write("a.json", VALID);
+        write("b.json", INVALID);
+        write("nested/c.json", VALID);
+        write("nested/notes.txt", "not a spec");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testExpand() throws Exception {
+        List<String> specs = Validate.expand(folder.getPath());
+        assertEquals(specs.size(), 3);
+        assertTrue(specs.get(2).endsWith("c.json"), specs.toString());
+
+        specs = Validate.expand(folder.getPath() + "/*.json");
+        assertEquals(specs.size(), 2);
+        // like a shell with globstar, **/ matches the files of the folder too
+        specs = Validate.expand(folder.getPath() + "/**/*.json");
+        assertEquals(specs.size(), 3);
+        specs = Validate.expand(folder.getPath() + "/*/*.json");
+        assertEquals(specs.size(), 1);
+
+        assertEquals(Validate.globstar("a/**/b/**/*.yaml"),
+                Arrays.asList("a/**/b/**/*.yaml", "a/b/**/*.yaml", "a/**/b/*.yaml", "a/b/*.yaml"));
+
+        assertEquals(Validate.expand("http://localhost/spec.json").size(), 1);
+    }
+
+    @Test
+    public void testJsonReport() throws Exception {
+        File report = new File(folder, "report.json");
+        try {
+            SwaggerCodegen.main(new String[] {"validate", folder.getPath(), "--format", "json",
+                    "--report", report.getPath(), "--threads", "2"});
+            fail("b.json is invalid");
+        } catch (ValidateException e) {
+            // expected
+        }
+
+        JsonNode json = Json.mapper().readTree(report);
+        assertEquals(json.get("invalid").asInt(), 1);
+        assertEquals(json.get("skipped").asInt(), 0);
+        assertEquals(json.get("specs").size(), 3);
+        assertTrue(json.get("specs").get(0).get("valid").asBoolean());
+        assertFalse(json.get("specs").get(1).get("valid").asBoolean());
+        assertTrue(json.get("specs").get(1).get("messages").size() > 0);
+        assertTrue(json.get("specs").get(1).has("millis"));
+    }
+
+    @Test
+    public void testJunitReport() throws Exception {
+        File report = new File(folder, "report.xml");
+        SwaggerCodegen.main(new String[] {"validate", "-i", new File(folder, "a.json").getPath(),
+                "-i", new File(folder, "nested/c.json").getPath(), "--format", "junit", "--report", report.getPath()});
+
+        String xml = FileUtils.readFileToString(report, StandardCharsets.UTF_8);
+        assertTrue(xml.contains("<testsuite name=\"validate\" tests=\"2\" failures=\"0\""), xml);
+        assertFalse(xml.contains("<failure"), xml);
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        File report = new File(folder, "report.xml");
+        try {
+            SwaggerCodegen.main(new String[] {"validate", new File(folder, "b.json").getPath(),
+                    new File(folder, "a.json").getPath(), new File(folder, "nested/c.json").getPath(),
+                    "--threads", "1", "--fail-fast", "--format", "junit", "--report", report.getPath()});
+            fail("b.json is invalid");
+        } catch (ValidateException e) {
+            // expected
+        }
+
+        String xml = FileUtils.readFileToString(report, StandardCharsets.UTF_8);
+        assertTrue(xml.contains("failures=\"1\""), xml);
+        assertTrue(xml.contains("skipped=\"2\""), xml);
+        assertTrue(xml.contains("<skipped/>"), xml);
+    }
+
+    @Test
+    public void testMissingSpec() throws Exception {
+        File report = new File(folder, "report.json");
+        try {
+            SwaggerCodegen.main(new String[] {"validate", "-i", new File(folder, "missing.json").getPath(),
+                    "--format", "json", "--report", report.getPath()});
+            fail("missing.json can't be read");
+        } catch (ValidateException e) {
+            // expected
+        }
+
+        JsonNode json = Json.mapper().readTree(report);
+        assertEquals(json.get("invalid").asInt(), 1);
+        assertEquals(json.get("specs").get(0).get("messages").get(0).asText(),
+                "Cannot read spec " + new File(folder, "missing.json").getPath());
+    }
+
+    private void write(String name, String content) throws IOException {
+        FileUtils.writeStringToFile(new File(folder, name), content, StandardCharsets.UTF_8);
+    }
+}
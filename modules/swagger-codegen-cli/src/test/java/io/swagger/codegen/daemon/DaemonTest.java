@@ -0,0 +1,142 @@
+package io.swagger.codegen.daemon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+public class DaemonTest {
+
+    private static final String SPEC = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Daemon\",\"version\":\"1.0.0\"},"
+            + "\"paths\":{\"/pets\":{\"get\":{\"responses\":{\"200\":{\"description\":\"pets\"}}}}}}";
+
+    private File folder;
+    private File spec;
+    private DaemonServer server;
+    private DaemonClient client;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        OutputRouter.install();
+        folder = Files.createTempDirectory("daemon").toFile();
+        spec = new File(folder, "spec.json");
+        FileUtils.writeStringToFile(spec, SPEC, StandardCharsets.UTF_8);
+
+        server = new DaemonServer(new File(folder, "state"), new File(""), "test", TimeUnit.MINUTES.toMillis(1));
+        server.start(0);
+        client = client("test");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.stop();
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testCommands() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(client.run(new String[] {"validate", "-i", spec.getAbsolutePath()}, out, new ByteArrayOutputStream()),
+                Integer.valueOf(0));
+        assertTrue(out.toString("UTF-8").contains("Validating spec file"), out.toString("UTF-8"));
+
+        File output = new File(folder, "out");
+        assertEquals(client.run(new String[] {"generate", "-l", "swagger", "-i", spec.getAbsolutePath(),
+                "-o", output.getAbsolutePath()}, new ByteArrayOutputStream(), new ByteArrayOutputStream()), Integer.valueOf(0));
+        assertTrue(new File(output, "swagger.json").isFile());
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        File invalid = new File(folder, "invalid.json");
+        FileUtils.writeStringToFile(invalid, "{\"swagger\":\"2.0\",\"paths\":{\"/pets\":{\"get\":{}}}}", StandardCharsets.UTF_8);
+        assertEquals(client.run(new String[] {"validate", "-i", invalid.getAbsolutePath()},
+                new ByteArrayOutputStream(), new ByteArrayOutputStream()), Integer.valueOf(1));
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals(client.run(new String[] {"generate", "-i", spec.getAbsolutePath()}, new ByteArrayOutputStream(), err),
+                Integer.valueOf(1));
+        assertTrue(err.toString("UTF-8").contains("language must be specified"), err.toString("UTF-8"));
+
+        err = new ByteArrayOutputStream();
+        assertEquals(client.run(new String[] {"generate", "--no-such-option"}, new ByteArrayOutputStream(), err),
+                Integer.valueOf(1));
+        assertTrue(err.toString("UTF-8").contains("no-such-option"), err.toString("UTF-8"));
+
+        // the other commands run in the client
+        assertEquals(client.run(new String[] {"langs"}, new ByteArrayOutputStream(), new ByteArrayOutputStream()),
+                Integer.valueOf(2));
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        File stateFile = DaemonState.stateFile(new File(folder, "state"), new File(""));
+        assertTrue(stateFile.isFile());
+
+        assertEquals(client.run(new String[] {"stop"}, new ByteArrayOutputStream(), new ByteArrayOutputStream()),
+                Integer.valueOf(0));
+        server.await();
+        assertFalse(stateFile.exists());
+    }
+
+    @Test(timeOut = 20000)
+    public void testOtherVersion() throws Exception {
+        // the daemon stops so that the client can start a daemon of its version
+        assertNull(client("other").run(new String[] {"validate", "-i", spec.getAbsolutePath()},
+                new ByteArrayOutputStream(), new ByteArrayOutputStream()));
+        server.await();
+        assertFalse(DaemonState.stateFile(new File(folder, "state"), new File("")).exists());
+    }
+
+    @Test(timeOut = 30000)
+    public void testDisconnect() throws Exception {
+        DaemonState state = DaemonState.read(DaemonState.stateFile(new File(folder, "state"), new File("")));
+        File output = new File(folder, "out");
+        String[] args = {"generate", "--watch", "-l", "swagger", "-i", spec.getAbsolutePath(),
+                "-o", output.getAbsolutePath()};
+        try (Socket socket = new Socket(InetAddress.getByName(null), state.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeUTF(Protocol.MAGIC);
+            out.writeUTF(state.getToken());
+            out.writeUTF("test");
+            out.writeUTF(new File("").getAbsolutePath());
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+            while (!new File(output, "swagger.json").isFile()) {
+                Thread.sleep(50);
+            }
+            assertEquals(server.getActive(), 1);
+        }
+        // like Ctrl-C in the client, the watch stops
+        while (server.getActive() > 0) {
+            Thread.sleep(50);
+        }
+    }
+
+    private DaemonClient client(String version) {
+        return new DaemonClient(new File(folder, "state"), new File(""), version) {
+            @Override
+            protected boolean startDaemon() {
+                return false;
+            }
+        };
+    }
+}
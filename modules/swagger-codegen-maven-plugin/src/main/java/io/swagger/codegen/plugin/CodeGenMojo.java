@@ -29,23 +29,48 @@ import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyReservedWo
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.DirectoryScanner;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import io.swagger.codegen.CliOption;
 import io.swagger.codegen.ClientOptInput;
 import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenConfigLoader;
 import io.swagger.codegen.CodegenConstants;
 import io.swagger.codegen.DefaultGenerator;
 import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.util.Json;
 
 /**
  * Goal which generates client/server code from a swagger json/yaml definition.
@@ -53,6 +78,13 @@ import io.swagger.codegen.config.CodegenConfigurator;
 @Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES)
 public class CodeGenMojo extends AbstractMojo {
 
+    /** serializes the configurator the same way for the same configuration */
+    private static final ObjectMapper STAMP_MAPPER = Json.mapper().copy()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+
+    private static final String[] DEFAULT_SPEC_INCLUDES = {"**/*.json", "**/*.yaml", "**/*.yml"};
+
     @Parameter(name = "verbose", required = false, defaultValue = "false")
     private boolean verbose;
 
@@ -72,9 +104,41 @@ public class CodeGenMojo extends AbstractMojo {
     /**
      * Location of the swagger spec, as URL or file.
      */
-    @Parameter(name = "inputSpec", required = true)
+    @Parameter(name = "inputSpec")
     private String inputSpec;
 
+    /**
+     * More specs, as URLs or files. With several specs, each one, including inputSpec, is generated into a sub
+     * folder of the output directory named after its file, e.g. petstore for petstore.yaml.
+     */
+    @Parameter(name = "inputSpecs")
+    private List<String> inputSpecs;
+
+    /**
+     * Folder of specs, each generated into the sub folder of the output directory named after its path in the
+     * folder, e.g. billing/invoices for billing/invoices.yaml.
+     */
+    @Parameter(name = "inputSpecDirectory")
+    private File inputSpecDirectory;
+
+    /**
+     * Patterns of the specs in inputSpecDirectory, all the JSON and YAML files by default.
+     */
+    @Parameter(name = "inputSpecIncludes")
+    private List<String> inputSpecIncludes;
+
+    /**
+     * Patterns of the files in inputSpecDirectory which are not specs.
+     */
+    @Parameter(name = "inputSpecExcludes")
+    private List<String> inputSpecExcludes;
+
+    /**
+     * Number of specs generated concurrently.
+     */
+    @Parameter(name = "threads", property = "codegen.threads", defaultValue = "1")
+    private int threads = 1;
+
     /**
      * Git user ID, e.g. swagger-api.
      */
@@ -289,6 +353,21 @@ public class CodeGenMojo extends AbstractMojo {
     @Parameter(name = "skip", property = "codegen.skip", required = false, defaultValue = "false")
     private Boolean skip;
 
+    /**
+     * Skip the generation when the spec and the files it references, the templates, the configuration file,
+     * the parameters and the generator didn't change since the previous generation, whose fingerprint is kept
+     * in a stamp file below the build directory.
+     */
+    @Parameter(name = "skipIfUpToDate", property = "codegen.skipIfUpToDate", defaultValue = "true")
+    private boolean skipIfUpToDate = true;
+
+    /**
+     * Share the parsed specs between the executions of the build: executions generating from the same spec,
+     * e.g. in several modules, parse it only once. Each execution still generates from its own copy.
+     */
+    @Parameter(name = "reuseParsedSpecs", property = "codegen.reuseParsedSpecs", defaultValue = "true")
+    private boolean reuseParsedSpecs = true;
+
     /**
      * Add the output directory to the project as a source root, so that the generated java types
      * are compiled and included in the project artifact.
@@ -296,12 +375,13 @@ public class CodeGenMojo extends AbstractMojo {
     @Parameter(defaultValue = "true")
     private boolean addCompileSourceRoot = true;
 
+    /**
+     * System properties of the generation, e.g. models or debugModels. They are passed to each generation rather
+     * than set for the whole JVM, whose other builds and executions may be generating at the same time.
+     */
     @Parameter
     protected Map<String, String> environmentVariables = new HashMap<String, String>();
 
-    @Parameter
-    protected Map<String, String> originalEnvironmentVariables = new HashMap<String, String>();
-
     @Parameter
     private boolean configHelp = false;
 
@@ -311,19 +391,252 @@ public class CodeGenMojo extends AbstractMojo {
     @Parameter(readonly = true, required = true, defaultValue = "${project}")
     private MavenProject project;
 
+    @Parameter(readonly = true, defaultValue = "${mojoExecution}")
+    private MojoExecution mojoExecution;
 
 
     @Override
     public void execute() throws MojoExecutionException {
-
         if (skip) {
             getLog().info("Code generation is skipped.");
             // Even when no new sources are generated, the existing ones should
             // still be compiled if needed.
-            addCompileSourceRootIfConfigured();
+            List<Target> targets;
+            try {
+                targets = targets();
+            } catch (MojoExecutionException e) {
+                getLog().warn("Can't tell the generated source roots: " + e.getMessage());
+                targets = Collections.emptyList();
+            }
+            addCompileSourceRootIfConfigured(targets);
+            return;
+        }
+
+        if (configHelp) {
+            for (CliOption langCliOption : CodegenConfigLoader.forName(language).cliOptions()) {
+                System.out.println("\t" + langCliOption.getOpt());
+                System.out.println("\t    "
+                        + langCliOption.getOptionHelp().replaceAll("\n", "\n\t    "));
+                System.out.println();
+            }
             return;
         }
 
+        final List<Target> targets = targets();
+        List<String> failed = new ArrayList<String>();
+        int poolSize = Math.max(1, Math.min(threads, targets.size()));
+        if (poolSize == 1) {
+            for (Target target : targets) {
+                if (!generate(target)) {
+                    failed.add(target.spec);
+                }
+            }
+        } else {
+            // each generation has its own configurator, spec copy and generator
+            ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+            try {
+                List<Future<Boolean>> generations = new ArrayList<Future<Boolean>>();
+                for (final Target target : targets) {
+                    generations.add(executor.submit(new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() {
+                            return generate(target);
+                        }
+                    }));
+                }
+                for (int i = 0; i < targets.size(); i++) {
+                    if (!generations.get(i).get()) {
+                        failed.add(targets.get(i).spec);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Code generation was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new MojoExecutionException("Code generation failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            throw new MojoExecutionException(targets.size() == 1
+                    ? "Code generation failed. See above for the full exception."
+                    : "Code generation failed for " + StringUtils.join(failed, ", ")
+                            + ". See above for the full exceptions.");
+        }
+
+        addCompileSourceRootIfConfigured(targets);
+    }
+
+    /**
+     * The specs to generate and where: the spec into the output directory, or each spec into its own sub folder
+     * of the output directory when there are several.
+     */
+    List<Target> targets() throws MojoExecutionException {
+        List<Target> targets = new ArrayList<Target>();
+        if ((inputSpecs == null || inputSpecs.isEmpty()) && inputSpecDirectory == null) {
+            // the spec may also be set in the configuration file
+            targets.add(new Target(inputSpec, null, output));
+            return targets;
+        }
+
+        // the specs by sub folder
+        Map<String, String> specs = new LinkedHashMap<String, String>();
+        List<String> locations = new ArrayList<String>();
+        if (isNotEmpty(inputSpec)) {
+            locations.add(inputSpec);
+        }
+        if (inputSpecs != null) {
+            locations.addAll(inputSpecs);
+        }
+        for (String location : locations) {
+            addSpec(specs, specName(location), location);
+        }
+        if (inputSpecDirectory != null) {
+            if (!inputSpecDirectory.isDirectory()) {
+                throw new MojoExecutionException("The inputSpecDirectory " + inputSpecDirectory
+                        + " is not a directory");
+            }
+            DirectoryScanner scanner = new DirectoryScanner();
+            scanner.setBasedir(inputSpecDirectory);
+            scanner.setIncludes(inputSpecIncludes != null && !inputSpecIncludes.isEmpty()
+                    ? inputSpecIncludes.toArray(new String[0]) : DEFAULT_SPEC_INCLUDES);
+            if (inputSpecExcludes != null) {
+                scanner.setExcludes(inputSpecExcludes.toArray(new String[0]));
+            }
+            scanner.scan();
+            String[] files = scanner.getIncludedFiles();
+            Arrays.sort(files);
+            for (String file : files) {
+                addSpec(specs, withoutExtension(file.replace(File.separatorChar, '/')),
+                        new File(inputSpecDirectory, file).getPath());
+            }
+        }
+        if (specs.isEmpty()) {
+            throw new MojoExecutionException("No spec found in " + inputSpecDirectory);
+        }
+
+        for (Map.Entry<String, String> spec : specs.entrySet()) {
+            targets.add(new Target(spec.getValue(), spec.getKey(), new File(output, spec.getKey())));
+        }
+        return targets;
+    }
+
+    private void addSpec(Map<String, String> specs, String name, String spec) throws MojoExecutionException {
+        if (name.isEmpty()) {
+            throw new MojoExecutionException("Can't name the output folder of " + spec);
+        }
+        String other = specs.put(name, spec);
+        if (other != null) {
+            throw new MojoExecutionException("Specs " + other + " and " + spec + " would both be generated into "
+                    + new File(output, name));
+        }
+    }
+
+    /**
+     * The name of the sub folder a spec is generated into: the name of its file, without extension.
+     */
+    static String specName(String spec) {
+        String name = spec.replace('\\', '/');
+        int query = StringUtils.indexOfAny(name, "?#");
+        if (query >= 0) {
+            name = name.substring(0, query);
+        }
+        return withoutExtension(name.substring(name.lastIndexOf('/') + 1));
+    }
+
+    static String withoutExtension(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+    }
+
+    /**
+     * Generate a spec, unless its generated sources are up to date.
+     *
+     * @return false if the generation failed, which is logged
+     */
+    private boolean generate(Target target) {
+        try {
+            CodegenConfigurator configurator = configurator(target);
+
+            String specFingerprint = null;
+            if ((skipIfUpToDate || reuseParsedSpecs) && isNotEmpty(configurator.getInputSpec())) {
+                try {
+                    specFingerprint = new Fingerprint()
+                            .addSpec(configurator.getInputSpec(), configurator.getAuth())
+                            .toHex();
+                } catch (IOException e) {
+                    getLog().warn("Can't read the spec " + configurator.getInputSpec() + ": " + e.getMessage());
+                }
+            }
+
+            File stampFile = stampFile(target);
+            String inputs = null;
+            if (skipIfUpToDate && specFingerprint != null) {
+                try {
+                    inputs = fingerprint(configurator, specFingerprint);
+                    if (isUpToDate(inputs, target, stampFile)) {
+                        getLog().info(target.name != null
+                                ? "Generated sources of " + target.spec + " are up to date, skipping the generation."
+                                : "Generated sources are up to date, skipping the generation.");
+                        return true;
+                    }
+                } catch (IOException e) {
+                    getLog().warn("Can't tell whether the generated sources are up to date: " + e.getMessage());
+                    inputs = null;
+                }
+            }
+
+            if (target.name != null) {
+                getLog().info("Generating " + target.spec + " into " + target.output);
+            }
+            final ClientOptInput input;
+            if (reuseParsedSpecs && specFingerprint != null) {
+                input = SpecCache.get(specFingerprint, configurator.getInputSpec(), configurator.getAuth())
+                        .toClientOptInput(configurator);
+            } else {
+                input = configurator.toClientOptInput();
+            }
+            final CodegenConfig config = input.getConfig();
+
+            if (configOptions != null) {
+                for (CliOption langCliOption : config.cliOptions()) {
+                    if (configOptions.containsKey(langCliOption.getOpt())) {
+                        input.getConfig().additionalProperties()
+                                .put(langCliOption.getOpt(), configOptions.get(langCliOption.getOpt()));
+                    }
+                }
+            }
+
+            stampFile.delete();
+
+            List<File> files = new DefaultGenerator().opts(input).generate();
+
+            if (inputs != null) {
+                try {
+                    List<String> generated = relativePaths(target.output, files);
+                    stampFile.getParentFile().mkdirs();
+                    FileUtils.writeLines(stampFile, StandardCharsets.UTF_8.name(),
+                            stampLines(stamp(inputs, target, generated), generated), "\n");
+                } catch (IOException e) {
+                    getLog().warn("Can't write " + stampFile + ": " + e.getMessage());
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            // Maven logs exceptions thrown by plugins only if invoked with -e
+            // I find it annoying to jump through hoops to get basic diagnostic information,
+            // so let's log it in any case:
+            getLog().error(e);
+            return false;
+        }
+    }
+
+    /**
+     * The configuration of the generation of a spec, from the configuration file and the parameters.
+     */
+    private CodegenConfigurator configurator(Target target) {
         // attempt to read from config file
         CodegenConfigurator configurator = CodegenConfigurator.fromFile(configurationFile);
 
@@ -342,8 +655,8 @@ public class CodeGenMojo extends AbstractMojo {
             configurator.setRemoveOperationIdPrefix(removeOperationIdPrefix);
         }
 
-        if (isNotEmpty(inputSpec)) {
-            configurator.setInputSpec(inputSpec);
+        if (isNotEmpty(target.spec)) {
+            configurator.setInputSpec(target.spec);
         }
 
         if (isNotEmpty(gitUserId)) {
@@ -360,7 +673,7 @@ public class CodeGenMojo extends AbstractMojo {
 
         configurator.setLang(language);
 
-        configurator.setOutputDir(output.getAbsolutePath());
+        configurator.setOutputDir(target.output.getAbsolutePath());
 
         if (isNotEmpty(auth)) {
             configurator.setAuth(auth);
@@ -406,30 +719,30 @@ public class CodeGenMojo extends AbstractMojo {
             configurator.setTemplateDir(templateDirectory.getAbsolutePath());
         }
 
-        // Set generation options
+        // Set generation options (a null value unsets the option for this generation)
         if (null != generateApis && generateApis) {
-            System.setProperty(CodegenConstants.APIS, "");
+            configurator.addSystemProperty(CodegenConstants.APIS, "");
         } else {
-            System.clearProperty(CodegenConstants.APIS);
+            configurator.addSystemProperty(CodegenConstants.APIS, null);
         }
 
         if (null != generateModels && generateModels) {
-            System.setProperty(CodegenConstants.MODELS, modelsToGenerate);
+            configurator.addSystemProperty(CodegenConstants.MODELS, modelsToGenerate);
         } else {
-            System.clearProperty(CodegenConstants.MODELS);
+            configurator.addSystemProperty(CodegenConstants.MODELS, null);
         }
 
         if (null != generateSupportingFiles && generateSupportingFiles) {
-            System.setProperty(CodegenConstants.SUPPORTING_FILES, supportingFilesToGenerate);
+            configurator.addSystemProperty(CodegenConstants.SUPPORTING_FILES, supportingFilesToGenerate);
         } else {
-            System.clearProperty(CodegenConstants.SUPPORTING_FILES);
+            configurator.addSystemProperty(CodegenConstants.SUPPORTING_FILES, null);
         }
 
-        System.setProperty(CodegenConstants.MODEL_TESTS, generateModelTests.toString());
-        System.setProperty(CodegenConstants.MODEL_DOCS, generateModelDocumentation.toString());
-        System.setProperty(CodegenConstants.API_TESTS, generateApiTests.toString());
-        System.setProperty(CodegenConstants.API_DOCS, generateApiDocumentation.toString());
-        System.setProperty(CodegenConstants.WITH_XML, withXml.toString());
+        configurator.addSystemProperty(CodegenConstants.MODEL_TESTS, generateModelTests.toString());
+        configurator.addSystemProperty(CodegenConstants.MODEL_DOCS, generateModelDocumentation.toString());
+        configurator.addSystemProperty(CodegenConstants.API_TESTS, generateApiTests.toString());
+        configurator.addSystemProperty(CodegenConstants.API_DOCS, generateApiDocumentation.toString());
+        configurator.addSystemProperty(CodegenConstants.WITH_XML, withXml.toString());
 
         if (configOptions != null) {
             // Retained for backwards-compataibility with configOptions -> instantiation-types
@@ -499,55 +812,130 @@ public class CodeGenMojo extends AbstractMojo {
         }
 
         if (environmentVariables != null) {
-
             for (String key : environmentVariables.keySet()) {
-                originalEnvironmentVariables.put(key, System.getProperty(key));
-                String value = environmentVariables.get(key);
-                if (value == null) {
-                    // don't put null values
-                    value = "";
-                }
-                System.setProperty(key, value);
-                configurator.addSystemProperty(key, value);
+                configurator.addSystemProperty(key, environmentVariableValue(key));
             }
         }
+        return configurator;
+    }
 
-        final ClientOptInput input = configurator.toClientOptInput();
-        final CodegenConfig config = input.getConfig();
+    private String environmentVariableValue(String key) {
+        String value = environmentVariables.get(key);
+        // don't put null values
+        return value == null ? "" : value;
+    }
 
+    /**
+     * Fingerprint of the inputs of the generation: everything but the ignore file of the output directory, which
+     * the generation may create.
+     */
+    private String fingerprint(CodegenConfigurator configurator, String specFingerprint) throws IOException {
+        Class<?> configClass = CodegenConfigLoader.forName(configurator.getLang()).getClass();
+        Fingerprint fingerprint = new Fingerprint();
+        fingerprint.add("configurator", STAMP_MAPPER.writeValueAsString(configurator));
+        Map<String, String> options = new TreeMap<String, String>();
         if (configOptions != null) {
-            for (CliOption langCliOption : config.cliOptions()) {
-                if (configOptions.containsKey(langCliOption.getOpt())) {
-                    input.getConfig().additionalProperties()
-                            .put(langCliOption.getOpt(), configOptions.get(langCliOption.getOpt()));
-                }
+            for (Map.Entry<?, ?> option : configOptions.entrySet()) {
+                options.put(String.valueOf(option.getKey()), String.valueOf(option.getValue()));
             }
         }
+        fingerprint.add("configOptions", options.toString());
+        fingerprint.add("addCompileSourceRoot", String.valueOf(addCompileSourceRoot));
+        fingerprint.add("plugin", mojoExecution != null
+                ? mojoExecution.getMojoDescriptor().getPluginDescriptor().getVersion() : null);
+        // snapshots and custom generators change without changing the plugin version
+        fingerprint.add("codegen", codeSource(DefaultGenerator.class));
+        fingerprint.add("generator", configClass.getName() + " " + codeSource(configClass));
+
+        fingerprint.addFile("configurationFile", configurationFile != null ? new File(configurationFile) : null);
+        fingerprint.addTree("templates", isNotEmpty(configurator.getTemplateDir())
+                ? new File(configurator.getTemplateDir()) : null);
+        fingerprint.addFile("ignoreFileOverride", isNotEmpty(configurator.getIgnoreFileOverride())
+                ? new File(configurator.getIgnoreFileOverride()) : null);
+        fingerprint.add("spec", specFingerprint);
+        return fingerprint.toHex();
+    }
 
-        if (configHelp) {
-            for (CliOption langCliOption : config.cliOptions()) {
-                System.out.println("\t" + langCliOption.getOpt());
-                System.out.println("\t    "
-                        + langCliOption.getOptionHelp().replaceAll("\n", "\n\t    "));
-                System.out.println();
+    /**
+     * The stamp of a generation: the fingerprint of its inputs, the current ignore file of the output directory,
+     * and the files it generated, so that deleting or editing a generated file generates again.
+     *
+     * @param generated paths of the generated files relative to the output directory
+     */
+    private static String stamp(String inputs, Target target, List<String> generated) throws IOException {
+        return new Fingerprint()
+                .add("inputs", inputs)
+                .addFile("ignoreFile", new File(target.output, ".swagger-codegen-ignore"))
+                .addStates("generated", target.output, generated)
+                .toHex();
+    }
+
+    /**
+     * The stamp file holds the stamp, then the paths of the generated files.
+     */
+    private static List<String> stampLines(String stamp, List<String> generated) {
+        List<String> lines = new ArrayList<String>();
+        lines.add(stamp);
+        lines.addAll(generated);
+        return lines;
+    }
+
+    private static boolean isUpToDate(String inputs, Target target, File stampFile) throws IOException {
+        if (!stampFile.isFile() || !target.output.isDirectory()) {
+            return false;
+        }
+        List<String> lines = FileUtils.readLines(stampFile, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            return false;
+        }
+        List<String> generated = lines.subList(1, lines.size());
+        return lines.get(0).equals(stamp(inputs, target, generated));
+    }
+
+    /**
+     * Paths of the files below a folder relative to it, with / separators.
+     */
+    static List<String> relativePaths(File folder, List<File> files) {
+        Path base = folder.getAbsoluteFile().toPath().normalize();
+        List<String> paths = new ArrayList<String>();
+        for (File file : files) {
+            if (file == null) {
+                continue;
+            }
+            Path path = file.getAbsoluteFile().toPath().normalize();
+            if (path.startsWith(base) && !path.equals(base)) {
+                paths.add(base.relativize(path).toString().replace(File.separatorChar, '/'));
             }
-            return;
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    private File stampFile(Target target) {
+        String execution = mojoExecution != null ? mojoExecution.getExecutionId() : "default";
+        File stamps = new File(project.getBuild().getDirectory(), "swagger-codegen-stamps");
+        return target.name != null
+                ? new File(stamps, execution + "-specs" + File.separator + target.name)
+                : new File(stamps, execution);
+    }
+
+    /**
+     * Location, size and date of the jar or folder a class is loaded from.
+     */
+    private static String codeSource(Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return null;
         }
         try {
-            new DefaultGenerator().opts(input).generate();
-        } catch (Exception e) {
-            // Maven logs exceptions thrown by plugins only if invoked with -e
-            // I find it annoying to jump through hoops to get basic diagnostic information,
-            // so let's log it in any case:
-            getLog().error(e);
-            throw new MojoExecutionException(
-                    "Code generation failed. See above for the full exception.");
+            File file = new File(codeSource.getLocation().toURI());
+            return file + " " + file.length() + " " + file.lastModified();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return codeSource.getLocation().toString();
         }
-
-        addCompileSourceRootIfConfigured();
     }
 
-    private void addCompileSourceRootIfConfigured() {
+    private void addCompileSourceRootIfConfigured(List<Target> targets) {
         if (addCompileSourceRoot) {
             final Object sourceFolderObject =
                     configOptions == null ? null : configOptions
@@ -555,19 +943,26 @@ public class CodeGenMojo extends AbstractMojo {
             final String sourceFolder =
                     sourceFolderObject == null ? "src/main/java" : sourceFolderObject.toString();
 
-            String sourceJavaFolder = output.toString() + "/" + sourceFolder;
-            project.addCompileSourceRoot(sourceJavaFolder);
+            for (Target target : targets) {
+                String sourceJavaFolder = target.output.toString() + "/" + sourceFolder;
+                project.addCompileSourceRoot(sourceJavaFolder);
+            }
         }
+    }
 
-        // Reset all environment variables to their original value. This prevents unexpected
-        // behaviour
-        // when running the plugin multiple consecutive times with different configurations.
-        for (Map.Entry<String, String> entry : originalEnvironmentVariables.entrySet()) {
-            if (entry.getValue() == null) {
-                System.clearProperty(entry.getKey());
-            } else {
-                System.setProperty(entry.getKey(), entry.getValue());
-            }
+    /**
+     * A spec and where it's generated.
+     */
+    static class Target {
+        final String spec;
+        /** sub folder of the output directory, null when the spec is generated into the output directory */
+        final String name;
+        final File output;
+
+        Target(String spec, String name, File output) {
+            this.spec = spec;
+            this.name = name;
+            this.output = output;
         }
     }
 }
@@ -0,0 +1,222 @@
+package io.swagger.codegen.plugin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.codegen.auth.AuthParser;
+import io.swagger.models.auth.AuthorizationValue;
+import io.swagger.parser.util.RemoteUrl;
+import io.swagger.util.Json;
+import io.swagger.util.Yaml;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SHA-256 digest of everything a generation depends on, stored in a stamp file to skip the generation when
+ * none of it changed.
+ */
+class Fingerprint {
+    private final MessageDigest digest;
+
+    Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Add a named value, null being different from any string.
+     */
+    Fingerprint add(String name, String value) {
+        update(name);
+        update(value == null ? "\u0000null" : value);
+        return this;
+    }
+
+    /**
+     * Add the content of a file, or its absence.
+     */
+    Fingerprint addFile(String name, File file) throws IOException {
+        update(name);
+        if (file != null && file.isFile()) {
+            update(Files.readAllBytes(file.toPath()));
+        } else {
+            update("\u0000missing");
+        }
+        return this;
+    }
+
+    /**
+     * Add the relative paths and contents of the files of a folder and its sub folders.
+     */
+    Fingerprint addTree(String name, File folder) throws IOException {
+        update(name);
+        if (folder == null || !folder.isDirectory()) {
+            update("\u0000missing");
+            return this;
+        }
+        List<String> paths = new ArrayList<String>();
+        list(folder, "", paths);
+        Collections.sort(paths);
+        for (String path : paths) {
+            addFile(path, new File(folder, path));
+        }
+        return this;
+    }
+
+    /**
+     * Add the paths, sizes and modification times of files of a folder, or their absence: cheaper than their
+     * contents, e.g. for the many files a generation wrote.
+     *
+     * @param paths paths relative to the folder, with / separators
+     */
+    Fingerprint addStates(String name, File folder, List<String> paths) {
+        update(name);
+        for (String path : paths) {
+            File file = new File(folder, path);
+            update(path);
+            update(file.isFile() ? file.length() + " " + file.lastModified() : "\u0000missing");
+        }
+        return this;
+    }
+
+    /**
+     * Add a spec and the files or URLs it references, recursively.
+     *
+     * @param location URL or file of the spec
+     * @param auth URL-encoded authorization headers to fetch remote specs, may be null
+     */
+    Fingerprint addSpec(String location, String auth) throws IOException {
+        addSpec(location, AuthParser.parse(auth), new HashSet<String>());
+        return this;
+    }
+
+    /**
+     * @return digest of everything added, as hex
+     */
+    String toHex() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        return hex.toString();
+    }
+
+    private void addSpec(String location, List<AuthorizationValue> auths, Set<String> visited) throws IOException {
+        boolean remote = location.contains("://");
+        if (!remote && new File(location).isFile()) {
+            // the same file, whichever module refers to it
+            location = new File(location).getCanonicalPath();
+        }
+        if (!visited.add(location)) {
+            return;
+        }
+        String content;
+        if (remote) {
+            try {
+                content = RemoteUrl.urlToString(location, auths);
+            } catch (Exception e) {
+                throw new IOException("Can't fetch " + location, e);
+            }
+        } else {
+            File file = new File(location);
+            if (!file.isFile()) {
+                // e.g. a classpath resource, which is part of the build anyway
+                add(location, null);
+                return;
+            }
+            content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        }
+        add(location, content);
+
+        for (String ref : references(content)) {
+            int fragment = ref.indexOf('#');
+            String target = fragment < 0 ? ref : ref.substring(0, fragment);
+            if (target.isEmpty()) {
+                continue;
+            }
+            if (target.contains("://")) {
+                addSpec(target, auths, visited);
+            } else if (remote) {
+                addSpec(URI.create(location).resolve(target).toString(), auths, visited);
+            } else {
+                File parent = new File(location).getAbsoluteFile().getParentFile();
+                addSpec(new File(parent, target).getPath(), auths, visited);
+            }
+        }
+    }
+
+    /**
+     * The $ref values of a JSON or YAML document, none if it can't be read.
+     */
+    private static Set<String> references(String content) {
+        Set<String> refs = new HashSet<String>();
+        ObjectMapper mapper = content.trim().startsWith("{") ? Json.mapper() : Yaml.mapper();
+        try {
+            collect(mapper.readTree(content), refs);
+        } catch (IOException e) {
+            // the generation reports it
+        }
+        return refs;
+    }
+
+    private static void collect(JsonNode node, Set<String> refs) {
+        if (node == null) {
+            return;
+        }
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if ("$ref".equals(field.getKey()) && field.getValue().isTextual()) {
+                    refs.add(field.getValue().asText());
+                } else {
+                    collect(field.getValue(), refs);
+                }
+            }
+        } else if (node.isArray()) {
+            for (JsonNode element : node) {
+                collect(element, refs);
+            }
+        }
+    }
+
+    private static void list(File folder, String prefix, List<String> paths) {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                list(file, prefix + file.getName() + "/", paths);
+            } else {
+                paths.add(prefix + file.getName());
+            }
+        }
+    }
+
+    private void update(String value) {
+        update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void update(byte[] value) {
+        // length prefix, so that the boundaries between values count
+        digest.update(String.valueOf(value.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(value);
+    }
+}
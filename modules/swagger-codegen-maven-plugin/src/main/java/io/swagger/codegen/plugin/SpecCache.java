@@ -0,0 +1,76 @@
+package io.swagger.codegen.plugin;
+
+import io.swagger.codegen.FlattenedSpec;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Parsed and flattened specs shared by the executions of the plugin in the same build: Maven reuses the class
+ * loader of the plugin across the modules of a reactor, so modules generating from the same spec parse it once,
+ * even when they are built in parallel. The specs are keyed by the fingerprint of their content and of the files
+ * they reference, and each execution generates its own copy, see {@link FlattenedSpec#toClientOptInput}.
+ */
+class SpecCache {
+    /** serialized specs are small, but a build may read many */
+    private static final int MAX_SPECS = 64;
+
+    private static final Map<String, FutureTask<FlattenedSpec>> specs =
+            new LinkedHashMap<String, FutureTask<FlattenedSpec>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FutureTask<FlattenedSpec>> eldest) {
+                    return size() > MAX_SPECS;
+                }
+            };
+
+    private SpecCache() {
+    }
+
+    /**
+     * The flattened spec, parsed by the first execution which needs it while the others wait for it.
+     *
+     * @param fingerprint fingerprint of the spec and the files it references
+     * @param inputSpec location of the spec
+     * @param auth URL-encoded authorization headers for a remote spec, may be null
+     */
+    static FlattenedSpec get(String fingerprint, final String inputSpec, final String auth) {
+        FutureTask<FlattenedSpec> task;
+        boolean parse = false;
+        synchronized (specs) {
+            task = specs.get(fingerprint);
+            if (task == null) {
+                task = new FutureTask<FlattenedSpec>(new Callable<FlattenedSpec>() {
+                    @Override
+                    public FlattenedSpec call() {
+                        return FlattenedSpec.read(inputSpec, auth);
+                    }
+                });
+                specs.put(fingerprint, task);
+                parse = true;
+            }
+        }
+        if (parse) {
+            task.run();
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            synchronized (specs) {
+                // let the next execution try again
+                if (specs.get(fingerprint) == task) {
+                    specs.remove(fingerprint);
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + inputSpec, e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.swagger.codegen.plugin;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class CodeGenMojoTest {
+
+    private File folder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("codegen-mojo").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testSpecName() {
+        assertEquals(CodeGenMojo.specName("specs/petstore.yaml"), "petstore");
+        assertEquals(CodeGenMojo.specName("specs\\petstore.v2.json"), "petstore.v2");
+        assertEquals(CodeGenMojo.specName("https://example.com/api/petstore.json?version=2#top"), "petstore");
+        assertEquals(CodeGenMojo.specName("petstore"), "petstore");
+        assertEquals(CodeGenMojo.specName("https://example.com/api/"), "");
+    }
+
+    @Test
+    public void testWithoutExtension() {
+        assertEquals(CodeGenMojo.withoutExtension("store/petstore.yaml"), "store/petstore");
+        assertEquals(CodeGenMojo.withoutExtension("v1.0/petstore"), "v1.0/petstore");
+        assertEquals(CodeGenMojo.withoutExtension("petstore"), "petstore");
+    }
+
+    @Test
+    public void testTargets() throws Exception {
+        File specs = new File(folder, "specs");
+        FileUtils.writeStringToFile(new File(specs, "petstore.yaml"), "swagger: '2.0'", "UTF-8");
+        FileUtils.writeStringToFile(new File(specs, "store/orders.json"), "{}", "UTF-8");
+        CodeGenMojo mojo = mojo();
+        set(mojo, "inputSpecDirectory", specs);
+
+        List<CodeGenMojo.Target> targets = mojo.targets();
+        assertEquals(targets.size(), 2);
+        assertEquals(targets.get(0).name, "petstore");
+        assertEquals(targets.get(0).output, new File(folder, "out/petstore"));
+        assertEquals(targets.get(1).name, "store/orders");
+        assertEquals(targets.get(1).output, new File(folder, "out/store/orders"));
+    }
+
+    @Test
+    public void testCollision() throws Exception {
+        CodeGenMojo mojo = mojo();
+        set(mojo, "inputSpecs", Arrays.asList("v1/petstore.yaml", "v2/petstore.json"));
+        try {
+            mojo.targets();
+            fail("both specs are generated into out/petstore");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage().contains("would both be generated into " + new File(folder, "out/petstore")),
+                    e.getMessage());
+        }
+    }
+
+    private CodeGenMojo mojo() throws Exception {
+        CodeGenMojo mojo = new CodeGenMojo();
+        set(mojo, "output", new File(folder, "out"));
+        return mojo;
+    }
+
+    /**
+     * Set a parameter, as Maven does.
+     */
+    private static void set(CodeGenMojo mojo, String name, Object value) throws Exception {
+        Field field = CodeGenMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+}
@@ -0,0 +1,92 @@
+package io.swagger.codegen.plugin;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class FingerprintTest {
+
+    private File folder;
+    private File spec;
+    private File models;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("fingerprint").toFile();
+        spec = new File(folder, "spec.yaml");
+        FileUtils.writeStringToFile(spec, "swagger: '2.0'\n"
+                + "info: {title: Pets, version: 1.0.0}\n"
+                + "paths:\n"
+                + "  /pets:\n"
+                + "    get:\n"
+                + "      responses:\n"
+                + "        200:\n"
+                + "          description: pets\n"
+                + "          schema: {$ref: 'models/pet.yaml#/Pet'}\n", StandardCharsets.UTF_8);
+        models = new File(folder, "models/pet.yaml");
+        FileUtils.writeStringToFile(models, "Pet: {type: object}\n", StandardCharsets.UTF_8);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testReferencedFile() throws IOException {
+        String before = specFingerprint();
+        assertEquals(specFingerprint(), before);
+
+        FileUtils.writeStringToFile(models, "Pet: {type: object, properties: {name: {type: string}}}\n",
+                StandardCharsets.UTF_8);
+        assertNotEquals(specFingerprint(), before);
+    }
+
+    @Test
+    public void testTemplates() throws IOException {
+        File templates = new File(folder, "templates");
+        File template = new File(templates, "libraries/okhttp-gson/api.mustache");
+        FileUtils.writeStringToFile(template, "{{classname}}", StandardCharsets.UTF_8);
+        String before = new Fingerprint().addTree("templates", templates).toHex();
+
+        FileUtils.writeStringToFile(template, "{{classname}}Api", StandardCharsets.UTF_8);
+        String edited = new Fingerprint().addTree("templates", templates).toHex();
+        assertNotEquals(edited, before);
+
+        FileUtils.writeStringToFile(new File(templates, "model.mustache"), "{{classname}}", StandardCharsets.UTF_8);
+        assertNotEquals(new Fingerprint().addTree("templates", templates).toHex(), edited);
+    }
+
+    @Test
+    public void testGeneratedFiles() throws IOException {
+        File output = new File(folder, "output");
+        File api = new File(output, "src/PetApi.java");
+        FileUtils.writeStringToFile(api, "class PetApi {}", StandardCharsets.UTF_8);
+        List<String> generated = CodeGenMojo.relativePaths(output,
+                Arrays.asList(api, new File(folder, "elsewhere.txt")));
+        assertEquals(generated, Arrays.asList("src/PetApi.java"));
+        String before = new Fingerprint().addStates("generated", output, generated).toHex();
+
+        FileUtils.writeStringToFile(api, "class PetApi { int edited; }", StandardCharsets.UTF_8);
+        String edited = new Fingerprint().addStates("generated", output, generated).toHex();
+        assertNotEquals(edited, before);
+
+        api.delete();
+        assertNotEquals(new Fingerprint().addStates("generated", output, generated).toHex(), edited);
+    }
+
+    private String specFingerprint() throws IOException {
+        return new Fingerprint().addSpec(spec.getPath(), null).toHex();
+    }
+}
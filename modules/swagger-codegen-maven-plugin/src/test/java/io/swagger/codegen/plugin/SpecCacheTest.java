@@ -0,0 +1,76 @@
+package io.swagger.codegen.plugin;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.models.Model;
+import io.swagger.models.Swagger;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class SpecCacheTest {
+
+    private File folder;
+    private File spec;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("spec-cache").toFile();
+        spec = new File(folder, "spec.yaml");
+        FileUtils.writeStringToFile(spec, "swagger: '2.0'\n"
+                + "info: {title: Pets, version: 1.0.0}\n"
+                + "paths:\n"
+                + "  /pets:\n"
+                + "    get:\n"
+                + "      responses:\n"
+                + "        200:\n"
+                + "          description: pets\n"
+                + "          schema: {$ref: '#/definitions/Pet'}\n"
+                + "definitions:\n"
+                + "  Pet: {type: object, properties: {name: {type: string}}}\n", StandardCharsets.UTF_8);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    @Test
+    public void testIsolatedCopies() throws IOException {
+        String fingerprint = new Fingerprint().addSpec(spec.getPath(), null).toHex();
+        ClientOptInput first = SpecCache.get(fingerprint, spec.getPath(), null).toClientOptInput(configurator());
+        Swagger swagger = first.getSwagger();
+
+        // an execution changing its spec, e.g. its generator
+        swagger.getInfo().setTitle("Changed");
+        swagger.getPaths().remove("/pets");
+        Model pet = swagger.getDefinitions().get("Pet");
+        pet.getProperties().remove("name");
+        pet.setDescription("changed");
+
+        ClientOptInput next = SpecCache.get(fingerprint, spec.getPath(), null).toClientOptInput(configurator());
+        assertNotSame(next.getSwagger(), swagger);
+        assertEquals(next.getSwagger().getInfo().getTitle(), "Pets");
+        assertEquals(next.getSwagger().getPaths().keySet().iterator().next(), "/pets");
+        Model nextPet = next.getSwagger().getDefinitions().get("Pet");
+        assertEquals(nextPet.getProperties().keySet().iterator().next(), "name");
+        assertNull(nextPet.getDescription());
+    }
+
+    private CodegenConfigurator configurator() {
+        return new CodegenConfigurator()
+                .setLang("java")
+                .setInputSpec(spec.getPath())
+                .setOutputDir(new File(folder, "out").getPath());
+    }
+}
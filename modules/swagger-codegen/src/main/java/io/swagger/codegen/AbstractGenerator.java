@@ -7,12 +7,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,11 +23,19 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractGenerator {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractGenerator.class);
 
-    @SuppressWarnings("static-method")
+    /**
+     * Output tree to write to instead of the file system, null to write files
+     */
+    protected InMemoryOutput inMemoryOutput;
+
     public File writeToFile(String filename, String contents) throws IOException {
         LOGGER.info("writing file " + filename);
         File output = new File(filename);
 
+        if (inMemoryOutput != null) {
+            inMemoryOutput.write(output, contents.getBytes(StandardCharsets.UTF_8));
+            return output;
+        }
         if (output.getParent() != null && !new File(output.getParent()).exists()) {
             File parent = new File(output.getParent());
             parent.mkdirs();
@@ -37,6 +48,44 @@ public abstract class AbstractGenerator {
         return output;
     }
 
+    /**
+     * Copy a file which isn't a template to the output.
+     *
+     * @param filename output file name
+     * @param in contents
+     * @return the output file
+     * @throws IOException if the file can't be written
+     */
+    public File copyToFile(String filename, InputStream in) throws IOException {
+        LOGGER.info("writing file " + filename);
+        File output = new File(filename);
+
+        if (inMemoryOutput != null) {
+            inMemoryOutput.write(output, IOUtils.toByteArray(in));
+            return output;
+        }
+        OutputStream out = new FileOutputStream(output, false);
+        try {
+            IOUtils.copy(in, out);
+        } finally {
+            out.close();
+        }
+        return output;
+    }
+
+    /**
+     * Check whether an output file exists, e.g. to skip overwriting it.
+     *
+     * @param filename output file name
+     * @return true if the file was already generated
+     */
+    public boolean fileExists(String filename) {
+        if (inMemoryOutput != null) {
+            return inMemoryOutput.exists(new File(filename));
+        }
+        return new File(filename).exists();
+    }
+
     public String readTemplate(String name) {
         try {
             Reader reader = getTemplateReader(name);
@@ -12,6 +12,8 @@ public class ClientOptInput {
     private ClientOpts opts;
     private Swagger swagger;
     private List<AuthorizationValue> auths;
+    private GenerationContext generationContext;
+    private InMemoryOutput inMemoryOutput;
 
     public ClientOptInput swagger(Swagger swagger) {
         this.setSwagger(swagger);
@@ -28,6 +30,16 @@ public class ClientOptInput {
         return this;
     }
 
+    public ClientOptInput generationContext(GenerationContext generationContext) {
+        this.setGenerationContext(generationContext);
+        return this;
+    }
+
+    public ClientOptInput inMemoryOutput(InMemoryOutput inMemoryOutput) {
+        this.setInMemoryOutput(inMemoryOutput);
+        return this;
+    }
+
     @Deprecated
     public ClientOptInput auth(String urlEncodedAuthString) {
         this.setAuth(urlEncodedAuthString);
@@ -73,4 +85,20 @@ public class ClientOptInput {
     public void setSwagger(Swagger swagger) {
         this.swagger = swagger;
     }
-}
\ No newline at end of file
+
+    public GenerationContext getGenerationContext() {
+        return generationContext;
+    }
+
+    public void setGenerationContext(GenerationContext generationContext) {
+        this.generationContext = generationContext;
+    }
+
+    public InMemoryOutput getInMemoryOutput() {
+        return inMemoryOutput;
+    }
+
+    public void setInMemoryOutput(InMemoryOutput inMemoryOutput) {
+        this.inMemoryOutput = inMemoryOutput;
+    }
+}
@@ -0,0 +1,255 @@
+package io.swagger.codegen;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Name, tag and help of the registered {@link CodegenConfig}s, without instantiating them.
+ *
+ * The generators listed in META-INF/services/io.swagger.codegen.CodegenConfig are looked up in the
+ * index written at build time by {@link #main(String[])} (see the swagger-codegen pom). Generators
+ * registered without an index entry, e.g. by third-party jars, are instantiated once to read their
+ * metadata. The index is read once per class loader, and only refers to it weakly, so that the class loaders of
+ * plugins or web applications can still be collected.
+ */
+public class CodegenConfigIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CodegenConfigIndex.class);
+
+    public static final String INDEX_RESOURCE = "META-INF/swagger-codegen/codegen-configs.properties";
+    private static final String SERVICES_RESOURCE = "META-INF/services/" + CodegenConfig.class.getName();
+
+    private static final Map<ClassLoader, CodegenConfigIndex> indexes = new WeakHashMap<ClassLoader, CodegenConfigIndex>();
+
+    // the indexes are the values of a weak map keyed by their class loader, which they mustn't pin
+    private final WeakReference<ClassLoader> classLoader;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    public static class Entry {
+        private final String name;
+        private final CodegenType tag;
+        private final String help;
+        private final String className;
+
+        public Entry(String name, CodegenType tag, String help, String className) {
+            this.name = name;
+            this.tag = tag;
+            this.help = help;
+            this.className = className;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public CodegenType getTag() {
+            return tag;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+    }
+
+    /**
+     * Index of the generators visible to the context class loader.
+     *
+     * @return the generator index
+     */
+    public static CodegenConfigIndex get() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = CodegenConfigIndex.class.getClassLoader();
+        }
+        synchronized (indexes) {
+            CodegenConfigIndex index = indexes.get(classLoader);
+            if (index == null) {
+                index = new CodegenConfigIndex(classLoader);
+                indexes.put(classLoader, index);
+            }
+            return index;
+        }
+    }
+
+    private CodegenConfigIndex(ClassLoader classLoader) {
+        this.classLoader = new WeakReference<ClassLoader>(classLoader);
+
+        Properties index = new Properties();
+        for (URL url : resources(classLoader, INDEX_RESOURCE)) {
+            try (InputStream in = url.openStream()) {
+                index.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                LOGGER.warn("Can't read generator index " + url, e);
+            }
+        }
+
+        for (String className : serviceClassNames(classLoader)) {
+            Entry entry;
+            String name = index.getProperty(className + ".name");
+            if (name != null) {
+                entry = new Entry(name, CodegenType.valueOf(index.getProperty(className + ".tag")),
+                        index.getProperty(className + ".help"), className);
+            } else {
+                CodegenConfig config = newInstance(classLoader, className);
+                entry = new Entry(config.getName(), config.getTag(), config.getHelp(), className);
+            }
+            // first registration wins, like iterating over the ServiceLoader
+            if (!entries.containsKey(entry.getName())) {
+                entries.put(entry.getName(), entry);
+            }
+        }
+    }
+
+    /**
+     * @return all registered generators, in registration order
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<Entry>(entries.values()));
+    }
+
+    /**
+     * @param name generator name
+     * @return the registered generator with this name, or null
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Instantiate only the generator with the given name.
+     *
+     * @param name generator name
+     * @return new generator instance, or null if no generator with this name is registered
+     */
+    public CodegenConfig newConfig(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        ClassLoader loader = classLoader.get();
+        if (loader == null) {
+            throw new IllegalStateException("The class loader of " + entry.getClassName() + " was collected");
+        }
+        return newInstance(loader, entry.getClassName());
+    }
+
+    private static CodegenConfig newInstance(ClassLoader classLoader, String className) {
+        try {
+            return (CodegenConfig) Class.forName(className, true, classLoader).newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Can't instantiate config class " + className, e);
+        }
+    }
+
+    private static List<URL> resources(ClassLoader classLoader, String name) {
+        try {
+            return Collections.list(classLoader.getResources(name));
+        } catch (IOException e) {
+            LOGGER.warn("Can't list resources " + name, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static Set<String> serviceClassNames(ClassLoader classLoader) {
+        Set<String> classNames = new LinkedHashSet<String>();
+        for (URL url : resources(classLoader, SERVICES_RESOURCE)) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int comment = line.indexOf('#');
+                    if (comment >= 0) {
+                        line = line.substring(0, comment);
+                    }
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        classNames.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Can't read service registrations " + url, e);
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * Write the index of all generators registered on the classpath, run at build time.
+     *
+     * @param args output directory (the root of the classpath)
+     * @throws IOException if the index can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        Properties index = new Properties();
+        for (CodegenConfig config : ServiceLoader.load(CodegenConfig.class)) {
+            String className = config.getClass().getName();
+            index.setProperty(className + ".name", config.getName());
+            index.setProperty(className + ".tag", config.getTag().name());
+            if (config.getHelp() != null) {
+                index.setProperty(className + ".help", config.getHelp());
+            }
+        }
+
+        File file = new File(args[0], INDEX_RESOURCE);
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            IOUtils.write(format(index), out, StandardCharsets.UTF_8);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Format an index like {@link Properties#store(java.io.Writer, String)}, but with its entries sorted and without the
+     * date of the build, so that building the same generators again writes the same index.
+     *
+     * @param index index entries
+     * @return the content of the index file
+     * @throws IOException if the entries can't be formatted
+     */
+    static String format(Properties index) throws IOException {
+        StringWriter stored = new StringWriter();
+        index.store(stored, null);
+        List<String> lines = new ArrayList<String>();
+        for (String line : IOUtils.readLines(new StringReader(stored.toString()))) {
+            // the date comment
+            if (!line.startsWith("#")) {
+                lines.add(line);
+            }
+        }
+        Collections.sort(lines);
+
+        StringBuilder content = new StringBuilder("# generated by ").append(CodegenConfigIndex.class.getName()).append('\n');
+        for (String line : lines) {
+            content.append(line).append('\n');
+        }
+        return content.toString();
+    }
+}
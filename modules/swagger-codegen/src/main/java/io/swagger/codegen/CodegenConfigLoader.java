@@ -1,33 +1,29 @@
 package io.swagger.codegen;
 
-import java.util.ServiceLoader;
-
-import static java.util.ServiceLoader.load;
-
 public class CodegenConfigLoader {
     /**
-     * Tries to load config class with SPI first, then with class name directly from classpath
+     * Tries to load config class with SPI first, then with class name directly from classpath.
+     * Only the requested config is instantiated, see {@link CodegenConfigIndex}.
      *
      * @param name name of config, or full qualified class name in classpath
      * @return config class
      */
     public static CodegenConfig forName(String name) {
-        ServiceLoader<CodegenConfig> loader = load(CodegenConfig.class);
-
-        StringBuilder availableConfigs = new StringBuilder();
+        CodegenConfigIndex index = CodegenConfigIndex.get();
 
-        for (CodegenConfig config : loader) {
-            if (config.getName().equals(name)) {
-                return config;
-            }
-
-            availableConfigs.append(config.getName()).append("\n");
+        CodegenConfig config = index.newConfig(name);
+        if (config != null) {
+            return config;
         }
 
         // else try to load directly
         try {
             return (CodegenConfig) Class.forName(name).newInstance();
         } catch (Exception e) {
+            StringBuilder availableConfigs = new StringBuilder();
+            for (CodegenConfigIndex.Entry entry : index.getEntries()) {
+                availableConfigs.append(entry.getName()).append("\n");
+            }
             throw new RuntimeException("Can't load config class with name ".concat(name) + " Available: " + availableConfigs.toString(), e);
         }
     }
@@ -230,4 +230,7 @@ public class CodegenConstants {
 
     public static final String STRIP_PACKAGE_NAME = "stripPackageName";
     public static final String STRIP_PACKAGE_NAME_DESC = "Whether to strip leading dot-separated packages from generated model classes";
+
+    public static final String NAME_CACHE_SIZE = "nameCacheSize";
+    public static final String NAME_CACHE_SIZE_DESC = "Maximum number of memoized model/variable/parameter names (0 disables the cache), default is 0";
 }
@@ -2,11 +2,14 @@ package io.swagger.codegen;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -65,6 +68,15 @@ import io.swagger.util.Json;
 public class DefaultCodegen {
     protected static final Logger LOGGER = LoggerFactory.getLogger(DefaultCodegen.class);
 
+    private static final Pattern CAMELIZE_SLASH_PATTERN = Pattern.compile("\\/(.?)");
+    private static final Pattern CAMELIZE_CLASS_NAME_PATTERN = Pattern.compile("(\\.?)(\\w)([^\\.]*)$");
+    private static final Pattern CAMELIZE_UNDERSCORE_PATTERN = Pattern.compile("(_)(.)");
+    private static final Pattern CAMELIZE_HYPHEN_PATTERN = Pattern.compile("(-)(.)");
+    private static final Pattern DOLLAR_PATTERN = Pattern.compile("\\$");
+    private static final Pattern TRAILING_NUMBER_PATTERN = Pattern.compile("\\d+\\z");
+    private static final Pattern LEADING_DIGIT_PATTERN = Pattern.compile("^\\d.*");
+    private static final Pattern UNICODE_NON_WORD_PATTERN = Pattern.compile("\\W", Pattern.UNICODE_CHARACTER_CLASS);
+
     protected String inputSpec;
     protected String outputFolder = "";
     protected Set<String> defaultIncludes = new HashSet<String>();
@@ -111,6 +123,15 @@ public class DefaultCodegen {
 
     protected String ignoreFilePathOverride;
 
+    protected GenerationContext generationContext = new GenerationContext();
+
+    // operationId indexes of the operation groups, by tag, see addOperationToGroup
+    private final Map<String, OperationIdIndex> operationIdIndexes = new HashMap<String, OperationIdIndex>();
+
+    // bounded memo caches for toModelName/toVarName/toParamName, disabled when nameCacheSize is 0
+    protected int nameCacheSize = 0;
+    private Map<String, String> modelNameCache, varNameCache, paramNameCache;
+
     public List<CliOption> cliOptions() {
         return cliOptions;
     }
@@ -161,6 +182,11 @@ public class DefaultCodegen {
             this.setRemoveOperationIdPrefix(Boolean.valueOf(additionalProperties
                     .get(CodegenConstants.REMOVE_OPERATION_ID_PREFIX).toString()));
         }
+
+        if (additionalProperties.containsKey(CodegenConstants.NAME_CACHE_SIZE)) {
+            this.setNameCacheSize(Integer.parseInt(additionalProperties
+                    .get(CodegenConstants.NAME_CACHE_SIZE).toString()));
+        }
     }
 
     // override with any special post-processing for all models
@@ -170,7 +196,7 @@ public class DefaultCodegen {
             // Index all CodegenModels by model name.
             Map<String, CodegenModel> allModels = new HashMap<String, CodegenModel>();
             for (Entry<String, Object> entry : objs.entrySet()) {
-                String modelName = toModelName(entry.getKey());
+                String modelName = cachedModelName(entry.getKey());
                 Map<String, Object> inner = (Map<String, Object>) entry.getValue();
                 List<Map<String, Object>> models = (List<Map<String, Object>>) inner.get("models");
                 for (Map<String, Object> mo : models) {
@@ -605,6 +631,36 @@ public class DefaultCodegen {
         this.allowUnicodeIdentifiers = allowUnicodeIdentifiers;
     }
 
+    public int getNameCacheSize() {
+        return nameCacheSize;
+    }
+
+    /**
+     * Set the maximum number of entries memoized for each of toModelName, toVarName and toParamName
+     * (least recently used entries are evicted first). 0 disables the caches. Any cached entry is dropped,
+     * so call this again after changing state the name conversions depend on (e.g. the model name prefix).
+     *
+     * @param nameCacheSize maximum number of entries per cache
+     */
+    public void setNameCacheSize(int nameCacheSize) {
+        this.nameCacheSize = nameCacheSize;
+        this.modelNameCache = newNameCache(nameCacheSize);
+        this.varNameCache = newNameCache(nameCacheSize);
+        this.paramNameCache = newNameCache(nameCacheSize);
+    }
+
+    private static Map<String, String> newNameCache(final int maxSize) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        return new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
     /**
      * Return the regular expression/JSON schema pattern (http://json-schema.org/latest/json-schema-validation.html#anchor33)
      *
@@ -731,6 +787,60 @@ public class DefaultCodegen {
         return name;
     }
 
+    /**
+     * Memoized version of {@link #toModelName(String)}, see {@link #setNameCacheSize(int)}.
+     *
+     * @param name the name of the model
+     * @return capitalized model name
+     */
+    protected String cachedModelName(String name) {
+        if (modelNameCache == null || name == null) {
+            return toModelName(name);
+        }
+        String result = modelNameCache.get(name);
+        if (result == null) {
+            result = toModelName(name);
+            modelNameCache.put(name, result);
+        }
+        return result;
+    }
+
+    /**
+     * Memoized version of {@link #toVarName(String)}, see {@link #setNameCacheSize(int)}.
+     *
+     * @param name the variable name
+     * @return the sanitized variable name
+     */
+    protected String cachedVarName(String name) {
+        if (varNameCache == null || name == null) {
+            return toVarName(name);
+        }
+        String result = varNameCache.get(name);
+        if (result == null) {
+            result = toVarName(name);
+            varNameCache.put(name, result);
+        }
+        return result;
+    }
+
+    /**
+     * Memoized version of {@link #toParamName(String)}, see {@link #setNameCacheSize(int)}.
+     *
+     * @param name the parameter name
+     * @return the sanitized parameter name
+     */
+    protected String cachedParamName(String name) {
+        if (paramNameCache == null || name == null) {
+            return toParamName(name);
+        }
+        String result = paramNameCache.get(name);
+        if (result == null) {
+            result = toParamName(name);
+            paramNameCache.put(name, result);
+        }
+        return result;
+    }
+
     /**
      * Return the Enum name (e.g. StatusEnum given 'status')
      *
@@ -1323,8 +1433,8 @@ public class DefaultCodegen {
         m.title = escapeText(model.getTitle());
         m.description = escapeText(model.getDescription());
         m.unescapedDescription = model.getDescription();
-        m.classname = toModelName(name);
-        m.classVarName = toVarName(name);
+        m.classname = cachedModelName(name);
+        m.classVarName = cachedVarName(name);
         m.classFilename = toModelFilename(name);
         m.modelJson = Json.pretty(model);
         m.externalDocs = model.getExternalDocs();
@@ -1400,7 +1510,7 @@ public class DefaultCodegen {
                             || (interfaceModel instanceof ComposedModel && isDiscriminatorInInterfaceTree((ComposedModel) interfaceModel, allDefinitions)))) {
                         parent = _interface;
                     } else {
-                        final String interfaceRef = toModelName(_interface.getSimpleRef());
+                        final String interfaceRef = cachedModelName(_interface.getSimpleRef());
                         m.interfaces.add(interfaceRef);
                         addImport(m, interfaceRef);
                         if (allDefinitions != null) {
@@ -1432,7 +1542,7 @@ public class DefaultCodegen {
 
                 if(parentName != null) {
                     m.parentSchema = parentName;
-                    m.parent = toModelName(parentName);
+                    m.parent = cachedModelName(parentName);
                     addImport(m, m.parent);
                     if (allDefinitions != null) {
                         final Model parentModel = allDefinitions.get(m.parentSchema);
@@ -1546,7 +1656,7 @@ public class DefaultCodegen {
         if (name == null || name.length() == 0) {
             return name;
         }
-        return camelize(toVarName(name));
+        return camelize(cachedVarName(name));
     }
 
     /**
@@ -1563,7 +1673,7 @@ public class DefaultCodegen {
         }
 
         CodegenProperty property = CodegenModelFactory.newInstance(CodegenModelType.PROPERTY);
-        property.name = toVarName(name);
+        property.name = cachedVarName(name);
         property.baseName = name;
         property.nameInCamelCase = camelize(property.name, false);
         property.description = escapeText(p.getDescription());
@@ -2448,7 +2558,7 @@ public class DefaultCodegen {
         }
         p.jsonSchema = Json.pretty(param);
 
-        if (System.getProperty("debugParser") != null) {
+        if (generationContext.isPropertySet("debugParser")) {
             LOGGER.info("working on Parameter " + param.getName());
         }
 
@@ -2566,7 +2676,7 @@ public class DefaultCodegen {
             if(collectionFormat != null && collectionFormat.equals("multi")) {
                 p.isCollectionFormatMulti = true;
             }
-            p.paramName = toParamName(qp.getName());
+            p.paramName = cachedParamName(qp.getName());
 
             // import
             if (cp.complexType != null) {
@@ -2673,7 +2783,7 @@ public class DefaultCodegen {
                         name = typeMapping.get(name);
                         p.baseType = name;
                     } else {
-                        name = toModelName(name);
+                        name = cachedModelName(name);
                         p.baseType = name;
                         if (defaultIncludes.contains(name)) {
                             imports.add(name);
@@ -2684,7 +2794,7 @@ public class DefaultCodegen {
                     p.dataType = name;
                 }
             }
-            p.paramName = toParamName(bp.getName());
+            p.paramName = cachedParamName(bp.getName());
         }
 
         // Issue #2561 (neilotoole) : Set the is<TYPE>Param flags.
@@ -3009,15 +3119,13 @@ public class DefaultCodegen {
             operations.put(tag, opList);
         }
         // check for operationId uniqueness
-
-        String uniqueName = co.operationId;
-        int counter = 0;
-        for(CodegenOperation op : opList) {
-            if(uniqueName.equals(op.operationId)) {
-                uniqueName = co.operationId + "_" + counter;
-                counter ++;
-            }
+        OperationIdIndex index = operationIdIndexes.get(tag);
+        if (index == null || !index.isIndexOf(opList)) {
+            index = new OperationIdIndex(opList);
+            operationIdIndexes.put(tag, index);
         }
+
+        String uniqueName = index.uniqueName(co.operationId);
         if(!co.operationId.equals(uniqueName)) {
             LOGGER.warn("generated unique operationId `" + uniqueName + "`");
         }
@@ -3029,6 +3137,71 @@ public class DefaultCodegen {
         co.baseName = tag;
     }
 
+    /**
+     * Index of the operationIds in an operation group (see addOperationToGroup), so the uniqueness check
+     * doesn't have to scan the whole group for every added operation.
+     *
+     * The unique name is the operationId when it isn't used yet, otherwise the first free name of the
+     * sequence operationId_0, operationId_1, ... where each name is searched after the position of the
+     * previous one in the group. Groups only grow at the end, so a later check for the same operationId
+     * continues where the last one stopped.
+     */
+    private static class OperationIdIndex {
+        private final List<CodegenOperation> opList;
+        private final Map<String, List<Integer>> positions = new HashMap<String, List<Integer>>();
+        // operationId => {suffix counter, position} where the last uniqueness check stopped
+        private final Map<String, int[]> suffixes = new HashMap<String, int[]>();
+        private int indexed;
+
+        OperationIdIndex(List<CodegenOperation> opList) {
+            this.opList = opList;
+        }
+
+        boolean isIndexOf(List<CodegenOperation> list) {
+            return opList == list && indexed <= list.size();
+        }
+
+        String uniqueName(String operationId) {
+            // pick up operations added to the group since the last check
+            for (; indexed < opList.size(); indexed++) {
+                String name = opList.get(indexed).operationId;
+                List<Integer> namePositions = positions.get(name);
+                if (namePositions == null) {
+                    namePositions = new ArrayList<Integer>(1);
+                    positions.put(name, namePositions);
+                }
+                namePositions.add(indexed);
+            }
+
+            int[] state = suffixes.get(operationId);
+            if (state == null) {
+                state = new int[]{0, -1};
+                suffixes.put(operationId, state);
+            }
+            String uniqueName = state[0] == 0 ? operationId : operationId + "_" + (state[0] - 1);
+            int position = nextPosition(uniqueName, state[1]);
+            while (position >= 0) {
+                state[1] = position;
+                uniqueName = operationId + "_" + state[0];
+                state[0]++;
+                position = nextPosition(uniqueName, position);
+            }
+            return uniqueName;
+        }
+
+        private int nextPosition(String name, int after) {
+            List<Integer> namePositions = positions.get(name);
+            if (namePositions == null) {
+                return -1;
+            }
+            int i = Collections.binarySearch(namePositions, after + 1);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return i < namePositions.size() ? namePositions.get(i) : -1;
+        }
+    }
+
     private void addParentContainer(CodegenModel m, String name, Property property) {
         final CodegenProperty tmp = fromProperty(name, property);
         addImport(m, tmp.complexType);
@@ -3053,21 +3226,38 @@ public class DefaultCodegen {
      * @return The underscored version of the word
      */
     public static String underscore(String word) {
-        String firstPattern = "([A-Z]+)([A-Z][a-z])";
-        String secondPattern = "([a-z\\d])([A-Z])";
-        String replacementPattern = "$1_$2";
-        // Replace package separator with slash.
-        word = word.replaceAll("\\.", "/"); // FIXME: a parameter should not be assigned. Also declare the methods parameters as 'final'.
-        // Replace $ with two underscores for inner classes.
-        word = word.replaceAll("\\$", "__");
-        // Replace capital letter with _ plus lowercase letter.
-        word = word.replaceAll(firstPattern, replacementPattern);
-        word = word.replaceAll(secondPattern, replacementPattern);
-        word = word.replace('-', '_');
-        // replace space with underscore
-        word = word.replace(' ', '_');
-        word = word.toLowerCase();
-        return word;
+        final int length = word.length();
+        StringBuilder sb = new StringBuilder(length + 8);
+        for (int i = 0; i < length; i++) {
+            char c = word.charAt(i);
+            if (isAsciiUpperCase(c) && i > 0) {
+                char previous = word.charAt(i - 1);
+                // Replace capital letter with _ plus lowercase letter,
+                // i.e. "([A-Z]+)([A-Z][a-z])" and "([a-z\d])([A-Z])" => "$1_$2"
+                if ((isAsciiUpperCase(previous) && i + 1 < length && isAsciiLowerCase(word.charAt(i + 1)))
+                        || isAsciiLowerCase(previous) || isAsciiDigit(previous)) {
+                    sb.append('_');
+                }
+            }
+            switch (c) {
+                case '.':
+                    // Replace package separator with slash.
+                    sb.append('/');
+                    break;
+                case '$':
+                    // Replace $ with two underscores for inner classes.
+                    sb.append("__");
+                    break;
+                case '-':
+                case ' ':
+                    // replace hyphen and space with underscore
+                    sb.append('_');
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase();
     }
 
     /**
@@ -3078,7 +3268,7 @@ public class DefaultCodegen {
      */
     @SuppressWarnings("static-method")
     protected String dashize(String word) {
-        return underscore(word).replaceAll("[_ ]", "-");
+        return underscore(word).replace('_', '-');
     }
 
     /**
@@ -3092,8 +3282,7 @@ public class DefaultCodegen {
      * @return The next name for the base name
      */
     private static String generateNextName(String name) {
-        Pattern pattern = Pattern.compile("\\d+\\z");
-        Matcher matcher = pattern.matcher(name);
+        Matcher matcher = TRAILING_NUMBER_PATTERN.matcher(name);
         if (matcher.find()) {
             String numStr = matcher.group();
             int num = Integer.parseInt(numStr) + 1;
@@ -3103,6 +3292,34 @@ public class DefaultCodegen {
         }
     }
 
+    private static boolean isAsciiUpperCase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isAsciiLowerCase(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // same as the "\\w" character class without UNICODE_CHARACTER_CLASS
+    private static boolean isAsciiWordChar(char c) {
+        return isAsciiLowerCase(c) || isAsciiUpperCase(c) || isAsciiDigit(c) || c == '_';
+    }
+
+    // printable ASCII without the characters that have a special meaning in regex replacements
+    private static boolean isPlainAscii(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < ' ' || c > '~' || c == '$' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected void addImport(CodegenModel m, String type) {
         if (type != null && needToImport(type)) {
             m.imports.add(type);
@@ -3294,8 +3511,78 @@ public class DefaultCodegen {
      * @return camelized string
      */
     public static String camelize(String word, boolean lowercaseFirstLetter) {
+        if (!isPlainAscii(word)) {
+            return camelizeWithRegex(word, lowercaseFirstLetter);
+        }
+
+        // Replace all slashes with dots (package separator) and case out dots
+        StringBuilder sb = new StringBuilder(word.length());
+        boolean partStart = true;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == '/' || c == '.') {
+                partStart = true;
+            } else if (partStart) {
+                sb.append(Character.toUpperCase(c));
+                partStart = false;
+            } else {
+                sb.append(c);
+            }
+        }
+
+        // Uppercase the class name.
+        for (int i = 0; i < sb.length(); i++) {
+            if (isAsciiWordChar(sb.charAt(i))) {
+                sb.replace(i, i + 1, String.valueOf(sb.charAt(i)).toUpperCase());
+                break;
+            }
+        }
+
+        // Remove all underscores (underscore_case to camelCase)
+        StringBuilder camelized = new StringBuilder(sb.length());
+        for (int i = 0; i < sb.length(); i++) {
+            char c = sb.charAt(i);
+            if (c == '_' && i + 1 < sb.length()) {
+                String original = String.valueOf(sb.charAt(i + 1));
+                String upperCase = original.toUpperCase();
+                if (!original.equals(upperCase)) {
+                    camelized.append(upperCase);
+                    i++;
+                }
+            } else {
+                camelized.append(c);
+            }
+        }
+
+        // Remove all hyphens (hyphen-case to camelCase)
+        sb.setLength(0);
+        for (int i = 0; i < camelized.length(); i++) {
+            char c = camelized.charAt(i);
+            if (c == '-' && i + 1 < camelized.length()) {
+                if (camelized.charAt(i + 1) != '-') {
+                    sb.append(String.valueOf(camelized.charAt(i + 1)).toUpperCase());
+                    i++;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+
+        word = sb.toString();
+        if (lowercaseFirstLetter && word.length() > 0) {
+            word = word.substring(0, 1).toLowerCase() + word.substring(1);
+        }
+
+        return word;
+    }
+
+    /**
+     * Camelize with the original regular expression based algorithm. Only used for input
+     * containing characters (line terminators, non-ASCII, '$' or backslash) that need the exact regex semantics.
+     */
+    private static String camelizeWithRegex(String word, boolean lowercaseFirstLetter) {
         // Replace all slashes with dots (package separator)
-        Pattern p = Pattern.compile("\\/(.?)");
+        Pattern p = CAMELIZE_SLASH_PATTERN;
         Matcher m = p.matcher(word);
         while (m.find()) {
             word = m.replaceFirst("." + m.group(1)/*.toUpperCase()*/); // FIXME: a parameter should not be assigned. Also declare the methods parameters as 'final'.
@@ -3319,16 +3606,16 @@ public class DefaultCodegen {
         }
 
         // Uppercase the class name.
-        p = Pattern.compile("(\\.?)(\\w)([^\\.]*)$");
+        p = CAMELIZE_CLASS_NAME_PATTERN;
         m = p.matcher(word);
         if (m.find()) {
             String rep = m.group(1) + m.group(2).toUpperCase() + m.group(3);
-            rep = rep.replaceAll("\\$", "\\\\\\$");
+            rep = DOLLAR_PATTERN.matcher(rep).replaceAll("\\\\\\$");
             word = m.replaceAll(rep);
         }
 
         // Remove all underscores (underscore_case to camelCase)
-        p = Pattern.compile("(_)(.)");
+        p = CAMELIZE_UNDERSCORE_PATTERN;
         m = p.matcher(word);
         while (m.find()) {
             String original = m.group(2);
@@ -3342,7 +3629,7 @@ public class DefaultCodegen {
         }
 
         // Remove all hyphens (hyphen-case to camelCase)
-        p = Pattern.compile("(-)(.)");
+        p = CAMELIZE_HYPHEN_PATTERN;
         m = p.matcher(word);
         while (m.find()) {
             word = m.replaceFirst(m.group(2).toUpperCase());
@@ -3542,10 +3829,9 @@ public class DefaultCodegen {
      */
     @SuppressWarnings("static-method")
     public String sanitizeName(String name) {
-        // NOTE: performance wise, we should have written with 2 replaceAll to replace desired
-        // character with _ or empty character. Below aims to spell out different cases we've
-        // encountered so far and hopefully make it easier for others to add more special
-        // cases in the future.
+        // NOTE: all cases are handled in a single pass over the name. The comments below
+        // spell out the different cases we've encountered so far and hopefully make it
+        // easier for others to add more special cases in the future.
 
         // better error handling when map/array type is invalid
         if (name == null) {
@@ -3559,35 +3845,33 @@ public class DefaultCodegen {
         }
 
         // input[] => input
-        name = name.replaceAll("\\[\\]", ""); // FIXME: a parameter should not be assigned. Also declare the methods parameters as 'final'.
-
         // input[a][b] => input_a_b
-        name = name.replaceAll("\\[", "_");
-        name = name.replaceAll("\\]", "");
-
         // input(a)(b) => input_a_b
-        name = name.replaceAll("\\(", "_");
-        name = name.replaceAll("\\)", "");
-
         // input.name => input_name
-        name = name.replaceAll("\\.", "_");
-
         // input-name => input_name
-        name = name.replaceAll("-", "_");
-
         // input name and age => input_name_and_age
-        name = name.replaceAll(" ", "_");
-
         // remove everything else other than word, number and _
         // $php_variable => php_variable
-        if (allowUnicodeIdentifiers) { //could be converted to a single line with ?: operator
-            name = Pattern.compile("\\W", Pattern.UNICODE_CHARACTER_CLASS).matcher(name).replaceAll("");
-        }
-        else {
-            name = name.replaceAll("\\W", "");
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean hasNonAscii = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '[' && i + 1 < name.length() && name.charAt(i + 1) == ']') {
+                i++;
+            } else if (c == '[' || c == '(' || c == '.' || c == '-' || c == ' ') {
+                sb.append('_');
+            } else if (isAsciiWordChar(c)) {
+                sb.append(c);
+            } else if (c > 127 && allowUnicodeIdentifiers) {
+                sb.append(c);
+                hasNonAscii = true;
+            }
         }
 
-        return name;
+        if (hasNonAscii) {
+            return UNICODE_NON_WORD_PATTERN.matcher(sb).replaceAll("");
+        }
+        return sb.toString();
     }
 
     /**
@@ -3600,7 +3884,7 @@ public class DefaultCodegen {
         tag = camelize(sanitizeName(tag));
 
         // tag starts with numbers
-        if (tag.matches("^\\d.*")) {
+        if (LEADING_DIGIT_PATTERN.matcher(tag).matches()) {
             tag = "Class" + tag;
         }
 
@@ -3633,6 +3917,34 @@ public class DefaultCodegen {
         }
     }
 
+    /**
+     * Write a file generated outside of the templates, to the in-memory output tree
+     * of the generation if there is one.
+     *
+     * @param file output file
+     * @param contents file contents, encoded with the default charset
+     * @throws IOException if the file can't be written
+     */
+    protected void writeStringToFile(File file, String contents) throws IOException {
+        InMemoryOutput inMemoryOutput = generationContext.getInMemoryOutput();
+        if (inMemoryOutput != null) {
+            inMemoryOutput.write(file, contents.getBytes(Charset.defaultCharset()));
+        } else {
+            FileUtils.writeStringToFile(file, contents);
+        }
+    }
+
+    /**
+     * Create a folder of the output, unless the generation keeps its output in memory.
+     *
+     * @param folder output folder
+     */
+    protected void createFolder(File folder) {
+        if (generationContext.getInMemoryOutput() == null) {
+            folder.mkdirs();
+        }
+    }
+
     /**
      * Set CodegenParameter boolean flag using CodegenProperty.
      *
@@ -3809,6 +4121,19 @@ public class DefaultCodegen {
         this.ignoreFilePathOverride = ignoreFileOverride;
     }
 
+    /**
+     * Properties of the current generation (e.g. debug switches), see {@link GenerationContext}.
+     *
+     * @return the generation context
+     */
+    public GenerationContext getGenerationContext() {
+        return generationContext;
+    }
+
+    public void setGenerationContext(GenerationContext generationContext) {
+        this.generationContext = generationContext;
+    }
+
     public boolean convertPropertyToBoolean(String propertyKey) {
         boolean booleanValue = false;
         if (additionalProperties.containsKey(propertyKey)) {
@@ -1,7 +1,6 @@
 package io.swagger.codegen;
 
 import com.google.common.base.Strings;
-import com.samskivert.mustache.Mustache;
 import com.samskivert.mustache.Template;
 import io.swagger.codegen.ignore.CodegenIgnoreProcessor;
 import io.swagger.codegen.languages.AbstractJavaCodegen;
@@ -11,7 +10,6 @@ import io.swagger.models.auth.OAuth2Definition;
 import io.swagger.models.auth.SecuritySchemeDefinition;
 import io.swagger.models.parameters.Parameter;
 import io.swagger.util.Json;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
@@ -22,6 +20,7 @@ import java.util.regex.Pattern;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 public class DefaultGenerator extends AbstractGenerator implements Generator {
     protected final Logger LOGGER = LoggerFactory.getLogger(DefaultGenerator.class);
@@ -29,6 +28,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
     protected ClientOptInput opts;
     protected Swagger swagger;
     protected CodegenIgnoreProcessor ignoreProcessor;
+    protected GenerationContext generationContext;
     private Boolean generateApis = null;
     private Boolean generateModels = null;
     private Boolean generateSupportingFiles = null;
@@ -41,6 +41,10 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
     private String basePathWithoutHost;
     private String contextPath;
     private Map<String, String> generatorPropertyDefaults = new HashMap<>();
+    // resolved once per processPaths, see indexSwaggerTagsAndSecurity
+    private Map<String, Tag> swaggerTagsByName;
+    private List<Map<String, List<String>>> globalSecurities;
+    private Map<String, Map<List<String>, OAuth2Definition>> oauth2ScopeDefinitions;
 
     @Override
     public Generator opts(ClientOptInput opts) {
@@ -49,6 +53,23 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         this.config = opts.getConfig();
         this.config.additionalProperties().putAll(opts.getOpts().getProperties());
 
+        // the context is kept by DefaultCodegen, other CodegenConfig implementations only get it through the input
+        this.generationContext = opts.getGenerationContext();
+        if (this.config instanceof DefaultCodegen) {
+            DefaultCodegen codegen = (DefaultCodegen) this.config;
+            if (this.generationContext == null) {
+                this.generationContext = codegen.getGenerationContext();
+            } else {
+                codegen.setGenerationContext(this.generationContext);
+            }
+        } else if (this.generationContext == null) {
+            this.generationContext = new GenerationContext();
+        }
+        if (opts.getInMemoryOutput() != null) {
+            this.generationContext.setInMemoryOutput(opts.getInMemoryOutput());
+        }
+        this.inMemoryOutput = this.generationContext.getInMemoryOutput();
+
         String ignoreFileLocation = this.config.getIgnoreFilePathOverride();
         if (ignoreFileLocation != null) {
             final File ignoreFile = new File(ignoreFileLocation);
@@ -77,7 +98,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
     }
 
     /**
-     * Set generator properties otherwise pulled from system properties.
+     * Set generator properties otherwise pulled from the generation context (or system properties).
      * Useful for running tests in parallel without relying on System.properties.
      * @param key The system property key
      * @param value The system property value
@@ -128,9 +149,9 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
     private void configureGeneratorProperties() {
         // allows generating only models by specifying a CSV of models to generate, or empty for all
         // NOTE: Boolean.TRUE is required below rather than `true` because of JVM boxing constraints and type inference.
-        generateApis = System.getProperty(CodegenConstants.APIS) != null ? Boolean.TRUE : getGeneratorPropertyDefaultSwitch(CodegenConstants.APIS, true);
-        generateModels = System.getProperty(CodegenConstants.MODELS) != null ? Boolean.TRUE : getGeneratorPropertyDefaultSwitch(CodegenConstants.MODELS, true);
-        generateSupportingFiles = System.getProperty(CodegenConstants.SUPPORTING_FILES) != null ? Boolean.TRUE : getGeneratorPropertyDefaultSwitch(CodegenConstants.SUPPORTING_FILES, false);
+        generateApis = generationContext.isPropertySet(CodegenConstants.APIS) ? Boolean.TRUE : getGeneratorPropertyDefaultSwitch(CodegenConstants.APIS, true);
+        generateModels = generationContext.isPropertySet(CodegenConstants.MODELS) ? Boolean.TRUE : getGeneratorPropertyDefaultSwitch(CodegenConstants.MODELS, true);
+        generateSupportingFiles = generationContext.isPropertySet(CodegenConstants.SUPPORTING_FILES) ? Boolean.TRUE : getGeneratorPropertyDefaultSwitch(CodegenConstants.SUPPORTING_FILES, false);
 
         if (generateApis == null && generateModels == null && generateSupportingFiles == null) {
             // no specifics are set, generate everything
@@ -148,10 +169,10 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         }
         // model/api tests and documentation options rely on parent generate options (api or model) and no other options.
         // They default to true in all scenarios and can only be marked false explicitly
-        generateModelTests = System.getProperty(CodegenConstants.MODEL_TESTS) != null ? Boolean.valueOf(System.getProperty(CodegenConstants.MODEL_TESTS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.MODEL_TESTS, false);
-        generateModelDocumentation = System.getProperty(CodegenConstants.MODEL_DOCS) != null ? Boolean.valueOf(System.getProperty(CodegenConstants.MODEL_DOCS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.MODEL_DOCS, false);
-        generateApiTests = System.getProperty(CodegenConstants.API_TESTS) != null ? Boolean.valueOf(System.getProperty(CodegenConstants.API_TESTS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.API_TESTS, false);
-        generateApiDocumentation = System.getProperty(CodegenConstants.API_DOCS) != null ? Boolean.valueOf(System.getProperty(CodegenConstants.API_DOCS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.API_DOCS, false);
+        generateModelTests = generationContext.isPropertySet(CodegenConstants.MODEL_TESTS) ? Boolean.valueOf(generationContext.getProperty(CodegenConstants.MODEL_TESTS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.MODEL_TESTS, false);
+        generateModelDocumentation = generationContext.isPropertySet(CodegenConstants.MODEL_DOCS) ? Boolean.valueOf(generationContext.getProperty(CodegenConstants.MODEL_DOCS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.MODEL_DOCS, false);
+        generateApiTests = generationContext.isPropertySet(CodegenConstants.API_TESTS) ? Boolean.valueOf(generationContext.getProperty(CodegenConstants.API_TESTS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.API_TESTS, false);
+        generateApiDocumentation = generationContext.isPropertySet(CodegenConstants.API_DOCS) ? Boolean.valueOf(generationContext.getProperty(CodegenConstants.API_DOCS)) : getGeneratorPropertyDefaultSwitch(CodegenConstants.API_DOCS, false);
 
 
         // Additional properties added for tests to exclude references in project related files
@@ -167,7 +188,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         if (!generateApiTests && !generateModelTests) {
             config.additionalProperties().put(CodegenConstants.EXCLUDE_TESTS, true);
         }
-        if (System.getProperty("debugSwagger") != null) {
+        if (generationContext.isPropertySet("debugSwagger")) {
             Json.prettyPrint(swagger);
         }
         config.processOpts();
@@ -253,7 +274,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
             String suffix = config.modelTestTemplateFiles().get(templateName);
             String filename = config.modelTestFileFolder() + File.separator + config.toModelTestFilename(modelName) + suffix;
             // do not overwrite test file that already exists
-            if (new File(filename).exists()) {
+            if (fileExists(filename)) {
                 LOGGER.info("File exists. Skipped overwriting " + filename);
                 continue;
             }
@@ -290,7 +311,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
             return;
         }
 
-        String modelNames = System.getProperty("models");
+        String modelNames = generationContext.getProperty(CodegenConstants.MODELS);
         Set<String> modelsToGenerate = null;
         if (modelNames != null && !modelNames.isEmpty()) {
             modelsToGenerate = new HashSet<String>(Arrays.asList(modelNames.split(",")));
@@ -360,6 +381,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
 
         // process models only
         for (String name : modelKeys) {
+            checkInterrupted();
             try {
                 //don't generate models that have an import mapping
                 if (config.importMapping().containsKey(name)) {
@@ -430,7 +452,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
                 throw new RuntimeException("Could not generate model '" + modelName + "'", e);
             }
         }
-        if (System.getProperty("debugModels") != null) {
+        if (generationContext.isPropertySet("debugModels")) {
             LOGGER.info("############ Model info ############");
             Json.prettyPrint(allModels);
         }
@@ -443,7 +465,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         }
         Map<String, List<CodegenOperation>> paths = processPaths(swagger.getPaths());
         Set<String> apisToGenerate = null;
-        String apiNames = System.getProperty("apis");
+        String apiNames = generationContext.getProperty(CodegenConstants.APIS);
         if (apiNames != null && !apiNames.isEmpty()) {
             apisToGenerate = new HashSet<String>(Arrays.asList(apiNames.split(",")));
         }
@@ -457,6 +479,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
             paths = updatedPaths;
         }
         for (String tag : paths.keySet()) {
+            checkInterrupted();
             try {
                 List<CodegenOperation> ops = paths.get(tag);
                 Collections.sort(ops, new Comparator<CodegenOperation>() {
@@ -504,7 +527,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
                 /*
                 for (String templateName : config.apiTemplateFiles().keySet()) {
                     String filename = config.apiFilename(templateName, tag);
-                    if (!config.shouldOverwrite(filename) && new File(filename).exists()) {
+                    if (!config.shouldOverwrite(filename) && fileExists(filename)) {
                         LOGGER.info("Skipped overwriting " + filename);
                         continue;
                     }
@@ -521,7 +544,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
                     for (String templateName : config.apiTestTemplateFiles().keySet()) {
                         String filename = config.apiTestFilename(templateName, tag);
                         // do not overwrite test file that already exists
-                        if (new File(filename).exists()) {
+                        if (fileExists(filename)) {
                             LOGGER.info("File exists. Skipped overwriting " + filename);
                             continue;
                         }
@@ -538,7 +561,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
                     // to generate api documentation files
                     for (String templateName : config.apiDocTemplateFiles().keySet()) {
                         String filename = config.apiDocFilename(templateName, tag);
-                        if (!config.shouldOverwrite(filename) && new File(filename).exists()) {
+                        if (!config.shouldOverwrite(filename) && fileExists(filename)) {
                             LOGGER.info("Skipped overwriting " + filename);
                             continue;
                         }
@@ -554,7 +577,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
                 throw new RuntimeException("Could not generate api file for '" + tag + "'", e);
             }
         }
-        if (System.getProperty("debugOperations") != null) {
+        if (generationContext.isPropertySet("debugOperations")) {
             LOGGER.info("############ Operation info ############");
             Json.prettyPrint(allOperations);
         }
@@ -565,19 +588,20 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
             return;
         }
         Set<String> supportingFilesToGenerate = null;
-        String supportingFiles = System.getProperty(CodegenConstants.SUPPORTING_FILES);
+        String supportingFiles = generationContext.getProperty(CodegenConstants.SUPPORTING_FILES);
         if (supportingFiles != null && !supportingFiles.isEmpty()) {
             supportingFilesToGenerate = new HashSet<String>(Arrays.asList(supportingFiles.split(",")));
         }
 
         for (SupportingFile support : config.supportingFiles()) {
+            checkInterrupted();
             try {
                 String outputFolder = config.outputFolder();
                 if (StringUtils.isNotEmpty(support.folder)) {
                     outputFolder += File.separator + support.folder;
                 }
                 File of = new File(outputFolder);
-                if (!of.isDirectory()) {
+                if (inMemoryOutput == null && !of.isDirectory()) {
                     of.mkdirs();
                 }
                 String outputFilename = outputFolder + File.separator + support.destinationFilename.replace('/', File.separatorChar);
@@ -601,18 +625,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
 
                 if (ignoreProcessor.allowsFile(new File(outputFilename))) {
                     if (templateFile.endsWith("mustache")) {
-                        String template = readTemplate(templateFile);
-                        Mustache.Compiler compiler = Mustache.compiler();
-                        compiler = config.processCompiler(compiler);
-                        Template tmpl = compiler
-                                .withLoader(new Mustache.TemplateLoader() {
-                                    @Override
-                                    public Reader getTemplate(String name) {
-                                        return getTemplateReader(getFullTemplateFile(config, name + ".mustache"));
-                                    }
-                                })
-                                .defaultValue("")
-                                .compile(template);
+                        Template tmpl = TemplateCache.compile(this, config, templateFile);
 
                         writeToFile(outputFilename, tmpl.execute(bundle));
                         files.add(new File(outputFilename));
@@ -627,14 +640,16 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
                         if (in == null) {
                             in = this.getClass().getClassLoader().getResourceAsStream(getCPResourcePath(templateFile));
                         }
-                        File outputFile = new File(outputFilename);
-                        OutputStream out = new FileOutputStream(outputFile, false);
+                        File outputFile;
                         if (in != null) {
-                            LOGGER.info("writing file " + outputFile);
-                            IOUtils.copy(in, out);
-                            out.close();
+                            try {
+                                outputFile = copyToFile(outputFilename, in);
+                            } finally {
+                                in.close();
+                            }
                         } else {
                             LOGGER.error("can't open " + templateFile + " for input");
+                            outputFile = writeToFile(outputFilename, "");
                         }
                         files.add(outputFile);
                     }
@@ -651,7 +666,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         final String swaggerCodegenIgnore = ".swagger-codegen-ignore";
         String ignoreFileNameTarget = config.outputFolder() + File.separator + swaggerCodegenIgnore;
         File ignoreFile = new File(ignoreFileNameTarget);
-        if (generateSwaggerMetadata && !ignoreFile.exists()) {
+        if (generateSwaggerMetadata && !fileExists(ignoreFileNameTarget)) {
             String ignoreFileNameSource = File.separator + config.getCommonTemplateDir() + File.separator + swaggerCodegenIgnore;
             String ignoreFileContents = readResourceContents(ignoreFileNameSource);
             try {
@@ -731,7 +746,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
 
         config.postProcessSupportingFileData(bundle);
 
-        if (System.getProperty("debugSupportingFiles") != null) {
+        if (generationContext.isPropertySet("debugSupportingFiles")) {
             LOGGER.info("############ Supporting file info ############");
             Json.prettyPrint(bundle);
         }
@@ -748,16 +763,24 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         configureSwaggerInfo();
 
         // resolve inline models
-        InlineModelResolver inlineModelResolver = new InlineModelResolver();
-        inlineModelResolver.flatten(swagger);
+        long start = System.nanoTime();
+        if (!generationContext.isFlattened()) {
+            InlineModelResolver inlineModelResolver = new InlineModelResolver();
+            inlineModelResolver.flatten(swagger);
+        }
+        start = recordTiming("flatten", start);
+
+        checkInterrupted();
 
         List<File> files = new ArrayList<File>();
         // models
         List<Object> allModels = new ArrayList<Object>();
         generateModels(files, allModels);
+        start = recordTiming("models", start);
         // apis
         List<Object> allOperations = new ArrayList<Object>();
         generateApis(files, allOperations, allModels);
+        start = recordTiming("apis", start);
 
         mergeModelApiInfo(allModels, allOperations);
 
@@ -767,13 +790,36 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
 
         writeAllApiModelToFile(files, allOperations, allModels, swagger);
 
+        checkInterrupted();
+
         // supporting files
         Map<String, Object> bundle = buildSupportFileBundle(allOperations, allModels);
         generateSupportingFiles(files, bundle);
         config.processSwagger(swagger);
+        recordTiming("supportingFiles", start);
         return files;
     }
 
+    /**
+     * Record the time spent in a phase of the generation on the generation context.
+     *
+     * @return the end of the phase, i.e. the start of the next one
+     */
+    private long recordTiming(String phase, long start) {
+        long end = System.nanoTime();
+        generationContext.addTiming(phase, end - start);
+        return end;
+    }
+
+    /**
+     * Stop the generation when its thread was interrupted, e.g. because it was cancelled or timed out.
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Generation was interrupted");
+        }
+    }
+
     private void setVarIsEqualToJsonDefaultValue(CodegenProperty var){
         if (var.isBoolean == true) {
             var.vendorExtensions.put("x-isPointer", true);
@@ -992,7 +1038,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
 
 
     private File writeModelFile(List<Object> allModels, String serviceCategory, String version) {
-        if (System.getProperty("debugModels") != null) {
+        if (generationContext.isPropertySet("debugModels")) {
             LOGGER.info("############ New Model info ############");
             Json.prettyPrint(allModels);
         }
@@ -1024,7 +1070,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
 
 
     private File writeApiFile(List<Object> allOperations, String serviceCategory, String serviceType, String version) {
-        if (System.getProperty("debugOperations") != null) {
+        if (generationContext.isPropertySet("debugOperations")) {
             LOGGER.info("############ New Operation info ############");
             Json.prettyPrint(allOperations);
         }
@@ -1037,7 +1083,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
             for (String templateName : config.apiTemplateFiles().keySet()) {
                 String suffix = config.apiTemplateFiles().get(templateName);
                 String filename = config.apiFileFolder() + File.separator + serviceCategory + File.separator + version + File.separator + "api" + suffix;
-                if (!config.shouldOverwrite(filename) && new File(filename).exists()) {
+                if (!config.shouldOverwrite(filename) && fileExists(filename)) {
                     LOGGER.info("Skipped overwriting " + filename);
                     continue;
                 }
@@ -1221,18 +1267,7 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         String adjustedOutputFilename = outputFilename.replaceAll("//", "/").replace('/', File.separatorChar);
         if (ignoreProcessor.allowsFile(new File(adjustedOutputFilename))) {
             String templateFile = getFullTemplateFile(config, templateName);
-            String template = readTemplate(templateFile);
-            Mustache.Compiler compiler = Mustache.compiler();
-            compiler = config.processCompiler(compiler);
-            Template tmpl = compiler
-                    .withLoader(new Mustache.TemplateLoader() {
-                        @Override
-                        public Reader getTemplate(String name) {
-                            return getTemplateReader(getFullTemplateFile(config, name + ".mustache"));
-                        }
-                    })
-                    .defaultValue("")
-                    .compile(template);
+            Template tmpl = TemplateCache.compile(this, config, templateFile);
 
             writeToFile(adjustedOutputFilename, tmpl.execute(templateData));
             return new File(adjustedOutputFilename);
@@ -1266,8 +1301,10 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
     }
 
     public Map<String, List<CodegenOperation>> processPaths(Map<String, Path> paths) {
+        indexSwaggerTagsAndSecurity();
         Map<String, List<CodegenOperation>> ops = new TreeMap<String, List<CodegenOperation>>();
         for (String resourcePath : paths.keySet()) {
+            checkInterrupted();
             Path path = paths.get(resourcePath);
             processOperation(resourcePath, "get", path.getGet(), ops, path);
             processOperation(resourcePath, "head", path.getHead(), ops, path);
@@ -1280,37 +1317,46 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         return ops;
     }
 
+    /**
+     * Resolve the spec level tags and security requirements once, instead of for every operation.
+     */
+    private void indexSwaggerTagsAndSecurity() {
+        swaggerTagsByName = null;
+        if (swagger.getTags() != null) {
+            swaggerTagsByName = new HashMap<String, Tag>();
+            for (Tag tag : swagger.getTags()) {
+                // the first tag wins when names are duplicated
+                if (tag.getName() != null && !swaggerTagsByName.containsKey(tag.getName())) {
+                    swaggerTagsByName.put(tag.getName(), tag);
+                }
+            }
+        }
+
+        globalSecurities = null;
+        if (swagger.getSecurity() != null) {
+            globalSecurities = new ArrayList<Map<String, List<String>>>();
+            for (SecurityRequirement sr : swagger.getSecurity()) {
+                globalSecurities.add(sr.getRequirements());
+            }
+        }
+
+        oauth2ScopeDefinitions = new HashMap<String, Map<List<String>, OAuth2Definition>>();
+    }
+
     private void processOperation(String resourcePath, String httpMethod, Operation operation, Map<String, List<CodegenOperation>> operations, Path path) {
         if (operation == null) {
             return;
         }
-        if (System.getProperty("debugOperations") != null) {
+        if (generationContext.isPropertySet("debugOperations")) {
             LOGGER.info("processOperation: resourcePath= " + resourcePath + "\t;" + httpMethod + " " + operation + "\n");
         }
         List<Tag> tags = new ArrayList<Tag>();
 
         List<String> tagNames = operation.getTags();
-        List<Tag> swaggerTags = swagger.getTags();
         if (tagNames != null) {
-            if (swaggerTags == null) {
-                for (String tagName : tagNames) {
-                    tags.add(new Tag().name(tagName));
-                }
-            } else {
-                for (String tagName : tagNames) {
-                    boolean foundTag = false;
-                    for (Tag tag : swaggerTags) {
-                        if (tag.getName().equals(tagName)) {
-                            tags.add(tag);
-                            foundTag = true;
-                            break;
-                        }
-                    }
-
-                    if (!foundTag) {
-                        tags.add(new Tag().name(tagName));
-                    }
-                }
+            for (String tagName : tagNames) {
+                Tag tag = swaggerTagsByName == null ? null : swaggerTagsByName.get(tagName);
+                tags.add(tag != null ? tag : new Tag().name(tagName));
             }
         }
 
@@ -1340,47 +1386,15 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
             }
         }
 
+        Map<String, SecuritySchemeDefinition> authMethods = null;
         for (Tag tag : tags) {
             try {
                 CodegenOperation codegenOperation = config.fromOperation(resourcePath, httpMethod, operation, swagger.getDefinitions(), swagger);
                 codegenOperation.tags = new ArrayList<Tag>(tags);
                 config.addOperationToGroup(config.sanitizeTag(tag.getName()), resourcePath, operation, codegenOperation, operations);
 
-                List<Map<String, List<String>>> securities = operation.getSecurity();
-                if (securities == null && swagger.getSecurity() != null) {
-                    securities = new ArrayList<Map<String, List<String>>>();
-                    for (SecurityRequirement sr : swagger.getSecurity()) {
-                        securities.add(sr.getRequirements());
-                    }
-                }
-                if (securities == null || swagger.getSecurityDefinitions() == null) {
-                    continue;
-                }
-                Map<String, SecuritySchemeDefinition> authMethods = new HashMap<String, SecuritySchemeDefinition>();
-                for (Map<String, List<String>> security : securities) {
-                    for (String securityName : security.keySet()) {
-                        SecuritySchemeDefinition securityDefinition = swagger.getSecurityDefinitions().get(securityName);
-                        if (securityDefinition == null) {
-                            continue;
-                        }
-                        if (securityDefinition instanceof OAuth2Definition) {
-                            OAuth2Definition oauth2Definition = (OAuth2Definition) securityDefinition;
-                            OAuth2Definition oauth2Operation = new OAuth2Definition();
-                            oauth2Operation.setType(oauth2Definition.getType());
-                            oauth2Operation.setAuthorizationUrl(oauth2Definition.getAuthorizationUrl());
-                            oauth2Operation.setFlow(oauth2Definition.getFlow());
-                            oauth2Operation.setTokenUrl(oauth2Definition.getTokenUrl());
-                            oauth2Operation.setScopes(new HashMap<String, String>());
-                            for (String scope : security.get(securityName)) {
-                                if (oauth2Definition.getScopes().containsKey(scope)) {
-                                    oauth2Operation.addScope(scope, oauth2Definition.getScopes().get(scope));
-                                }
-                            }
-                            authMethods.put(securityName, oauth2Operation);
-                        } else {
-                            authMethods.put(securityName, securityDefinition);
-                        }
-                    }
+                if (authMethods == null) {
+                    authMethods = getAuthMethods(operation);
                 }
                 if (!authMethods.isEmpty()) {
                     codegenOperation.authMethods = config.fromSecurity(authMethods);
@@ -1399,6 +1413,62 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
 
     }
 
+    /**
+     * The security schemes of the operation (or the global ones when the operation doesn't declare any),
+     * OAuth2 schemes reduced to the scopes the operation requires.
+     */
+    private Map<String, SecuritySchemeDefinition> getAuthMethods(Operation operation) {
+        Map<String, SecuritySchemeDefinition> authMethods = new HashMap<String, SecuritySchemeDefinition>();
+        List<Map<String, List<String>>> securities = operation.getSecurity();
+        if (securities == null) {
+            securities = globalSecurities;
+        }
+        if (securities == null || swagger.getSecurityDefinitions() == null) {
+            return authMethods;
+        }
+        for (Map<String, List<String>> security : securities) {
+            for (String securityName : security.keySet()) {
+                SecuritySchemeDefinition securityDefinition = swagger.getSecurityDefinitions().get(securityName);
+                if (securityDefinition == null) {
+                    continue;
+                }
+                if (securityDefinition instanceof OAuth2Definition) {
+                    authMethods.put(securityName, getOAuth2ScopeDefinition(securityName, (OAuth2Definition) securityDefinition, security.get(securityName)));
+                } else {
+                    authMethods.put(securityName, securityDefinition);
+                }
+            }
+        }
+        return authMethods;
+    }
+
+    /**
+     * The OAuth2 definition reduced to the given scopes, shared by all operations requiring the same scopes.
+     */
+    private OAuth2Definition getOAuth2ScopeDefinition(String securityName, OAuth2Definition oauth2Definition, List<String> scopes) {
+        Map<List<String>, OAuth2Definition> definitions = oauth2ScopeDefinitions.get(securityName);
+        if (definitions == null) {
+            definitions = new HashMap<List<String>, OAuth2Definition>();
+            oauth2ScopeDefinitions.put(securityName, definitions);
+        }
+        OAuth2Definition oauth2Operation = definitions.get(scopes);
+        if (oauth2Operation == null) {
+            oauth2Operation = new OAuth2Definition();
+            oauth2Operation.setType(oauth2Definition.getType());
+            oauth2Operation.setAuthorizationUrl(oauth2Definition.getAuthorizationUrl());
+            oauth2Operation.setFlow(oauth2Definition.getFlow());
+            oauth2Operation.setTokenUrl(oauth2Definition.getTokenUrl());
+            oauth2Operation.setScopes(new HashMap<String, String>());
+            for (String scope : scopes) {
+                if (oauth2Definition.getScopes().containsKey(scope)) {
+                    oauth2Operation.addScope(scope, oauth2Definition.getScopes().get(scope));
+                }
+            }
+            definitions.put(new ArrayList<String>(scopes), oauth2Operation);
+        }
+        return oauth2Operation;
+    }
+
     private static String generateParameterId(Parameter parameter) {
         return parameter.getName() + ":" + parameter.getIn();
     }
@@ -1433,17 +1503,16 @@ public class DefaultGenerator extends AbstractGenerator implements Generator {
         }
 
         List<Map<String, String>> imports = new ArrayList<Map<String, String>>();
+        Set<String> mappedImports = new HashSet<String>();
         for (String nextImport : allImports) {
             Map<String, String> im = new LinkedHashMap<String, String>();
             String mapping = config.importMapping().get(nextImport);
             if (mapping == null) {
                 mapping = config.toModelImport(nextImport);
             }
-            if (mapping != null) {
+            if (mapping != null && mappedImports.add(mapping)) { // avoid duplicates
                 im.put("import", mapping);
-                if (!imports.contains(im)) { // avoid duplicates
-                    imports.add(im);
-                }
+                imports.add(im);
             }
         }
 
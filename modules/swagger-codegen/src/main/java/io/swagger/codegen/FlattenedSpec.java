@@ -0,0 +1,120 @@
+package io.swagger.codegen;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import io.swagger.codegen.auth.AuthParser;
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.parser.util.SwaggerDeserializer;
+import io.swagger.util.Json;
+
+/**
+ * A spec parsed and flattened once, to be generated several times, e.g. for several languages.
+ *
+ * The generators change the spec they generate, so each generation gets its own copy, which is read back from
+ * the serialized flattened spec: that's much cheaper than parsing the spec and resolving its inline models again.
+ */
+public class FlattenedSpec {
+    private final byte[] spec;
+
+    /**
+     * @param swagger parsed spec, its inline models are resolved in place
+     */
+    public FlattenedSpec(Swagger swagger) {
+        keepResponseProperties(swagger);
+        new InlineModelResolver().flatten(swagger);
+        try {
+            this.spec = Json.mapper().writeValueAsBytes(swagger);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Can't serialize the spec", e);
+        }
+    }
+
+    /**
+     * Parse and flatten a spec.
+     *
+     * @param inputSpec location of the spec, as URL or file
+     * @param auth URL-encoded authorization headers for a remote spec, may be null
+     * @return the flattened spec
+     */
+    public static FlattenedSpec read(String inputSpec, String auth) {
+        Swagger swagger = new SwaggerParser().read(inputSpec, AuthParser.parse(auth), true);
+        if (swagger == null) {
+            throw new RuntimeException("Can't read the spec " + inputSpec);
+        }
+        return new FlattenedSpec(swagger);
+    }
+
+    /**
+     * @return a new copy of the flattened spec
+     */
+    public Swagger copy() {
+        try {
+            return deserialize(spec);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't copy the spec", e);
+        }
+    }
+
+    /**
+     * Read back a spec serialized with {@link Json#mapper()} like the parser reads it: the mapper would make the
+     * first reference of each allOf the parent of its composed model, which the parser leaves to the generators.
+     *
+     * @param serialized serialized spec
+     * @return a new spec
+     * @throws IOException if the spec can't be read
+     */
+    public static Swagger deserialize(byte[] serialized) throws IOException {
+        return new SwaggerDeserializer().deserialize(Json.mapper().readTree(serialized)).getSwagger();
+    }
+
+    /**
+     * The generator input of a configurator, with its own copy of the spec, which the generator won't flatten
+     * again.
+     *
+     * @param configurator configurator of the generation, its input spec is ignored
+     * @return the generator input
+     */
+    public ClientOptInput toClientOptInput(CodegenConfigurator configurator) {
+        ClientOptInput input = configurator.toClientOptInput(copy());
+        input.getGenerationContext().setFlattened(true);
+        return input;
+    }
+
+    /**
+     * A parsed response holds its schema as a model, converted to a new property on each call, and serialized rather
+     * than the property the flattening changes: keep the property only, so that the copies see the references to the
+     * models of inline responses.
+     */
+    private static void keepResponseProperties(Swagger swagger) {
+        if (swagger.getPaths() == null) {
+            return;
+        }
+        for (Path path : swagger.getPaths().values()) {
+            for (Operation operation : path.getOperations()) {
+                if (operation.getResponses() == null) {
+                    continue;
+                }
+                for (Response response : operation.getResponses().values()) {
+                    if (response.getSchema() != null) {
+                        response.setSchema(response.getSchema());
+                        response.setResponseSchema(null);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return size of the serialized flattened spec
+     */
+    public int size() {
+        return spec.length;
+    }
+}
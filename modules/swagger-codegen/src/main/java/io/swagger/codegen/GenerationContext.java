@@ -0,0 +1,119 @@
+package io.swagger.codegen;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Properties of a single generation, e.g. the {@link CodegenConstants#APIS}/{@link CodegenConstants#MODELS}
+ * filters or the debugSwagger/debugModels switches, which used to be read from JVM-wide system properties.
+ * Keeping them per generation allows several generations to run concurrently in one JVM.
+ *
+ * Properties not set on the context fall back to the system properties for backward compatibility.
+ * A property set to null is unset for this generation, regardless of the system properties.
+ */
+public class GenerationContext {
+    private final Map<String, String> properties = new HashMap<String, String>();
+    private InMemoryOutput inMemoryOutput;
+    private boolean flattened;
+    private final Map<String, Long> timings = new LinkedHashMap<String, Long>();
+
+    public GenerationContext() {
+    }
+
+    public GenerationContext(Map<String, String> properties) {
+        if (properties != null) {
+            this.properties.putAll(properties);
+        }
+    }
+
+    /**
+     * Get the value of a property, falling back to the system property of the same name.
+     *
+     * @param key property name
+     * @return property value or null if not set
+     */
+    public String getProperty(String key) {
+        if (properties.containsKey(key)) {
+            return properties.get(key);
+        }
+        return System.getProperty(key);
+    }
+
+    /**
+     * Check whether a property is set, e.g. for switches like debugModels which don't need a value.
+     *
+     * @param key property name
+     * @return true if the property is set for this generation
+     */
+    public boolean isPropertySet(String key) {
+        return getProperty(key) != null;
+    }
+
+    /**
+     * Set a property for this generation.
+     *
+     * @param key property name
+     * @param value property value, null to unset the property (without falling back to system properties)
+     * @return this context
+     */
+    public GenerationContext setProperty(String key, String value) {
+        properties.put(key, value);
+        return this;
+    }
+
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * @return output tree the generated files are kept in instead of being written, or null
+     */
+    public InMemoryOutput getInMemoryOutput() {
+        return inMemoryOutput;
+    }
+
+    public GenerationContext setInMemoryOutput(InMemoryOutput inMemoryOutput) {
+        this.inMemoryOutput = inMemoryOutput;
+        return this;
+    }
+
+    /**
+     * @return whether the inline models of the spec were already resolved, so the generator doesn't
+     *         need to flatten the spec again
+     */
+    public boolean isFlattened() {
+        return flattened;
+    }
+
+    /**
+     * Mark the spec as flattened, e.g. when it's flattened once for several generations.
+     *
+     * @param flattened whether the inline models of the spec were already resolved
+     * @return this context
+     */
+    public GenerationContext setFlattened(boolean flattened) {
+        this.flattened = flattened;
+        return this;
+    }
+
+    /**
+     * Add time spent in a phase of this generation, e.g. by the generator for flattening the spec
+     * or rendering the models.
+     *
+     * @param phase phase name
+     * @param nanos time spent in nanoseconds, added to the time already recorded for the phase
+     */
+    public void addTiming(String phase, long nanos) {
+        Long previous = timings.get(phase);
+        timings.put(phase, previous == null ? nanos : previous + nanos);
+    }
+
+    /**
+     * @return time spent in nanoseconds by phase, in the order the phases started
+     */
+    public Map<String, Long> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+}
@@ -0,0 +1,63 @@
+package io.swagger.codegen;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Output tree kept in memory instead of being written below the output directory, e.g. for the
+ * online generator which only needs the generated files to stream them to the client.
+ *
+ * Set it with {@link ClientOptInput#inMemoryOutput(InMemoryOutput)}; the generator then writes
+ * nothing to disk, and checks for existing files only look at this tree.
+ */
+public class InMemoryOutput {
+    private final String root;
+    private final Map<String, byte[]> files = new LinkedHashMap<String, byte[]>();
+
+    /**
+     * @param root output directory the generated file names are relative to
+     */
+    public InMemoryOutput(String root) {
+        this.root = new File(root).getAbsolutePath();
+    }
+
+    public synchronized void write(File file, byte[] contents) {
+        files.put(relativePath(file), contents);
+    }
+
+    public synchronized boolean exists(File file) {
+        return files.containsKey(relativePath(file));
+    }
+
+    /**
+     * @return contents of the generated files by path relative to the output directory,
+     * with '/' as separator, in the order they were generated
+     */
+    public synchronized Map<String, byte[]> getFiles() {
+        return Collections.unmodifiableMap(new LinkedHashMap<String, byte[]>(files));
+    }
+
+    /**
+     * @return total size of the generated files in bytes
+     */
+    public synchronized long getSize() {
+        long size = 0;
+        for (byte[] contents : files.values()) {
+            size += contents.length;
+        }
+        return size;
+    }
+
+    private String relativePath(File file) {
+        String path = file.getAbsolutePath();
+        if (path.startsWith(root + File.separator)) {
+            path = path.substring(root.length() + 1);
+        } else {
+            // outside of the output directory, keep the whole path
+            path = path.substring(path.indexOf(File.separatorChar) + 1);
+        }
+        return path.replace(File.separatorChar, '/');
+    }
+}
@@ -0,0 +1,345 @@
+package io.swagger.codegen;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+
+/**
+ * Compiled templates shared by all generations in the JVM, so that a long running process, e.g. the online
+ * generator, compiles each template once instead of once per generated file.
+ *
+ * Templates embedded in the jars can't change while the JVM runs. Templates of a template directory on disk are
+ * recompiled when the template, or one of the partials it loaded, changed since it was compiled, e.g. while
+ * watching the template directory. Templates are cached per config class, which is assumed to configure the
+ * compiler in {@link CodegenConfig#processCompiler(Mustache.Compiler)} the same way for all its instances, without
+ * handing it anything which holds on to the config, like an escaper of an inner class. The compiled templates only
+ * hold weakly on to the class loader of their config class, so that the cache doesn't keep it from being unloaded.
+ */
+public class TemplateCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateCache.class);
+
+    private static final Map<Class<?>, ConcurrentMap<String, Template>> templates =
+            new WeakHashMap<Class<?>, ConcurrentMap<String, Template>>();
+    private static final Map<Class<?>, ConcurrentMap<String, DiskTemplate>> diskTemplates =
+            new WeakHashMap<Class<?>, ConcurrentMap<String, DiskTemplate>>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private TemplateCache() {
+    }
+
+    /**
+     * Compile a template, or reuse the compiled template if it's embedded and was compiled before.
+     *
+     * @param generator generator resolving and reading the template and its partials
+     * @param config codegen config
+     * @param templateFile full template file, see {@link AbstractGenerator#getFullTemplateFile(CodegenConfig, String)}
+     * @return compiled template
+     */
+    public static Template compile(final AbstractGenerator generator, final CodegenConfig config, String templateFile) {
+        if (!isEmbedded(config, templateFile)) {
+            return compileFromDisk(generator, config, templateFile);
+        }
+
+        ConcurrentMap<String, Template> compiled = templates(config.getClass());
+        String key = config.embeddedTemplateDir() + '\n' + StringUtils.defaultString(config.getLibrary()) + '\n' + templateFile;
+        Template template = compiled.get(key);
+        if (template != null) {
+            hits.incrementAndGet();
+            return template;
+        }
+        misses.incrementAndGet();
+        // the partials are resolved like getFullTemplateFile does without a template directory on disk,
+        // without holding on to the generator
+        template = compile(config, generator.readTemplate(templateFile),
+                new EmbeddedLoader(config.getClass().getClassLoader(), config.embeddedTemplateDir(), config.getLibrary()));
+        Template existing = compiled.putIfAbsent(key, template);
+        return existing != null ? existing : template;
+    }
+
+    private static Template compileFromDisk(AbstractGenerator generator, CodegenConfig config, String templateFile) {
+        ConcurrentMap<String, DiskTemplate> compiled = diskTemplates(config.getClass());
+        String key = config.templateDir() + '\n' + config.embeddedTemplateDir() + '\n'
+                + StringUtils.defaultString(config.getLibrary()) + '\n' + templateFile;
+        DiskTemplate cached = compiled.get(key);
+        if (cached != null && cached.isCurrent()) {
+            hits.incrementAndGet();
+            return cached.template;
+        }
+        misses.incrementAndGet();
+        // the partials are resolved like getFullTemplateFile does, without holding on to the generator or the config
+        DiskLoader loader = new DiskLoader(config.templateDir(), config.getLibrary(),
+                new EmbeddedLoader(config.getClass().getClassLoader(), config.embeddedTemplateDir(), config.getLibrary()));
+        loader.stamp(new File(templateFile));
+        Template template = compile(config, generator.readTemplate(templateFile), loader);
+        compiled.put(key, new DiskTemplate(template, loader.stamps));
+        return template;
+    }
+
+    /**
+     * Compile the templates a config declares, e.g. to warm up a server before it takes requests. Call
+     * {@link CodegenConfig#processOpts()} first, most configs only declare their supporting files there.
+     *
+     * Partials are compiled the first time a template including them is executed.
+     *
+     * @param config codegen config
+     * @return number of templates compiled or found in the cache
+     */
+    public static int preload(CodegenConfig config) {
+        AbstractGenerator generator = new DefaultGenerator();
+
+        Set<String> templateFiles = new LinkedHashSet<String>();
+        List<Map<String, String>> declared = new ArrayList<Map<String, String>>();
+        declared.add(config.apiTemplateFiles());
+        declared.add(config.modelTemplateFiles());
+        declared.add(config.apiTestTemplateFiles());
+        declared.add(config.modelTestTemplateFiles());
+        declared.add(config.apiDocTemplateFiles());
+        declared.add(config.modelDocTemplateFiles());
+        for (Map<String, String> files : declared) {
+            for (String templateName : files.keySet()) {
+                templateFiles.add(generator.getFullTemplateFile(config, templateName));
+            }
+        }
+        for (SupportingFile support : config.supportingFiles()) {
+            if (!support.templateFile.endsWith("mustache")) {
+                continue;
+            }
+            if (support instanceof GlobalSupportingFile) {
+                templateFiles.add(config.getCommonTemplateDir() + File.separator + support.templateFile);
+            } else {
+                templateFiles.add(generator.getFullTemplateFile(config, support.templateFile));
+            }
+        }
+
+        int count = 0;
+        for (String templateFile : templateFiles) {
+            try {
+                compile(generator, config, templateFile);
+                count++;
+            } catch (RuntimeException e) {
+                // e.g. a template declared for an option which isn't set
+                LOGGER.debug("Can't compile " + templateFile + " of " + config.getName() + ": " + e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of compiled templates in the cache
+     */
+    public static int size() {
+        int size = 0;
+        synchronized (templates) {
+            for (ConcurrentMap<String, Template> compiled : templates.values()) {
+                size += compiled.size();
+            }
+        }
+        synchronized (diskTemplates) {
+            for (ConcurrentMap<String, DiskTemplate> compiled : diskTemplates.values()) {
+                size += compiled.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return number of compilations saved by the cache
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of templates compiled and added to the cache
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Drop all compiled templates, e.g. in tests.
+     */
+    public static void clear() {
+        synchronized (templates) {
+            templates.clear();
+        }
+        synchronized (diskTemplates) {
+            diskTemplates.clear();
+        }
+    }
+
+    private static boolean isEmbedded(CodegenConfig config, String templateFile) {
+        String templateDir = config.templateDir();
+        return (templateDir == null || !new File(templateDir).isDirectory()) && !new File(templateFile).exists();
+    }
+
+    private static ConcurrentMap<String, Template> templates(Class<?> configClass) {
+        synchronized (templates) {
+            ConcurrentMap<String, Template> compiled = templates.get(configClass);
+            if (compiled == null) {
+                compiled = new ConcurrentHashMap<String, Template>();
+                templates.put(configClass, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    private static ConcurrentMap<String, DiskTemplate> diskTemplates(Class<?> configClass) {
+        synchronized (diskTemplates) {
+            ConcurrentMap<String, DiskTemplate> compiled = diskTemplates.get(configClass);
+            if (compiled == null) {
+                compiled = new ConcurrentHashMap<String, DiskTemplate>();
+                diskTemplates.put(configClass, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    private static Template compile(CodegenConfig config, String template, Mustache.TemplateLoader loader) {
+        return config.processCompiler(Mustache.compiler())
+                .withLoader(loader)
+                .defaultValue("")
+                .compile(template);
+    }
+
+    /**
+     * A template compiled from a template directory, with the modification times of the files it was compiled
+     * from: the template, the partials it loaded so far, and the files which would override them.
+     */
+    private static class DiskTemplate {
+        private final Template template;
+        private final Map<File, String> stamps;
+
+        private DiskTemplate(Template template, Map<File, String> stamps) {
+            this.template = template;
+            this.stamps = stamps;
+        }
+
+        private boolean isCurrent() {
+            for (Map.Entry<File, String> stamp : stamps.entrySet()) {
+                if (!stamp(stamp.getKey()).equals(stamp.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return modification time and size of a file, more precise than {@link File#lastModified()}
+     */
+    private static String stamp(File file) {
+        try {
+            return Files.getLastModifiedTime(file.toPath()) + "/" + file.length();
+        } catch (IOException e) {
+            // doesn't exist (yet)
+            return "";
+        }
+    }
+
+    /**
+     * Loads the partials like {@link AbstractGenerator#getFullTemplateFile(CodegenConfig, String)}, and stamps the
+     * files it looked at. Partials which aren't in the template directory are embedded.
+     */
+    private static class DiskLoader implements Mustache.TemplateLoader {
+        private final String templateDir;
+        private final String library;
+        private final EmbeddedLoader embedded;
+        private final Map<File, String> stamps = new ConcurrentHashMap<File, String>();
+
+        private DiskLoader(String templateDir, String library, EmbeddedLoader embedded) {
+            this.templateDir = templateDir;
+            this.library = library;
+            this.embedded = embedded;
+        }
+
+        private void stamp(File file) {
+            stamps.put(file, TemplateCache.stamp(file));
+        }
+
+        @Override
+        public Reader getTemplate(String name) {
+            String file = name + ".mustache";
+            List<File> candidates = new ArrayList<File>();
+            if (StringUtils.isNotEmpty(library)) {
+                candidates.add(new File(templateDir + File.separator + "libraries" + File.separator
+                        + library + File.separator + file));
+            }
+            candidates.add(new File(templateDir + File.separator + file));
+            for (File candidate : candidates) {
+                stamp(candidate);
+            }
+            for (File candidate : candidates) {
+                if (candidate.exists()) {
+                    try {
+                        return new InputStreamReader(new FileInputStream(candidate), StandardCharsets.UTF_8);
+                    } catch (IOException e) {
+                        throw new RuntimeException("can't load template " + candidate, e);
+                    }
+                }
+            }
+            return embedded.getTemplate(name);
+        }
+    }
+
+    private static class EmbeddedLoader implements Mustache.TemplateLoader {
+        // the cache is keyed weakly by a class of this loader
+        private final WeakReference<ClassLoader> classLoader;
+        private final String embeddedTemplateDir;
+        private final String library;
+
+        private EmbeddedLoader(ClassLoader classLoader, String embeddedTemplateDir, String library) {
+            this.classLoader = new WeakReference<ClassLoader>(classLoader);
+            this.embeddedTemplateDir = embeddedTemplateDir;
+            this.library = library;
+        }
+
+        @Override
+        public Reader getTemplate(String name) {
+            ClassLoader classLoader = this.classLoader.get();
+            if (classLoader == null) {
+                throw new IllegalStateException("The class loader of " + embeddedTemplateDir + " was unloaded");
+            }
+            String file = name + ".mustache";
+            InputStream in = null;
+            if (StringUtils.isNotEmpty(library)) {
+                in = classLoader.getResourceAsStream(resourcePath(embeddedTemplateDir + "/libraries/" + library + "/" + file));
+            }
+            if (in == null) {
+                in = classLoader.getResourceAsStream(resourcePath(embeddedTemplateDir + "/" + file));
+            }
+            if (in == null) {
+                throw new RuntimeException("can't load template " + embeddedTemplateDir + "/" + file);
+            }
+            return new InputStreamReader(in, StandardCharsets.UTF_8);
+        }
+
+        private static String resourcePath(String name) {
+            return name.replaceAll(Pattern.quote(File.separator), "/");
+        }
+    }
+}
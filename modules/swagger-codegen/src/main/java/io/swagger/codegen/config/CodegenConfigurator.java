@@ -8,6 +8,8 @@ import io.swagger.codegen.ClientOpts;
 import io.swagger.codegen.CodegenConfig;
 import io.swagger.codegen.CodegenConfigLoader;
 import io.swagger.codegen.CodegenConstants;
+import io.swagger.codegen.DefaultCodegen;
+import io.swagger.codegen.GenerationContext;
 import io.swagger.codegen.auth.AuthParser;
 import io.swagger.models.Swagger;
 import io.swagger.models.auth.AuthorizationValue;
@@ -57,6 +59,7 @@ public class CodegenConfigurator implements Serializable {
     private String artifactVersion;
     private String library;
     private String ignoreFileOverride;
+    // properties of this generation only (not written to the JVM system properties), see GenerationContext
     private Map<String, String> systemProperties = new HashMap<String, String>();
     private Map<String, String> instantiationTypes = new HashMap<String, String>();
     private Map<String, String> typeMappings = new HashMap<String, String>();
@@ -380,14 +383,43 @@ public class CodegenConfigurator implements Serializable {
     }
 
     public ClientOptInput toClientOptInput() {
+        ClientOptInput input = createClientOptInput();
+
+        final List<AuthorizationValue> authorizationValues = AuthParser.parse(auth);
+
+        Swagger swagger = new SwaggerParser().read(inputSpec, authorizationValues, true);
+
+        input.opts(new ClientOpts())
+                .swagger(swagger);
+
+        return input;
+    }
+
+    /**
+     * Like {@link #toClientOptInput()}, with a spec which is already parsed, e.g. when the same spec is
+     * generated for several languages. The generator changes the spec, so each input needs its own copy.
+     *
+     * @param swagger parsed spec
+     * @return the generator input
+     */
+    public ClientOptInput toClientOptInput(Swagger swagger) {
+        return createClientOptInput()
+                .opts(new ClientOpts())
+                .swagger(swagger);
+    }
+
+    private ClientOptInput createClientOptInput() {
 
         Validate.notEmpty(lang, "language must be specified");
         Validate.notEmpty(inputSpec, "input spec must be specified");
 
-        setVerboseFlags();
-        setSystemProperties();
+        GenerationContext generationContext = new GenerationContext(systemProperties);
+        setVerboseFlags(generationContext);
 
         CodegenConfig config = CodegenConfigLoader.forName(lang);
+        if (config instanceof DefaultCodegen) {
+            ((DefaultCodegen) config).setGenerationContext(generationContext);
+        }
 
         config.setInputSpec(inputSpec);
         config.setOutputDir(outputDir);
@@ -423,17 +455,9 @@ public class CodegenConfigurator implements Serializable {
 
         config.additionalProperties().putAll(additionalProperties);
 
-        ClientOptInput input = new ClientOptInput()
-                .config(config);
-
-        final List<AuthorizationValue> authorizationValues = AuthParser.parse(auth);
-
-        Swagger swagger = new SwaggerParser().read(inputSpec, authorizationValues, true);
-
-        input.opts(new ClientOpts())
-                .swagger(swagger);
-
-        return input;
+        return new ClientOptInput()
+                .config(config)
+                .generationContext(generationContext);
     }
 
     @JsonAnySetter
@@ -453,13 +477,13 @@ public class CodegenConfigurator implements Serializable {
             if (dynamicProperties.containsKey(opt)) {
                 codegenConfig.additionalProperties().put(opt, dynamicProperties.get(opt));
             }
-            else if(systemProperties.containsKey(opt)) {
+            else if(systemProperties.get(opt) != null) {
                 codegenConfig.additionalProperties().put(opt, systemProperties.get(opt));
             }
         }
     }
 
-    private void setVerboseFlags() {
+    private void setVerboseFlags(GenerationContext generationContext) {
         if (!verbose) {
             return;
         }
@@ -469,16 +493,10 @@ public class CodegenConfigurator implements Serializable {
                 "\n - [debugOperations] prints operations passed to the template engine" +
                 "\n - [debugSupportingFiles] prints additional data passed to the template engine");
 
-        System.setProperty("debugSwagger", "");
-        System.setProperty("debugModels", "");
-        System.setProperty("debugOperations", "");
-        System.setProperty("debugSupportingFiles", "");
-    }
-
-    private void setSystemProperties() {
-        for (Map.Entry<String, String> entry : systemProperties.entrySet()) {
-            System.setProperty(entry.getKey(), entry.getValue());
-        }
+        generationContext.setProperty("debugSwagger", "");
+        generationContext.setProperty("debugModels", "");
+        generationContext.setProperty("debugOperations", "");
+        generationContext.setProperty("debugSupportingFiles", "");
     }
 
     private static String toAbsolutePathStr(String path) {
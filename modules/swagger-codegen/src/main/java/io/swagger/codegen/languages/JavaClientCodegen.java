@@ -726,7 +726,7 @@ public class JavaClientCodegen extends AbstractJavaCodegen
         int year = Calendar.getInstance().get(Calendar.YEAR);
         List<Map<String, Object>> otherFiles = new ArrayList<>();
 
-        if (System.getProperty("debugSwagger") != null) {
+        if (generationContext.isPropertySet("debugSwagger")) {
             LOGGER.info("############ Swagger info ############");
             Json.prettyPrint(swagger);
 
@@ -775,7 +775,7 @@ public class JavaClientCodegen extends AbstractJavaCodegen
                             templateParam.put("packagename", packagename);
                             templateParam.put("option", co);
 
-                            if (System.getProperty("debugSwagger") != null) {
+                            if (generationContext.isPropertySet("debugSwagger")) {
                                 LOGGER.info("############ Option Param info ############");
                                 Json.prettyPrint(templateParam);
                             }
@@ -841,7 +841,7 @@ public class JavaClientCodegen extends AbstractJavaCodegen
                                 continue;
                             }
 
-                            if (System.getProperty("debugSwagger") != null) {
+                            if (generationContext.isPropertySet("debugSwagger")) {
                                 LOGGER.info("############ Template Param info ############");
                                 Json.prettyPrint(templateParam);
                             }
@@ -1043,7 +1043,7 @@ public class JavaClientCodegen extends AbstractJavaCodegen
                     templateParam.put("filename", filename);
                     output.add(templateParam);
 
-                    if (System.getProperty("debugSwagger") != null) {
+                    if (generationContext.isPropertySet("debugSwagger")) {
                         LOGGER.info("############ Other Param info ############");
                         Json.prettyPrint(templateParam);
                     }
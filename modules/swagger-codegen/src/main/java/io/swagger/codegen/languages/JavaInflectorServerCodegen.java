@@ -5,6 +5,7 @@ import io.swagger.codegen.CodegenModel;
 import io.swagger.codegen.CodegenOperation;
 import io.swagger.codegen.CodegenProperty;
 import io.swagger.codegen.CodegenType;
+import io.swagger.codegen.GenerationContext;
 import io.swagger.codegen.SupportingFile;
 import io.swagger.models.Operation;
 import io.swagger.models.Swagger;
@@ -49,6 +50,20 @@ public class JavaInflectorServerCodegen extends AbstractJavaCodegen {
         additionalProperties.put("jackson", "true");
     }
 
+    @Override
+    public void setGenerationContext(GenerationContext generationContext) {
+        super.setGenerationContext(generationContext);
+        // the default packages may also be set for this generation only, e.g. with the systemProperties of the configurator
+        String apiPackage = generationContext.getProperty("swagger.codegen.inflector.apipackage");
+        if (apiPackage != null) {
+            this.apiPackage = apiPackage;
+        }
+        String modelPackage = generationContext.getProperty("swagger.codegen.inflector.modelpackage");
+        if (modelPackage != null) {
+            this.modelPackage = modelPackage;
+        }
+    }
+
     @Override
     public CodegenType getTag() {
         return CodegenType.SERVER;
@@ -191,7 +206,7 @@ public class JavaInflectorServerCodegen extends AbstractJavaCodegen {
             int ix = result.indexOf(sourceFolder);
             String beg = result.substring(0, ix);
             String end = result.substring(ix + sourceFolder.length());
-            new java.io.File(beg + implFolder).mkdirs();
+            createFolder(new java.io.File(beg + implFolder));
             result = beg + implFolder + end;
         }
         return result;
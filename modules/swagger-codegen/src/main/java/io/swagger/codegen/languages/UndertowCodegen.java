@@ -43,6 +43,20 @@ public class UndertowCodegen extends AbstractJavaCodegen {
         additionalProperties.put("title", title);
     }
 
+    @Override
+    public void setGenerationContext(GenerationContext generationContext) {
+        super.setGenerationContext(generationContext);
+        // the default packages may also be set for this generation only, e.g. with the systemProperties of the configurator
+        String apiPackage = generationContext.getProperty("swagger.codegen.undertow.apipackage");
+        if (apiPackage != null) {
+            this.apiPackage = apiPackage;
+        }
+        String modelPackage = generationContext.getProperty("swagger.codegen.undertow.modelpackage");
+        if (modelPackage != null) {
+            this.modelPackage = modelPackage;
+        }
+    }
+
     @Override
     public CodegenType getTag() {
         return CodegenType.SERVER;
@@ -187,7 +201,7 @@ public class UndertowCodegen extends AbstractJavaCodegen {
             int ix = result.indexOf(sourceFolder);
             String beg = result.substring(0, ix);
             String end = result.substring(ix + sourceFolder.length());
-            new java.io.File(beg + implFolder).mkdirs();
+            createFolder(new java.io.File(beg + implFolder));
             result = beg + implFolder + end;
         }
         return result;
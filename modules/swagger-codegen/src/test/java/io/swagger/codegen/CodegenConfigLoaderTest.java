@@ -4,12 +4,17 @@ import org.reflections.Reflections;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 @SuppressWarnings("static-method")
 public class CodegenConfigLoaderTest {
@@ -23,7 +28,9 @@ public class CodegenConfigLoaderTest {
         List<CodegenConfig> codegenConfigList = new ArrayList<CodegenConfig>();
 
         for (Class<? extends DefaultCodegen> aClass : subTypesOf) {
-            if (!Modifier.isAbstract(aClass.getModifiers())) {
+            // skip the abstract generators, and the fake ones of the tests which can't be instantiated
+            if (!Modifier.isAbstract(aClass.getModifiers()) && Modifier.isPublic(aClass.getModifiers())
+                    && aClass.getEnclosingClass() == null) {
                 final DefaultCodegen defaultCodegen = aClass.newInstance();
                 codegenConfigList.add((CodegenConfig) defaultCodegen);
             }
@@ -55,4 +62,47 @@ public class CodegenConfigLoaderTest {
 
 
     }
+
+    @Test(dataProvider = "codegenConfig")
+    public void testIndexMetadata(CodegenConfig codegenConfig) throws Exception {
+        final CodegenConfigIndex.Entry entry = CodegenConfigIndex.get().getEntry(codegenConfig.getName());
+
+        assertEquals(entry.getClassName(), codegenConfig.getClass().getName());
+        assertEquals(entry.getTag(), codegenConfig.getTag());
+        assertEquals(entry.getHelp(), codegenConfig.getHelp());
+    }
+
+    @Test
+    public void testIndexFormat() throws Exception {
+        Properties index = new Properties();
+        index.setProperty("b.name", "b");
+        index.setProperty("a.help", "line\nbreak");
+        index.setProperty("a.name", "a");
+
+        // sorted, and without the date of the build
+        assertEquals(CodegenConfigIndex.format(index), "# generated by io.swagger.codegen.CodegenConfigIndex\n"
+                + "a.help=line\\nbreak\n"
+                + "a.name=a\n"
+                + "b.name=b\n");
+    }
+
+    @Test
+    public void testIndexDoesNotPinClassLoader() throws Exception {
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        WeakReference<ClassLoader> reference = new WeakReference<ClassLoader>(classLoader);
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            assertEquals(CodegenConfigIndex.get().newConfig("java").getName(), "java");
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+
+        classLoader = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
 }
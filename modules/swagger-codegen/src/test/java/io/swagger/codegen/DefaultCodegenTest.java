@@ -1,5 +1,11 @@
 package io.swagger.codegen;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -33,4 +39,54 @@ public class DefaultCodegenTest {
         Assert.assertEquals(codegen.additionalProperties().get(CodegenConstants.HIDE_GENERATION_TIMESTAMP), Boolean.FALSE);
         Assert.assertEquals(codegen.isHideGenerationTimestamp(), false);
     }
+
+    @Test
+    public void testNameCache() throws Exception {
+        final DefaultCodegen codegen = new DefaultCodegen();
+        codegen.additionalProperties().put(CodegenConstants.NAME_CACHE_SIZE, "2");
+        codegen.processOpts();
+
+        Assert.assertEquals(codegen.getNameCacheSize(), 2);
+        Assert.assertEquals(codegen.cachedModelName("pet"), "Pet");
+        Assert.assertEquals(codegen.cachedParamName("pet_id"), "petId");
+
+        // cached entries survive until the cache is reset
+        codegen.setModelNameSuffix("Dto");
+        Assert.assertEquals(codegen.cachedModelName("pet"), "Pet");
+        codegen.setNameCacheSize(2);
+        Assert.assertEquals(codegen.cachedModelName("pet"), "PetDto");
+
+        codegen.setNameCacheSize(0);
+        Assert.assertEquals(codegen.cachedModelName("pet"), codegen.toModelName("pet"));
+    }
+
+    @Test
+    public void testAddOperationToGroupUniqueOperationIds() throws Exception {
+        final DefaultCodegen codegen = new DefaultCodegen();
+        final Map<String, List<CodegenOperation>> operations = new HashMap<String, List<CodegenOperation>>();
+        final List<String> expected = new ArrayList<String>();
+        final String[] ids = {"foo", "foo_0", "foo_1", "foo_0_0", "bar"};
+        final Random random = new Random(7);
+
+        for (int i = 0; i < 500; i++) {
+            String operationId = ids[random.nextInt(ids.length)];
+
+            // the linear scan addOperationToGroup used before the operationId index
+            String uniqueName = operationId;
+            int counter = 0;
+            for (String existing : expected) {
+                if (uniqueName.equals(existing)) {
+                    uniqueName = operationId + "_" + counter;
+                    counter++;
+                }
+            }
+            expected.add(uniqueName);
+
+            CodegenOperation co = new CodegenOperation();
+            co.operationId = operationId;
+            codegen.addOperationToGroup("tag", "/", null, co, operations);
+            Assert.assertEquals(co.operationId, uniqueName);
+        }
+        Assert.assertEquals(operations.get("tag").size(), 500);
+    }
 }
@@ -1,6 +1,10 @@
 package io.swagger.codegen;
 
+import com.samskivert.mustache.Template;
+import io.swagger.codegen.languages.AbstractJavaCodegen;
 import io.swagger.codegen.languages.JavaClientCodegen;
+import io.swagger.codegen.languages.JavaInflectorServerCodegen;
+import io.swagger.codegen.languages.UndertowCodegen;
 import io.swagger.models.ExternalDocs;
 import io.swagger.models.Swagger;
 import io.swagger.models.Tag;
@@ -17,6 +21,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 import static io.swagger.codegen.CodegenConstants.TEMPLATE_DIR;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -33,6 +38,7 @@ public class DefaultGeneratorTest {
     private static final String MODEL_ORDER_FILE = "/src/main/java/io/swagger/client/model/Order.java";
     private static final String API_CLIENT_FILE = "/src/main/java/io/swagger/client/ApiClient.java";
     private static final String BUILD_GRADLE_FILE = "build.gradle";
+    private static final String OS_CLIENT_FILE = "core/src/main/java/com/huawei/openstack4j/api/OSClient.java";
 
     private static final String LIBRARY_COMMENT = "//overloaded template file within library folder to add this comment";
     private static final String TEMPLATE_COMMENT = "//overloaded main template file to add this comment";
@@ -481,6 +487,151 @@ public class DefaultGeneratorTest {
         }
     }
 
+    @Test
+    public void testIndexedTagsAndSecurity() {
+        String spec =
+                "swagger: '2.0'\n" +
+                "info:\n" +
+                "  version: 1.0.0\n" +
+                "  title: Indexed\n" +
+                "tags:\n" +
+                "  - name: pet\n" +
+                "    description: first\n" +
+                "  - name: pet\n" +
+                "    description: duplicate\n" +
+                "  - name: store\n" +
+                "    description: Access to orders\n" +
+                "securityDefinitions:\n" +
+                "  oauth:\n" +
+                "    type: oauth2\n" +
+                "    flow: implicit\n" +
+                "    authorizationUrl: 'http://example.com/auth'\n" +
+                "    scopes:\n" +
+                "      read: read things\n" +
+                "      write: write things\n" +
+                "      admin: administer things\n" +
+                "  key:\n" +
+                "    type: apiKey\n" +
+                "    name: X-Key\n" +
+                "    in: header\n" +
+                "security:\n" +
+                "  - oauth: [read]\n" +
+                "paths:\n" +
+                "  /pets:\n" +
+                "    get:\n" +
+                "      operationId: listPets\n" +
+                "      tags: [pet, store]\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: OK\n" +
+                "    post:\n" +
+                "      operationId: addPet\n" +
+                "      tags: [pet]\n" +
+                "      security:\n" +
+                "        - oauth: [read, write]\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: OK\n" +
+                "  /pets/{id}:\n" +
+                "    get:\n" +
+                "      operationId: getPet\n" +
+                "      tags: [store]\n" +
+                "      parameters:\n" +
+                "        - name: id\n" +
+                "          in: path\n" +
+                "          required: true\n" +
+                "          type: string\n" +
+                "      security:\n" +
+                "        - key: []\n" +
+                "        - oauth: [read, write]\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: OK\n" +
+                "  /orders:\n" +
+                "    get:\n" +
+                "      operationId: listOrders\n" +
+                "      security: []\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: OK";
+
+        final Swagger swagger = new SwaggerParser().readWithInfo(spec).getSwagger();
+        ClientOptInput clientOptInput = new ClientOptInput().opts(new ClientOpts()).swagger(swagger).config(new JavaClientCodegen());
+        DefaultGenerator generator = new DefaultGenerator();
+        generator.opts(clientOptInput);
+        Map<String, List<CodegenOperation>> paths = generator.processPaths(swagger.getPaths());
+
+        // the groupings by tag, untagged operations going to the default group
+        assertEquals(new TreeSet<String>(paths.keySet()), new TreeSet<String>(Arrays.asList("Default", "Pet", "Store")));
+        assertEquals(operationIds(paths.get("Pet")), new TreeSet<String>(Arrays.asList("listPets", "addPet")));
+        assertEquals(operationIds(paths.get("Store")), new TreeSet<String>(Arrays.asList("listPets", "getPet")));
+        assertEquals(operationIds(paths.get("Default")), new TreeSet<String>(Arrays.asList("listOrders")));
+
+        // the first definition of a duplicated tag wins
+        for (CodegenOperation operation : paths.get("Pet")) {
+            for (Tag tag : operation.tags) {
+                if ("pet".equals(tag.getName())) {
+                    assertEquals(tag.getDescription(), "first");
+                } else {
+                    assertEquals(tag.getDescription(), "Access to orders");
+                }
+            }
+        }
+
+        // the global security, with only the required scopes
+        for (CodegenOperation listPets : Arrays.asList(findOperation(paths.get("Pet"), "listPets"),
+                findOperation(paths.get("Store"), "listPets"))) {
+            assertEquals(listPets.authMethods.size(), 1);
+            assertEquals(listPets.authMethods.get(0).name, "oauth");
+            assertEquals(scopes(listPets.authMethods.get(0)), new TreeSet<String>(Arrays.asList("read")));
+        }
+
+        // the operation's own security
+        CodegenOperation addPet = findCodegenOperationByOperationId(paths, "addPet");
+        assertEquals(addPet.authMethods.size(), 1);
+        assertEquals(scopes(addPet.authMethods.get(0)), new TreeSet<String>(Arrays.asList("read", "write")));
+
+        CodegenOperation getPet = findCodegenOperationByOperationId(paths, "getPet");
+        assertEquals(getPet.authMethods.size(), 2);
+        for (CodegenSecurity security : getPet.authMethods) {
+            if ("oauth".equals(security.name)) {
+                assertEquals(scopes(security), new TreeSet<String>(Arrays.asList("read", "write")));
+            } else {
+                assertEquals(security.name, "key");
+                assertEquals(security.type, "apiKey");
+            }
+        }
+
+        // an empty security overrides the global one
+        assertNull(findCodegenOperationByOperationId(paths, "listOrders").authMethods);
+    }
+
+    private static Set<String> operationIds(List<CodegenOperation> operations) {
+        Set<String> operationIds = new TreeSet<String>();
+        for (CodegenOperation operation : operations) {
+            operationIds.add(operation.operationId);
+        }
+        return operationIds;
+    }
+
+    private static CodegenOperation findOperation(List<CodegenOperation> operations, String operationId) {
+        for (CodegenOperation operation : operations) {
+            if (operationId.equals(operation.operationId)) {
+                return operation;
+            }
+        }
+        fail("Operation " + operationId + " not found");
+        return null;
+    }
+
+    private static Set<String> scopes(CodegenSecurity security) {
+        Set<String> scopes = new TreeSet<String>();
+        for (Map<String, Object> scope : security.scopes) {
+            scopes.add((String) scope.get("scope"));
+        }
+        return scopes;
+    }
+
     private void assertOperationHasTags(CodegenOperation op, List<Tag> expectedTags) {
         assertNotNull(op.tags);
         assertEquals(op.tags.size(), expectedTags.size());
@@ -510,6 +661,145 @@ public class DefaultGeneratorTest {
         }
     }
 
+    @Test
+    public void testInMemoryOutput() throws Exception {
+        final File output = new File(folder.getRoot(), "in-memory");
+
+        final Swagger swagger = new SwaggerParser().read("src/test/resources/2_0/petstore.yaml");
+        CodegenConfig codegenConfig = new JavaClientCodegen();
+        codegenConfig.setOutputDir(output.getAbsolutePath());
+
+        InMemoryOutput inMemoryOutput = new InMemoryOutput(output.getAbsolutePath());
+        ClientOptInput clientOptInput = new ClientOptInput().opts(new ClientOpts()).swagger(swagger)
+                .config(codegenConfig).inMemoryOutput(inMemoryOutput);
+        List<File> files = new DefaultGenerator().opts(clientOptInput).generate();
+
+        assertFalse(output.exists());
+        assertFalse(files.isEmpty());
+        for (File file : files) {
+            assertTrue(inMemoryOutput.exists(file), file.getPath());
+        }
+        String client = new String(inMemoryOutput.getFiles().get(OS_CLIENT_FILE), UTF_8);
+        assertTrue(client.contains("interface OSClient"));
+    }
+
+    @Test
+    public void testInMemoryOutputCreatesNoFolders() throws Exception {
+        final File output = new File(folder.getRoot(), "in-memory");
+
+        final Swagger swagger = new SwaggerParser().read("src/test/resources/2_0/petstore.yaml");
+        for (AbstractJavaCodegen codegen : Arrays.<AbstractJavaCodegen>asList(new JavaInflectorServerCodegen(), new UndertowCodegen())) {
+            codegen.setOutputDir(output.getAbsolutePath());
+            ClientOptInput clientOptInput = new ClientOptInput().opts(new ClientOpts()).swagger(swagger)
+                    .config(codegen).inMemoryOutput(new InMemoryOutput(output.getAbsolutePath()));
+            new DefaultGenerator().opts(clientOptInput).generate();
+            // the api implementations go to their own folder
+            codegen.apiFilename("api.mustache", "pet");
+
+            assertFalse(output.exists(), codegen.getName());
+        }
+    }
+
+    @Test
+    public void testInterruptedGeneration() throws Exception {
+        final File output = folder.getRoot();
+
+        final Swagger swagger = new SwaggerParser().read("src/test/resources/2_0/petstore.yaml");
+        CodegenConfig codegenConfig = new JavaClientCodegen();
+        codegenConfig.setOutputDir(output.getAbsolutePath());
+
+        ClientOptInput clientOptInput = new ClientOptInput().opts(new ClientOpts()).swagger(swagger).config(codegenConfig);
+        Thread.currentThread().interrupt();
+        try {
+            new DefaultGenerator().opts(clientOptInput).generate();
+            fail("generation should stop when interrupted");
+        } catch (CancellationException e) {
+            assertEquals(output.list().length, 0);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testPhaseTimings() throws Exception {
+        final File output = folder.getRoot();
+
+        final Swagger swagger = new SwaggerParser().read("src/test/resources/2_0/petstore.yaml");
+        CodegenConfig codegenConfig = new JavaClientCodegen();
+        codegenConfig.setOutputDir(output.getAbsolutePath());
+
+        GenerationContext context = new GenerationContext();
+        ClientOptInput clientOptInput = new ClientOptInput().opts(new ClientOpts()).swagger(swagger)
+                .config(codegenConfig).generationContext(context);
+        new DefaultGenerator().opts(clientOptInput).generate();
+
+        assertEquals(new ArrayList<String>(context.getTimings().keySet()),
+                Arrays.asList("flatten", "models", "apis", "supportingFiles"));
+        for (Long nanos : context.getTimings().values()) {
+            assertTrue(nanos >= 0);
+        }
+    }
+
+    @Test
+    public void testTemplateCache() throws Exception {
+        final Swagger swagger = new SwaggerParser().read("src/test/resources/2_0/petstore.yaml");
+        TemplateCache.clear();
+
+        List<String> contents = new ArrayList<String>();
+        List<Long> misses = new ArrayList<Long>();
+        for (String dir : Arrays.asList("first", "second")) {
+            final File output = folder.newFolder(dir);
+            CodegenConfig codegenConfig = new JavaClientCodegen();
+            codegenConfig.setOutputDir(output.getAbsolutePath());
+
+            ClientOptInput clientOptInput = new ClientOptInput().opts(new ClientOpts()).swagger(swagger).config(codegenConfig);
+            StringBuilder generated = new StringBuilder();
+            for (File file : new DefaultGenerator().opts(clientOptInput).generate()) {
+                generated.append(file.getName()).append(FileUtils.readFileToString(file, UTF_8));
+            }
+            contents.add(generated.toString());
+            misses.add(TemplateCache.getMisses());
+        }
+
+        // the second generation compiled nothing
+        assertTrue(misses.get(0) > 0);
+        assertEquals(misses.get(1), misses.get(0));
+        assertTrue(TemplateCache.getHits() > 0);
+        assertEquals(contents.get(1), contents.get(0));
+
+        CodegenConfig codegenConfig = new JavaClientCodegen();
+        codegenConfig.processOpts();
+        assertTrue(TemplateCache.preload(codegenConfig) > 0);
+        assertTrue(TemplateCache.getMisses() > misses.get(1), "the api and model templates weren't compiled yet");
+    }
+
+    @Test
+    public void testTemplateCacheWithTemplateDir() throws Exception {
+        final File templateDir = folder.newFolder("templates");
+        final File main = new File(templateDir, "main.mustache");
+        final File partial = new File(templateDir, "part.mustache");
+        FileUtils.writeStringToFile(main, "main {{>part}}", UTF_8);
+        FileUtils.writeStringToFile(partial, "one", UTF_8);
+
+        final JavaClientCodegen codegenConfig = new JavaClientCodegen();
+        codegenConfig.setTemplateDir(templateDir.getAbsolutePath());
+        final DefaultGenerator generator = new DefaultGenerator();
+
+        final Template template = TemplateCache.compile(generator, codegenConfig, main.getAbsolutePath());
+        assertEquals(template.execute(new HashMap<String, Object>()), "main one");
+        assertSame(TemplateCache.compile(generator, codegenConfig, main.getAbsolutePath()), template);
+
+        // a changed partial is picked up, like a changed template
+        FileUtils.writeStringToFile(partial, "two", UTF_8);
+        final Template changed = TemplateCache.compile(generator, codegenConfig, main.getAbsolutePath());
+        assertNotSame(changed, template);
+        assertEquals(changed.execute(new HashMap<String, Object>()), "main two");
+
+        FileUtils.writeStringToFile(main, "new main {{>part}}", UTF_8);
+        assertEquals(TemplateCache.compile(generator, codegenConfig, main.getAbsolutePath())
+                .execute(new HashMap<String, Object>()), "new main two");
+    }
+
     private static void changeContent(File file) throws IOException {
         Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8));
         out.write(TEST_SKIP_OVERWRITE);
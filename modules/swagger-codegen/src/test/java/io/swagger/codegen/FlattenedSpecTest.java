@@ -0,0 +1,83 @@
+package io.swagger.codegen;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.parser.SwaggerParser;
+
+public class FlattenedSpecTest {
+
+    @Test(description = "each generation gets its own copy of the flattened spec")
+    public void copyTest() {
+        final FlattenedSpec spec = FlattenedSpec.read("src/test/resources/2_0/petstore.yaml", null);
+
+        final Swagger first = spec.copy();
+        final Swagger second = spec.copy();
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(first.getPaths().keySet(), second.getPaths().keySet());
+        Assert.assertTrue(first.getDefinitions().containsKey("Pet"));
+
+        first.getDefinitions().remove("Pet");
+        Assert.assertTrue(second.getDefinitions().containsKey("Pet"));
+        Assert.assertTrue(spec.copy().getDefinitions().containsKey("Pet"));
+    }
+
+    @Test(description = "the generator input of a flattened spec isn't flattened again")
+    public void clientOptInputTest() {
+        final FlattenedSpec spec = FlattenedSpec.read("src/test/resources/2_0/petstore.yaml", null);
+        final CodegenConfigurator configurator = new CodegenConfigurator()
+                .setLang("java")
+                .setInputSpec("src/test/resources/2_0/petstore.yaml");
+
+        final ClientOptInput input = spec.toClientOptInput(configurator);
+        Assert.assertTrue(input.getGenerationContext().isFlattened());
+        Assert.assertTrue(input.getSwagger().getDefinitions().containsKey("Pet"));
+        Assert.assertNotSame(input.getSwagger(), spec.toClientOptInput(configurator).getSwagger());
+    }
+
+    @Test(description = "the copies keep the references to the models of inline responses")
+    public void inlineResponseTest() {
+        final Swagger swagger = new SwaggerParser().parse("{\"swagger\":\"2.0\",\"info\":{\"title\":\"Inline\",\"version\":\"1\"},"
+                + "\"paths\":{\"/pets\":{\"get\":{\"responses\":{\"200\":{\"description\":\"pets\",\"schema\":{\"type\":\"array\","
+                + "\"items\":{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}}},"
+                + "\"201\":{\"description\":\"pet\",\"schema\":{\"type\":\"object\",\"properties\":{\"id\":{\"type\":\"integer\"}}}}}}}}}");
+
+        final Map<String, Response> responses = new FlattenedSpec(swagger).copy().getPath("/pets").getGet().getResponses();
+        Assert.assertEquals(((RefProperty) ((ArrayProperty) responses.get("200").getSchema()).getItems()).getSimpleRef(),
+                "inline_response_200");
+        Assert.assertEquals(((RefProperty) responses.get("201").getSchema()).getSimpleRef(), "inline_response_201");
+    }
+
+    @Test(description = "the copies keep the parents of composed models like the parser, see allOfTest.yaml")
+    public void composedModelTest() {
+        final String inputSpec = "src/test/resources/2_0/allOfTest.yaml";
+        final Swagger plain = new SwaggerParser().read(inputSpec);
+        new InlineModelResolver().flatten(plain);
+        final Swagger copy = FlattenedSpec.read(inputSpec, null).copy();
+
+        final CodegenConfig config = CodegenConfigLoader.forName("java");
+        Assert.assertEquals(copy.getDefinitions().keySet(), plain.getDefinitions().keySet());
+        for (String name : plain.getDefinitions().keySet()) {
+            final CodegenModel expected = config.fromModel(name, plain.getDefinitions().get(name), plain.getDefinitions());
+            final CodegenModel actual = config.fromModel(name, copy.getDefinitions().get(name), copy.getDefinitions());
+            Assert.assertEquals(actual.parent, expected.parent, name);
+            Assert.assertEquals(actual.discriminator, expected.discriminator, name);
+            Assert.assertEquals(actual.vars.size(), expected.vars.size(), name);
+        }
+        final CodegenModel child = config.fromModel("ChildOfSimpleParent",
+                copy.getDefinitions().get("ChildOfSimpleParent"), copy.getDefinitions());
+        Assert.assertEquals(child.parent, "SimpleParent");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void missingSpecTest() {
+        FlattenedSpec.read("src/test/resources/2_0/missing.yaml", null);
+    }
+}
@@ -0,0 +1,52 @@
+package io.swagger.codegen;
+
+import java.util.Collections;
+
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.models.Swagger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GenerationContextTest {
+
+    @Test(description = "context properties override system properties")
+    public void propertiesTest() {
+        final String key = "generationContextTest";
+        System.setProperty(key, "system");
+        try {
+            Assert.assertEquals(new GenerationContext().getProperty(key), "system");
+            Assert.assertEquals(new GenerationContext(Collections.singletonMap(key, "context")).getProperty(key), "context");
+
+            // unset for the generation, without falling back to the system property
+            final GenerationContext generationContext = new GenerationContext().setProperty(key, null);
+            Assert.assertFalse(generationContext.isPropertySet(key));
+            Assert.assertNull(generationContext.getProperty(key));
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Test(description = "contexts of different generations don't interfere")
+    public void isolationTest() {
+        final GenerationContext first = new GenerationContext().setProperty(CodegenConstants.MODELS, "Pet");
+        final GenerationContext second = new GenerationContext();
+
+        Assert.assertEquals(first.getProperty(CodegenConstants.MODELS), "Pet");
+        Assert.assertFalse(second.isPropertySet(CodegenConstants.MODELS));
+        Assert.assertNull(System.getProperty(CodegenConstants.MODELS));
+    }
+
+    @Test(description = "generator defaults set through the configurator's system properties")
+    public void generatorDefaultsTest() {
+        final CodegenConfigurator configurator = new CodegenConfigurator()
+                .setLang("inflector")
+                .setInputSpec("src/test/resources/2_0/petstore.yaml")
+                .addSystemProperty("swagger.codegen.inflector.apipackage", "com.example.controllers")
+                .addSystemProperty("swagger.codegen.inflector.modelpackage", "com.example.model");
+        final CodegenConfig config = configurator.toClientOptInput(new Swagger()).getConfig();
+
+        Assert.assertEquals(config.apiPackage(), "com.example.controllers");
+        Assert.assertEquals(config.modelPackage(), "com.example.model");
+        Assert.assertNull(System.getProperty("swagger.codegen.inflector.apipackage"));
+    }
+}
@@ -0,0 +1,173 @@
+package io.swagger.codegen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the single-pass name transformations of {@link DefaultCodegen} with the
+ * regular expression based implementations they replaced.
+ */
+public class NameTransformEquivalenceTest {
+
+    private static final String ALPHABET = "aAbBzZiI09_-. /[]()$\\\néß";
+
+    @Test(description = "camelize matches the regex based implementation")
+    public void camelizeTest() {
+        for (String word : inputs()) {
+            Assert.assertEquals(camelize(word, false), legacyCamelize(word, false), word);
+            Assert.assertEquals(camelize(word, true), legacyCamelize(word, true), word);
+        }
+    }
+
+    @Test(description = "underscore matches the regex based implementation")
+    public void underscoreTest() {
+        for (String word : inputs()) {
+            Assert.assertEquals(DefaultCodegen.underscore(word), legacyUnderscore(word), word);
+        }
+    }
+
+    @Test(description = "sanitizeName and sanitizeTag match the regex based implementation")
+    public void sanitizeTest() {
+        final DefaultCodegen codegen = new DefaultCodegen();
+        final DefaultCodegen unicodeCodegen = new DefaultCodegen();
+        unicodeCodegen.setAllowUnicodeIdentifiers(true);
+        for (String name : inputs()) {
+            Assert.assertEquals(codegen.sanitizeName(name), legacySanitizeName(name, false), name);
+            Assert.assertEquals(unicodeCodegen.sanitizeName(name), legacySanitizeName(name, true), name);
+
+            String tag = legacyCamelize(legacySanitizeName(name, false), false);
+            if (tag.matches("^\\d.*")) {
+                tag = "Class" + tag;
+            }
+            Assert.assertEquals(codegen.sanitizeTag(name), tag, name);
+        }
+    }
+
+    private static List<String> inputs() {
+        List<String> inputs = new ArrayList<String>(Arrays.asList("", "$", "_", "-", "a_", "a-", "__b", "--b",
+                "a__b", "a--b", "a_-b", "a-_b", "foo", ".foo.bar", "foo$bar", "foo_$bar", "foo/bar.baz",
+                "/foo/bar/baz.qux/corge", "foo-bar-xyzzy", "FooBAR", "HTTPServer", "getHTTPResponseCode", "a1B",
+                "ABCdEFg", "AbCDe", "input[]", "input[a][b]", "[[]]", "input(a)(b)", "input name and age",
+                "$php_variable", "1foo", "foo bar 1", "com.example.Outer$Inner", "x-is-valid", "_links",
+                "snake_case_name", "under_1_score", "tab\tsep", "line\nbreak", "café_au_lait", "straße"));
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            inputs.add(sb.toString());
+        }
+        return inputs;
+    }
+
+    // some input makes the regex replacement throw, that must stay the same
+    private static String camelize(String word, boolean lowercaseFirstLetter) {
+        try {
+            return DefaultCodegen.camelize(word, lowercaseFirstLetter);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String legacyCamelize(String word, boolean lowercaseFirstLetter) {
+        try {
+            return legacyCamelizeUnchecked(word, lowercaseFirstLetter);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String legacyCamelizeUnchecked(String word, boolean lowercaseFirstLetter) {
+        Pattern p = Pattern.compile("\\/(.?)");
+        Matcher m = p.matcher(word);
+        while (m.find()) {
+            word = m.replaceFirst("." + m.group(1));
+            m = p.matcher(word);
+        }
+
+        String[] parts = word.split("\\.");
+        StringBuilder f = new StringBuilder();
+        for (String z : parts) {
+            if (z.length() > 0) {
+                f.append(Character.toUpperCase(z.charAt(0))).append(z.substring(1));
+            }
+        }
+        word = f.toString();
+
+        m = p.matcher(word);
+        while (m.find()) {
+            word = m.replaceFirst("" + Character.toUpperCase(m.group(1).charAt(0)) + m.group(1).substring(1));
+            m = p.matcher(word);
+        }
+
+        p = Pattern.compile("(\\.?)(\\w)([^\\.]*)$");
+        m = p.matcher(word);
+        if (m.find()) {
+            String rep = m.group(1) + m.group(2).toUpperCase() + m.group(3);
+            rep = rep.replaceAll("\\$", "\\\\\\$");
+            word = m.replaceAll(rep);
+        }
+
+        p = Pattern.compile("(_)(.)");
+        m = p.matcher(word);
+        while (m.find()) {
+            String original = m.group(2);
+            String upperCase = original.toUpperCase();
+            if (original.equals(upperCase)) {
+                word = word.replaceFirst("_", "");
+            } else {
+                word = m.replaceFirst(upperCase);
+            }
+            m = p.matcher(word);
+        }
+
+        p = Pattern.compile("(-)(.)");
+        m = p.matcher(word);
+        while (m.find()) {
+            word = m.replaceFirst(m.group(2).toUpperCase());
+            m = p.matcher(word);
+        }
+
+        if (lowercaseFirstLetter && word.length() > 0) {
+            word = word.substring(0, 1).toLowerCase() + word.substring(1);
+        }
+        return word;
+    }
+
+    private static String legacyUnderscore(String word) {
+        word = word.replaceAll("\\.", "/");
+        word = word.replaceAll("\\$", "__");
+        word = word.replaceAll("([A-Z]+)([A-Z][a-z])", "$1_$2");
+        word = word.replaceAll("([a-z\\d])([A-Z])", "$1_$2");
+        word = word.replace('-', '_');
+        word = word.replace(' ', '_');
+        return word.toLowerCase();
+    }
+
+    private static String legacySanitizeName(String name, boolean allowUnicodeIdentifiers) {
+        if ("$".equals(name)) {
+            return "value";
+        }
+        name = name.replaceAll("\\[\\]", "");
+        name = name.replaceAll("\\[", "_");
+        name = name.replaceAll("\\]", "");
+        name = name.replaceAll("\\(", "_");
+        name = name.replaceAll("\\)", "");
+        name = name.replaceAll("\\.", "_");
+        name = name.replaceAll("-", "_");
+        name = name.replaceAll(" ", "_");
+        if (allowUnicodeIdentifiers) {
+            return Pattern.compile("\\W", Pattern.UNICODE_CHARACTER_CLASS).matcher(name).replaceAll("");
+        }
+        return name.replaceAll("\\W", "");
+    }
+}
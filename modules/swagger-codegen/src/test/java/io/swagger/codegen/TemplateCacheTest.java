@@ -0,0 +1,122 @@
+package io.swagger.codegen;
+
+import io.swagger.codegen.languages.JavaClientCodegen;
+import io.swagger.codegen.languages.ScalaClientCodegen;
+import com.samskivert.mustache.Template;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@SuppressWarnings("static-method")
+public class TemplateCacheTest {
+
+    /**
+     * Loaded again by an {@link IsolatingClassLoader}, like a generator of a plugin.
+     */
+    public static class IsolatedCodegen extends JavaClientCodegen {
+    }
+
+    /**
+     * Loaded again like {@link IsolatedCodegen}, with the compiler escaping of the Scala generators.
+     */
+    public static class IsolatedScalaCodegen extends ScalaClientCodegen {
+    }
+
+    /**
+     * Defines {@link IsolatedCodegen} and {@link IsolatedScalaCodegen} themselves, and leaves the other classes
+     * to its parent.
+     */
+    private static class IsolatingClassLoader extends ClassLoader {
+        private IsolatingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(IsolatedCodegen.class.getName()) && !name.equals(IsolatedScalaCodegen.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+                try {
+                    byte[] bytes = IOUtils.toByteArray(in);
+                    loaded = defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                } finally {
+                    IOUtils.closeQuietly(in);
+                }
+            }
+            return loaded;
+        }
+    }
+
+    @Test
+    public void testCacheDoesNotPinClassLoader() throws Exception {
+        assertClassLoaderUnloaded(IsolatedCodegen.class);
+    }
+
+    @Test
+    public void testEscaperDoesNotPinClassLoader() throws Exception {
+        assertClassLoaderUnloaded(IsolatedScalaCodegen.class);
+    }
+
+    private static void assertClassLoaderUnloaded(Class<?> configClass) throws Exception {
+        ClassLoader classLoader = new IsolatingClassLoader(TemplateCacheTest.class.getClassLoader());
+        WeakReference<ClassLoader> reference = new WeakReference<ClassLoader>(classLoader);
+        CodegenConfig config = (CodegenConfig) classLoader.loadClass(configClass.getName()).newInstance();
+        DefaultGenerator generator = new DefaultGenerator();
+        assertNotNull(TemplateCache.compile(generator, config, generator.getFullTemplateFile(config, "model.mustache")));
+
+        classLoader = null;
+        config = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
+
+    @Test
+    public void testDiskCacheDoesNotPinConfig() throws Exception {
+        File templateDir = Files.createTempDirectory("templates").toFile();
+        try {
+            FileUtils.writeStringToFile(new File(templateDir, "model.mustache"), "{{>disk}}|{{>licenseInfo}}", "UTF-8");
+            FileUtils.writeStringToFile(new File(templateDir, "disk.mustache"), "on disk", "UTF-8");
+
+            ClassLoader classLoader = new IsolatingClassLoader(getClass().getClassLoader());
+            WeakReference<ClassLoader> reference = new WeakReference<ClassLoader>(classLoader);
+            CodegenConfig config = (CodegenConfig) classLoader.loadClass(IsolatedCodegen.class.getName()).newInstance();
+            ((DefaultCodegen) config).setTemplateDir(templateDir.getAbsolutePath());
+            DefaultGenerator generator = new DefaultGenerator();
+            Template template = TemplateCache.compile(generator, config, generator.getFullTemplateFile(config, "model.mustache"));
+            // the partials are loaded while executing, from the template directory or embedded
+            String output = template.execute(new HashMap<String, Object>());
+            assertTrue(output.startsWith("on disk|"), output);
+            assertTrue(output.length() > "on disk|".length(), output);
+
+            template = null;
+            classLoader = null;
+            config = null;
+            for (int i = 0; i < 50 && reference.get() != null; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            assertNull(reference.get());
+        } finally {
+            FileUtils.deleteDirectory(templateDir);
+        }
+    }
+}
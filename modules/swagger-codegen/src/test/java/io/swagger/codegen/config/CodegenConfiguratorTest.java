@@ -4,12 +4,13 @@ import io.swagger.codegen.ClientOptInput;
 import io.swagger.codegen.CodegenConfig;
 import io.swagger.codegen.CodegenConfigLoader;
 import io.swagger.codegen.CodegenConstants;
+import io.swagger.codegen.DefaultCodegen;
+import io.swagger.codegen.GenerationContext;
 import io.swagger.codegen.auth.AuthParser;
 import io.swagger.codegen.languages.JavaClientCodegen;
 import io.swagger.models.Swagger;
 import io.swagger.models.auth.AuthorizationValue;
 import io.swagger.parser.SwaggerParser;
-import mockit.Expectations;
 import mockit.FullVerifications;
 import mockit.Injectable;
 import mockit.Mocked;
@@ -47,24 +48,19 @@ public class CodegenConfiguratorTest {
     @Tested
     CodegenConfigurator configurator;
 
-    @SuppressWarnings("unused")
     @Test
     public void testVerbose() throws Exception {
 
         configurator.setVerbose(true);
 
-        new StrictExpectations(System.class) {{
-            System.setProperty("debugSwagger", "");
-            times = 1;
-            System.setProperty("debugModels", "");
-            times = 1;
-            System.setProperty("debugOperations", "");
-            times = 1;
-            System.setProperty("debugSupportingFiles", "");
-            times = 1;
-        }};
+        final ClientOptInput clientOptInput = setupAndRunGenericTest(configurator);
+        final GenerationContext generationContext = clientOptInput.getGenerationContext();
 
-        setupAndRunGenericTest(configurator);
+        assertTrue(generationContext.isPropertySet("debugSwagger"));
+        assertTrue(generationContext.isPropertySet("debugModels"));
+        assertTrue(generationContext.isPropertySet("debugOperations"));
+        assertTrue(generationContext.isPropertySet("debugSupportingFiles"));
+        assertEquals(System.getProperty("debugModels"), null);
     }
 
     @Test
@@ -78,21 +74,19 @@ public class CodegenConfiguratorTest {
         assertValueInMap(clientOptInput.getConfig().additionalProperties(), CodegenConstants.TEMPLATE_DIR, toAbsolutePathDir(templateDir));
     }
 
-    @SuppressWarnings("unused")
     @Test
     public void testSystemProperties() throws Exception {
 
         configurator.addSystemProperty("hello", "world")
                 .addSystemProperty("foo", "bar");
 
-        new Expectations(System.class) {{
-            System.setProperty("hello", "world");
-            times = 1;
-            System.setProperty("foo", "bar");
-            times = 1;
-        }};
+        final ClientOptInput clientOptInput = setupAndRunGenericTest(configurator);
+        final GenerationContext generationContext = clientOptInput.getGenerationContext();
 
-        setupAndRunGenericTest(configurator);
+        assertEquals(generationContext.getProperty("hello"), "world");
+        assertEquals(generationContext.getProperty("foo"), "bar");
+        assertTrue(((DefaultCodegen) clientOptInput.getConfig()).getGenerationContext() == generationContext);
+        assertEquals(System.getProperty("hello"), null);
     }
 
     @Test
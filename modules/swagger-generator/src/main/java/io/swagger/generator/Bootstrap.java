@@ -14,6 +14,7 @@
 
 package io.swagger.generator;
 
+import io.swagger.generator.online.Warmup;
 import org.apache.commons.io.IOUtils;
 
 import javax.servlet.ServletConfig;
@@ -50,5 +51,7 @@ public class Bootstrap extends HttpServlet {
         bc.setLicenseUrl("http://www.apache.org/licenses/LICENSE-2.0.html");
         bc.setResourcePackage("io.swagger.generator.resource");
         bc.setScan(true);
+
+        Warmup.getInstance().start();
     }
 }
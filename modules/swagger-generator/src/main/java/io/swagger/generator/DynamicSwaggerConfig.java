@@ -1,7 +1,6 @@
 package io.swagger.generator;
 
-import io.swagger.codegen.Codegen;
-import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenConfigIndex;
 import io.swagger.codegen.CodegenType;
 import io.swagger.jaxrs.config.BeanConfig;
 import io.swagger.models.Operation;
@@ -19,8 +18,8 @@ public class DynamicSwaggerConfig extends BeanConfig {
     static List<String> servers = new ArrayList<String>();
 
     static {
-        List<CodegenConfig> extensions = Codegen.getExtensions();
-        for (CodegenConfig config : extensions) {
+        // only the metadata is needed, so don't instantiate every generator
+        for (CodegenConfigIndex.Entry config : CodegenConfigIndex.get().getEntries()) {
             if (config.getTag().equals(CodegenType.CLIENT)
                     || config.getTag().equals(CodegenType.DOCUMENTATION)) {
                 clients.add(config.getName());
@@ -0,0 +1,25 @@
+/**
+ * Copyright 2016 SmartBear Software
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.swagger.generator.exception;
+
+public class TooManyRequestsException extends ApiException {
+    private static final long serialVersionUID = 3306443262924410845L;
+
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+
+    public TooManyRequestsException(String msg) {
+        super(SC_TOO_MANY_REQUESTS, msg);
+    }
+}
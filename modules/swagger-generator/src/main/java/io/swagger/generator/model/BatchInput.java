@@ -0,0 +1,46 @@
+/**
+ * Copyright 2016 SmartBear Software
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.swagger.generator.model;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+/**
+ * A spec to generate several targets from, with the spec parsed and flattened only once.
+ */
+public class BatchInput extends GeneratorInput {
+    private List<BatchTarget> targets;
+    private boolean combined;
+
+    @ApiModelProperty(value = "Targets to generate", required = true)
+    public List<BatchTarget> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(List<BatchTarget> targets) {
+        this.targets = targets;
+    }
+
+    @ApiModelProperty(value = "Whether to download all targets as one bundle, with a folder per target, "
+            + "instead of one bundle per target")
+    public boolean isCombined() {
+        return combined;
+    }
+
+    public void setCombined(boolean combined) {
+        this.combined = combined;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 SmartBear Software
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.swagger.generator.model;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResponse {
+    private String code;
+    private String link;
+    private List<BatchResult> targets = new ArrayList<BatchResult>();
+
+    public static class BatchResult {
+        private String language;
+        private String type;
+        private String folderName;
+        private String code;
+        private String link;
+
+        public BatchResult() {}
+
+        public BatchResult(String language, String type, String folderName) {
+            setLanguage(language);
+            setType(type);
+            setFolderName(folderName);
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public void setLanguage(String language) {
+            this.language = language;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        @ApiModelProperty(value = "Folder of the target in its bundle")
+        public String getFolderName() {
+            return folderName;
+        }
+
+        public void setFolderName(String folderName) {
+            this.folderName = folderName;
+        }
+
+        @ApiModelProperty(value = "File download code of the target, unless the bundle is combined")
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        @ApiModelProperty(value = "URL for fetching the target, unless the bundle is combined")
+        public String getLink() {
+            return link;
+        }
+
+        public void setLink(String link) {
+            this.link = link;
+        }
+    }
+
+    @ApiModelProperty(value = "File download code of the combined bundle")
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    @ApiModelProperty(value = "URL for fetching the combined bundle")
+    public String getLink() {
+        return link;
+    }
+
+    public void setLink(String link) {
+        this.link = link;
+    }
+
+    public List<BatchResult> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(List<BatchResult> targets) {
+        this.targets = targets;
+    }
+}
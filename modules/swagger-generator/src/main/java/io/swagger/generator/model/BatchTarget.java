@@ -0,0 +1,60 @@
+/**
+ * Copyright 2016 SmartBear Software
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.swagger.generator.model;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Map;
+
+public class BatchTarget {
+    private String language;
+    private String type;
+    private Map<String, String> options;
+
+    public BatchTarget() {}
+
+    public BatchTarget(String language, String type) {
+        setLanguage(language);
+        setType(type);
+    }
+
+    @ApiModelProperty(value = "Target language or framework", required = true, example = "java")
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    @ApiModelProperty(value = "Whether to generate a client or a server", allowableValues = "client, server",
+            example = "client")
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    @ApiModelProperty(value = "Generation options for this target, added to the shared options")
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(Map<String, String> options) {
+        this.options = options;
+    }
+}
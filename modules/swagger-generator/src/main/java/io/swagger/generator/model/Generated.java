@@ -14,9 +14,14 @@
 
 package io.swagger.generator.model;
 
+import io.swagger.codegen.InMemoryOutput;
+
 public class Generated {
     private String filename;
     private String friendlyName;
+    private String folderName;
+    private InMemoryOutput output;
+    private String archiveFormat;
 
     public String getFilename() {
         return filename;
@@ -33,4 +38,31 @@ public class Generated {
     public void setFriendlyName(String friendlyName) {
         this.friendlyName = friendlyName;
     }
+
+    public String getFolderName() {
+        return folderName;
+    }
+
+    public void setFolderName(String folderName) {
+        this.folderName = folderName;
+    }
+
+    public InMemoryOutput getOutput() {
+        return output;
+    }
+
+    public void setOutput(InMemoryOutput output) {
+        this.output = output;
+    }
+
+    /**
+     * @return archive format of a download, e.g. <code>tar.gz</code>
+     */
+    public String getArchiveFormat() {
+        return archiveFormat;
+    }
+
+    public void setArchiveFormat(String archiveFormat) {
+        this.archiveFormat = archiveFormat;
+    }
 }
@@ -13,6 +13,7 @@ public class GeneratorInput {
     private String swaggerUrl;
     private SecuritySchemeDefinition auth;
     private AuthorizationValue authorizationValue;
+    private String archiveFormat;
 
     public AuthorizationValue getAuthorizationValue() {
         return authorizationValue;
@@ -48,6 +49,15 @@ public class GeneratorInput {
         this.swaggerUrl = url;
     }
 
+    @ApiModelProperty(value = "Archive format of the download, zip by default", allowableValues = "zip,tar.gz")
+    public String getArchiveFormat() {
+        return archiveFormat;
+    }
+
+    public void setArchiveFormat(String archiveFormat) {
+        this.archiveFormat = archiveFormat;
+    }
+
     @Deprecated
     public SecuritySchemeDefinition getSecurityDefinition() {
         return auth;
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 SmartBear Software
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.swagger.generator.model;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class JobStatus {
+    private String id;
+    private String status;
+    private String message;
+    private String link;
+
+    public JobStatus() {}
+
+    public JobStatus(String id, String status, String message, String link) {
+        setId(id);
+        setStatus(status);
+        setMessage(message);
+        setLink(link);
+    }
+
+    @ApiModelProperty(value = "Job id", example = "d40029be-eda6-4d62-b1ef-d05e2e91a72a")
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @ApiModelProperty(value = "Job status",
+            allowableValues = "QUEUED, RUNNING, DONE, FAILED, CANCELLED, TIMED_OUT")
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @ApiModelProperty(value = "Reason the job failed")
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @ApiModelProperty(
+            value = "URL for polling the job, or for fetching the generated bundle once the job is done",
+            example = "http://generator.swagger.io:80/api/gen/jobs/d40029be-eda6-4d62-b1ef-d05e2e91a72a")
+    public String getLink() {
+        return link;
+    }
+
+    public void setLink(String link) {
+        this.link = link;
+    }
+}
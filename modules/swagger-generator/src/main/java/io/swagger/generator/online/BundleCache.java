@@ -0,0 +1,363 @@
+package io.swagger.generator.online;
+
+import io.swagger.codegen.InMemoryOutput;
+import io.swagger.generator.model.Generated;
+import io.swagger.generator.util.Settings;
+import io.swagger.generator.util.ZipUtil;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Cache of generated bundles by a hash of everything the generation depends on, so repeated
+ * requests for the same spec and options are served without running the generator.
+ *
+ * Bundles are kept in memory, least recently used first out when the total size exceeds the limit,
+ * and optionally in a directory on disk which survives restarts. Both tiers expire entries after
+ * the same time to live.
+ *
+ * The keys of inline specs hash the spec as posted, see {@link Generator}: a spec with references to
+ * other documents is only looked up once they are resolved, so that changes to them aren't served from the cache.
+ */
+public class BundleCache implements BundleCacheMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BundleCache.class);
+
+    public static final String ENABLED = "generator.cache.enabled";
+    public static final String MAX_BYTES = "generator.cache.maxBytes";
+    public static final String TTL_SECONDS = "generator.cache.ttlSeconds";
+    public static final String DIRECTORY = "generator.cache.dir";
+    public static final String DISK_MAX_BYTES = "generator.cache.diskMaxBytes";
+
+    private static final String SUFFIX = ".zip";
+    private static final String TMP_SUFFIX = ".zip.tmp";
+
+    private static BundleCache instance;
+
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final File directory;
+    private final long diskMaxBytes;
+
+    // guards the renames and the evictions in the directory, never held while zipping
+    private final Object diskLock = new Object();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class Entry {
+        private final String folderName;
+        private final InMemoryOutput output;
+        private final long size;
+        private final long created;
+
+        private Entry(String folderName, InMemoryOutput output, long created) {
+            this.folderName = folderName;
+            this.output = output;
+            this.size = output.getSize();
+            this.created = created;
+        }
+    }
+
+    /**
+     * @param maxBytes maximum total size of the bundles kept in memory
+     * @param ttlMillis time to live of the bundles
+     * @param directory directory to keep bundles in on disk, null to keep them in memory only
+     * @param diskMaxBytes maximum total size of the bundles kept on disk
+     */
+    public BundleCache(long maxBytes, long ttlMillis, File directory, long diskMaxBytes) {
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+        this.directory = directory;
+        this.diskMaxBytes = diskMaxBytes;
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Can't create cache directory " + directory);
+        }
+    }
+
+    /**
+     * The cache configured with the {@link Settings}, null if caching is disabled.
+     *
+     * @return the shared cache
+     */
+    public static synchronized BundleCache getInstance() {
+        if (instance == null && Settings.getBoolean(ENABLED, true)) {
+            String directory = Settings.get(DIRECTORY, null);
+            instance = new BundleCache(Settings.getLong(MAX_BYTES, 128L * 1024 * 1024),
+                    Settings.getLong(TTL_SECONDS, 3600) * 1000,
+                    directory == null ? null : new File(directory),
+                    Settings.getLong(DISK_MAX_BYTES, 1024L * 1024 * 1024));
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance,
+                        new ObjectName("io.swagger.generator:type=BundleCache"));
+            } catch (Exception e) {
+                LOGGER.warn("Can't register bundle cache statistics", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Hash the inputs of a generation into a cache key.
+     *
+     * @param parts generation inputs, e.g. normalized spec, language, options and generator version
+     * @return the cache key
+     */
+    public static String key(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                // separator, so that moving characters between parts changes the key
+                digest.update((byte) 0);
+            }
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param key cache key
+     * @return a new {@link Generated} sharing the cached files, or null if not cached
+     */
+    public Generated get(String key) {
+        long now = now();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.created <= ttlMillis) {
+                    hits.incrementAndGet();
+                    return toGenerated(entry);
+                }
+                remove(key);
+            }
+        }
+
+        Entry entry = readFromDisk(key, now);
+        if (entry != null) {
+            diskHits.incrementAndGet();
+            putInMemory(key, entry);
+            return toGenerated(entry);
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @param key cache key
+     * @param generated generated bundle, whose files mustn't change afterwards
+     */
+    public void put(String key, Generated generated) {
+        Entry entry = new Entry(generated.getFolderName(), generated.getOutput(), now());
+        putInMemory(key, entry);
+        writeToDisk(key, entry);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static Generated toGenerated(Entry entry) {
+        Generated generated = new Generated();
+        generated.setFolderName(entry.folderName);
+        generated.setOutput(entry.output);
+        return generated;
+    }
+
+    private synchronized void putInMemory(String key, Entry entry) {
+        if (entry.size > maxBytes) {
+            return;
+        }
+        remove(key);
+        entries.put(key, entry);
+        bytes += entry.size;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().size;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.size;
+        }
+    }
+
+    private Entry readFromDisk(String key, long now) {
+        if (directory == null) {
+            return null;
+        }
+        File file = new File(directory, key + SUFFIX);
+        if (!file.isFile()) {
+            return null;
+        }
+        if (now - file.lastModified() > ttlMillis) {
+            file.delete();
+            return null;
+        }
+
+        String folderName = null;
+        InMemoryOutput output = new InMemoryOutput(new File(directory, key).getAbsolutePath());
+        ZipInputStream zip = null;
+        try {
+            zip = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)));
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                String name = zipEntry.getName();
+                int separator = name.indexOf('/');
+                folderName = name.substring(0, separator);
+                output.write(new File(new File(directory, key), name.substring(separator + 1)), IOUtils.toByteArray(zip));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable cached bundle " + file, e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(zip);
+        }
+        return folderName == null ? null : new Entry(folderName, output, file.lastModified());
+    }
+
+    /**
+     * Zip a bundle to the cache directory, without holding the lock of the in-memory tier.
+     */
+    private void writeToDisk(String key, Entry entry) {
+        if (directory == null || entry.size > diskMaxBytes) {
+            return;
+        }
+        File file = new File(directory, key + SUFFIX);
+        if (file.isFile() && now() - file.lastModified() <= ttlMillis) {
+            // read from there, or zipped by a concurrent generation of the same bundle
+            return;
+        }
+        File tmp = null;
+        try {
+            // unique, so that concurrent writers of the same key don't share it
+            tmp = File.createTempFile("bundle-" + key, TMP_SUFFIX, directory);
+            OutputStream out = new FileOutputStream(tmp);
+            try {
+                new ZipUtil().compressFiles(entry.folderName, entry.output.getFiles(), out);
+            } finally {
+                out.close();
+            }
+            synchronized (diskLock) {
+                if (file.exists()) {
+                    file.delete();
+                }
+                if (!tmp.renameTo(file)) {
+                    throw new IOException("Can't rename " + tmp + " to " + file);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Can't cache bundle " + file, e);
+            if (tmp != null) {
+                tmp.delete();
+            }
+            return;
+        }
+        evictFromDisk();
+    }
+
+    private void evictFromDisk() {
+        synchronized (diskLock) {
+            evictFromDiskLocked();
+        }
+    }
+
+    private void evictFromDiskLocked() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        // oldest first
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        long now = now();
+        long total = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX)) {
+                total += file.length();
+            }
+        }
+        for (File file : files) {
+            if (!file.getName().endsWith(SUFFIX)) {
+                if (file.getName().endsWith(TMP_SUFFIX) && now - file.lastModified() > ttlMillis) {
+                    // left behind by a crash while zipping
+                    file.delete();
+                }
+                continue;
+            }
+            if (total > diskMaxBytes || now - file.lastModified() > ttlMillis) {
+                total -= file.length();
+                file.delete();
+            }
+        }
+    }
+}
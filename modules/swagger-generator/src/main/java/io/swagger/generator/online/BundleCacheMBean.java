@@ -0,0 +1,19 @@
+package io.swagger.generator.online;
+
+/**
+ * JMX view of the {@link BundleCache} statistics.
+ */
+public interface BundleCacheMBean {
+
+    long getHits();
+
+    long getDiskHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    int getEntries();
+
+    long getBytes();
+}
@@ -0,0 +1,277 @@
+package io.swagger.generator.online;
+
+import io.swagger.generator.exception.ApiException;
+import io.swagger.generator.model.Generated;
+import io.swagger.generator.util.Settings;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated bundles waiting to be downloaded. Each bundle is archived once into a file, so that it
+ * can be downloaded any number of times and in ranges until it expires. Bundles expire after a
+ * time to live, and the oldest ones are dropped when the total size would exceed the limit, so
+ * bundles nobody downloads don't pile up.
+ */
+public class DownloadRegistry implements DownloadRegistryMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownloadRegistry.class);
+
+    public static final String MAX_BYTES = "generator.downloads.maxBytes";
+    public static final String TTL_SECONDS = "generator.downloads.ttlSeconds";
+    public static final String DIRECTORY = "generator.downloads.dir";
+
+    private static DownloadRegistry instance;
+
+    private final File directory;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    // insertion order, the oldest bundle first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>();
+    private long bytes;
+    private long expirations;
+    private long evictions;
+
+    private static class Entry {
+        private final Generated download;
+        private final long size;
+        private final long created;
+
+        private Entry(Generated download, long size, long created) {
+            this.download = download;
+            this.size = size;
+            this.created = created;
+        }
+    }
+
+    /**
+     * @param directory directory to keep the archived bundles in
+     * @param maxBytes maximum total size of the archived bundles
+     * @param ttlMillis time a bundle can be downloaded
+     */
+    public DownloadRegistry(File directory, long maxBytes, long ttlMillis) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Can't create download directory " + directory);
+        }
+    }
+
+    /**
+     * The registry configured with the {@link Settings}, with expired bundles removed in the background.
+     *
+     * @return the shared registry
+     */
+    public static synchronized DownloadRegistry getInstance() {
+        if (instance == null) {
+            String directory = Settings.get(DIRECTORY, null);
+            final DownloadRegistry registry = new DownloadRegistry(
+                    directory == null ? createTempDirectory() : new File(directory),
+                    Settings.getLong(MAX_BYTES, 1024L * 1024 * 1024),
+                    Settings.getLong(TTL_SECONDS, 1800) * 1000);
+            ScheduledExecutorService cleanup = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "generator-downloads-cleanup");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            cleanup.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    registry.removeExpired();
+                }
+            }, 30, 30, TimeUnit.SECONDS);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(registry,
+                        new ObjectName("io.swagger.generator:type=DownloadRegistry"));
+            } catch (Exception e) {
+                LOGGER.warn("Can't register download registry statistics", e);
+            }
+            instance = registry;
+        }
+        return instance;
+    }
+
+    /**
+     * Zip a bundle for download, dropping the oldest bundles if there isn't enough room.
+     *
+     * @param code download code, generated by the server
+     * @param generated generated bundle, with its friendly name set
+     * @return the download, see {@link #get(String)}
+     * @throws ApiException if the bundle can't be written or alone is larger than the maximum size
+     */
+    public Generated register(String code, Generated generated) throws ApiException {
+        return register(code, generated, Generator.Format.ZIP);
+    }
+
+    /**
+     * Archive a bundle for download, dropping the oldest bundles if there isn't enough room.
+     *
+     * @param code download code, generated by the server
+     * @param generated generated bundle, with its friendly name set
+     * @param format archive format
+     * @return the download, see {@link #get(String)}
+     * @throws ApiException if the bundle can't be written or alone is larger than the maximum size
+     */
+    public Generated register(String code, Generated generated, Generator.Format format) throws ApiException {
+        // archived outside of the lock, a new file for each registration so downloads in progress
+        // keep reading the file they opened
+        File file = null;
+        try {
+            file = Files.createTempFile(directory.toPath(), code + "-", "." + format.getExtension()).toFile();
+            OutputStream out = new FileOutputStream(file);
+            try {
+                Generator.writeBundle(generated, format, out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            if (file != null) {
+                delete(file);
+            }
+            throw new ApiException(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Unable to write the bundle: " + e.getMessage());
+        }
+
+        long size = file.length();
+        if (size > maxBytes) {
+            delete(file);
+            throw new ApiException(HttpStatus.SC_INSUFFICIENT_STORAGE,
+                    "The generated bundle is larger than the " + maxBytes + " bytes which can be held for download");
+        }
+
+        Generated download = new Generated();
+        download.setFilename(file.getAbsolutePath());
+        download.setFolderName(generated.getFolderName());
+        download.setFriendlyName(generated.getFriendlyName());
+        download.setArchiveFormat(format.getExtension());
+
+        synchronized (this) {
+            Entry replaced = entries.remove(code);
+            if (replaced != null) {
+                bytes -= replaced.size;
+                delete(replaced);
+            }
+            removeExpired();
+
+            Iterator<Entry> oldest = entries.values().iterator();
+            while (bytes + size > maxBytes && oldest.hasNext()) {
+                Entry evicted = oldest.next();
+                bytes -= evicted.size;
+                oldest.remove();
+                delete(evicted);
+                evictions++;
+            }
+            entries.put(code, new Entry(download, size, now()));
+            bytes += size;
+        }
+        return download;
+    }
+
+    /**
+     * @param code download code
+     * @return the download, with the archive as {@link Generated#getFilename()}, or null if
+     *         there's none or it expired
+     */
+    public synchronized Generated get(String code) {
+        Entry entry = entries.get(code);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, now())) {
+            entries.remove(code);
+            bytes -= entry.size;
+            delete(entry);
+            expirations++;
+            return null;
+        }
+        return entry.download;
+    }
+
+    /**
+     * Remove the expired bundles.
+     */
+    public synchronized void removeExpired() {
+        long now = now();
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (!isExpired(entry, now)) {
+                // the others are younger
+                break;
+            }
+            bytes -= entry.size;
+            it.remove();
+            delete(entry);
+            expirations++;
+        }
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.created > ttlMillis;
+    }
+
+    private static void delete(Entry entry) {
+        // downloads in progress keep reading the deleted file where the platform allows it
+        delete(new File(entry.download.getFilename()));
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            LOGGER.warn("Can't delete " + file);
+            file.deleteOnExit();
+        }
+    }
+
+    private static File createTempDirectory() {
+        try {
+            File directory = Files.createTempDirectory("swagger-downloads").toFile();
+            directory.deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't create download directory", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.swagger.generator.online;
+
+/**
+ * JMX view of the {@link DownloadRegistry} occupancy.
+ */
+public interface DownloadRegistryMBean {
+
+    int getEntries();
+
+    /**
+     * @return total size of the zipped bundles on disk
+     */
+    long getBytes();
+
+    long getExpirations();
+
+    long getEvictions();
+}
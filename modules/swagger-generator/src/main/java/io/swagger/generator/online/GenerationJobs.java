@@ -0,0 +1,374 @@
+package io.swagger.generator.online;
+
+import io.swagger.generator.exception.ApiException;
+import io.swagger.generator.exception.BadRequestException;
+import io.swagger.generator.exception.NotFoundException;
+import io.swagger.generator.exception.TooManyRequestsException;
+import io.swagger.generator.model.Generated;
+import io.swagger.generator.model.GeneratorInput;
+import io.swagger.generator.util.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs generations in the background on a bounded pool of workers, so that bursts of requests
+ * queue up, up to a limit, instead of each taking a servlet thread and its share of the heap.
+ *
+ * Cancelling a job or exceeding its timeout, counted from when a worker starts it, interrupts the
+ * worker, which stops the generation at its next checkpoint. Finished bundles are kept until they
+ * expire, or until they take more than the retained size, the oldest jobs being dropped first.
+ */
+public class GenerationJobs {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationJobs.class);
+
+    public static final String THREADS = "generator.jobs.threads";
+    public static final String QUEUE_SIZE = "generator.jobs.queueSize";
+    public static final String TIMEOUT_SECONDS = "generator.jobs.timeoutSeconds";
+    public static final String TTL_SECONDS = "generator.jobs.ttlSeconds";
+    public static final String MAX_RETAINED_BYTES = "generator.jobs.maxRetainedBytes";
+
+    private static GenerationJobs instance;
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED, TIMED_OUT
+    }
+
+    public static class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final String language;
+        private final Generator.Type type;
+        private final Generator.Format format;
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private volatile Generated result;
+        private volatile long finished;
+        private Future<?> future;
+        private long size;
+
+        private Job(String language, Generator.Type type, Generator.Format format) {
+            this.language = language;
+            this.type = type;
+            this.format = format;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public Generator.Type getType() {
+            return type;
+        }
+
+        /**
+         * @return archive format of the download
+         */
+        public Generator.Format getFormat() {
+            return format;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @return the generated bundle once the job is {@link Status#DONE}
+         */
+        public Generated getResult() {
+            return result;
+        }
+
+        private synchronized void finish(Status status, String message) {
+            if (this.status == Status.QUEUED || this.status == Status.RUNNING) {
+                this.status = status;
+                this.message = message;
+                this.finished = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService scheduler;
+    private final long timeoutMillis;
+    private final long ttlMillis;
+    private final long maxRetainedBytes;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<String, Job>();
+
+    // jobs holding a bundle, oldest first
+    private final LinkedHashMap<String, Job> retained = new LinkedHashMap<String, Job>();
+    private long retainedBytes;
+
+    /**
+     * @param threads number of concurrent generations
+     * @param queueSize number of jobs waiting for a worker before new ones are rejected
+     * @param timeoutMillis maximum time a job runs
+     * @param ttlMillis time finished jobs are kept for polling and download
+     */
+    public GenerationJobs(int threads, int queueSize, long timeoutMillis, long ttlMillis) {
+        this(threads, queueSize, timeoutMillis, ttlMillis, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param threads number of concurrent generations
+     * @param queueSize number of jobs waiting for a worker before new ones are rejected
+     * @param timeoutMillis maximum time a job runs
+     * @param ttlMillis time finished jobs are kept for polling and download
+     * @param maxRetainedBytes maximum total size of the bundles of finished jobs
+     */
+    public GenerationJobs(int threads, int queueSize, long timeoutMillis, long ttlMillis, long maxRetainedBytes) {
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), daemonThreads("generator-worker-"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("generator-jobs-"));
+        this.timeoutMillis = timeoutMillis;
+        this.ttlMillis = ttlMillis;
+        this.maxRetainedBytes = maxRetainedBytes;
+
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                purge();
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * The job queue configured with the {@link Settings}.
+     *
+     * @return the shared job queue
+     */
+    public static synchronized GenerationJobs getInstance() {
+        if (instance == null) {
+            instance = new GenerationJobs(
+                    Settings.getInt(THREADS, Runtime.getRuntime().availableProcessors()),
+                    Settings.getInt(QUEUE_SIZE, 100),
+                    Settings.getLong(TIMEOUT_SECONDS, 300) * 1000,
+                    Settings.getLong(TTL_SECONDS, 3600) * 1000,
+                    Settings.getLong(MAX_RETAINED_BYTES, 256L * 1024 * 1024));
+        }
+        return instance;
+    }
+
+    /**
+     * Queue a generation.
+     *
+     * @param language target language or framework
+     * @param opts generator input
+     * @param type client or server
+     * @return the queued job
+     * @throws TooManyRequestsException if the queue is full
+     * @throws BadRequestException if the archive format isn't supported
+     */
+    public Job submit(final String language, final GeneratorInput opts, final Generator.Type type)
+            throws ApiException {
+        final Job job = new Job(language, type,
+                Generator.Format.forExtension(opts == null ? null : opts.getArchiveFormat()));
+        jobs.put(job.id, job);
+        try {
+            synchronized (job) {
+                job.future = workers.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        run(job, opts);
+                        return null;
+                    }
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new TooManyRequestsException("Too many generations queued, try again later");
+        }
+        return job;
+    }
+
+    /**
+     * @param id job id
+     * @return the job, or null if there is no such job or it expired
+     */
+    public Job get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Cancel a queued or running job.
+     *
+     * @param id job id
+     * @return the job, or null if there is no such job
+     */
+    public Job cancel(String id) {
+        Job job = jobs.get(id);
+        if (job != null) {
+            cancel(job, Status.CANCELLED);
+        }
+        return job;
+    }
+
+    /**
+     * Archive the bundle of a finished job for download, once however many clients ask for it at the same time.
+     *
+     * @param job job which is {@link Status#DONE}
+     * @param downloads registry to archive the bundle in, under the job id
+     * @return the download
+     * @throws NotFoundException if the bundle was dropped to make room for newer ones
+     */
+    public Generated download(Job job, DownloadRegistry downloads) throws ApiException {
+        synchronized (job) {
+            Generated download = downloads.get(job.id);
+            if (download == null) {
+                Generated result = job.result;
+                if (result == null) {
+                    throw new NotFoundException("The bundle of job " + job.id + " expired");
+                }
+                download = downloads.register(job.id,
+                        Generator.named(result, job.language + "-" + job.type.getTypeName()), job.format);
+            }
+            return download;
+        }
+    }
+
+    /**
+     * @return number of jobs waiting for a worker
+     */
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * @return number of jobs being generated
+     */
+    public int getActiveJobs() {
+        return workers.getActiveCount();
+    }
+
+    private void run(final Job job, GeneratorInput opts) {
+        synchronized (job) {
+            if (job.status != Status.QUEUED) {
+                return;
+            }
+            job.status = Status.RUNNING;
+        }
+        // counted from now rather than from the submission, so that waiting in the queue doesn't use it up
+        Future<?> timeout = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (cancel(job, Status.TIMED_OUT)) {
+                    LOGGER.info("generation job " + job.id + " timed out");
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            Generated result = job.type == Generator.Type.SERVER
+                    ? Generator.generateServerBundle(job.language, opts)
+                    : Generator.generateClientBundle(job.language, opts);
+            synchronized (job) {
+                if (job.status == Status.RUNNING) {
+                    job.result = result;
+                    job.size = result.getOutput().getSize();
+                    job.finish(Status.DONE, null);
+                }
+            }
+            if (job.result != null) {
+                retain(job);
+            }
+        } catch (ApiException e) {
+            job.finish(Status.FAILED, e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.error("generation job " + job.id + " failed", e);
+            job.finish(Status.FAILED, "Unable to build target: " + e.getMessage());
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    private synchronized void retain(Job job) {
+        retained.put(job.id, job);
+        retainedBytes += job.size;
+        Iterator<Job> oldest = retained.values().iterator();
+        while (retainedBytes > maxRetainedBytes && oldest.hasNext()) {
+            Job dropped = oldest.next();
+            oldest.remove();
+            retainedBytes -= dropped.size;
+            // polling it answers 404, like an expired job
+            jobs.remove(dropped.id);
+            dropped.result = null;
+            LOGGER.info("dropped the bundle of generation job " + dropped.id + " to make room for newer ones");
+        }
+    }
+
+    private synchronized void release(Job job) {
+        if (retained.remove(job.id) != null) {
+            retainedBytes -= job.size;
+        }
+    }
+
+    /**
+     * @return total size of the bundles of finished jobs
+     */
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    private boolean cancel(Job job, Status status) {
+        Future<?> future;
+        synchronized (job) {
+            if (job.status != Status.QUEUED && job.status != Status.RUNNING) {
+                return false;
+            }
+            job.finish(status, status == Status.TIMED_OUT
+                    ? "Generation took longer than " + timeoutMillis / 1000 + " seconds" : null);
+            future = job.future;
+        }
+        if (future != null) {
+            // interrupts the generation, or removes the job from the queue
+            future.cancel(true);
+            workers.purge();
+        }
+        return true;
+    }
+
+    private void purge() {
+        long expired = System.currentTimeMillis() - ttlMillis;
+        Iterator<Job> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            Job job = it.next();
+            if (job.finished != 0 && job.finished < expired) {
+                it.remove();
+                release(job);
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
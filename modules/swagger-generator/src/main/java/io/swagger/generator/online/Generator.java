@@ -1,28 +1,68 @@
 package io.swagger.generator.online;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.codegen.*;
+import io.swagger.codegen.utils.ImplementationVersion;
 import io.swagger.generator.exception.ApiException;
 import io.swagger.generator.exception.BadRequestException;
+import io.swagger.generator.exception.TooManyRequestsException;
+import io.swagger.generator.model.BatchInput;
+import io.swagger.generator.model.BatchTarget;
+import io.swagger.generator.model.Generated;
 import io.swagger.generator.model.GeneratorInput;
 import io.swagger.generator.model.InputOption;
+import io.swagger.generator.util.Settings;
 import io.swagger.generator.util.ZipUtil;
 import io.swagger.models.Swagger;
 import io.swagger.models.auth.AuthorizationValue;
 import io.swagger.parser.SwaggerParser;
 import io.swagger.util.Json;
+import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
 
 public class Generator {
     static Logger LOGGER = LoggerFactory.getLogger(Generator.class);
 
+    public static final String BATCH_THREADS = "generator.batch.threads";
+    public static final String BATCH_QUEUE_SIZE = "generator.batch.queueSize";
+    public static final String BATCH_MAX_TARGETS = "generator.batch.maxTargets";
+    public static final String ZIP_LEVEL = "generator.zip.level";
+    public static final String ZIP_THREADS = "generator.zip.threads";
+    public static final String ZIP_STORED = "generator.zip.stored";
+
+    private static ExecutorService batchWorkers;
+    private static ZipUtil zipUtil;
+
     public static Map<String, CliOption> getOptions(String language) throws ApiException {
         CodegenConfig config = null;
         try {
@@ -47,34 +87,454 @@ public class Generator {
             this.name = name;
         }
 
-        String getTypeName() {
+        public String getTypeName() {
             return name;
         }
     }
 
+    /**
+     * Archive formats of the generated bundles.
+     */
+    public enum Format {
+        ZIP("zip", "application/zip"), TAR_GZ("tar.gz", "application/gzip");
+
+        private final String extension;
+        private final String mediaType;
+
+        Format(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * @param extension archive format, e.g. <code>tar.gz</code>, null for zip
+         * @return the archive format
+         * @throws BadRequestException if the format isn't supported
+         */
+        public static Format forExtension(String extension) throws BadRequestException {
+            if (extension == null) {
+                return ZIP;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(extension)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unsupported archive format " + extension + " supplied");
+        }
+    }
+
     public static String generateClient(String language, GeneratorInput opts) throws ApiException {
-        return generate(language, opts, Type.CLIENT);
+        return writeBundle(generate(language, opts, Type.CLIENT));
     }
 
     public static String generateServer(String language, GeneratorInput opts) throws ApiException {
+        return writeBundle(generate(language, opts, Type.SERVER));
+    }
+
+    /**
+     * Generate a client library in memory, see {@link #writeBundle(Generated, OutputStream)}.
+     *
+     * @param language target language
+     * @param opts generator input
+     * @return the generated files
+     * @throws ApiException if the input isn't valid or the generation fails
+     */
+    public static Generated generateClientBundle(String language, GeneratorInput opts) throws ApiException {
+        return generate(language, opts, Type.CLIENT);
+    }
+
+    /**
+     * Generate a server library in memory, see {@link #writeBundle(Generated, OutputStream)}.
+     *
+     * @param language target framework
+     * @param opts generator input
+     * @return the generated files
+     * @throws ApiException if the input isn't valid or the generation fails
+     */
+    public static Generated generateServerBundle(String language, GeneratorInput opts) throws ApiException {
         return generate(language, opts, Type.SERVER);
     }
 
-    private static String generate(String language, GeneratorInput opts, Type type)
+    /**
+     * Write the generated files as zip, with the files below a folder named after the bundle.
+     *
+     * @param generated generated files
+     * @param out stream to write to, left open
+     * @throws IOException if the stream can't be written
+     */
+    public static void writeBundle(Generated generated, OutputStream out) throws IOException {
+        writeBundle(generated, Format.ZIP, out);
+    }
+
+    /**
+     * Write the generated files as archive, with the files below a folder named after the bundle.
+     *
+     * @param generated generated files
+     * @param format archive format
+     * @param out stream to write to, left open
+     * @throws IOException if the stream can't be written
+     */
+    public static void writeBundle(Generated generated, Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        if (format == Format.TAR_GZ) {
+            getZipUtil().tarFiles(generated.getFolderName(), generated.getOutput().getFiles(), out);
+        } else {
+            getZipUtil().compressFiles(generated.getFolderName(), generated.getOutput().getFiles(), out);
+        }
+        GeneratorMetrics.getInstance().recordPhase("zip", System.nanoTime() - start);
+    }
+
+    private static String writeBundle(Generated generated) throws ApiException {
+        String outputFilename = getTmpFolder().getAbsolutePath() + File.separator
+                + generated.getFolderName() + "-bundle.zip";
+        try {
+            OutputStream out = new FileOutputStream(outputFilename);
+            try {
+                writeBundle(generated, out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Unable to build target: " + e.getMessage());
+        }
+        return outputFilename;
+    }
+
+    private static Generated generate(String language, GeneratorInput opts, Type type)
             throws ApiException {
+        GeneratorMetrics.Timer timer = GeneratorMetrics.getInstance().start(metricsLanguage(language),
+                type.getTypeName());
+        try {
+            return generate(language, opts, type, timer);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private static Generated generate(String language, GeneratorInput opts, Type type,
+            GeneratorMetrics.Timer timer) throws ApiException {
         LOGGER.debug(String.format("generate %s for %s", type.getTypeName(), language));
         if (opts == null) {
             throw new BadRequestException("No options were supplied");
         }
+        JsonNode node = getSpecNode(opts);
+        BundleCache cache = BundleCache.getInstance();
+        String cacheKey = null;
+        if (cache != null && node != null && !hasExternalRefs(node)) {
+            // self-contained inline specs are looked up before parsing, the others once their
+            // references are resolved, like remote specs
+            cacheKey = cacheKey(normalizeSpec(node), language, type, opts.getOptions());
+            Generated cached = cache.get(cacheKey);
+            if (cached != null) {
+                return timer.cached(cached);
+            }
+        }
+
+        Swagger swagger = parse(opts, node);
+        if (cache != null && cacheKey == null) {
+            // remote specs and the documents they reference can change, so look them up by their contents
+            cacheKey = cacheKey(normalizeSpec(swagger), language, type, opts.getOptions());
+            Generated cached = cache.get(cacheKey);
+            if (cached != null) {
+                return timer.cached(cached);
+            }
+        }
+
+        Generated generated = render(language, type, opts.getOptions(), flatten(swagger).copy(), true);
+        if (cache != null) {
+            cache.put(cacheKey, generated);
+        }
+        return timer.generated(generated);
+    }
+
+    /**
+     * Generate several targets from one spec, which is parsed and flattened only once. The targets
+     * are generated concurrently, each from its own copy of the flattened spec, on a bounded pool of
+     * workers and within the timeout of a {@link GenerationJobs generation job}.
+     *
+     * @param input spec and targets
+     * @return the generated files of each target in the order of the targets, named like
+     *         <code>java-client</code>
+     * @throws ApiException if the input isn't valid, there are too many targets, the workers are all
+     *         busy, or a generation fails or takes too long
+     */
+    public static List<Generated> generateBatch(BatchInput input) throws ApiException {
+        if (input == null || input.getTargets() == null || input.getTargets().isEmpty()) {
+            throw new BadRequestException("No targets were supplied");
+        }
+        int maxTargets = Settings.getInt(BATCH_MAX_TARGETS, 20);
+        if (input.getTargets().size() > maxTargets) {
+            throw new BadRequestException("At most " + maxTargets + " targets can be generated at once");
+        }
+        long timeoutMillis = Settings.getLong(GenerationJobs.TIMEOUT_SECONDS, 300) * 1000;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<Target> targets = new ArrayList<Target>();
+        for (BatchTarget target : input.getTargets()) {
+            targets.add(new Target(target, input.getOptions()));
+        }
+
+        JsonNode node = getSpecNode(input);
+        final Swagger swagger = parse(input, node);
+        BundleCache cache = BundleCache.getInstance();
+        // the same keys as generating a target on its own, see generate(String, GeneratorInput, Type)
+        String spec = null;
+        if (cache != null) {
+            spec = node != null && !hasExternalRefs(node) ? normalizeSpec(node) : normalizeSpec(swagger);
+        }
+
+        long start = System.nanoTime();
+        final FlattenedSpec flattened = flatten(swagger);
+        GeneratorMetrics.getInstance().recordPhase("flatten", System.nanoTime() - start);
+
+        List<Future<Generated>> futures = new ArrayList<Future<Generated>>();
+        List<Generated> results = new ArrayList<Generated>();
+        try {
+            for (final Target target : targets) {
+                final String cacheKey = spec == null ? null : cacheKey(spec, target.language, target.type, target.options);
+                futures.add(submit(new Callable<Generated>() {
+                    @Override
+                    public Generated call() throws Exception {
+                        GeneratorMetrics.Timer timer = GeneratorMetrics.getInstance().start(
+                                metricsLanguage(target.language), target.type.getTypeName());
+                        try {
+                            BundleCache cache = BundleCache.getInstance();
+                            Generated cached = cacheKey == null ? null : cache.get(cacheKey);
+                            if (cached != null) {
+                                return timer.cached(cached);
+                            }
+                            Swagger copy = flattened.copy();
+                            Generated generated = render(target.language, target.type, target.options, copy, true);
+                            if (cacheKey != null) {
+                                cache.put(cacheKey, generated);
+                            }
+                            return timer.generated(generated);
+                        } finally {
+                            timer.stop();
+                        }
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                long remaining = deadline - System.nanoTime();
+                Generated generated = futures.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                // the bundle may be cached, and shared with other requests
+                results.add(named(generated, targets.get(i).language + "-" + targets.get(i).type.getTypeName()));
+            }
+        } catch (TimeoutException e) {
+            throw new ApiException(HttpStatus.SC_SERVICE_UNAVAILABLE,
+                    "Generation took longer than " + timeoutMillis / 1000 + " seconds");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SC_SERVICE_UNAVAILABLE, "Generation was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ApiException) {
+                throw (ApiException) e.getCause();
+            }
+            throw new BadRequestException("Unable to build target: " + e.getCause().getMessage());
+        } finally {
+            if (results.size() < futures.size()) {
+                // stop the other targets once one failed
+                for (Future<Generated> future : futures) {
+                    if (!future.isDone()) {
+                        future.cancel(true);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Flatten a parsed spec for generation. A target is generated from a copy of it, on its own
+     * like in a batch, so both put the same bundles under the same cache keys.
+     *
+     * @param swagger parsed spec
+     * @return the flattened spec
+     * @throws BadRequestException if the spec can't be flattened
+     */
+    static FlattenedSpec flatten(Swagger swagger) throws BadRequestException {
+        try {
+            return new FlattenedSpec(swagger);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("The swagger specification supplied was not valid");
+        }
+    }
+
+    /**
+     * Put the files of several bundles in one bundle, each in a folder named after its bundle, see
+     * {@link #getCombinedFolders(List)}.
+     *
+     * @param folderName folder of the combined bundle
+     * @param bundles bundles with their friendly names set, see {@link #generateBatch(BatchInput)}
+     * @return the combined bundle
+     */
+    public static Generated combine(String folderName, List<Generated> bundles) {
+        File root = new File(System.getProperty("java.io.tmpdir"), "codegen-" + UUID.randomUUID());
+        InMemoryOutput output = new InMemoryOutput(root.getAbsolutePath());
+        List<String> folders = getCombinedFolders(bundles);
+        for (int i = 0; i < bundles.size(); i++) {
+            for (Map.Entry<String, byte[]> file : bundles.get(i).getOutput().getFiles().entrySet()) {
+                output.write(new File(root, folders.get(i) + "/" + file.getKey()), file.getValue());
+            }
+        }
+
+        Generated combined = new Generated();
+        combined.setFolderName(folderName);
+        combined.setFriendlyName(folderName);
+        combined.setOutput(output);
+        return combined;
+    }
+
+    /**
+     * @param bundles bundles with their friendly names set
+     * @return the folders of the bundles in a combined bundle, their friendly names numbered when
+     *         several bundles have the same name, e.g. for one language with different options
+     */
+    public static List<String> getCombinedFolders(List<Generated> bundles) {
+        List<String> folders = new ArrayList<String>();
+        Set<String> taken = new HashSet<String>();
+        for (Generated bundle : bundles) {
+            String folder = bundle.getFriendlyName();
+            for (int i = 2; !taken.add(folder); i++) {
+                folder = bundle.getFriendlyName() + "-" + i;
+            }
+            folders.add(folder);
+        }
+        return folders;
+    }
+
+    /**
+     * A target of a batch, with the options validated and merged.
+     */
+    private static class Target {
+        private final String language;
+        private final Type type;
+        private final Map<String, String> options;
+
+        private Target(BatchTarget target, Map<String, String> sharedOptions) throws BadRequestException {
+            if (target == null || target.getLanguage() == null) {
+                throw new BadRequestException("No language was supplied for a target");
+            }
+            this.language = target.getLanguage();
+            if (target.getType() == null || Type.CLIENT.getTypeName().equals(target.getType())) {
+                this.type = Type.CLIENT;
+            } else if (Type.SERVER.getTypeName().equals(target.getType())) {
+                this.type = Type.SERVER;
+            } else {
+                throw new BadRequestException("Unsupported type " + target.getType() + " supplied");
+            }
+            if (sharedOptions == null && target.getOptions() == null) {
+                this.options = null;
+            } else {
+                this.options = new LinkedHashMap<String, String>();
+                if (sharedOptions != null) {
+                    options.putAll(sharedOptions);
+                }
+                if (target.getOptions() != null) {
+                    options.putAll(target.getOptions());
+                }
+            }
+        }
+    }
+
+    /**
+     * Unsupported targets are counted together, so that they don't add metrics.
+     */
+    private static String metricsLanguage(String language) {
+        return CodegenConfigIndex.get().getEntry(language) == null ? "unknown" : language;
+    }
+
+    private static Future<Generated> submit(Callable<Generated> target) throws ApiException {
+        try {
+            return getBatchWorkers().submit(target);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many generations queued, try again later");
+        }
+    }
+
+    private static synchronized ExecutorService getBatchWorkers() {
+        if (batchWorkers == null) {
+            final AtomicInteger count = new AtomicInteger();
+            int threads = Settings.getInt(BATCH_THREADS, Runtime.getRuntime().availableProcessors());
+            batchWorkers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(Settings.getInt(BATCH_QUEUE_SIZE, 100)),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "generator-batch-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return batchWorkers;
+    }
+
+    /**
+     * The archiver configured with the {@link Settings}: the compression level, the extensions of the
+     * files stored as they are, and the threads deflating zip entries in parallel.
+     */
+    private static synchronized ZipUtil getZipUtil() {
+        if (zipUtil == null) {
+            Set<String> stored = ZipUtil.COMPRESSED_EXTENSIONS;
+            String extensions = Settings.get(ZIP_STORED, null);
+            if (extensions != null) {
+                stored = new HashSet<String>();
+                for (String extension : extensions.split(",")) {
+                    if (!extension.trim().isEmpty()) {
+                        stored.add(extension.trim().toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            int threads = Settings.getInt(ZIP_THREADS, Runtime.getRuntime().availableProcessors());
+            ExecutorService executor = null;
+            if (threads > 1) {
+                final AtomicInteger count = new AtomicInteger();
+                executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "generator-zip-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            zipUtil = new ZipUtil(Settings.getInt(ZIP_LEVEL, Deflater.DEFAULT_COMPRESSION), stored, executor, threads);
+        }
+        return zipUtil;
+    }
+
+    /**
+     * @return the inline spec, or null if the spec is fetched from its URL
+     */
+    private static JsonNode getSpecNode(GeneratorInput opts) {
         JsonNode node = opts.getSpec();
         if (node != null && "{}".equals(node.toString())) {
             LOGGER.debug("ignoring empty spec");
             node = null;
         }
+        return node;
+    }
+
+    private static Swagger parse(GeneratorInput opts, JsonNode node) throws ApiException {
+        long parseStart = System.nanoTime();
         Swagger swagger;
         if (node == null) {
             if (opts.getSwaggerUrl() != null) {
-                if (opts.getAuthorizationValue() != null) {
+                SpecCache specs = SpecCache.getInstance();
+                if (specs != null) {
+                    swagger = specs.read(opts.getSwaggerUrl(), opts.getAuthorizationValue());
+                } else if (opts.getAuthorizationValue() != null) {
                     List<AuthorizationValue> authorizationValues =
                             new ArrayList<AuthorizationValue>();
                     authorizationValues.add(opts.getAuthorizationValue());
@@ -95,14 +555,19 @@ public class Generator {
         } else {
             swagger = new SwaggerParser().read(node, true);
         }
+        GeneratorMetrics.getInstance().recordPhase("parse", System.nanoTime() - parseStart);
         if (swagger == null) {
             throw new BadRequestException("The swagger specification supplied was not valid");
         }
+        return swagger;
+    }
 
+    static Generated render(String language, Type type, Map<String, String> options, Swagger swagger,
+            boolean flattened) throws ApiException {
         String destPath = null;
 
-        if (opts != null && opts.getOptions() != null) {
-            destPath = opts.getOptions().get("outputFolder");
+        if (options != null) {
+            destPath = options.get("outputFolder");
         }
         if (destPath == null) {
             destPath = language + "-" + type.getTypeName();
@@ -110,10 +575,13 @@ public class Generator {
 
         ClientOptInput clientOptInput = new ClientOptInput();
         ClientOpts clientOpts = new ClientOpts();
-        String outputFolder = getTmpFolder().getAbsolutePath() + File.separator + destPath;
-        String outputFilename = outputFolder + "-bundle.zip";
+        // nothing is written there, the files are kept in memory until they're zipped
+        String outputFolder = new File(System.getProperty("java.io.tmpdir"), "codegen-" + UUID.randomUUID())
+                .getAbsolutePath() + File.separator + destPath;
+        InMemoryOutput output = new InMemoryOutput(outputFolder);
 
-        clientOptInput.opts(clientOpts).swagger(swagger);
+        GenerationContext context = new GenerationContext().setInMemoryOutput(output).setFlattened(flattened);
+        clientOptInput.opts(clientOpts).swagger(swagger).generationContext(context);
 
         CodegenConfig codegenConfig = null;
         try {
@@ -122,8 +590,8 @@ public class Generator {
             throw new BadRequestException("Unsupported target " + language + " supplied");
         }
 
-        if (opts.getOptions() != null) {
-            codegenConfig.additionalProperties().putAll(opts.getOptions());
+        if (options != null) {
+            codegenConfig.additionalProperties().putAll(options);
             codegenConfig.additionalProperties().put("swagger", swagger);
         }
 
@@ -134,33 +602,86 @@ public class Generator {
         clientOptInput.setConfig(codegenConfig);
 
         try {
-            List<File> files = new Codegen().opts(clientOptInput).generate();
-            if (files.size() > 0) {
-                List<File> filesToAdd = new ArrayList<File>();
-                LOGGER.debug("adding to " + outputFolder);
-                filesToAdd.add(new File(outputFolder));
-                ZipUtil zip = new ZipUtil();
-                zip.compressFiles(filesToAdd, outputFilename);
-            } else {
+            new Codegen().opts(clientOptInput).generate();
+            // also count files which generators write on their own, e.g. swagger.json
+            if (output.getFiles().isEmpty()) {
                 throw new BadRequestException(
                         "A target generation was attempted, but no files were created!");
             }
-            for (File file : files) {
-                try {
-                    file.delete();
-                } catch (Exception e) {
-                    LOGGER.error("unable to delete file " + file.getAbsolutePath());
+        } catch (Exception e) {
+            throw new BadRequestException("Unable to build target: " + e.getMessage());
+        }
+        for (Map.Entry<String, Long> timing : context.getTimings().entrySet()) {
+            GeneratorMetrics.getInstance().recordPhase(timing.getKey(), timing.getValue());
+        }
+
+        Generated generated = new Generated();
+        generated.setFolderName(new File(destPath).getName());
+        generated.setOutput(output);
+        return generated;
+    }
+
+    private static String cacheKey(String spec, String language, Type type, Map<String, String> options)
+            throws ApiException {
+        try {
+            return BundleCache.key(spec, language, type.getTypeName(), normalize(options), ImplementationVersion.read());
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid options supplied");
+        }
+    }
+
+    /**
+     * A copy of a bundle with another friendly name, leaving the bundle, which may be cached, as it is.
+     */
+    static Generated named(Generated generated, String friendlyName) {
+        Generated named = new Generated();
+        named.setFilename(generated.getFilename());
+        named.setFolderName(generated.getFolderName());
+        named.setOutput(generated.getOutput());
+        named.setArchiveFormat(generated.getArchiveFormat());
+        named.setFriendlyName(friendlyName);
+        return named;
+    }
+
+    /**
+     * Whether the spec references other documents, e.g. {@code "$ref": "models.yaml#/Pet"}, rather than only
+     * its own definitions, e.g. {@code "#/definitions/Pet"} or {@code "Pet"}.
+     */
+    static boolean hasExternalRefs(JsonNode node) {
+        if (node.isObject()) {
+            JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                String location = ref.asText();
+                int fragment = location.indexOf('#');
+                String document = fragment < 0 ? location : location.substring(0, fragment);
+                if (document.indexOf('/') >= 0 || document.indexOf('.') >= 0 || document.indexOf(':') >= 0) {
+                    return true;
                 }
             }
-            try {
-                new File(outputFolder).delete();
-            } catch (Exception e) {
-                LOGGER.error("unable to delete output folder " + outputFolder);
+        }
+        for (JsonNode child : node) {
+            if (hasExternalRefs(child)) {
+                return true;
             }
-        } catch (Exception e) {
-            throw new BadRequestException("Unable to build target: " + e.getMessage());
         }
-        return outputFilename;
+        return false;
+    }
+
+    private static String normalizeSpec(Object spec) throws ApiException {
+        try {
+            return normalize(spec);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("The swagger specification supplied was not valid");
+        }
+    }
+
+    /**
+     * JSON with the object properties in a fixed order, so that equal specs get the same cache key.
+     */
+    private static String normalize(Object value) throws JsonProcessingException {
+        ObjectMapper mapper = Json.mapper();
+        return mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .writeValueAsString(mapper.convertValue(value, Object.class));
     }
 
     public static InputOption clientOptions(@SuppressWarnings("unused") String language) {
@@ -0,0 +1,377 @@
+package io.swagger.generator.online;
+
+import io.swagger.codegen.TemplateCache;
+import io.swagger.generator.model.Generated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Operational metrics of the online generator, written in the Prometheus text format by the
+ * metrics resource and summarized over JMX as <code>io.swagger.generator:type=Metrics</code>.
+ */
+public class GeneratorMetrics implements GeneratorMetricsMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeneratorMetrics.class);
+
+    public static final String GENERATED = "generated";
+    public static final String CACHED = "cached";
+    public static final String FAILED = "failed";
+
+    private static final String PREFIX = "swagger_generator_";
+
+    private static final double[] SECONDS = {0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300};
+    private static final double[] BYTES = {16 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024, 4 * 1024 * 1024,
+            16 * 1024 * 1024, 64 * 1024 * 1024, 256 * 1024 * 1024, 1024 * 1024 * 1024};
+
+    private static GeneratorMetrics instance;
+
+    private final AtomicInteger inProgress = new AtomicInteger();
+    // by their labels, sorted so that the output is stable
+    private final Map<String, Histogram> generations = new TreeMap<String, Histogram>();
+    private final Map<String, Histogram> phases = new TreeMap<String, Histogram>();
+    private final Map<String, Histogram> bundleSizes = new TreeMap<String, Histogram>();
+    private final Map<String, Histogram> allocations = new TreeMap<String, Histogram>();
+
+    private static class Histogram {
+        private final double[] bounds;
+        private final long[] counts;
+        private double sum;
+        private long count;
+
+        private Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.counts = new long[bounds.length];
+        }
+
+        private void observe(double value) {
+            for (int i = 0; i < bounds.length; i++) {
+                if (value <= bounds[i]) {
+                    counts[i]++;
+                    break;
+                }
+            }
+            sum += value;
+            count++;
+        }
+    }
+
+    /**
+     * A generation being measured, see {@link GeneratorMetrics#start(String, String)}. It counts as
+     * failed unless it's marked as generated or cached before it's stopped.
+     */
+    public class Timer {
+        private final String language;
+        private final String type;
+        private final long start = System.nanoTime();
+        private final long allocated = allocatedBytes();
+        private String outcome = FAILED;
+        private long bundleSize = -1;
+
+        private Timer(String language, String type) {
+            this.language = language;
+            this.type = type;
+            inProgress.incrementAndGet();
+        }
+
+        /**
+         * @param generated bundle which was generated
+         * @return the bundle
+         */
+        public Generated generated(Generated generated) {
+            return result(GENERATED, generated);
+        }
+
+        /**
+         * @param cached bundle which was found in the cache
+         * @return the bundle
+         */
+        public Generated cached(Generated cached) {
+            return result(CACHED, cached);
+        }
+
+        private Generated result(String outcome, Generated generated) {
+            this.outcome = outcome;
+            this.bundleSize = generated.getOutput() == null ? -1 : generated.getOutput().getSize();
+            return generated;
+        }
+
+        public void stop() {
+            inProgress.decrementAndGet();
+            long nanos = System.nanoTime() - start;
+            long allocatedNow = allocatedBytes();
+            String labels = labels("language", language, "type", type);
+            synchronized (GeneratorMetrics.this) {
+                histogram(generations, labels + "," + labels("outcome", outcome), SECONDS)
+                        .observe(nanos / 1e9);
+                if (bundleSize >= 0) {
+                    histogram(bundleSizes, labels, BYTES).observe(bundleSize);
+                }
+                if (GENERATED.equals(outcome) && allocated >= 0 && allocatedNow >= 0) {
+                    histogram(allocations, labels, BYTES).observe(allocatedNow - allocated);
+                }
+            }
+        }
+    }
+
+    /**
+     * The metrics of this JVM.
+     *
+     * @return the shared metrics
+     */
+    public static synchronized GeneratorMetrics getInstance() {
+        if (instance == null) {
+            instance = new GeneratorMetrics();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance,
+                        new ObjectName("io.swagger.generator:type=Metrics"));
+            } catch (Exception e) {
+                LOGGER.warn("Can't register generator metrics", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start measuring a generation on the current thread.
+     *
+     * @param language target language or framework
+     * @param type client or server
+     * @return the timer to stop when the generation is done
+     */
+    public Timer start(String language, String type) {
+        return new Timer(language, type);
+    }
+
+    /**
+     * Record the time spent in a phase of a generation, e.g. parse, flatten or zip.
+     *
+     * @param phase phase name
+     * @param nanos time spent in nanoseconds
+     */
+    public synchronized void recordPhase(String phase, long nanos) {
+        histogram(phases, labels("phase", phase), SECONDS).observe(nanos / 1e9);
+    }
+
+    /**
+     * Write the metrics, including the ones of the job queue, caches and downloads, in the
+     * Prometheus text format.
+     *
+     * @param out writer, left open
+     * @throws IOException if the writer fails
+     */
+    public void write(Writer out) throws IOException {
+        synchronized (this) {
+            writeHistograms(out, "generation_seconds", "Duration of generations by outcome", generations);
+            writeHistograms(out, "phase_seconds", "Duration of the phases of generations", phases);
+            writeHistograms(out, "bundle_bytes", "Size of the generated files", bundleSizes);
+            writeHistograms(out, "generation_allocated_bytes", "Heap allocated by a generation", allocations);
+        }
+        writeGauge(out, "generations_in_progress", "Generations running", "", inProgress.get());
+
+        GenerationJobs jobs = GenerationJobs.getInstance();
+        writeGauge(out, "jobs_active", "Generation jobs running", "", jobs.getActiveJobs());
+        writeGauge(out, "jobs_queued", "Generation jobs waiting for a worker", "", jobs.getQueueDepth());
+
+        BundleCache cache = BundleCache.getInstance();
+        if (cache != null) {
+            writeHeader(out, "cache_hits_total", "Bundle cache hits", "counter");
+            writeSample(out, "cache_hits_total", labels("tier", "memory"), cache.getHits());
+            writeSample(out, "cache_hits_total", labels("tier", "disk"), cache.getDiskHits());
+            writeCounter(out, "cache_misses_total", "Bundle cache misses", cache.getMisses());
+            writeCounter(out, "cache_evictions_total", "Bundles evicted from the cache", cache.getEvictions());
+            writeGauge(out, "cache_entries", "Bundles in the memory cache", "", cache.getEntries());
+            writeGauge(out, "cache_bytes", "Size of the bundles in the memory cache", "", cache.getBytes());
+        }
+
+        SpecCache specs = SpecCache.getInstance();
+        if (specs != null) {
+            writeHeader(out, "spec_fetches_total", "Remote spec fetches by result", "counter");
+            writeSample(out, "spec_fetches_total", labels("result", "not_modified"), specs.getNotModified());
+            writeSample(out, "spec_fetches_total", labels("result", "unchanged"), specs.getUnchanged());
+            writeSample(out, "spec_fetches_total", labels("result", "parsed"), specs.getParsed());
+        }
+
+        DownloadRegistry downloads = DownloadRegistry.getInstance();
+        writeGauge(out, "downloads", "Bundles waiting to be downloaded", "", downloads.getEntries());
+        writeGauge(out, "download_bytes", "Size of the bundles waiting to be downloaded", "", downloads.getBytes());
+
+        Warmup warmup = Warmup.getInstance();
+        writeGauge(out, "ready", "Whether the generators are warmed up", "", warmup.isReady() ? 1 : 0);
+        writeGauge(out, "warmed_generators", "Generators warmed up", "", warmup.getWarmedGenerators());
+        writeGauge(out, "templates_compiled", "Templates in the compiled template cache", "", TemplateCache.size());
+
+        writeGauge(out, "heap_used_bytes", "Heap used by the JVM", "",
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        out.flush();
+    }
+
+    @Override
+    public int getGenerationsInProgress() {
+        return inProgress.get();
+    }
+
+    @Override
+    public synchronized long getGenerations() {
+        long count = 0;
+        for (Histogram histogram : generations.values()) {
+            count += histogram.count;
+        }
+        return count;
+    }
+
+    @Override
+    public long getCachedGenerations() {
+        return count(CACHED);
+    }
+
+    @Override
+    public long getFailedGenerations() {
+        return count(FAILED);
+    }
+
+    @Override
+    public synchronized double getMeanGenerationMillis() {
+        double sum = 0;
+        long count = 0;
+        String generated = labels("outcome", GENERATED);
+        for (Map.Entry<String, Histogram> entry : generations.entrySet()) {
+            if (entry.getKey().endsWith(generated)) {
+                sum += entry.getValue().sum;
+                count += entry.getValue().count;
+            }
+        }
+        return count == 0 ? 0 : sum * 1000 / count;
+    }
+
+    @Override
+    public synchronized double getMeanAllocatedBytes() {
+        if (allocatedBytes() < 0) {
+            return -1;
+        }
+        double sum = 0;
+        long count = 0;
+        for (Histogram histogram : allocations.values()) {
+            sum += histogram.sum;
+            count += histogram.count;
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    @Override
+    public int getActiveJobs() {
+        return GenerationJobs.getInstance().getActiveJobs();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return GenerationJobs.getInstance().getQueueDepth();
+    }
+
+    private synchronized long count(String outcome) {
+        long count = 0;
+        String labels = labels("outcome", outcome);
+        for (Map.Entry<String, Histogram> entry : generations.entrySet()) {
+            if (entry.getKey().endsWith(labels)) {
+                count += entry.getValue().count;
+            }
+        }
+        return count;
+    }
+
+    private static Histogram histogram(Map<String, Histogram> histograms, String labels, double[] bounds) {
+        Histogram histogram = histograms.get(labels);
+        if (histogram == null) {
+            histogram = new Histogram(bounds);
+            histograms.put(labels, histogram);
+        }
+        return histogram;
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, which HotSpot JVMs can tell.
+     *
+     * @return allocated bytes, or -1 if unknown
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static void writeHistograms(Writer out, String name, String help, Map<String, Histogram> histograms)
+            throws IOException {
+        writeHeader(out, name, help, "histogram");
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            String labels = entry.getKey();
+            Histogram histogram = entry.getValue();
+            long cumulative = 0;
+            for (int i = 0; i < histogram.bounds.length; i++) {
+                cumulative += histogram.counts[i];
+                writeSample(out, name + "_bucket", labels + "," + labels("le", format(histogram.bounds[i])), cumulative);
+            }
+            writeSample(out, name + "_bucket", labels + "," + labels("le", "+Inf"), histogram.count);
+            writeSample(out, name + "_sum", labels, histogram.sum);
+            writeSample(out, name + "_count", labels, histogram.count);
+        }
+    }
+
+    private static void writeGauge(Writer out, String name, String help, String labels, double value)
+            throws IOException {
+        writeHeader(out, name, help, "gauge");
+        writeSample(out, name, labels, value);
+    }
+
+    private static void writeCounter(Writer out, String name, String help, double value) throws IOException {
+        writeHeader(out, name, help, "counter");
+        writeSample(out, name, "", value);
+    }
+
+    private static void writeHeader(Writer out, String name, String help, String type) throws IOException {
+        out.write("# HELP " + PREFIX + name + " " + help + "\n");
+        out.write("# TYPE " + PREFIX + name + " " + type + "\n");
+    }
+
+    private static void writeSample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(PREFIX + name);
+        if (!labels.isEmpty()) {
+            out.write("{" + labels + "}");
+        }
+        out.write(" " + format(value) + "\n");
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value)
+                ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    /**
+     * @param namesAndValues label names, each followed by its value
+     * @return the labels in the text format, e.g. <code>language="java",type="client"</code>
+     */
+    static String labels(String... namesAndValues) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (labels.length() > 0) {
+                labels.append(',');
+            }
+            String value = String.valueOf(namesAndValues[i + 1]);
+            labels.append(namesAndValues[i]).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return labels.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package io.swagger.generator.online;
+
+/**
+ * JMX view of the {@link GeneratorMetrics}.
+ */
+public interface GeneratorMetricsMBean {
+
+    int getGenerationsInProgress();
+
+    long getGenerations();
+
+    long getCachedGenerations();
+
+    long getFailedGenerations();
+
+    /**
+     * @return mean duration of the generations which ran, excluding cached ones
+     */
+    double getMeanGenerationMillis();
+
+    /**
+     * @return mean bytes allocated by a generation which ran, -1 if the JVM can't tell
+     */
+    double getMeanAllocatedBytes();
+
+    int getActiveJobs();
+
+    int getQueueDepth();
+}
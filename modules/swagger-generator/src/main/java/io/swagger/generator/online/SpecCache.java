@@ -0,0 +1,297 @@
+package io.swagger.generator.online;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.codegen.FlattenedSpec;
+import io.swagger.generator.util.Settings;
+import io.swagger.models.Swagger;
+import io.swagger.models.auth.AuthorizationValue;
+import io.swagger.parser.Swagger20Parser;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.parser.SwaggerResolver;
+import io.swagger.parser.util.DeserializationUtils;
+import io.swagger.util.Json;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Remote specs, fetched and parsed once and then revalidated with conditional requests on each
+ * use, so that a spec which hasn't changed isn't downloaded or parsed again.
+ *
+ * Specs are keyed by URL and authorization value, since different credentials may see different
+ * specs. The parsed models are kept serialized and every caller gets its own copy, which it can
+ * change, e.g. by flattening inline models.
+ *
+ * Only the spec itself is revalidated, not the documents it references: a spec with references to
+ * other documents is parsed again once it's older than the maximum age, so that changes to them are
+ * picked up by then.
+ */
+public class SpecCache implements SpecCacheMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecCache.class);
+
+    public static final String ENABLED = "generator.specs.enabled";
+    public static final String MAX_BYTES = "generator.specs.maxBytes";
+    public static final String MAX_AGE_SECONDS = "generator.specs.maxAgeSeconds";
+
+    private static final int TIMEOUT_MILLIS = 60000;
+
+    private static SpecCache instance;
+
+    private final long maxBytes;
+    private final long maxAgeMillis;
+
+    // access order, the least recently used spec first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long bytes;
+    private long notModified;
+    private long unchanged;
+    private long parsed;
+
+    private static class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final String contentHash;
+        private final byte[] model;
+        private final boolean externalRefs;
+        private final long created;
+
+        private Entry(String etag, String lastModified, String contentHash, byte[] model, boolean externalRefs,
+                long created) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+            this.model = model;
+            this.externalRefs = externalRefs;
+            this.created = created;
+        }
+    }
+
+    /**
+     * @param maxBytes maximum total size of the serialized specs
+     */
+    public SpecCache(long maxBytes) {
+        this(maxBytes, 300000);
+    }
+
+    /**
+     * @param maxBytes maximum total size of the serialized specs
+     * @param maxAgeMillis time after which specs referencing other documents are parsed again
+     */
+    public SpecCache(long maxBytes, long maxAgeMillis) {
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * The cache configured with the {@link Settings}, null if caching is disabled.
+     *
+     * @return the shared cache
+     */
+    public static synchronized SpecCache getInstance() {
+        if (instance == null && Settings.getBoolean(ENABLED, true)) {
+            instance = new SpecCache(Settings.getLong(MAX_BYTES, 64L * 1024 * 1024),
+                    Settings.getLong(MAX_AGE_SECONDS, 300) * 1000);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance,
+                        new ObjectName("io.swagger.generator:type=SpecCache"));
+            } catch (Exception e) {
+                LOGGER.warn("Can't register spec cache statistics", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Read a spec like {@link SwaggerParser#read(String, List, boolean)}, revalidating the cached
+     * one if there is one. Specs which aren't fetched over HTTP or aren't swagger 2.0 are read by
+     * the parser without caching.
+     *
+     * @param location spec URL
+     * @param authorizationValue authorization to fetch the spec with, may be null
+     * @return a copy of the resolved spec, or null if it can't be read
+     */
+    public Swagger read(String location, AuthorizationValue authorizationValue) {
+        List<AuthorizationValue> authorizationValues = new ArrayList<AuthorizationValue>();
+        if (authorizationValue != null) {
+            authorizationValues.add(authorizationValue);
+        }
+        String lower = location.toLowerCase();
+        if (!lower.startsWith("http:") && !lower.startsWith("https:")) {
+            return new SwaggerParser().read(location, authorizationValues, true);
+        }
+
+        String key = authorizationValue == null ? BundleCache.key(location)
+                : BundleCache.key(location, authorizationValue.getType(), authorizationValue.getKeyName(),
+                        authorizationValue.getValue());
+        long now = now();
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.externalRefs && now - cached.created > maxAgeMillis) {
+            // the referenced documents may have changed
+            cached = null;
+        }
+
+        try {
+            HttpURLConnection connection = open(location, authorizationValue);
+            if (cached != null && cached.etag != null) {
+                connection.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (cached != null && cached.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                connection.disconnect();
+                synchronized (this) {
+                    notModified++;
+                }
+                return copy(cached);
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                LOGGER.debug("unable to read " + location + ": " + status);
+                connection.disconnect();
+                return null;
+            }
+
+            String content;
+            InputStream in = connection.getInputStream();
+            try {
+                content = IOUtils.toString(in, StandardCharsets.UTF_8);
+            } finally {
+                in.close();
+            }
+            String etag = connection.getHeaderField("ETag");
+            String lastModified = connection.getHeaderField("Last-Modified");
+            String contentHash = BundleCache.key(content);
+
+            if (cached != null && contentHash.equals(cached.contentHash)) {
+                put(key, new Entry(etag, lastModified, contentHash, cached.model, cached.externalRefs,
+                        cached.created));
+                synchronized (this) {
+                    unchanged++;
+                }
+                return copy(cached);
+            }
+
+            JsonNode tree = DeserializationUtils.deserializeIntoTree(content, location);
+            Swagger swagger = parse(location, tree, authorizationValues);
+            if (swagger == null) {
+                // e.g. swagger 1.x, which the parser converts
+                return new SwaggerParser().read(location, authorizationValues, true);
+            }
+            synchronized (this) {
+                parsed++;
+            }
+            Entry entry = new Entry(etag, lastModified, contentHash, Json.mapper().writeValueAsBytes(swagger),
+                    Generator.hasExternalRefs(tree), now);
+            put(key, entry);
+            return copy(entry);
+        } catch (IOException e) {
+            LOGGER.debug("unable to read " + location, e);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized long getNotModified() {
+        return notModified;
+    }
+
+    @Override
+    public synchronized long getUnchanged() {
+        return unchanged;
+    }
+
+    @Override
+    public synchronized long getParsed() {
+        return parsed;
+    }
+
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        if (entry.model.length > maxBytes) {
+            return;
+        }
+        Entry replaced = entries.remove(key);
+        if (replaced != null) {
+            bytes -= replaced.model.length;
+        }
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (bytes + entry.model.length > maxBytes && leastRecentlyUsed.hasNext()) {
+            bytes -= leastRecentlyUsed.next().model.length;
+            leastRecentlyUsed.remove();
+        }
+        entries.put(key, entry);
+        bytes += entry.model.length;
+    }
+
+    /**
+     * Parse and resolve a swagger 2.0 spec like the parser does when it fetches it itself.
+     *
+     * @return the resolved spec, or null if the content isn't swagger 2.0
+     */
+    private static Swagger parse(String location, JsonNode tree, List<AuthorizationValue> authorizationValues)
+            throws IOException {
+        if (tree == null || tree.get("swagger") == null) {
+            return null;
+        }
+        Swagger swagger = new Swagger20Parser().read(tree);
+        if (swagger == null) {
+            return null;
+        }
+        return new SwaggerResolver(swagger, authorizationValues, location).resolve();
+    }
+
+    private static Swagger copy(Entry entry) throws IOException {
+        return FlattenedSpec.deserialize(entry.model);
+    }
+
+    /**
+     * Open a connection with the authorization applied like the parser does.
+     */
+    private static HttpURLConnection open(String location, AuthorizationValue authorizationValue)
+            throws IOException {
+        String url = location;
+        if (authorizationValue != null && "query".equals(authorizationValue.getType())) {
+            url += (url.indexOf('?') < 0 ? "?" : "&")
+                    + URLEncoder.encode(authorizationValue.getKeyName(), "UTF-8") + "="
+                    + URLEncoder.encode(authorizationValue.getValue(), "UTF-8");
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", "application/json, application/yaml, */*");
+        if (authorizationValue != null && "header".equals(authorizationValue.getType())) {
+            connection.setRequestProperty(authorizationValue.getKeyName(), authorizationValue.getValue());
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,26 @@
+package io.swagger.generator.online;
+
+/**
+ * JMX view of the {@link SpecCache} statistics.
+ */
+public interface SpecCacheMBean {
+
+    int getEntries();
+
+    long getBytes();
+
+    /**
+     * @return fetches answered with 304 Not Modified
+     */
+    long getNotModified();
+
+    /**
+     * @return fetches which downloaded the same content again
+     */
+    long getUnchanged();
+
+    /**
+     * @return fetches which had to parse the spec
+     */
+    long getParsed();
+}
@@ -0,0 +1,198 @@
+package io.swagger.generator.online;
+
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenConfigIndex;
+import io.swagger.codegen.CodegenType;
+import io.swagger.codegen.TemplateCache;
+import io.swagger.generator.exception.ApiException;
+import io.swagger.generator.util.Settings;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Warms up the generators at startup, so that the first requests don't pay for loading their
+ * classes and compiling their templates: each generator is instantiated and its templates are
+ * compiled into the {@link TemplateCache}, and optionally a tiny embedded spec is generated,
+ * which also compiles the partials and runs the code paths of a real generation.
+ *
+ * The warm-up runs in the background; {@link #isReady()} tells when it's done, e.g. for a load
+ * balancer to route requests only to warm instances.
+ */
+public class Warmup implements WarmupMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Warmup.class);
+
+    public static final String ENABLED = "generator.warmup.enabled";
+    public static final String LANGUAGES = "generator.warmup.languages";
+    public static final String GENERATE = "generator.warmup.generate";
+
+    private static final String SPEC = "warmup.json";
+
+    private static Warmup instance;
+
+    private final List<String> languages;
+    private final boolean generate;
+
+    private volatile boolean ready;
+    private volatile int warmed;
+    private volatile int failed;
+    private volatile long millis = -1;
+    private Thread thread;
+
+    /**
+     * @param languages generators to warm up
+     * @param generate whether to generate the embedded spec with each generator
+     */
+    public Warmup(List<String> languages, boolean generate) {
+        this.languages = languages;
+        this.generate = generate;
+    }
+
+    /**
+     * The warm-up configured with the {@link Settings}: all registered generators unless a comma
+     * separated list of languages is set, none if it's disabled.
+     *
+     * @return the shared warm-up
+     */
+    public static synchronized Warmup getInstance() {
+        if (instance == null) {
+            List<String> languages = new ArrayList<String>();
+            String configured = Settings.get(LANGUAGES, null);
+            if (!Settings.getBoolean(ENABLED, true)) {
+                languages = Collections.emptyList();
+            } else if (configured != null) {
+                for (String language : configured.split(",")) {
+                    if (!language.trim().isEmpty()) {
+                        languages.add(language.trim());
+                    }
+                }
+            } else {
+                for (CodegenConfigIndex.Entry entry : CodegenConfigIndex.get().getEntries()) {
+                    languages.add(entry.getName());
+                }
+            }
+            instance = new Warmup(languages, Settings.getBoolean(GENERATE, false));
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance,
+                        new ObjectName("io.swagger.generator:type=Warmup"));
+            } catch (Exception e) {
+                LOGGER.warn("Can't register warm-up progress", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start warming up in the background, unless it's started already.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Warmup.this.run();
+            }
+        }, "generator-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Warm up the generators on the current thread and mark the server as ready, even if some
+     * generators or the warm-up itself failed: those fail the same way on a request.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        try {
+            String spec = generate ? readSpec() : null;
+            for (String language : languages) {
+                try {
+                    warm(language, spec);
+                    warmed++;
+                } catch (RuntimeException | LinkageError e) {
+                    LOGGER.warn("Can't warm up " + language + ": " + e.getMessage());
+                    failed++;
+                }
+            }
+            LOGGER.info("Warmed up " + warmed + " generators in " + (System.nanoTime() - start) / 1000000 + " ms, "
+                    + TemplateCache.size() + " templates compiled");
+        } catch (Throwable e) {
+            LOGGER.error("Warm-up failed after " + warmed + " generators", e);
+            throw e;
+        } finally {
+            // a server which can't warm up can still serve requests, only slower
+            millis = (System.nanoTime() - start) / 1000000;
+            ready = true;
+        }
+    }
+
+    private static void warm(String language, String spec) {
+        CodegenConfig config = CodegenConfigIndex.get().newConfig(language);
+        if (config == null) {
+            throw new IllegalArgumentException("unknown generator");
+        }
+        // most generators only declare their supporting files once the options are processed
+        config.processOpts();
+        TemplateCache.preload(config);
+
+        if (spec != null) {
+            Swagger swagger = new SwaggerParser().parse(spec);
+            Generator.Type type = config.getTag() == CodegenType.SERVER ? Generator.Type.SERVER : Generator.Type.CLIENT;
+            try {
+                Generator.render(language, type, null, swagger, false);
+            } catch (ApiException e) {
+                // e.g. generators which don't write files, the templates are compiled anyway
+                LOGGER.debug("Warm-up generation of " + language + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String readSpec() {
+        InputStream in = Warmup.class.getClassLoader().getResourceAsStream(SPEC);
+        try {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read " + SPEC, e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public int getGenerators() {
+        return languages.size();
+    }
+
+    @Override
+    public int getWarmedGenerators() {
+        return warmed;
+    }
+
+    @Override
+    public int getFailedGenerators() {
+        return failed;
+    }
+
+    @Override
+    public long getWarmupMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,26 @@
+package io.swagger.generator.online;
+
+/**
+ * JMX view of the {@link Warmup} progress.
+ */
+public interface WarmupMBean {
+
+    /**
+     * @return true once all generators are warmed up
+     */
+    boolean isReady();
+
+    int getGenerators();
+
+    int getWarmedGenerators();
+
+    /**
+     * @return generators which couldn't be instantiated or whose templates couldn't be compiled
+     */
+    int getFailedGenerators();
+
+    /**
+     * @return duration of the warm-up, -1 until it's done
+     */
+    long getWarmupMillis();
+}
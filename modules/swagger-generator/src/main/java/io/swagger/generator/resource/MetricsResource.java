@@ -0,0 +1,36 @@
+package io.swagger.generator.resource;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.generator.online.GeneratorMetrics;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+@Path("/metrics")
+@Api(value = "/metrics", description = "Operational metrics of the generator")
+@SuppressWarnings("static-method")
+public class MetricsResource {
+    private static final String TEXT_FORMAT = "text/plain; version=0.0.4; charset=utf-8";
+
+    @GET
+    @Produces(TEXT_FORMAT)
+    @ApiOperation(value = "Returns the generator metrics in the Prometheus text format",
+            response = String.class, tags = "metrics")
+    public Response getMetrics() {
+        StreamingOutput stream = new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                GeneratorMetrics.getInstance().write(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            }
+        };
+        return Response.ok(stream, TEXT_FORMAT).build();
+    }
+}
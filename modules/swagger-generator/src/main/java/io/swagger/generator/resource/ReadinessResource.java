@@ -0,0 +1,36 @@
+package io.swagger.generator.resource;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.generator.model.ApiResponse;
+import io.swagger.generator.online.Warmup;
+import org.apache.http.HttpStatus;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+@Path("/ready")
+@Api(value = "/ready", description = "Readiness of the generator")
+@SuppressWarnings("static-method")
+public class ReadinessResource {
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(value = "Tells whether the generators are warmed up and the server is ready for requests",
+            notes = "Answers 503 Service Unavailable while the generators are warming up",
+            response = ApiResponse.class, tags = "health")
+    public Response getReadiness() {
+        Warmup warmup = Warmup.getInstance();
+        if (warmup.isReady()) {
+            return Response.ok(new ApiResponse(ApiResponse.OK, "ready")).build();
+        }
+        int done = warmup.getWarmedGenerators() + warmup.getFailedGenerators();
+        return Response.status(HttpStatus.SC_SERVICE_UNAVAILABLE)
+                .entity(new ApiResponse(ApiResponse.INFO,
+                        "warming up, " + done + " of " + warmup.getGenerators() + " generators done"))
+                .build();
+    }
+}
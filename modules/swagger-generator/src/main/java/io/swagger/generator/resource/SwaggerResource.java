@@ -4,36 +4,53 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.codegen.CliOption;
-import io.swagger.codegen.Codegen;
-import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenConfigIndex;
 import io.swagger.codegen.CodegenType;
+import io.swagger.generator.exception.ApiException;
 import io.swagger.generator.exception.BadRequestException;
+import io.swagger.generator.exception.NotFoundException;
+import io.swagger.generator.model.ApiResponse;
+import io.swagger.generator.model.BatchInput;
+import io.swagger.generator.model.BatchResponse;
+import io.swagger.generator.model.BatchTarget;
 import io.swagger.generator.model.Generated;
 import io.swagger.generator.model.GeneratorInput;
+import io.swagger.generator.model.JobStatus;
 import io.swagger.generator.model.ResponseCode;
+import io.swagger.generator.online.DownloadRegistry;
+import io.swagger.generator.online.GenerationJobs;
 import io.swagger.generator.online.Generator;
-import org.apache.commons.io.FileUtils;
+import io.swagger.generator.util.ByteRange;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 @Path("/gen")
 @Api(value = "/gen", description = "Resource for generating swagger components")
 @SuppressWarnings("static-method")
 public class SwaggerResource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SwaggerResource.class);
+
     static List<String> clients = new ArrayList<String>();
     static List<String> servers = new ArrayList<String>();
-    private static Map<String, Generated> fileMap = new HashMap<String, Generated>();
 
     static {
-        List<CodegenConfig> extensions = Codegen.getExtensions();
-        for (CodegenConfig config : extensions) {
+        // only the metadata is needed, so don't instantiate every generator
+        for (CodegenConfigIndex.Entry config : CodegenConfigIndex.get().getEntries()) {
             if (config.getTag().equals(CodegenType.CLIENT)
                     || config.getTag().equals(CodegenType.DOCUMENTATION)) {
                 clients.add(config.getName());
@@ -52,28 +69,17 @@ public class SwaggerResource {
     @ApiOperation(
             value = "Downloads a pre-generated file",
             notes = "A valid `fileId` is generated by the `/clients/{language}` or `/servers/{language}` POST "
-                    + "operations.  The fileId code can be used just once, after which a new `fileId` will need to "
-                    + "be requested.", response = String.class, tags = {"clients", "servers"})
-    public Response downloadFile(@PathParam("fileId") String fileId) throws Exception {
-        Generated g = fileMap.get(fileId);
-        System.out.println("looking for fileId " + fileId);
-        System.out.println("got filename " + g.getFilename());
-        if (g.getFilename() != null) {
-            File file = new java.io.File(g.getFilename());
-            byte[] bytes = org.apache.commons.io.FileUtils.readFileToByteArray(file);
-
-            try {
-                FileUtils.deleteDirectory(file.getParentFile());
-            } catch (Exception e) {
-                System.out.println("failed to delete file " + file.getAbsolutePath());
-            }
-
-            return Response
-                    .ok(bytes, "application/zip")
-                    .header("Content-Disposition",
-                            "attachment; filename=\"" + g.getFriendlyName() + "-generated.zip\"")
-                    .header("Accept-Range", "bytes").header("Content-Length", bytes.length).build();
+                    + "operations.  The fileId code can be used until it expires, after which a new `fileId` will "
+                    + "need to be requested. Interrupted downloads can be resumed with a `Range` request.",
+            response = String.class, tags = {"clients", "servers"})
+    public Response downloadFile(@PathParam("fileId") String fileId,
+            @HeaderParam("Range") String range, @HeaderParam("If-Range") String ifRange) throws Exception {
+        final Generated g = DownloadRegistry.getInstance().get(fileId);
+        if (g != null) {
+            LOGGER.debug("downloading " + fileId + ", " + g.getFriendlyName());
+            return bundleResponse(g, range, ifRange);
         } else {
+            LOGGER.debug("no download " + fileId);
             return Response.status(404).build();
         }
     }
@@ -90,28 +96,15 @@ public class SwaggerResource {
             @ApiParam(value = "Configuration for building the client library", required = true) GeneratorInput opts)
             throws Exception {
 
-        String filename = Generator.generateClient(language, opts);
-        String host = System.getenv("GENERATOR_HOST");
-
-        if (StringUtils.isBlank(host)) {
-            String scheme = request.getHeader("X-SSL");
-            String port = "";
-            if ("1".equals(scheme)) {
-                scheme = "https";
-            } else {
-                scheme = request.getScheme();
-                port = ":" + request.getServerPort();
-            }
-            host = scheme + "://" + request.getServerName() + port;
-        }
+        Generator.Format format = archiveFormat(opts);
+        Generated g = Generator.generateClientBundle(language, opts);
+        String host = getHost(request);
 
-        if (filename != null) {
+        if (g != null) {
             String code = String.valueOf(UUID.randomUUID().toString());
-            Generated g = new Generated();
-            g.setFilename(filename);
             g.setFriendlyName(language + "-client");
-            fileMap.put(code, g);
-            System.out.println(code + ", " + filename);
+            DownloadRegistry.getInstance().register(code, g, format);
+            LOGGER.debug("registered download " + code + ", " + g.getFolderName());
             String link = host + "/api/gen/download/" + code;
             return Response.ok().entity(new ResponseCode(code, link)).build();
         } else {
@@ -189,24 +182,223 @@ public class SwaggerResource {
         if (framework == null) {
             throw new BadRequestException("Framework is required");
         }
-        String filename = Generator.generateServer(framework, opts);
-        System.out.println("generated name: " + filename);
+        Generator.Format format = archiveFormat(opts);
+        Generated g = Generator.generateServerBundle(framework, opts);
 
         String host =
                 request.getScheme() + "://" + request.getServerName() + ":"
                         + request.getServerPort();
 
-        if (filename != null) {
+        if (g != null) {
             String code = String.valueOf(UUID.randomUUID().toString());
-            Generated g = new Generated();
-            g.setFilename(filename);
             g.setFriendlyName(framework + "-server");
-            fileMap.put(code, g);
-            System.out.println(code + ", " + filename);
+            DownloadRegistry.getInstance().register(code, g, format);
+            LOGGER.debug("registered download " + code + ", " + g.getFolderName());
             String link = host + "/api/gen/download/" + code;
             return Response.ok().entity(new ResponseCode(code, link)).build();
         } else {
             return Response.status(500).build();
         }
     }
+
+    @POST
+    @Path("/batch")
+    @ApiOperation(
+            value = "Generates several targets from one specification",
+            notes = "Accepts the spec location and shared generation options, with the targets to generate. "
+                    + "The spec is parsed and flattened once and the targets are generated concurrently. "
+                    + "The targets are downloaded either one by one or, if `combined`, as one bundle with "
+                    + "a folder per target.",
+            response = BatchResponse.class, tags = {"clients", "servers"})
+    public Response generateBatch(
+            @Context HttpServletRequest request,
+            @ApiParam(value = "Spec, shared options and targets", required = true) BatchInput input)
+            throws Exception {
+        Generator.Format format = archiveFormat(input);
+        List<Generated> bundles = Generator.generateBatch(input);
+        String host = getHost(request);
+        DownloadRegistry downloads = DownloadRegistry.getInstance();
+
+        BatchResponse response = new BatchResponse();
+        List<String> folders = Generator.getCombinedFolders(bundles);
+        for (int i = 0; i < bundles.size(); i++) {
+            BatchTarget target = input.getTargets().get(i);
+            response.getTargets().add(new BatchResponse.BatchResult(target.getLanguage(),
+                    target.getType() == null ? Generator.Type.CLIENT.getTypeName() : target.getType(),
+                    input.isCombined() ? folders.get(i) : bundles.get(i).getFolderName()));
+        }
+        if (input.isCombined()) {
+            String code = UUID.randomUUID().toString();
+            downloads.register(code, Generator.combine("batch", bundles), format);
+            response.setCode(code);
+            response.setLink(host + "/api/gen/download/" + code);
+        } else {
+            for (int i = 0; i < bundles.size(); i++) {
+                String code = UUID.randomUUID().toString();
+                downloads.register(code, bundles.get(i), format);
+                response.getTargets().get(i).setCode(code);
+                response.getTargets().get(i).setLink(host + "/api/gen/download/" + code);
+            }
+        }
+        return Response.ok().entity(response).build();
+    }
+
+    @POST
+    @Path("/jobs/clients/{language}")
+    @ApiOperation(
+            value = "Queues the generation of a client library",
+            notes = "Accepts a `GeneratorInput` options map for spec location and generation options. "
+                    + "Poll the returned link until the job is `DONE`, then download the bundle from "
+                    + "`/jobs/{jobId}/download`. Answers 429 when too many jobs are queued.",
+            response = JobStatus.class, tags = {"clients", "jobs"})
+    public Response submitClientJob(
+            @Context HttpServletRequest request,
+            @ApiParam(value = "The target language for the client library", required = true) @PathParam("language") String language,
+            @ApiParam(value = "Configuration for building the client library", required = true) GeneratorInput opts)
+            throws Exception {
+        GenerationJobs.Job job = GenerationJobs.getInstance().submit(language, opts, Generator.Type.CLIENT);
+        return Response.status(Response.Status.ACCEPTED).entity(toJobStatus(request, job)).build();
+    }
+
+    @POST
+    @Path("/jobs/servers/{framework}")
+    @ApiOperation(
+            value = "Queues the generation of a server library",
+            notes = "Accepts a `GeneratorInput` options map for spec location and generation options. "
+                    + "Poll the returned link until the job is `DONE`, then download the bundle from "
+                    + "`/jobs/{jobId}/download`. Answers 429 when too many jobs are queued.",
+            response = JobStatus.class, tags = {"servers", "jobs"})
+    public Response submitServerJob(
+            @Context HttpServletRequest request,
+            @ApiParam(value = "framework", required = true) @PathParam("framework") String framework,
+            @ApiParam(value = "parameters", required = true) GeneratorInput opts)
+            throws Exception {
+        GenerationJobs.Job job = GenerationJobs.getInstance().submit(framework, opts, Generator.Type.SERVER);
+        return Response.status(Response.Status.ACCEPTED).entity(toJobStatus(request, job)).build();
+    }
+
+    @GET
+    @Path("/jobs/{jobId}")
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(value = "Returns the status of a generation job", response = JobStatus.class,
+            tags = "jobs")
+    public Response getJob(@Context HttpServletRequest request, @PathParam("jobId") String jobId)
+            throws Exception {
+        GenerationJobs.Job job = GenerationJobs.getInstance().get(jobId);
+        if (job == null) {
+            throw new NotFoundException("No job " + jobId);
+        }
+        return Response.ok().entity(toJobStatus(request, job)).build();
+    }
+
+    @DELETE
+    @Path("/jobs/{jobId}")
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(value = "Cancels a generation job", response = JobStatus.class, tags = "jobs")
+    public Response cancelJob(@Context HttpServletRequest request, @PathParam("jobId") String jobId)
+            throws Exception {
+        GenerationJobs.Job job = GenerationJobs.getInstance().cancel(jobId);
+        if (job == null) {
+            throw new NotFoundException("No job " + jobId);
+        }
+        return Response.ok().entity(toJobStatus(request, job)).build();
+    }
+
+    @GET
+    @Path("/jobs/{jobId}/download")
+    @Produces({MediaType.APPLICATION_OCTET_STREAM})
+    @ApiOperation(value = "Downloads the bundle generated by a job",
+            notes = "Answers 409 while the job isn't `DONE`. Interrupted downloads can be resumed with a "
+                    + "`Range` request.", response = String.class, tags = "jobs")
+    public Response downloadJob(@PathParam("jobId") String jobId,
+            @HeaderParam("Range") String range, @HeaderParam("If-Range") String ifRange) throws Exception {
+        GenerationJobs.Job job = GenerationJobs.getInstance().get(jobId);
+        if (job == null) {
+            throw new NotFoundException("No job " + jobId);
+        }
+        if (job.getStatus() != GenerationJobs.Status.DONE) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ApiResponse(ApiResponse.ERROR, "Job is " + job.getStatus()))
+                    .type(MediaType.APPLICATION_JSON).build();
+        }
+        Generated g = GenerationJobs.getInstance().download(job, DownloadRegistry.getInstance());
+        return bundleResponse(g, range, ifRange);
+    }
+
+    private static Generator.Format archiveFormat(GeneratorInput opts) throws BadRequestException {
+        return Generator.Format.forExtension(opts == null ? null : opts.getArchiveFormat());
+    }
+
+    private static Response bundleResponse(Generated g, String rangeHeader, String ifRange) throws ApiException {
+        Generator.Format format = Generator.Format.forExtension(g.getArchiveFormat());
+        final File file = new File(g.getFilename());
+        long length = file.length();
+        // the file of a download code never changes, a new registration gets a new file
+        EntityTag etag = new EntityTag(file.getName());
+
+        ByteRange range = null;
+        if (ifRange == null || ifRange.equals(etag.toString())) {
+            range = ByteRange.parse(rangeHeader, length);
+        }
+        Response.ResponseBuilder response;
+        if (range == null) {
+            response = Response.ok(transfer(file, new ByteRange(0, length - 1)), format.getMediaType())
+                    .header(HttpHeaders.CONTENT_LENGTH, length);
+        } else if (range.isSatisfiable()) {
+            response = Response.status(HttpStatus.SC_PARTIAL_CONTENT)
+                    .entity(transfer(file, range)).type(format.getMediaType())
+                    .header(HttpHeaders.CONTENT_LENGTH, range.getLength())
+                    .header("Content-Range", range.toContentRange(length));
+        } else {
+            return Response.status(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", range.toContentRange(length)).build();
+        }
+
+        return response
+                .header("Accept-Ranges", "bytes")
+                .tag(etag)
+                .header("Content-Disposition",
+                        "attachment; filename=\"" + g.getFriendlyName() + "-generated." + format.getExtension() + "\"")
+                .build();
+    }
+
+    private static StreamingOutput transfer(final File file, final ByteRange range) {
+        return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                if (!file.exists()) {
+                    // expired or evicted since the response started
+                    throw new WebApplicationException(HttpStatus.SC_NOT_FOUND);
+                }
+                if (range.isSatisfiable()) {
+                    range.transfer(file, output);
+                }
+            }
+        };
+    }
+
+    private static JobStatus toJobStatus(HttpServletRequest request, GenerationJobs.Job job) {
+        String link = getHost(request) + "/api/gen/jobs/" + job.getId();
+        if (job.getStatus() == GenerationJobs.Status.DONE) {
+            link += "/download";
+        }
+        return new JobStatus(job.getId(), job.getStatus().name(), job.getMessage(), link);
+    }
+
+    private static String getHost(HttpServletRequest request) {
+        String host = System.getenv("GENERATOR_HOST");
+
+        if (StringUtils.isBlank(host)) {
+            String scheme = request.getHeader("X-SSL");
+            String port = "";
+            if ("1".equals(scheme)) {
+                scheme = "https";
+            } else {
+                scheme = request.getScheme();
+                port = ":" + request.getServerPort();
+            }
+            host = scheme + "://" + request.getServerName() + port;
+        }
+        return host;
+    }
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2016 SmartBear Software
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.swagger.generator.util;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A single byte range of an HTTP <code>Range</code> header, e.g. <code>bytes=100-199</code>,
+ * <code>bytes=100-</code> or <code>bytes=-100</code>.
+ */
+public class ByteRange {
+    private static final String BYTES = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    public ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parse a <code>Range</code> header. Headers which aren't understood, including ones with
+     * several ranges, are ignored, so that the whole content is sent.
+     *
+     * @param header the header, may be null
+     * @param length length of the content
+     * @return the range clamped to the content, one which isn't {@link #isSatisfiable() satisfiable},
+     *         or null to send the whole content
+     */
+    public static ByteRange parse(String header, long length) {
+        if (header == null || !header.startsWith(BYTES) || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(BYTES.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            if (dash == 0) {
+                // the last bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix < 0) {
+                    return null;
+                }
+                if (suffix == 0 || length == 0) {
+                    return new ByteRange(length, length - 1);
+                }
+                return new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+            long start = Long.parseLong(spec.substring(0, dash));
+            boolean open = dash == spec.length() - 1;
+            long end = open ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+            if (start < 0 || (!open && end < start)) {
+                return null;
+            }
+            return new ByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * @return if the range overlaps the content, otherwise the answer is 416
+     */
+    public boolean isSatisfiable() {
+        return start <= end;
+    }
+
+    /**
+     * @param length length of the content
+     * @return the <code>Content-Range</code> header for this range
+     */
+    public String toContentRange(long length) {
+        return isSatisfiable() ? "bytes " + start + "-" + end + "/" + length : "bytes */" + length;
+    }
+
+    /**
+     * Copy this range of a file, leaving it to the file channel to avoid copies where the platform
+     * allows.
+     *
+     * @param file file to read
+     * @param out stream to write to, left open
+     * @throws IOException if the file can't be read or the stream written
+     */
+    public void transfer(File file, OutputStream out) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = getLength();
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0 && position >= channel.size()) {
+                    throw new EOFException(file + " is shorter than " + (end + 1) + " bytes");
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2016 SmartBear Software
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.swagger.generator.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Settings of the online generator. A setting like <code>generator.cache.ttlSeconds</code> is read
+ * from the system property of that name, or else from the environment variable
+ * <code>GENERATOR_CACHE_TTLSECONDS</code>, like <code>GENERATOR_HOST</code>.
+ */
+public class Settings {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Settings.class);
+
+    public static String get(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (StringUtils.isBlank(value)) {
+            value = System.getenv(name.replace('.', '_').toUpperCase());
+        }
+        return StringUtils.isBlank(value) ? defaultValue : value.trim();
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Ignoring invalid value " + value + " of " + name);
+            return defaultValue;
+        }
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        return (int) getLong(name, defaultValue);
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = get(name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
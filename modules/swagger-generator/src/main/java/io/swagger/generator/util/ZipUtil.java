@@ -14,19 +14,54 @@
 
 package io.swagger.generator.util;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
  * This utility compresses a list of files to standard ZIP format file. It is able to compresses all
  * sub files and sub directories, recursively.
+ *
+ * Files kept in memory are compressed with a configurable level, files which are compressed already,
+ * like jars and images, are stored as they are, and the entries can be deflated in parallel on an
+ * executor while they're written to the archive in order, which is why the local and central headers
+ * of those archives are written here: ZipOutputStream can only deflate entries itself, one after the
+ * other. Archives needing zip64 records, and archives of files on disk, are left to commons-compress,
+ * like tar.gz archives. The entries have unix modes, and shell scripts, like gradlew, are executable.
  * 
  * @author Ha Minh Nam
  *
@@ -35,7 +70,57 @@ public class ZipUtil {
     /**
      * A constants for buffer size used to read/write data.
      */
-    private static final int BUFFER_SIZE = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Extensions of the files which are stored without compressing them again.
+     */
+    public static final Set<String> COMPRESSED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("jar", "war", "zip", "gz", "tgz", "bz2", "xz", "7z", "png", "jpg", "jpeg", "gif", "ico",
+                    "woff", "woff2", "ttf", "otf", "eot", "pdf")));
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int UTF8_NAMES = 0x800;
+    private static final int UNIX = 3;
+    // regular files, like the tar entries
+    private static final int FILE_MODE = 0100644;
+    private static final int EXECUTABLE_MODE = 0100755;
+    // archives which need zip64 records are left to ZipArchiveOutputStream
+    private static final long MAX_ZIP_SIZE = 0xffffffffL;
+    private static final int MAX_ZIP_ENTRIES = 0xffff;
+
+    private final int level;
+    private final Set<String> storedExtensions;
+    private final ExecutorService executor;
+    private final int window;
+
+    /**
+     * Compress with the default level on the calling thread.
+     */
+    public ZipUtil() {
+        this(Deflater.DEFAULT_COMPRESSION, COMPRESSED_EXTENSIONS, null, 1);
+    }
+
+    /**
+     * @param level compression level from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION},
+     *        or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param storedExtensions extensions, in lower case, of the files to store without compressing them
+     * @param executor executor deflating the zip entries, null to deflate them on the calling thread
+     * @param threads number of entries deflated at the same time, which also bounds the compressed entries
+     *        waiting to be written
+     */
+    public ZipUtil(int level, Set<String> storedExtensions, ExecutorService executor, int threads) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level " + level);
+        }
+        this.level = level;
+        this.storedExtensions = storedExtensions;
+        this.executor = executor;
+        this.window = Math.max(1, threads) * 2;
+    }
 
     /**
      * Compresses a collection of files to a destination zip file.
@@ -48,20 +133,130 @@ public class ZipUtil {
     public void compressFiles(List<File> listFiles, String destZipFile)
             throws FileNotFoundException, IOException {
 
-        ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(destZipFile));
+        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(new File(destZipFile));
+        try {
+            zos.setLevel(level);
 
-        for (File file : listFiles) {
-            if (file.isDirectory()) {
-                addFolderToZip(file, file.getName(), zos);
-            } else {
-                addFileToZip(file, zos);
+            for (File file : listFiles) {
+                if (file.isDirectory()) {
+                    addFolderToZip(file, file.getName(), zos);
+                } else {
+                    addFileToZip(file, file.getName(), zos);
+                }
             }
+            zos.finish();
+        } finally {
+            zos.close();
         }
+    }
 
-        zos.flush();
-        zos.close();
+    /**
+     * Compresses files kept in memory to a stream, without temporary files.
+     *
+     * @param folderName The folder the files are put in
+     * @param files The file contents by path relative to the folder
+     * @param out The stream to write to, which is left open
+     * @throws IOException if IO exception occurs
+     */
+    public void compressFiles(String folderName, Map<String, byte[]> files, OutputStream out)
+            throws IOException {
+        long size = 0;
+        for (byte[] contents : files.values()) {
+            size += contents.length;
+        }
+        if (files.size() > MAX_ZIP_ENTRIES || size > MAX_ZIP_SIZE / 2) {
+            compressLargeFiles(folderName, files, out);
+            return;
+        }
+
+        long time = dosTime(System.currentTimeMillis());
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        List<CompressedEntry> written = new ArrayList<CompressedEntry>(files.size());
+        long offset = 0;
+
+        // entries are deflated ahead of the one being written, at most window of them
+        Deque<Future<CompressedEntry>> pending = new ArrayDeque<Future<CompressedEntry>>();
+        Iterator<Map.Entry<String, byte[]>> it = files.entrySet().iterator();
+        try {
+            while (it.hasNext() || !pending.isEmpty()) {
+                checkInterrupted();
+                while (it.hasNext() && pending.size() < window) {
+                    Map.Entry<String, byte[]> file = it.next();
+                    pending.add(compress(folderName + "/" + file.getKey(), file.getValue()));
+                }
+                CompressedEntry entry = get(pending.poll());
+                entry.offset = offset;
+                offset += writeLocalHeader(buffered, entry, time);
+                buffered.write(entry.data, 0, entry.compressedSize);
+                offset += entry.compressedSize;
+                // only the central directory is needed from here on
+                entry.data = null;
+                written.add(entry);
+            }
+        } finally {
+            for (Future<CompressedEntry> future : pending) {
+                future.cancel(true);
+            }
+        }
+
+        long centralDirectory = offset;
+        for (CompressedEntry entry : written) {
+            offset += writeCentralHeader(buffered, entry, time);
+        }
+        if (offset > MAX_ZIP_SIZE) {
+            throw new IOException("The archive is too large for a zip without zip64 records");
+        }
+        writeInt(buffered, END_OF_CENTRAL_DIRECTORY);
+        writeShort(buffered, 0);
+        writeShort(buffered, 0);
+        writeShort(buffered, written.size());
+        writeShort(buffered, written.size());
+        writeInt(buffered, offset - centralDirectory);
+        writeInt(buffered, centralDirectory);
+        writeShort(buffered, 0);
+        buffered.flush();
     }
 
+    /**
+     * Archives files kept in memory as tar.gz to a stream. Shell scripts, like gradlew, are executable.
+     *
+     * @param folderName The folder the files are put in
+     * @param files The file contents by path relative to the folder
+     * @param out The stream to write to, which is left open
+     * @throws IOException if IO exception occurs
+     */
+    public void tarFiles(String folderName, Map<String, byte[]> files, OutputStream out) throws IOException {
+        final int gzipLevel = level;
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(gzipLevel);
+            }
+        };
+        TarArchiveOutputStream tar = new TarArchiveOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE),
+                StandardCharsets.UTF_8.name());
+        // pax headers for the names and sizes which don't fit into the ustar fields
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        tar.setAddPaxHeadersForNonAsciiNames(true);
+        Date mtime = new Date();
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            checkInterrupted();
+            String name = folderName + "/" + file.getKey();
+            byte[] contents = file.getValue();
+            TarArchiveEntry entry = new TarArchiveEntry(name);
+            entry.setMode(isExecutable(name) ? EXECUTABLE_MODE : FILE_MODE);
+            entry.setSize(contents.length);
+            entry.setModTime(mtime);
+            tar.putArchiveEntry(entry);
+            tar.write(contents);
+            tar.closeArchiveEntry();
+        }
+        // writes the end of the tar and the gzip trailer, leaving the stream open
+        tar.finish();
+        tar.flush();
+        gzip.finish();
+        out.flush();
+    }
     /**
      * Adds a directory to the current zip output stream.
      * 
@@ -71,53 +266,237 @@ public class ZipUtil {
      * @throws FileNotFoundException if file not found
      * @throws IOException if IO exception occurs
      */
-    private void addFolderToZip(File folder, String parentFolder, ZipOutputStream zos)
+    private void addFolderToZip(File folder, String parentFolder, ZipArchiveOutputStream zos)
             throws FileNotFoundException, IOException {
         for (File file : folder.listFiles()) {
             if (file.isDirectory()) {
                 addFolderToZip(file, parentFolder + "/" + file.getName(), zos);
                 continue;
             }
+            addFileToZip(file, parentFolder + "/" + file.getName(), zos);
+        }
+    }
 
-            zos.putNextEntry(new ZipEntry(parentFolder + "/" + file.getName()));
-
-            BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
+    /**
+     * Adds a file to the current zip output stream, stored as it is if it's compressed already.
+     * 
+     * @param file the file to be added
+     * @param name the name of its entry
+     * @param zos the current zip output stream, writing to a file so that the stored entries
+     *        don't need their size and checksum up front
+     * @throws FileNotFoundException if file not found
+     * @throws IOException if IO exception occurs
+     */
+    private void addFileToZip(File file, String name, ZipArchiveOutputStream zos) throws FileNotFoundException,
+            IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setUnixMode(file.canExecute() || isExecutable(name) ? EXECUTABLE_MODE : FILE_MODE);
+        if (isStored(name)) {
+            entry.setMethod(ZipEntry.STORED);
+        }
+        zos.putArchiveEntry(entry);
 
-            long bytesRead = 0;
+        BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
+        try {
             byte[] bytesIn = new byte[BUFFER_SIZE];
             int read = 0;
 
             while ((read = bis.read(bytesIn)) != -1) {
                 zos.write(bytesIn, 0, read);
-                bytesRead += read;
             }
-
-            zos.closeEntry();
-
+        } finally {
+            bis.close();
         }
+
+        zos.closeArchiveEntry();
     }
 
     /**
-     * Adds a file to the current zip output stream.
-     * 
-     * @param file the file to be added
-     * @param zos the current zip output stream
-     * @throws FileNotFoundException if file not found
-     * @throws IOException if IO exception occurs
+     * Compresses with ZipArchiveOutputStream, which writes the zip64 records needed by huge archives.
      */
-    private static void addFileToZip(File file, ZipOutputStream zos) throws FileNotFoundException,
-            IOException {
-        zos.putNextEntry(new ZipEntry(file.getName()));
+    private void compressLargeFiles(String folderName, Map<String, byte[]> files, OutputStream out)
+            throws IOException {
+        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        zos.setLevel(level);
 
-        BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            checkInterrupted();
+            String name = folderName + "/" + file.getKey();
+            byte[] contents = file.getValue();
+            ZipArchiveEntry entry = new ZipArchiveEntry(name);
+            entry.setUnixMode(isExecutable(name) ? EXECUTABLE_MODE : FILE_MODE);
+            entry.setSize(contents.length);
+            if (isStored(name)) {
+                CRC32 crc = new CRC32();
+                crc.update(contents);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setCompressedSize(contents.length);
+                entry.setCrc(crc.getValue());
+            }
+            zos.putArchiveEntry(entry);
+            zos.write(contents);
+            zos.closeArchiveEntry();
+        }
+
+        // writes the central directory, leaving the stream open
+        zos.finish();
+        zos.flush();
+    }
 
-        byte[] bytesIn = new byte[BUFFER_SIZE];
-        int read = 0;
+    private static class CompressedEntry {
+        private byte[] name;
+        private int method;
+        private long crc;
+        private int size;
+        private int compressedSize;
+        private int mode;
+        private byte[] data;
+        private long offset;
+    }
 
-        while ((read = bis.read(bytesIn)) != -1) {
-            zos.write(bytesIn, 0, read);
+    private Future<CompressedEntry> compress(final String name, final byte[] contents) {
+        Callable<CompressedEntry> task = new Callable<CompressedEntry>() {
+            @Override
+            public CompressedEntry call() {
+                return compress(name, contents, isStored(name));
+            }
+        };
+        if (executor != null) {
+            return executor.submit(task);
         }
+        FutureTask<CompressedEntry> future = new FutureTask<CompressedEntry>(task);
+        future.run();
+        return future;
+    }
+
+    private CompressedEntry compress(String name, byte[] contents, boolean stored) {
+        CompressedEntry entry = new CompressedEntry();
+        entry.name = name.getBytes(StandardCharsets.UTF_8);
+        entry.mode = isExecutable(name) ? EXECUTABLE_MODE : FILE_MODE;
+        entry.size = contents.length;
+        CRC32 crc = new CRC32();
+        crc.update(contents);
+        entry.crc = crc.getValue();
 
-        zos.closeEntry();
+        if (!stored) {
+            Deflater deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(contents);
+                deflater.finish();
+                ByteArrayOutputStream deflated = new ByteArrayOutputStream(Math.max(64, contents.length / 2));
+                byte[] buffer = new byte[Math.min(BUFFER_SIZE, Math.max(64, contents.length))];
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    deflated.write(buffer, 0, length);
+                }
+                // incompressible contents are stored instead
+                if (deflated.size() < contents.length) {
+                    entry.method = ZipEntry.DEFLATED;
+                    entry.data = deflated.toByteArray();
+                    entry.compressedSize = entry.data.length;
+                    return entry;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        entry.method = ZipEntry.STORED;
+        entry.data = contents;
+        entry.compressedSize = contents.length;
+        return entry;
+    }
+
+    private static CompressedEntry get(Future<CompressedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private boolean isStored(String name) {
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        return dot > slash && storedExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static int writeLocalHeader(OutputStream out, CompressedEntry entry, long time) throws IOException {
+        writeInt(out, LOCAL_HEADER);
+        writeShort(out, VERSION);
+        writeShort(out, UTF8_NAMES);
+        writeShort(out, entry.method);
+        writeInt(out, time);
+        writeInt(out, entry.crc);
+        writeInt(out, entry.compressedSize);
+        writeInt(out, entry.size);
+        writeShort(out, entry.name.length);
+        writeShort(out, 0);
+        out.write(entry.name);
+        return 30 + entry.name.length;
+    }
+
+    private static int writeCentralHeader(OutputStream out, CompressedEntry entry, long time) throws IOException {
+        writeInt(out, CENTRAL_HEADER);
+        // made by unix, so that the external attributes are the unix mode
+        writeShort(out, UNIX << 8 | VERSION);
+        writeShort(out, VERSION);
+        writeShort(out, UTF8_NAMES);
+        writeShort(out, entry.method);
+        writeInt(out, time);
+        writeInt(out, entry.crc);
+        writeInt(out, entry.compressedSize);
+        writeInt(out, entry.size);
+        writeShort(out, entry.name.length);
+        // extra field, comment, disk number, internal and external attributes
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeInt(out, (long) entry.mode << 16);
+        writeInt(out, entry.offset);
+        out.write(entry.name);
+        return 46 + entry.name.length;
+    }
+
+    private static void writeShort(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeInt(OutputStream out, long value) throws IOException {
+        writeShort(out, (int) (value & 0xffff));
+        writeShort(out, (int) ((value >>> 16) & 0xffff));
+    }
+
+    /**
+     * @return the MS-DOS date and time of the zip headers, in the local time zone like ZipOutputStream
+     */
+    private static long dosTime(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25 | (calendar.get(Calendar.MONTH) + 1) << 21
+                | calendar.get(Calendar.DAY_OF_MONTH) << 16 | calendar.get(Calendar.HOUR_OF_DAY) << 11
+                | calendar.get(Calendar.MINUTE) << 5 | calendar.get(Calendar.SECOND) >> 1;
+    }
+
+    private static boolean isExecutable(String name) {
+        String fileName = name.substring(name.lastIndexOf('/') + 1);
+        return fileName.equals("gradlew") || fileName.equals("mvnw") || fileName.endsWith(".sh");
+    }
+
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted while compressing");
+        }
     }
 }
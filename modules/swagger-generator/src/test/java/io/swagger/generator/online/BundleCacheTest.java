@@ -0,0 +1,117 @@
+package io.swagger.generator.online;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import io.swagger.codegen.InMemoryOutput;
+import io.swagger.generator.model.Generated;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class BundleCacheTest {
+
+    private static class TestCache extends BundleCache {
+        long now = 1000;
+
+        TestCache(long maxBytes, long ttlMillis, File directory) {
+            super(maxBytes, ttlMillis, directory, Long.MAX_VALUE);
+        }
+
+        @Override
+        protected long now() {
+            return now;
+        }
+    }
+
+    @Test
+    public void keyTest() {
+        assertEquals(BundleCache.key("spec", "java"), BundleCache.key("spec", "java"));
+        assertNotEquals(BundleCache.key("spec", "java"), BundleCache.key("specj", "ava"));
+    }
+
+    @Test
+    public void memoryTest() {
+        TestCache cache = new TestCache(10, 100, null);
+
+        assertNull(cache.get("a"));
+        cache.put("a", bundle("a", 4));
+        cache.put("b", bundle("b", 4));
+        Generated a = cache.get("a");
+        assertNotNull(a);
+        assertEquals(a.getFolderName(), "a");
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 1);
+
+        // b is the least recently used one
+        cache.put("c", bundle("c", 4));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(cache.getEvictions(), 1);
+        assertEquals(cache.getBytes(), 8);
+
+        cache.now += 101;
+        assertNull(cache.get("a"));
+        assertEquals(cache.getEntries(), 1);
+    }
+
+    @Test
+    public void diskTest() throws Exception {
+        File directory = Files.createTempDirectory("bundle-cache").toFile();
+        try {
+            new TestCache(10, Long.MAX_VALUE, directory).put("a", bundle("a", 4));
+
+            // e.g. after a restart
+            TestCache cache = new TestCache(10, Long.MAX_VALUE, directory);
+            Generated a = cache.get("a");
+            assertNotNull(a);
+            assertEquals(a.getFolderName(), "a");
+            assertEquals(new String(a.getOutput().getFiles().get("src/a.txt"), StandardCharsets.UTF_8), "aaaa");
+            assertEquals(cache.getDiskHits(), 1);
+
+            assertNotNull(cache.get("a"));
+            assertEquals(cache.getHits(), 1);
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void diskNotRewrittenTest() throws Exception {
+        File directory = Files.createTempDirectory("bundle-cache").toFile();
+        try {
+            TestCache cache = new TestCache(10, Long.MAX_VALUE, directory);
+            cache.put("a", bundle("a", 4));
+            File file = new File(directory, "a.zip");
+            assertTrue(file.setLastModified(500000));
+
+            // e.g. read from disk, or generated concurrently
+            cache.put("a", bundle("a", 4));
+            assertEquals(file.lastModified(), 500000);
+            assertEquals(directory.list().length, 1);
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private static Generated bundle(String name, int size) {
+        InMemoryOutput output = new InMemoryOutput("/tmp/" + name);
+        StringBuilder contents = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            contents.append(name);
+        }
+        output.write(new File("/tmp/" + name + "/src/" + name + ".txt"), contents.toString().getBytes(StandardCharsets.UTF_8));
+
+        Generated generated = new Generated();
+        generated.setFolderName(name);
+        generated.setOutput(output);
+        return generated;
+    }
+}
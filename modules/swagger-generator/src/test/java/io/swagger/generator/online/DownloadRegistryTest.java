@@ -0,0 +1,131 @@
+package io.swagger.generator.online;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import io.swagger.codegen.InMemoryOutput;
+import io.swagger.generator.exception.ApiException;
+import io.swagger.generator.model.Generated;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.ZipFile;
+
+public class DownloadRegistryTest {
+    private File directory;
+
+    private static class TestRegistry extends DownloadRegistry {
+        long now = 1000;
+
+        TestRegistry(File directory, long maxBytes, long ttlMillis) {
+            super(directory, maxBytes, ttlMillis);
+        }
+
+        @Override
+        protected long now() {
+            return now;
+        }
+    }
+
+    @BeforeMethod
+    public void createDirectory() throws Exception {
+        directory = Files.createTempDirectory("downloads").toFile();
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void getTest() throws Exception {
+        TestRegistry registry = new TestRegistry(directory, 10000, 100);
+        Generated download = registry.register("a", bundle("a", 4));
+        assertEquals(download.getFriendlyName(), "a-client");
+        assertEquals(registry.getBytes(), new File(download.getFilename()).length());
+
+        ZipFile zip = new ZipFile(download.getFilename());
+        try {
+            assertNotNull(zip.getEntry("a/a.txt"));
+        } finally {
+            zip.close();
+        }
+
+        // can be downloaded again
+        assertEquals(registry.get("a"), download);
+        assertEquals(registry.get("a"), download);
+        assertNull(registry.get("b"));
+    }
+
+    @Test
+    public void expirationTest() throws ApiException {
+        TestRegistry registry = new TestRegistry(directory, 10000, 100);
+        Generated a = registry.register("a", bundle("a", 4));
+        registry.now += 50;
+        registry.register("b", bundle("b", 4));
+
+        registry.now += 51;
+        assertNull(registry.get("a"));
+        assertFalse(new File(a.getFilename()).exists());
+        registry.removeExpired();
+        assertEquals(registry.getEntries(), 1);
+        assertEquals(registry.getExpirations(), 1);
+
+        registry.now += 50;
+        registry.removeExpired();
+        assertEquals(registry.getEntries(), 0);
+        assertEquals(registry.getBytes(), 0);
+        assertEquals(registry.getExpirations(), 2);
+        assertEquals(directory.list().length, 0);
+    }
+
+    @Test
+    public void evictionTest() throws ApiException {
+        // bundles of the same size and name length zip to the same size
+        TestRegistry sizes = new TestRegistry(directory, 10000, 100);
+        sizes.register("x", bundle("x", 4));
+        long zipSize = sizes.getBytes();
+
+        TestRegistry registry = new TestRegistry(directory, zipSize * 2 + zipSize / 2, 100);
+        Generated a = registry.register("a", bundle("a", 4));
+        registry.register("b", bundle("b", 4));
+        registry.register("c", bundle("c", 4));
+
+        assertNull(registry.get("a"));
+        assertFalse(new File(a.getFilename()).exists());
+        assertNotNull(registry.get("b"));
+        assertEquals(registry.getEvictions(), 1);
+
+        try {
+            registry.register("d", bundle("d", 100000));
+            fail("the bundle doesn't fit");
+        } catch (ApiException e) {
+            assertEquals(e.getCode(), 507);
+        }
+        assertEquals(registry.getEntries(), 2);
+    }
+
+    private static Generated bundle(String name, int size) {
+        InMemoryOutput output = new InMemoryOutput("/tmp/" + name);
+        // random, so that the zipped size is about the same as the size
+        byte[] contents = new byte[size];
+        new Random(size).nextBytes(contents);
+        output.write(new File("/tmp/" + name + "/" + name + ".txt"), contents);
+
+        Generated generated = new Generated();
+        generated.setFolderName(name);
+        generated.setFriendlyName(name + "-client");
+        generated.setOutput(output);
+        return generated;
+    }
+}
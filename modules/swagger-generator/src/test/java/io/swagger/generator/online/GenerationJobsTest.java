@@ -0,0 +1,168 @@
+package io.swagger.generator.online;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.generator.exception.TooManyRequestsException;
+import io.swagger.generator.model.Generated;
+import io.swagger.generator.model.GeneratorInput;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class GenerationJobsTest {
+
+    @Test
+    public void generateTest() throws Exception {
+        GeneratorInput input = petstore();
+
+        GenerationJobs jobs = new GenerationJobs(1, 1, 60000, 60000);
+        GenerationJobs.Job job = jobs.submit("swagger", input, Generator.Type.CLIENT);
+
+        waitFor(job, GenerationJobs.Status.DONE);
+        assertNotNull(job.getResult());
+        assertEquals(jobs.get(job.getId()), job);
+    }
+
+    @Test
+    public void saturationAndCancelTest() throws Exception {
+        // a spec server which never answers keeps the worker busy
+        ServerSocket server = new ServerSocket(0);
+        try {
+            final GeneratorInput input = new GeneratorInput();
+            input.setSwaggerUrl("http://localhost:" + server.getLocalPort() + "/swagger.json");
+
+            GenerationJobs jobs = new GenerationJobs(1, 1, 60000, 60000);
+            GenerationJobs.Job running = jobs.submit("swagger", input, Generator.Type.CLIENT);
+            waitFor(running, GenerationJobs.Status.RUNNING);
+            GenerationJobs.Job queued = jobs.submit("swagger", input, Generator.Type.CLIENT);
+            assertEquals(jobs.getQueueDepth(), 1);
+
+            try {
+                jobs.submit("swagger", input, Generator.Type.CLIENT);
+                fail("the queue is full");
+            } catch (TooManyRequestsException e) {
+                assertEquals(e.getCode(), 429);
+            }
+
+            jobs.cancel(queued.getId());
+            assertEquals(queued.getStatus(), GenerationJobs.Status.CANCELLED);
+            assertEquals(jobs.getQueueDepth(), 0);
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void timeoutTest() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        try {
+            final GeneratorInput input = new GeneratorInput();
+            input.setSwaggerUrl("http://localhost:" + server.getLocalPort() + "/swagger.json");
+
+            GenerationJobs jobs = new GenerationJobs(1, 1, 100, 60000);
+            GenerationJobs.Job job = jobs.submit("swagger", input, Generator.Type.CLIENT);
+            waitFor(job, GenerationJobs.Status.TIMED_OUT);
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void queuedJobsDontTimeOutTest() throws Exception {
+        GeneratorInput petstore = petstore();
+        // so that generating it again is quick
+        Generator.generateClientBundle("swagger", petstore);
+
+        ServerSocket server = new ServerSocket(0);
+        try {
+            final GeneratorInput input = new GeneratorInput();
+            input.setSwaggerUrl("http://localhost:" + server.getLocalPort() + "/swagger.json");
+
+            GenerationJobs jobs = new GenerationJobs(1, 1, 1000, 60000);
+            GenerationJobs.Job running = jobs.submit("swagger", input, Generator.Type.CLIENT);
+            GenerationJobs.Job queued = jobs.submit("swagger", petstore, Generator.Type.CLIENT);
+            waitFor(running, GenerationJobs.Status.TIMED_OUT);
+            // the worker is stuck reading the spec until the connection is reset
+            Thread.sleep(500);
+            assertEquals(queued.getStatus(), GenerationJobs.Status.QUEUED);
+            server.close();
+
+            // its timeout starts once the worker is free
+            waitFor(queued, GenerationJobs.Status.DONE);
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void retainedBytesTest() throws Exception {
+        GeneratorInput input = petstore();
+        GenerationJobs measure = new GenerationJobs(1, 1, 60000, 60000);
+        GenerationJobs.Job job = measure.submit("swagger", input, Generator.Type.CLIENT);
+        waitFor(job, GenerationJobs.Status.DONE);
+        long size = job.getResult().getOutput().getSize();
+        assertEquals(measure.getRetainedBytes(), size);
+
+        GenerationJobs jobs = new GenerationJobs(1, 1, 60000, 60000, size * 3 / 2);
+        GenerationJobs.Job oldest = jobs.submit("swagger", input, Generator.Type.CLIENT);
+        waitFor(oldest, GenerationJobs.Status.DONE);
+        GenerationJobs.Job newest = jobs.submit("swagger", input, Generator.Type.CLIENT);
+        waitFor(newest, GenerationJobs.Status.DONE);
+
+        assertNull(jobs.get(oldest.getId()));
+        assertNull(oldest.getResult());
+        assertEquals(jobs.get(newest.getId()), newest);
+        assertEquals(jobs.getRetainedBytes(), size);
+    }
+
+    @Test
+    public void downloadTest() throws Exception {
+        File directory = Files.createTempDirectory("downloads").toFile();
+        try {
+            GenerationJobs jobs = new GenerationJobs(1, 1, 60000, 60000);
+            GenerationJobs.Job job = jobs.submit("swagger", petstore(), Generator.Type.CLIENT);
+            waitFor(job, GenerationJobs.Status.DONE);
+
+            DownloadRegistry downloads = new DownloadRegistry(directory, Long.MAX_VALUE, 60000);
+            Generated download = jobs.download(job, downloads);
+            assertEquals(download.getFriendlyName(), "swagger-client");
+            assertSame(jobs.download(job, downloads), download);
+            // the result may be a cached bundle shared with other requests
+            assertNull(job.getResult().getFriendlyName());
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private GeneratorInput petstore() throws IOException {
+        GeneratorInput input = new GeneratorInput();
+        InputStream in = getClass().getClassLoader().getResourceAsStream("petstore.json");
+        try {
+            input.setSpec(new ObjectMapper().readTree(IOUtils.toString(in, StandardCharsets.UTF_8)));
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        return input;
+    }
+
+    private static void waitFor(GenerationJobs.Job job, GenerationJobs.Status status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (job.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(job.getStatus(), status, String.valueOf(job.getMessage()));
+    }
+}
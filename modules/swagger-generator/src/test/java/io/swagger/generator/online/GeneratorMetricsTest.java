@@ -0,0 +1,55 @@
+package io.swagger.generator.online;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import io.swagger.codegen.InMemoryOutput;
+import io.swagger.generator.model.Generated;
+
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+
+public class GeneratorMetricsTest {
+
+    @Test
+    public void labelsTest() {
+        assertEquals(GeneratorMetrics.labels("language", "java", "type", "client"),
+                "language=\"java\",type=\"client\"");
+        assertEquals(GeneratorMetrics.labels("phase", "a\"b\\c\nd"), "phase=\"a\\\"b\\\\c\\nd\"");
+    }
+
+    @Test
+    public void writeTest() throws Exception {
+        GeneratorMetrics metrics = new GeneratorMetrics();
+
+        GeneratorMetrics.Timer timer = metrics.start("java", "client");
+        assertEquals(metrics.getGenerationsInProgress(), 1);
+        InMemoryOutput output = new InMemoryOutput("/tmp/java-client");
+        output.write(new File("/tmp/java-client/README.md"), new byte[100]);
+        Generated generated = new Generated();
+        generated.setOutput(output);
+        timer.generated(generated);
+        timer.stop();
+
+        metrics.start("java", "client").stop();
+        metrics.recordPhase("parse", 2000000);
+
+        assertEquals(metrics.getGenerationsInProgress(), 0);
+        assertEquals(metrics.getGenerations(), 2);
+        assertEquals(metrics.getFailedGenerations(), 1);
+        assertEquals(metrics.getCachedGenerations(), 0);
+
+        StringWriter out = new StringWriter();
+        metrics.write(out);
+        String text = out.toString();
+        assertTrue(text.contains("# TYPE swagger_generator_generation_seconds histogram\n"), text);
+        assertTrue(text.contains("swagger_generator_generation_seconds_count{language=\"java\",type=\"client\",outcome=\"generated\"} 1\n"), text);
+        assertTrue(text.contains("swagger_generator_generation_seconds_bucket{language=\"java\",type=\"client\",outcome=\"failed\",le=\"+Inf\"} 1\n"), text);
+        assertTrue(text.contains("swagger_generator_phase_seconds_bucket{phase=\"parse\",le=\"0.05\"} 1\n"), text);
+        assertTrue(text.contains("swagger_generator_bundle_bytes_sum{language=\"java\",type=\"client\"} 100\n"), text);
+        assertTrue(text.contains("swagger_generator_jobs_queued 0\n"), text);
+        assertTrue(text.contains("swagger_generator_heap_used_bytes "), text);
+    }
+}
@@ -0,0 +1,185 @@
+package io.swagger.generator.online;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.generator.exception.ApiException;
+import io.swagger.generator.exception.BadRequestException;
+import io.swagger.generator.model.BatchInput;
+import io.swagger.generator.model.BatchTarget;
+import io.swagger.generator.model.Generated;
+import io.swagger.generator.model.GeneratorInput;
+import io.swagger.generator.online.Generator.Type;
+import io.swagger.parser.SwaggerParser;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@SuppressWarnings("static-method")
+public class OnlineGeneratorBundleTest {
+
+    @Test
+    public void generateBundleTest() throws ApiException, IOException {
+        final GeneratorInput input = new GeneratorInput();
+        InputStream in = getClass().getClassLoader().getResourceAsStream("petstore.json");
+        try {
+            input.setSpec(new ObjectMapper().readTree(IOUtils.toString(in, StandardCharsets.UTF_8)));
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+
+        final Generated generated = Generator.generateClientBundle("swagger", input);
+        assertEquals(generated.getFolderName(), "swagger-client");
+        assertFalse(generated.getOutput().getFiles().isEmpty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Generator.writeBundle(generated, out);
+
+        Set<String> entries = new HashSet<String>();
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            entries.add(entry.getName());
+        }
+        assertEquals(entries.size(), generated.getOutput().getFiles().size());
+        assertTrue(entries.contains("swagger-client/swagger.json"));
+
+        // served from the cache the second time
+        assertSame(Generator.generateClientBundle("swagger", input).getOutput(), generated.getOutput());
+    }
+
+    @Test
+    public void generateBatchTest() throws ApiException, IOException {
+        final BatchInput input = new BatchInput();
+        input.setSpec(readSpec());
+        input.setTargets(Arrays.asList(new BatchTarget("swagger", null), new BatchTarget("swagger-yaml", "client"),
+                new BatchTarget("swagger", "client")));
+        input.getTargets().get(2).setOptions(Collections.singletonMap("outputFolder", "petstore"));
+
+        List<Generated> bundles = Generator.generateBatch(input);
+        assertEquals(bundles.size(), 3);
+        assertEquals(bundles.get(0).getFriendlyName(), "swagger-client");
+        assertTrue(bundles.get(0).getOutput().getFiles().containsKey("swagger.json"));
+        assertEquals(bundles.get(1).getFriendlyName(), "swagger-yaml-client");
+        assertTrue(bundles.get(1).getOutput().getFiles().containsKey("swagger.yaml"));
+        assertEquals(bundles.get(2).getFolderName(), "petstore");
+
+        assertEquals(Generator.getCombinedFolders(bundles),
+                Arrays.asList("swagger-client", "swagger-yaml-client", "swagger-client-2"));
+        Generated combined = Generator.combine("batch", bundles);
+        assertEquals(combined.getFolderName(), "batch");
+        assertTrue(combined.getOutput().getFiles().containsKey("swagger-client/swagger.json"));
+        assertTrue(combined.getOutput().getFiles().containsKey("swagger-yaml-client/swagger.yaml"));
+        assertTrue(combined.getOutput().getFiles().containsKey("swagger-client-2/swagger.json"));
+
+        // the targets were cached under the keys of single generations, and renamed on copies
+        GeneratorInput single = new GeneratorInput();
+        single.setSpec(readSpec());
+        Generated cached = Generator.generateClientBundle("swagger", single);
+        assertSame(cached.getOutput(), bundles.get(0).getOutput());
+        assertNull(cached.getFriendlyName());
+    }
+
+    @Test
+    public void generateBatchFlattenedTest() throws ApiException, IOException {
+        final JsonNode spec = new ObjectMapper().readTree("{\"swagger\":\"2.0\",\"info\":{\"title\":\"Batch\",\"version\":\"1\"},"
+                + "\"tags\":[{\"name\":\"pet\"}],\"paths\":{\"/v1/pets\":{\"get\":{\"tags\":[\"pet\"],\"operationId\":\"listPets\",\"responses\":{\"200\":{\"description\":\"pets\","
+                + "\"schema\":{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}}}},"
+                + "\"post\":{\"tags\":[\"pet\"],\"operationId\":\"createPet\",\"parameters\":[{\"in\":\"body\",\"name\":\"body\",\"required\":true,"
+                + "\"schema\":{\"$ref\":\"#/definitions/Child\"}}],\"responses\":{\"200\":{\"description\":\"pet\",\"schema\":{\"$ref\":\"#/definitions/Child\"}}}}}},"
+                + "\"definitions\":{\"Mixin\":{\"type\":\"object\",\"properties\":{\"tag\":{\"type\":\"string\"}}},"
+                + "\"Parent\":{\"type\":\"object\",\"discriminator\":\"kind\",\"required\":[\"kind\"],"
+                + "\"properties\":{\"kind\":{\"type\":\"string\"}}},"
+                + "\"Child\":{\"allOf\":[{\"$ref\":\"#/definitions/Mixin\"},{\"$ref\":\"#/definitions/Parent\"},"
+                + "{\"type\":\"object\",\"properties\":{\"age\":{\"type\":\"integer\"}}}]}}}");
+        final BatchInput input = new BatchInput();
+        input.setSpec(spec);
+        input.setTargets(Arrays.asList(new BatchTarget("swagger", null), new BatchTarget("java", null)));
+        List<Generated> bundles = Generator.generateBatch(input);
+
+        JsonNode swagger = new ObjectMapper().readTree(bundles.get(0).getOutput().getFiles().get("swagger.json"));
+        assertEquals(swagger.at("/paths/~1v1~1pets/get/responses/200/schema/$ref").asText(),
+                "#/definitions/inline_response_200");
+        // the parent of Child is Parent, its discriminator, not Mixin, its first reference
+        String child = new String(bundles.get(1).getOutput().getFiles().get(
+                "core/src/main/java/com/huawei/openstack4j/openstack/batch/v1/domain/PetResp.java"), StandardCharsets.UTF_8);
+        assertTrue(child.contains("private String tag;"), child);
+        assertFalse(child.contains("private String kind;"), child);
+
+        // the same files as generating each target on its own
+        for (int i = 0; i < bundles.size(); i++) {
+            Generated single = Generator.render(input.getTargets().get(i).getLanguage(), Type.CLIENT, null,
+                    Generator.flatten(new SwaggerParser().read(spec)).copy(), true);
+            Map<String, byte[]> files = bundles.get(i).getOutput().getFiles();
+            assertEquals(files.keySet(), single.getOutput().getFiles().keySet());
+            for (Map.Entry<String, byte[]> file : single.getOutput().getFiles().entrySet()) {
+                assertEquals(new String(files.get(file.getKey()), StandardCharsets.UTF_8),
+                        new String(file.getValue(), StandardCharsets.UTF_8), file.getKey());
+            }
+        }
+    }
+
+    @Test
+    public void generateBatchMaxTargetsTest() throws ApiException, IOException {
+        final BatchInput input = new BatchInput();
+        input.setSpec(readSpec());
+        input.setTargets(Arrays.asList(new BatchTarget("swagger", null), new BatchTarget("swagger-yaml", null)));
+        System.setProperty(Generator.BATCH_MAX_TARGETS, "1");
+        try {
+            Generator.generateBatch(input);
+            fail("too many targets");
+        } catch (BadRequestException e) {
+            assertEquals(e.getMessage(), "At most 1 targets can be generated at once");
+        } finally {
+            System.clearProperty(Generator.BATCH_MAX_TARGETS);
+        }
+    }
+
+    @Test
+    public void externalRefsTest() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        assertFalse(Generator.hasExternalRefs(mapper.readTree(
+                "{\"definitions\": {\"A\": {\"$ref\": \"#/definitions/B\"}, \"C\": {\"$ref\": \"B\"}}}")));
+        assertTrue(Generator.hasExternalRefs(mapper.readTree(
+                "{\"paths\": {\"/a\": {\"get\": {\"parameters\": [{\"$ref\": \"params.yaml#/id\"}]}}}}")));
+        assertTrue(Generator.hasExternalRefs(mapper.readTree(
+                "{\"definitions\": {\"A\": {\"$ref\": \"https://example.com/models\"}}}")));
+    }
+
+    @Test(expectedExceptions = BadRequestException.class)
+    public void generateBatchTypeTest() throws ApiException, IOException {
+        final BatchInput input = new BatchInput();
+        input.setSpec(readSpec());
+        input.setTargets(Collections.singletonList(new BatchTarget("swagger", "documentation")));
+        Generator.generateBatch(input);
+    }
+
+    private JsonNode readSpec() throws IOException {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("petstore.json");
+        try {
+            return new ObjectMapper().readTree(IOUtils.toString(in, StandardCharsets.UTF_8));
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.swagger.generator.online;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.swagger.codegen.CodegenConfigLoader;
+import io.swagger.codegen.CodegenModel;
+import io.swagger.codegen.DefaultCodegen;
+import io.swagger.generator.model.GeneratorInput;
+import io.swagger.models.Model;
+import io.swagger.models.Swagger;
+import io.swagger.models.auth.AuthorizationValue;
+import io.swagger.parser.SwaggerParser;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+public class SpecCacheTest {
+    private static final String ALL_OF = "{\"swagger\": \"2.0\", \"info\": {\"title\": \"allOf\", \"version\": \"1\"}, "
+            + "\"paths\": {}, \"definitions\": {"
+            + "\"Mixin\": {\"type\": \"object\", \"properties\": {\"tag\": {\"type\": \"string\"}}}, "
+            + "\"Parent\": {\"type\": \"object\", \"discriminator\": \"kind\", \"required\": [\"kind\"], "
+            + "\"properties\": {\"kind\": {\"type\": \"string\"}}}, "
+            + "\"Child\": {\"allOf\": [{\"$ref\": \"#/definitions/Mixin\"}, {\"$ref\": \"#/definitions/Parent\"}, "
+            + "{\"type\": \"object\", \"properties\": {\"age\": {\"type\": \"integer\"}}}]}}}";
+    private HttpServer server;
+    private byte[] spec;
+    private volatile String etag;
+    private volatile String apiKey;
+    private volatile int requests;
+    private volatile int modelRequests;
+    private volatile String petProperty;
+
+    @BeforeMethod
+    public void startServer() throws IOException {
+        etag = "\"v1\"";
+        requests = 0;
+        modelRequests = 0;
+        petProperty = "name";
+        InputStream in = getClass().getClassLoader().getResourceAsStream("petstore.json");
+        try {
+            spec = IOUtils.toByteArray(in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/swagger.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests++;
+                apiKey = exchange.getRequestHeaders().getFirst("api_key");
+                if (etag != null) {
+                    exchange.getResponseHeaders().set("ETag", etag);
+                    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        exchange.sendResponseHeaders(304, -1);
+                        exchange.close();
+                        return;
+                    }
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, spec.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(spec);
+                out.close();
+            }
+        });
+        server.createContext("/refs.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests++;
+                send(exchange, ("{\"swagger\": \"2.0\", \"info\": {\"title\": \"refs\", \"version\": \"1\"}, "
+                        + "\"paths\": {\"/pet\": {\"get\": {\"responses\": {\"200\": {\"description\": \"ok\", "
+                        + "\"schema\": {\"$ref\": \"./models.json#/Pet\"}}}}}}}").getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/models.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                modelRequests++;
+                send(exchange, ("{\"Pet\": {\"type\": \"object\", \"properties\": {\"" + petProperty
+                        + "\": {\"type\": \"string\"}}}}").getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/allof.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, ALL_OF.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+    }
+
+    private static void send(HttpExchange exchange, byte[] content) throws IOException {
+        exchange.getResponseHeaders().set("ETag", "\"v1\"");
+        if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, content.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(content);
+        out.close();
+    }
+
+    @AfterMethod
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void revalidationTest() {
+        SpecCache cache = new SpecCache(Long.MAX_VALUE);
+        String url = url();
+
+        Swagger first = cache.read(url, null);
+        assertNotNull(first);
+        assertEquals(cache.getParsed(), 1);
+        // callers can change their copy
+        first.getPaths().clear();
+
+        Swagger second = cache.read(url, null);
+        assertNotSame(second, first);
+        assertFalse(second.getPaths().isEmpty());
+        assertEquals(cache.getNotModified(), 1);
+        assertEquals(cache.getParsed(), 1);
+        assertEquals(requests, 2);
+
+        // without validators the content is compared
+        etag = null;
+        assertNotNull(cache.read(url, null));
+        assertNotNull(cache.read(url, null));
+        assertEquals(cache.getUnchanged(), 2);
+        assertEquals(cache.getParsed(), 1);
+    }
+
+    @Test
+    public void authorizationTest() {
+        SpecCache cache = new SpecCache(Long.MAX_VALUE);
+        String url = url();
+
+        assertNotNull(cache.read(url, null));
+        assertNotNull(cache.read(url, new AuthorizationValue("api_key", "secret", "header")));
+        assertEquals(apiKey, "secret");
+        assertEquals(cache.getEntries(), 2);
+        assertEquals(cache.getParsed(), 2);
+
+        assertNotNull(cache.read(url, new AuthorizationValue("api_key", "secret", "header")));
+        assertEquals(cache.getNotModified(), 1);
+    }
+
+    @Test
+    public void generateTest() throws Exception {
+        GeneratorInput input = new GeneratorInput();
+        input.setSwaggerUrl(url());
+        // different options, so that the bundle isn't taken from the bundle cache
+        input.setOptions(Collections.singletonMap("x-spec-cache-test", "1"));
+        String first = new String(Generator.generateClientBundle("swagger", input).getOutput().getFiles()
+                .get("swagger.json"), StandardCharsets.UTF_8);
+
+        // the second generation works on a copy of the cached spec
+        input.setOptions(Collections.singletonMap("x-spec-cache-test", "2"));
+        String second = new String(Generator.generateClientBundle("swagger", input).getOutput().getFiles()
+                .get("swagger.json"), StandardCharsets.UTF_8);
+        assertEquals(second, first);
+        assertTrue(second.contains("/pet/{petId}"));
+        assertEquals(requests, 2);
+    }
+
+    @Test
+    public void composedModelTest() {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/allof.json";
+        SpecCache cache = new SpecCache(Long.MAX_VALUE);
+        cache.read(url, null);
+        Swagger copy = cache.read(url, null);
+        assertEquals(cache.getNotModified(), 1);
+        Swagger parsed = new SwaggerParser().read(url);
+
+        // the cached copy makes the same models as the spec parsed again
+        DefaultCodegen config = (DefaultCodegen) CodegenConfigLoader.forName("java");
+        for (Map.Entry<String, Model> definition : parsed.getDefinitions().entrySet()) {
+            CodegenModel expected = config.fromModel(definition.getKey(), definition.getValue(), parsed.getDefinitions());
+            CodegenModel actual = config.fromModel(definition.getKey(), copy.getDefinitions().get(definition.getKey()),
+                    copy.getDefinitions());
+            assertEquals(actual.parent, expected.parent, definition.getKey());
+            assertEquals(actual.discriminator, expected.discriminator, definition.getKey());
+            assertEquals(actual.vars.size(), expected.vars.size(), definition.getKey());
+        }
+        assertEquals(config.fromModel("Child", copy.getDefinitions().get("Child"), copy.getDefinitions()).parent,
+                "Parent");
+    }
+
+    @Test
+    public void externalRefsTest() {
+        final long[] now = {0};
+        SpecCache cache = new SpecCache(Long.MAX_VALUE, 1000) {
+            @Override
+            protected long now() {
+                return now[0];
+            }
+        };
+        String url = "http://localhost:" + server.getAddress().getPort() + "/refs.json";
+
+        Swagger first = cache.read(url, null);
+        assertTrue(first.getDefinitions().get("Pet").getProperties().containsKey("name"));
+        assertEquals(modelRequests, 1);
+
+        // the spec itself hasn't changed, and what it references isn't checked
+        petProperty = "nickname";
+        now[0] = 1000;
+        assertTrue(cache.read(url, null).getDefinitions().get("Pet").getProperties().containsKey("name"));
+        assertEquals(cache.getNotModified(), 1);
+        assertEquals(modelRequests, 1);
+
+        // until it's older than the maximum age
+        now[0] = 1001;
+        assertTrue(cache.read(url, null).getDefinitions().get("Pet").getProperties().containsKey("nickname"));
+        assertEquals(cache.getParsed(), 2);
+        assertEquals(modelRequests, 2);
+    }
+
+    @Test
+    public void sizeTest() {
+        SpecCache cache = new SpecCache(1);
+        assertNotNull(cache.read(url(), null));
+        assertEquals(cache.getEntries(), 0);
+        assertEquals(cache.getBytes(), 0);
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/swagger.json";
+    }
+}
@@ -0,0 +1,49 @@
+package io.swagger.generator.online;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import io.swagger.codegen.TemplateCache;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class WarmupTest {
+
+    @Test
+    public void warmupTest() {
+        TemplateCache.clear();
+        Warmup warmup = new Warmup(Arrays.asList("java", "jaxrs", "swagger", "no-such-generator"), true);
+        assertFalse(warmup.isReady());
+        assertEquals(warmup.getWarmupMillis(), -1);
+
+        warmup.run();
+        assertTrue(warmup.isReady());
+        assertEquals(warmup.getGenerators(), 4);
+        assertEquals(warmup.getWarmedGenerators(), 3);
+        assertEquals(warmup.getFailedGenerators(), 1);
+        assertTrue(warmup.getWarmupMillis() >= 0);
+        assertTrue(TemplateCache.size() > 0);
+
+        // a generation after the warm-up compiles nothing
+        long misses = TemplateCache.getMisses();
+        new Warmup(Arrays.asList("java", "jaxrs"), true).run();
+        assertEquals(TemplateCache.getMisses(), misses);
+    }
+
+    @Test
+    public void failedWarmupTest() {
+        // e.g. the embedded spec can't be read
+        Warmup warmup = new Warmup(null, false);
+        try {
+            warmup.run();
+            fail("there are no languages");
+        } catch (NullPointerException e) {
+            assertTrue(warmup.isReady());
+            assertTrue(warmup.getWarmupMillis() >= 0);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.swagger.generator.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class ByteRangeTest {
+
+    @Test
+    public void parseTest() {
+        assertRange(ByteRange.parse("bytes=0-9", 100), 0, 9);
+        assertRange(ByteRange.parse("bytes=90-", 100), 90, 99);
+        assertRange(ByteRange.parse("bytes=-10", 100), 90, 99);
+        assertRange(ByteRange.parse("bytes=-1000", 100), 0, 99);
+        assertRange(ByteRange.parse("bytes=50-1000", 100), 50, 99);
+        assertEquals(ByteRange.parse("bytes=50-59", 100).toContentRange(100), "bytes 50-59/100");
+    }
+
+    @Test
+    public void ignoredTest() {
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-9", 100));
+        assertNull(ByteRange.parse("bytes=0-9,20-29", 100));
+        assertNull(ByteRange.parse("bytes=9-0", 100));
+        assertNull(ByteRange.parse("bytes=a-b", 100));
+        assertNull(ByteRange.parse("bytes=10", 100));
+    }
+
+    @Test
+    public void unsatisfiableTest() {
+        ByteRange range = ByteRange.parse("bytes=100-", 100);
+        assertFalse(range.isSatisfiable());
+        assertEquals(range.toContentRange(100), "bytes */100");
+        assertFalse(ByteRange.parse("bytes=-0", 100).isSatisfiable());
+        assertFalse(ByteRange.parse("bytes=0-", 0).isSatisfiable());
+    }
+
+    @Test
+    public void transferTest() throws Exception {
+        File file = File.createTempFile("range", ".txt");
+        try {
+            Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteRange.parse("bytes=3-6", file.length()).transfer(file, out);
+            assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), "3456");
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertRange(ByteRange range, long start, long end) {
+        assertEquals(range.getStart(), start);
+        assertEquals(range.getEnd(), end);
+        assertEquals(range.getLength(), end - start + 1);
+    }
+}
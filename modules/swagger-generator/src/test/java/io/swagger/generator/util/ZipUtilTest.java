@@ -0,0 +1,283 @@
+package io.swagger.generator.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+public class ZipUtilTest {
+
+    @Test
+    public void zipTest() throws IOException {
+        Map<String, byte[]> files = files();
+        assertZip(new ZipUtil(), files);
+        assertZip(new ZipUtil(Deflater.BEST_SPEED, ZipUtil.COMPRESSED_EXTENSIONS, null, 1), files);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertZip(new ZipUtil(Deflater.BEST_COMPRESSION, ZipUtil.COMPRESSED_EXTENSIONS, executor, 3), files);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidLevelTest() {
+        new ZipUtil(10, ZipUtil.COMPRESSED_EXTENSIONS, null, 1);
+    }
+
+    @Test
+    public void tarTest() throws IOException {
+        Map<String, byte[]> files = files();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ZipUtil().tarFiles("client", files, out);
+
+        TarArchiveInputStream tar = new TarArchiveInputStream(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8.name());
+        Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+        Map<String, Integer> modes = new LinkedHashMap<String, Integer>();
+        TarArchiveEntry entry;
+        while ((entry = tar.getNextTarEntry()) != null) {
+            assertTrue(entry.isFile(), entry.getName());
+            entries.put(entry.getName(), IOUtils.toByteArray(tar));
+            modes.put(entry.getName(), entry.getMode() & 0777);
+        }
+
+        assertEquals(entries.keySet(), prefixed("client/", files.keySet()));
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertTrue(Arrays.equals(entries.get("client/" + file.getKey()), file.getValue()), file.getKey());
+        }
+        assertEquals(modes.get("client/gradlew").intValue(), 0755);
+        assertEquals(modes.get("client/README.md").intValue(), 0644);
+    }
+
+    @Test
+    public void zipFileTest() throws IOException {
+        // read through the central directory rather than the local headers
+        Map<String, byte[]> files = files();
+        File archive = File.createTempFile("bundle", ".zip");
+        try {
+            OutputStream out = new FileOutputStream(archive);
+            try {
+                new ZipUtil().compressFiles("client", files, out);
+            } finally {
+                out.close();
+            }
+
+            ZipFile zip = new ZipFile(archive, StandardCharsets.UTF_8);
+            try {
+                assertEquals(zip.size(), files.size());
+                for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                    ZipEntry entry = zip.getEntry("client/" + file.getKey());
+                    assertEquals(entry.getSize(), file.getValue().length, file.getKey());
+                    InputStream in = zip.getInputStream(entry);
+                    try {
+                        assertTrue(Arrays.equals(IOUtils.toByteArray(in), file.getValue()), file.getKey());
+                    } finally {
+                        in.close();
+                    }
+                }
+            } finally {
+                zip.close();
+            }
+
+            org.apache.commons.compress.archivers.zip.ZipFile commonsZip =
+                    new org.apache.commons.compress.archivers.zip.ZipFile(archive);
+            try {
+                Set<String> names = new HashSet<String>();
+                Enumeration<ZipArchiveEntry> entries = commonsZip.getEntries();
+                while (entries.hasMoreElements()) {
+                    ZipArchiveEntry entry = entries.nextElement();
+                    names.add(entry.getName());
+                    assertTrue(entry.getGeneralPurposeBit().usesUTF8ForNames(), entry.getName());
+                    assertEquals(entry.getUnixMode(), entry.getName().equals("client/gradlew") ? 0100755 : 0100644,
+                            entry.getName());
+                    InputStream in = commonsZip.getInputStream(entry);
+                    try {
+                        assertTrue(Arrays.equals(IOUtils.toByteArray(in),
+                                files.get(entry.getName().substring("client/".length()))), entry.getName());
+                    } finally {
+                        in.close();
+                    }
+                }
+                assertEquals(names, prefixed("client/", files.keySet()));
+            } finally {
+                commonsZip.close();
+            }
+        } finally {
+            archive.delete();
+        }
+    }
+
+    @Test
+    public void zip64Test() throws IOException {
+        // more entries than a zip without zip64 records holds
+        Map<String, byte[]> files = new LinkedHashMap<String, byte[]>();
+        for (int i = 0; i < 0x10000 + 10; i++) {
+            files.put("src/" + i + ".txt", Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+        }
+        files.put("gradlew", "#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+        File archive = File.createTempFile("bundle", ".zip");
+        try {
+            OutputStream out = new FileOutputStream(archive);
+            try {
+                new ZipUtil().compressFiles("client", files, out);
+            } finally {
+                out.close();
+            }
+            ZipFile zip = new ZipFile(archive);
+            try {
+                assertEquals(zip.size(), files.size());
+                InputStream in = zip.getInputStream(zip.getEntry("client/src/65545.txt"));
+                try {
+                    assertEquals(IOUtils.toString(in, StandardCharsets.UTF_8), "65545");
+                } finally {
+                    in.close();
+                }
+            } finally {
+                zip.close();
+            }
+            assertModes(archive, "client/gradlew", "client/src/0.txt");
+        } finally {
+            archive.delete();
+        }
+    }
+
+    @Test
+    public void zipFolderTest() throws IOException {
+        File folder = Files.createTempDirectory("client").toFile();
+        File archive = File.createTempFile("bundle", ".zip");
+        try {
+            // the file names on disk may not hold the other names of files()
+            Map<String, byte[]> files = new LinkedHashMap<String, byte[]>();
+            for (String name : Arrays.asList("README.md", "gradlew", "gradle/wrapper/gradle-wrapper.jar", "random.bin")) {
+                files.put(name, files().get(name));
+            }
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                FileUtils.writeByteArrayToFile(new File(folder, file.getKey()), file.getValue());
+            }
+            new ZipUtil().compressFiles(Collections.singletonList(folder), archive.getPath());
+
+            ZipFile zip = new ZipFile(archive, StandardCharsets.UTF_8);
+            try {
+                assertEquals(zip.size(), files.size());
+                for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                    ZipEntry entry = zip.getEntry(folder.getName() + "/" + file.getKey());
+                    InputStream in = zip.getInputStream(entry);
+                    try {
+                        assertTrue(Arrays.equals(IOUtils.toByteArray(in), file.getValue()), file.getKey());
+                    } finally {
+                        in.close();
+                    }
+                }
+                // compressed already, like the bundles kept in memory
+                assertEquals(zip.getEntry(folder.getName() + "/gradle/wrapper/gradle-wrapper.jar").getMethod(),
+                        ZipEntry.STORED);
+                assertEquals(zip.getEntry(folder.getName() + "/README.md").getMethod(), ZipEntry.DEFLATED);
+            } finally {
+                zip.close();
+            }
+            assertModes(archive, folder.getName() + "/gradlew", folder.getName() + "/README.md");
+        } finally {
+            FileUtils.deleteQuietly(folder);
+            archive.delete();
+        }
+    }
+
+    private static void assertModes(File archive, String executable, String file) throws IOException {
+        org.apache.commons.compress.archivers.zip.ZipFile zip = new org.apache.commons.compress.archivers.zip.ZipFile(archive);
+        try {
+            assertEquals(zip.getEntry(executable).getUnixMode(), 0100755);
+            assertEquals(zip.getEntry(file).getUnixMode(), 0100644);
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static void assertZip(ZipUtil zipUtil, Map<String, byte[]> files) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        zipUtil.compressFiles("client", files, out);
+
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        int count = 0;
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName().substring("client/".length());
+            // the entries are written in order
+            assertEquals(name, files.keySet().toArray()[count++]);
+            assertTrue(Arrays.equals(IOUtils.toByteArray(zip), files.get(name)), name);
+            if (name.endsWith(".jar") || name.equals("random.bin")) {
+                assertEquals(entry.getMethod(), ZipEntry.STORED, name);
+            } else if (files.get(name).length > 100) {
+                assertEquals(entry.getMethod(), ZipEntry.DEFLATED, name);
+            }
+        }
+        assertEquals(count, files.size());
+    }
+
+    private static Map<String, byte[]> files() {
+        Map<String, byte[]> files = new LinkedHashMap<String, byte[]>();
+        StringBuilder readme = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            readme.append("line ").append(i).append('\n');
+        }
+        files.put("README.md", readme.toString().getBytes(StandardCharsets.UTF_8));
+        files.put("gradlew", "#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+        files.put("gradle/wrapper/gradle-wrapper.jar", readme.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] random = new byte[10000];
+        new Random(42).nextBytes(random);
+        files.put("random.bin", random);
+        files.put("empty.txt", new byte[0]);
+        files.put("src/main/java/io/swagger/client/model/AVeryLongModelNameWhichIsGeneratedFromTheSpecification"
+                + "AndDoesNotFitIntoTheTarHeader.java", "class Model {}".getBytes(StandardCharsets.UTF_8));
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            deep.append("folder").append(i).append('/');
+        }
+        files.put(deep + "AVeryLongFileNameWhichDoesNotFitIntoTheTarHeaderNameFieldEvenWithoutItsFoldersSoItNeedsAPaxHeader.txt",
+                "été".getBytes(StandardCharsets.UTF_8));
+        files.put("docs/Modèle.md", "# Modèle".getBytes(StandardCharsets.UTF_8));
+        // only folder of a file, like the folders of empty packages
+        files.put("src/test/java/io/swagger/client/.gitkeep", new byte[0]);
+        return files;
+    }
+
+    private static Set<String> prefixed(String prefix, Set<String> names) {
+        Set<String> prefixed = new LinkedHashSet<String>();
+        for (String name : names) {
+            prefixed.add(prefix + name);
+        }
+        return prefixed;
+    }
+}